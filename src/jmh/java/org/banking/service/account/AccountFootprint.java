@@ -0,0 +1,114 @@
+package org.banking.service.account;
+
+import org.banking.service.model.CreateBankAccountRequest;
+import org.banking.service.storage.Journal;
+import org.banking.service.util.IdGenerator;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.List;
+
+/**
+ * Reports the heap, direct memory and collection pauses of {@link AccountServiceImpl} holding
+ * many accounts, with the {@link OffHeapAccountStore} against the {@link HeapAccountStore}.
+ * <p>
+ * Each store is filled through {@link AccountServiceImpl#createAccount} with fresh name and type
+ * strings per account, as deserialising each request produced them, and measured in turn with
+ * the other one unreachable. Heap is the growth in used heap after a full collection. The full
+ * pause is the collector time of one explicit full collection with the accounts live, and the
+ * young figures are the collections and collector time spent while allocating short-lived
+ * garbage around them.
+ * <p>
+ * Options: {@code --accounts} (default {@code 999999}, the whole account number space),
+ * {@code --accounts-per-user} (default {@code 4}) and {@code --churn-mb}, the garbage
+ * allocated for the young collection figures (default {@code 4096}).
+ */
+public final class AccountFootprint {
+    private static volatile Object sink;
+
+    private AccountFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int accounts = (int) AccountNumberAllocator.MAX_SEQUENCE;
+        int accountsPerUser = 4;
+        int churnMb = 4096;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("--accounts".equals(args[i])) accounts = Integer.parseInt(args[i + 1]);
+            else if ("--accounts-per-user".equals(args[i])) accountsPerUser = Integer.parseInt(args[i + 1]);
+            else if ("--churn-mb".equals(args[i])) churnMb = Integer.parseInt(args[i + 1]);
+            else throw new IllegalArgumentException("Unknown option " + args[i]);
+        }
+        System.out.printf("%-9s %10s %12s %12s %14s %12s %14s%n", "store", "accounts", "heap B/acct",
+                "direct B/acct", "full pause ms", "young GCs", "young total ms");
+        for (boolean offHeap : new boolean[] {true, false}) {
+            measure(offHeap, accounts, accountsPerUser, churnMb);
+        }
+    }
+
+    private static void measure(boolean offHeap, int accounts, int accountsPerUser, int churnMb) {
+        long heapBefore = usedHeap();
+        long directBefore = directMemory();
+        AccountServiceImpl service = new AccountServiceImpl(Journal.NONE, offHeap);
+        IdGenerator ids = new IdGenerator(0);
+        String userId = null;
+        for (int i = 0; i < accounts; i++) {
+            if (i % accountsPerUser == 0) userId = ids.next("usr-");
+            CreateBankAccountRequest request = new CreateBankAccountRequest();
+            request.setName("Account " + i);
+            request.setAccountType(new String("personal"));
+            service.createAccount(userId, request);
+        }
+        long heap = usedHeap() - heapBefore;
+        long direct = directMemory() - directBefore;
+
+        long[] before = collections();
+        System.gc();
+        long fullPause = collections()[1] - before[1];
+
+        before = collections();
+        for (long allocated = 0; allocated < (long) churnMb << 20; allocated += 64 * 1024) {
+            sink = new byte[64 * 1024];
+        }
+        long[] after = collections();
+        Reference.reachabilityFence(service);
+
+        System.out.printf("%-9s %10d %12.1f %12.1f %14d %12d %14d%n", offHeap ? "off-heap" : "heap",
+                accounts, (double) heap / accounts, (double) direct / accounts, fullPause,
+                after[2] - before[2], after[3] - before[3]);
+    }
+
+    /**
+     * Sums collector counts and times, split into full (old or mixed generation) and young collectors.
+     * @return full count, full millis, young count, young millis
+     */
+    private static long[] collections() {
+        long[] totals = new long[4];
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean gc : collectors) {
+            String name = gc.getName();
+            int offset = name.contains("Young") || name.contains("Scavenge") || name.equals("Copy")
+                    || name.contains("ParNew") ? 2 : 0;
+            totals[offset] += gc.getCollectionCount();
+            totals[offset + 1] += gc.getCollectionTime();
+        }
+        return totals;
+    }
+
+    private static long directMemory() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) return pool.getMemoryUsed();
+        }
+        return 0;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,66 @@
+package org.banking.service.account;
+
+import org.banking.service.model.BankAccountResponse;
+import org.banking.service.model.CreateBankAccountRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares balance updates through {@link AccountServiceImpl} and its {@link BalanceEngine} against the previous controller-level read-modify-write
+ * on {@link BankAccountResponse#setBalance(double)}, with several threads hitting one account.
+ * The legacy benchmarks are included only as a throughput baseline: they lose updates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class BalanceBenchmark {
+    private BankAccountResponse legacyAccount;
+    private AccountServiceImpl accountService;
+    private String accountNumber;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        legacyAccount = new BankAccountResponse();
+        legacyAccount.setBalance(1_000_000.0);
+        CreateBankAccountRequest request = new CreateBankAccountRequest();
+        request.setName("Benchmark Account");
+        request.setAccountType("personal");
+        accountService = new AccountServiceImpl();
+        accountNumber = accountService.createAccount("usr-bench", request).getAccountNumber();
+        accountService.deposit(accountNumber, 100_000_000L);
+    }
+
+    @Benchmark
+    public double legacyDeposit() {
+        legacyAccount.setBalance(legacyAccount.getBalance() + 1.25);
+        legacyAccount.setUpdatedTimestamp(OffsetDateTime.now());
+        return legacyAccount.getBalance();
+    }
+
+    @Benchmark
+    public double legacyWithdraw() {
+        double amount = 1.25;
+        if (amount > legacyAccount.getBalance()) {
+            return -1;
+        }
+        legacyAccount.setBalance(legacyAccount.getBalance() - amount);
+        legacyAccount.setUpdatedTimestamp(OffsetDateTime.now());
+        return legacyAccount.getBalance();
+    }
+
+    @Benchmark
+    public long serviceDeposit() {
+        return accountService.deposit(accountNumber, 125);
+    }
+
+    @Benchmark
+    public long serviceWithdraw() {
+        return accountService.withdraw(accountNumber, 125);
+    }
+}
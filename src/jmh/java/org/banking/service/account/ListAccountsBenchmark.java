@@ -0,0 +1,77 @@
+package org.banking.service.account;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.banking.service.controller.AccountController;
+import org.banking.service.model.CreateBankAccountRequest;
+import org.banking.service.model.ListBankAccountsResponse;
+import org.banking.service.model.ResponseSerializers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link AccountServiceImpl#listAccounts(String)} for a user owning a handful of
+ * accounts while the total number of accounts held by the service grows, and the
+ * {@code GET /v1/accounts} handler that also serializes the list.
+ * With the userId index the uncached score should stay flat across the {@code totalAccounts}
+ * params. With {@code cached=false} the user's cached list is invalidated before each call,
+ * as a balance change would, so every call rescans the store and reserializes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListAccountsBenchmark {
+    private static final String TARGET_USER = "usr-target";
+    private static final String AUTH_HEADER = "Bearer unused";
+    private static final int TARGET_ACCOUNTS = 5;
+    private static final int ACCOUNTS_PER_OTHER_USER = 4;
+
+    @Param({"1000", "100000", "900000"})
+    public int totalAccounts;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(ResponseSerializers.module()).build();
+    private AccountServiceImpl accountService;
+    private AccountController controller;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accountService = new AccountServiceImpl();
+        controller = new AccountController(accountService, null, objectMapper);
+        CreateBankAccountRequest request = new CreateBankAccountRequest();
+        request.setName("Benchmark Account");
+        request.setAccountType("personal");
+        for (int i = 0; i < TARGET_ACCOUNTS; i++) {
+            accountService.createAccount(TARGET_USER, request);
+        }
+        for (int i = TARGET_ACCOUNTS; i < totalAccounts; i++) {
+            accountService.createAccount("usr-" + (i / ACCOUNTS_PER_OTHER_USER), request);
+        }
+    }
+
+    @Benchmark
+    public ListBankAccountsResponse listAccountsForUser() {
+        if (!cached) {
+            accountService.accountListCache().invalidate(TARGET_USER);
+        }
+        return accountService.listAccounts(TARGET_USER);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getAccounts() throws Exception {
+        if (!cached) {
+            accountService.accountListCache().invalidate(TARGET_USER);
+        }
+        return controller.listAccounts(AUTH_HEADER, TARGET_USER);
+    }
+}
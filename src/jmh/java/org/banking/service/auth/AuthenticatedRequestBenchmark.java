@@ -0,0 +1,84 @@
+package org.banking.service.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.banking.service.account.AccountServiceImpl;
+import org.banking.service.controller.AccountController;
+import org.banking.service.ledger.PartitionedLedger;
+import org.banking.service.model.BankAccountResponse;
+import org.banking.service.model.CreateBankAccountRequest;
+import org.banking.service.model.ResponseSerializers;
+import org.banking.service.transactions.TransactionServiceImpl;
+import org.banking.service.util.JwtUtil;
+import org.banking.service.util.ValidationUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request work of {@code GET /v1/accounts/{accountNumber}} before and after
+ * authenticating in {@link AuthenticationFilter}. The legacy benchmark reproduces the previous
+ * handler, which verified the token inside the ownership check and fetched the account twice.
+ * Both build the same mock request, so the servlet plumbing cost is shared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticatedRequestBenchmark {
+    private AccountServiceImpl accountService;
+    private PartitionedLedger ledger;
+    private AccountController controller;
+    private AuthenticationFilter filter;
+    private String authHeader;
+    private String accountNumber;
+
+    @Setup
+    public void setUp() {
+        accountService = new AccountServiceImpl();
+        ledger = new PartitionedLedger(accountService, new TransactionServiceImpl(), 1);
+        controller = new AccountController(accountService, ledger, new ObjectMapper().registerModule(ResponseSerializers.module()));
+        filter = new AuthenticationFilter();
+        authHeader = "Bearer " + JwtUtil.generateToken("usr-bench");
+        CreateBankAccountRequest request = new CreateBankAccountRequest();
+        request.setName("Benchmark Account");
+        request.setAccountType("personal");
+        accountNumber = accountService.createAccount("usr-bench", request).getAccountNumber();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ledger.close();
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/accounts/" + accountNumber);
+        request.addHeader("Authorization", authHeader);
+        return request;
+    }
+
+    @Benchmark
+    public ResponseEntity<?> legacyFetchAccount() throws Exception {
+        MockHttpServletRequest request = request();
+        new MockFilterChain().doFilter(request, new MockHttpServletResponse());
+        String authHeader = request.getHeader("Authorization");
+        ValidationUtil.validateAccountNumber(accountNumber);
+        ValidationUtil.validateAuthHeaderForAccount(authHeader, accountService.fetchAccount(accountNumber));
+        BankAccountResponse account = accountService.fetchAccount(accountNumber);
+        return new ResponseEntity<>(account, HttpStatus.OK);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> filteredFetchAccount() throws Exception {
+        MockHttpServletRequest request = request();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        String principal = (String) request.getAttribute(AuthenticationFilter.PRINCIPAL);
+        return controller.fetchAccount(accountNumber, request.getHeader("Authorization"), principal);
+    }
+}
@@ -0,0 +1,91 @@
+package org.banking.service.ledger;
+
+import org.banking.service.account.AccountServiceImpl;
+import org.banking.service.model.CreateBankAccountRequest;
+import org.banking.service.model.CreateTransactionRequest;
+import org.banking.service.model.TransactionResponse;
+import org.banking.service.storage.Journal;
+import org.banking.service.storage.WriteAheadLog;
+import org.banking.service.transactions.TransactionServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures single-transaction throughput through {@link PartitionedLedger} at several partition
+ * counts, with {@value #THREADS} request threads each depositing into one of {@value #ACCOUNTS}
+ * accounts chosen at random. Services are rebuilt for each iteration so the history does not
+ * grow without bound; with {@code wal} they write to a write-ahead log in a temporary
+ * directory, and the commit is shared by everything each worker drains at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(LedgerBenchmark.THREADS)
+@Fork(1)
+public class LedgerBenchmark {
+    static final int THREADS = 16;
+    private static final int ACCOUNTS = 1_000;
+
+    @Param({"1", "4", "8", "16"})
+    public int partitions;
+
+    @Param({"none", "wal"})
+    public String journal;
+
+    private Path dir;
+    private WriteAheadLog wal;
+    private PartitionedLedger ledger;
+    private String[] accountNumbers;
+    private CreateTransactionRequest deposit;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        Journal target = Journal.NONE;
+        if ("wal".equals(journal)) {
+            dir = Files.createTempDirectory("ledger-bench");
+            wal = WriteAheadLog.open(dir.resolve("banking.wal"), Duration.ofMillis(1));
+            target = wal;
+        }
+        AccountServiceImpl accountService = new AccountServiceImpl(target);
+        ledger = new PartitionedLedger(accountService, new TransactionServiceImpl(target), partitions);
+        CreateBankAccountRequest create = new CreateBankAccountRequest();
+        create.setName("Benchmark Account");
+        create.setAccountType("personal");
+        List<String> created = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            created.add(accountService.createAccount("usr-abc123", create).getAccountNumber());
+        }
+        accountNumbers = created.toArray(new String[0]);
+        deposit = new CreateTransactionRequest();
+        deposit.setAmount(1.0);
+        deposit.setCurrency("GBP");
+        deposit.setType("deposit");
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        ledger.close();
+        if (wal != null) {
+            wal.close();
+            Files.deleteIfExists(dir.resolve("banking.wal"));
+            Files.deleteIfExists(dir);
+            wal = null;
+        }
+    }
+
+    @Benchmark
+    public TransactionResponse createTransaction() {
+        String accountNumber = accountNumbers[ThreadLocalRandom.current().nextInt(ACCOUNTS)];
+        return ledger.createTransaction(accountNumber, deposit);
+    }
+}
@@ -0,0 +1,93 @@
+package org.banking.service.ledger;
+
+import org.banking.service.account.AccountServiceImpl;
+import org.banking.service.model.CreateBankAccountRequest;
+import org.banking.service.model.TransferRequest;
+import org.banking.service.model.TransferResponse;
+import org.banking.service.storage.Journal;
+import org.banking.service.storage.WriteAheadLog;
+import org.banking.service.transactions.TransactionServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures transfer throughput through {@link PartitionedLedger} under contention:
+ * {@value #THREADS} request threads each move one penny between two of {@value #ACCOUNTS}
+ * accounts chosen at random, so most transfers cross partitions and every pair of partitions is
+ * crossed in both directions. The accounts are set up once per trial rather than per iteration,
+ * since with this many threads the others would spin while one rebuilds them; with {@code wal}
+ * the services write to a write-ahead log in a temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(TransferBenchmark.THREADS)
+@Fork(1)
+public class TransferBenchmark {
+    static final int THREADS = 32;
+    private static final int ACCOUNTS = 10_000;
+
+    @Param({"1", "4", "16"})
+    public int partitions;
+
+    @Param({"none", "wal"})
+    public String journal;
+
+    private Path dir;
+    private WriteAheadLog wal;
+    private PartitionedLedger ledger;
+    private String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Journal target = Journal.NONE;
+        if ("wal".equals(journal)) {
+            dir = Files.createTempDirectory("transfer-bench");
+            wal = WriteAheadLog.open(dir.resolve("banking.wal"), Duration.ofMillis(1));
+            target = wal;
+        }
+        AccountServiceImpl accountService = new AccountServiceImpl(target);
+        ledger = new PartitionedLedger(accountService, new TransactionServiceImpl(target), partitions);
+        CreateBankAccountRequest create = new CreateBankAccountRequest();
+        create.setName("Benchmark Account");
+        create.setAccountType("personal");
+        accountNumbers = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers[i] = accountService.createAccount("usr-abc123", create).getAccountNumber();
+            // Enough that no transfer is refused; the opening balance is not journalled.
+            accountService.deposit(accountNumbers[i], 100_000_000);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ledger.close();
+        if (wal != null) {
+            wal.close();
+            Files.deleteIfExists(dir.resolve("banking.wal"));
+            Files.deleteIfExists(dir);
+            wal = null;
+        }
+    }
+
+    @Benchmark
+    public TransferResponse transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountNumber(accountNumbers[from]);
+        request.setToAccountNumber(accountNumbers[to]);
+        request.setAmount(0.01);
+        request.setCurrency("GBP");
+        return ledger.transfer(request);
+    }
+}
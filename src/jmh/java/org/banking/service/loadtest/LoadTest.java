@@ -0,0 +1,162 @@
+package org.banking.service.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load generator for comparing request execution modes.
+ * <p>
+ * Each virtual connection sends a request, waits for the response and immediately sends the
+ * next, so the number of requests in flight equals the connection count. For every count the
+ * run warms up, then reports throughput and p50/p99 latency over the measurement window. The
+ * service is driven over the network and must already be running, e.g. once with
+ * {@code --banking.threads.virtual=true} and once without; the {@code --mode} label only tags
+ * the output.
+ * <p>
+ * Options: {@code --url} (default {@code http://localhost:8080}), {@code --connections}
+ * (comma-separated, default {@code 200,2000,20000}), {@code --workload} ({@code read} fetches an
+ * account, {@code write} deposits to it; default {@code write}), {@code --warmup} and
+ * {@code --duration} in seconds (defaults 5 and 15), and {@code --mode}.
+ */
+public final class LoadTest {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final HttpClient client;
+    private final URI base;
+    private String token;
+    private String accountNumber;
+
+    private LoadTest(URI base) {
+        this.base = base;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        LoadTest test = new LoadTest(URI.create(options.getOrDefault("url", "http://localhost:8080")));
+        String workload = options.getOrDefault("workload", "write");
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "15")));
+        String mode = options.getOrDefault("mode", "unlabelled");
+
+        test.setUp();
+        System.out.printf("%-10s %-8s %12s %12s %10s %10s %8s%n",
+                "mode", "workload", "connections", "req/s", "p50 ms", "p99 ms", "errors");
+        for (String connections : options.getOrDefault("connections", "200,2000,20000").split(",")) {
+            int n = Integer.parseInt(connections.trim());
+            test.run(workload, n, warmup);
+            Result result = test.run(workload, n, duration);
+            System.out.printf("%-10s %-8s %12d %12.0f %10.2f %10.2f %8d%n", mode, workload, n,
+                    result.count.sum() / (duration.toNanos() / 1e9),
+                    result.latencies.percentileMicros(50) / 1000.0,
+                    result.latencies.percentileMicros(99) / 1000.0,
+                    result.errors.sum());
+        }
+    }
+
+    /**
+     * Creates the user and account the workload runs against and logs in.
+     */
+    private void setUp() throws IOException, InterruptedException {
+        JsonNode user = send(post("/v1/users", null, "{\"name\":\"Load Test\",\"address\":{\"line1\":\"1 High Street\","
+                + "\"town\":\"London\",\"county\":\"Greater London\",\"postcode\":\"SW1A 1AA\"},"
+                + "\"phoneNumber\":\"+441234567890\",\"email\":\"load@example.com\"}"));
+        String userId = user.get("id").asText();
+        token = send(post("/v1/auth/login", null, "{\"userId\":\"" + userId + "\"}")).get("token").asText();
+        accountNumber = send(post("/v1/accounts", token, "{\"name\":\"Load Test\",\"accountType\":\"personal\"}"))
+                .get("accountNumber").asText();
+    }
+
+    /**
+     * Keeps a fixed number of requests in flight for a period.
+     */
+    private Result run(String workload, int connections, Duration period) throws InterruptedException {
+        HttpRequest request = "read".equals(workload)
+                ? HttpRequest.newBuilder(base.resolve("/v1/accounts/" + accountNumber))
+                        .header("Authorization", "Bearer " + token).GET().build()
+                : post("/v1/accounts/" + accountNumber + "/transactions", token,
+                        "{\"amount\":1.0,\"currency\":\"GBP\",\"type\":\"deposit\"}");
+        Result result = new Result();
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder inFlight = new LongAdder();
+        for (int i = 0; i < connections; i++) {
+            loop(request, result, running, inFlight);
+        }
+        Thread.sleep(period.toMillis());
+        running.set(false);
+        long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        while (inFlight.sum() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return result;
+    }
+
+    private void loop(HttpRequest request, Result result, AtomicBoolean running, LongAdder inFlight) {
+        if (!running.get()) return;
+        inFlight.increment();
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            inFlight.decrement();
+            if (!running.get()) return;
+            if (failure != null || response.statusCode() >= 300) {
+                result.errors.increment();
+            } else {
+                result.latencies.record(System.nanoTime() - start);
+                result.count.increment();
+            }
+            loop(request, result, running, inFlight);
+        });
+    }
+
+    private HttpRequest post(String path, String bearer, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (bearer != null) {
+            builder.header("Authorization", "Bearer " + bearer);
+        }
+        return builder.build();
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IOException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return JSON.readTree(response.body());
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * Outcome of one measurement window.
+     */
+    private static final class Result {
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,128 @@
+package org.banking.service.storage;
+
+import org.banking.service.account.AccountServiceImpl;
+import org.banking.service.model.CreateBankAccountRequest;
+import org.banking.service.model.CreateTransactionRequest;
+import org.banking.service.model.UpdateBankAccountRequest;
+import org.banking.service.transactions.TransactionServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures startup recovery time against history size: replaying the whole write-ahead log
+ * versus loading a snapshot and replaying the log tail written after it. Each account is
+ * renamed several times, so the log also carries superseded records that compaction drops.
+ * The full log is copied aside before the snapshot discards it; the transactions the snapshot
+ * moves to history files are only read when an account's history is first used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RecoveryBenchmark {
+    private static final int ACCOUNTS = 1_000;
+    private static final int RENAMES = 20;
+    private static final int WRITERS = 64;
+
+    @Param({"10000", "100000", "1000000"})
+    public int transactions;
+
+    private Path dir;
+    private Path walFile;
+    private Path fullLogFile;
+    private Path snapshotFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("recovery-bench");
+        walFile = dir.resolve("banking.wal");
+        fullLogFile = dir.resolve("full.wal");
+        snapshotFile = dir.resolve("banking.snapshot");
+        try (WriteAheadLog wal = WriteAheadLog.open(walFile, Duration.ofMillis(1))) {
+            AccountServiceImpl accounts = new AccountServiceImpl(wal);
+            TransactionServiceImpl transactionService = new TransactionServiceImpl(wal);
+            List<String> accountNumbers = new ArrayList<>();
+            CreateBankAccountRequest create = new CreateBankAccountRequest();
+            create.setName("Benchmark Account");
+            create.setAccountType("personal");
+            for (int i = 0; i < ACCOUNTS; i++) {
+                accountNumbers.add(accounts.createAccount("usr-" + (i % 100), create).getAccountNumber());
+            }
+            ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                futures.add(writers.submit(() -> {
+                    for (int i = writer; i < ACCOUNTS * RENAMES; i += WRITERS) {
+                        UpdateBankAccountRequest rename = new UpdateBankAccountRequest();
+                        rename.setName("Renamed " + i);
+                        accounts.updateAccount(accountNumbers.get(i % ACCOUNTS), rename);
+                    }
+                    CreateTransactionRequest deposit = new CreateTransactionRequest();
+                    deposit.setAmount(1.0);
+                    deposit.setCurrency("GBP");
+                    deposit.setType("deposit");
+                    for (int i = writer; i < transactions; i += WRITERS) {
+                        String accountNumber = accountNumbers.get(i % ACCOUNTS);
+                        accounts.deposit(accountNumber, 100);
+                        transactionService.createTransaction(accountNumber, deposit);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            writers.shutdown();
+        }
+        Files.copy(walFile, fullLogFile);
+        try (SnapshottingJournal journal = SnapshottingJournal.open(walFile, Duration.ZERO, snapshotFile, Duration.ZERO)) {
+            journal.snapshot();
+        }
+        System.out.printf("%nfull log %,d bytes, snapshot %,d bytes, log after snapshot %,d bytes%n",
+                Files.size(fullLogFile), Files.size(snapshotFile), Files.size(walFile));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public AccountServiceImpl fullLogReplay() throws IOException {
+        try (WriteAheadLog wal = WriteAheadLog.open(fullLogFile, Duration.ZERO)) {
+            return recover(wal);
+        }
+    }
+
+    @Benchmark
+    public AccountServiceImpl snapshotReplay() throws IOException {
+        try (SnapshottingJournal journal = SnapshottingJournal.open(walFile, Duration.ZERO, snapshotFile, Duration.ZERO)) {
+            return recover(journal);
+        }
+    }
+
+    private static AccountServiceImpl recover(Journal journal) {
+        AccountServiceImpl accounts = new AccountServiceImpl(journal);
+        TransactionServiceImpl transactions = new TransactionServiceImpl(journal);
+        new JournalRecovery(journal, List.of(accounts, transactions)).afterSingletonsInstantiated();
+        return accounts;
+    }
+}
@@ -0,0 +1,104 @@
+package org.banking.service.transactions;
+
+import org.banking.service.account.AccountServiceImpl;
+import org.banking.service.ledger.PartitionedLedger;
+import org.banking.service.model.BatchTransactionRequest;
+import org.banking.service.model.BatchTransactionResponse;
+import org.banking.service.model.CreateBankAccountRequest;
+import org.banking.service.storage.Journal;
+import org.banking.service.storage.WriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures transaction throughput through {@link TransactionBatchServiceImpl} at several batch
+ * sizes. Every invocation submits {@value #TRANSACTIONS} deposits and withdrawals spread over
+ * {@value #ACCOUNTS} accounts, so the reported rate is transactions per second. Services are
+ * rebuilt for each iteration so the history does not grow without bound; with {@code wal} they
+ * write to a write-ahead log in a temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchSubmissionBenchmark {
+    private static final int TRANSACTIONS = 1_000;
+    private static final int ACCOUNTS = 100;
+    private static final String USER_ID = "usr-abc123";
+
+    @Param({"1", "10", "100", "1000"})
+    public int batchSize;
+
+    @Param({"none", "wal"})
+    public String journal;
+
+    private Path dir;
+    private WriteAheadLog wal;
+    private PartitionedLedger ledger;
+    private TransactionBatchServiceImpl batchService;
+    private List<List<BatchTransactionRequest>> batches;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        Journal target = Journal.NONE;
+        if ("wal".equals(journal)) {
+            dir = Files.createTempDirectory("batch-bench");
+            wal = WriteAheadLog.open(dir.resolve("banking.wal"), Duration.ofMillis(1));
+            target = wal;
+        }
+        AccountServiceImpl accountService = new AccountServiceImpl(target);
+        ledger = new PartitionedLedger(accountService, new TransactionServiceImpl(target), 1);
+        batchService = new TransactionBatchServiceImpl(accountService, ledger);
+        CreateBankAccountRequest create = new CreateBankAccountRequest();
+        create.setName("Benchmark Account");
+        create.setAccountType("personal");
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers.add(accountService.createAccount(USER_ID, create).getAccountNumber());
+        }
+        List<BatchTransactionRequest> items = new ArrayList<>(TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            BatchTransactionRequest item = new BatchTransactionRequest();
+            item.setAccountNumber(accountNumbers.get(i % ACCOUNTS));
+            item.setAmount(i % 4 == 3 ? 5.0 : 10.0);
+            item.setCurrency("GBP");
+            item.setType(i % 4 == 3 ? "withdrawal" : "deposit");
+            items.add(item);
+        }
+        batches = new ArrayList<>();
+        for (int from = 0; from < TRANSACTIONS; from += batchSize) {
+            batches.add(items.subList(from, Math.min(from + batchSize, TRANSACTIONS)));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        ledger.close();
+        if (wal != null) {
+            wal.close();
+            Files.deleteIfExists(dir.resolve("banking.wal"));
+            Files.deleteIfExists(dir);
+            wal = null;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSACTIONS)
+    public int submit() {
+        int created = 0;
+        for (List<BatchTransactionRequest> batch : batches) {
+            BatchTransactionResponse response = batchService.submit(USER_ID, batch);
+            created += response.getResults().size();
+        }
+        return created;
+    }
+}
@@ -0,0 +1,58 @@
+package org.banking.service.transactions;
+
+import org.banking.service.model.CreateTransactionRequest;
+import org.banking.service.model.TransactionResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link TransactionServiceImpl#fetchTransaction(String, String)}, which uses the
+ * log's id index, with the previous linear stream over every transaction of the account.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FetchTransactionBenchmark {
+    private static final String ACCOUNT_NUMBER = "01000001";
+
+    @Param({"10000", "100000", "1000000"})
+    public int transactionsPerAccount;
+
+    private TransactionServiceImpl transactionService;
+    private String[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transactionService = new TransactionServiceImpl();
+        CreateTransactionRequest request = new CreateTransactionRequest();
+        request.setAmount(10.0);
+        request.setCurrency("GBP");
+        request.setType("deposit");
+        ids = new String[transactionsPerAccount];
+        for (int i = 0; i < transactionsPerAccount; i++) {
+            ids[i] = transactionService.createTransaction(ACCOUNT_NUMBER, request).getId();
+        }
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public TransactionResponse indexedLookup() {
+        return transactionService.fetchTransaction(ACCOUNT_NUMBER, randomId());
+    }
+
+    @Benchmark
+    public TransactionResponse linearScan() {
+        String id = randomId();
+        List<TransactionResponse> txs = transactionService.listTransactions(ACCOUNT_NUMBER).getTransactions();
+        return txs.stream().filter(tx -> tx.getId().equals(id)).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,151 @@
+package org.banking.service.transactions;
+
+import org.banking.service.model.TransactionResponse;
+import org.banking.service.util.IdGenerator;
+import org.banking.service.util.MoneyUtil;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Reports the heap taken per stored transaction by the columnar {@link TransactionLog}, against
+ * the previous layout of one {@link TransactionResponse} object per transaction.
+ * <p>
+ * The previous layout is rebuilt as 1,024-slot segments of transaction objects, each with its
+ * own id, currency, type and reference strings and timestamp, as deserialising each request
+ * produced them, plus an id index the size of the log's. Each layout is measured as the growth in used
+ * heap after a full collection, with the other one unreachable.
+ * <p>
+ * The tiered layout is the columnar log with every full segment sealed into a
+ * {@link TransactionArchive} in a temporary directory, which is deleted afterwards; its heap is
+ * what the rows older than the hot window still cost. The size of the segment files is
+ * reported as well.
+ * <p>
+ * Options: {@code --rows} (default {@code 1000000}) and {@code --account-rows}, the
+ * transactions per account (default {@code 1000000}, one account). A small value shows the
+ * cost of many small logs.
+ */
+public final class TransactionFootprint {
+    private TransactionFootprint() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = 1_000_000;
+        int accountRows = 1_000_000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("--rows".equals(args[i])) rows = Integer.parseInt(args[i + 1]);
+            else if ("--account-rows".equals(args[i])) accountRows = Integer.parseInt(args[i + 1]);
+            else throw new IllegalArgumentException("Unknown option " + args[i]);
+        }
+        TransactionResponse[] input = transactions(rows);
+        long objects = objectLayout(input, accountRows);
+        long columns = columnarLayout(input, accountRows, TransactionArchive.NONE);
+        Path directory = Files.createTempDirectory("transaction-archive");
+        TransactionArchive archive = TransactionArchive.open(directory, Duration.ZERO, Duration.ZERO);
+        long tiered = columnarLayout(input, accountRows, archive);
+        archive.close();
+        long archived = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                archived += Files.size(file);
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+        System.out.printf("%-10s %12s %14s%n", "layout", "rows", "bytes/row");
+        System.out.printf("%-10s %12d %14.1f%n", "objects", rows, (double) objects / rows);
+        System.out.printf("%-10s %12d %14.1f%n", "columnar", rows, (double) columns / rows);
+        System.out.printf("%-10s %12d %14.1f%n", "tiered", rows, (double) tiered / rows);
+        System.out.printf("archived segments: %.1f bytes/row on disk%n", (double) archived / rows);
+    }
+
+    private static TransactionResponse[] transactions(int rows) {
+        IdGenerator ids = new IdGenerator(0);
+        OffsetDateTime start = OffsetDateTime.now().minusDays(1).truncatedTo(ChronoUnit.MICROS);
+        TransactionResponse[] transactions = new TransactionResponse[rows];
+        for (int i = 0; i < rows; i++) {
+            TransactionResponse tx = new TransactionResponse();
+            tx.setId(ids.next(TransactionLog.ID_PREFIX));
+            tx.setAmount(MoneyUtil.toPounds(1 + i % 100_000));
+            tx.setCurrency(new String("GBP"));
+            tx.setType(new String(i % 3 == 0 ? "withdrawal" : "deposit"));
+            tx.setReference("Invoice " + (10_000 + i % 90_000));
+            tx.setCreatedTimestamp(start.plus(i, ChronoUnit.MICROS));
+            transactions[i] = tx;
+        }
+        return transactions;
+    }
+
+    /**
+     * Measures copies of the transactions as separate objects, as the log used to hold them.
+     */
+    private static long objectLayout(TransactionResponse[] input, int accountRows) {
+        long before = usedHeap();
+        Object[] accounts = new Object[(input.length + accountRows - 1) / accountRows];
+        for (int a = 0; a < accounts.length; a++) {
+            int from = a * accountRows;
+            int count = Math.min(accountRows, input.length - from);
+            TransactionResponse[][] log = new TransactionResponse[Math.max(4, (count + 1023) / 1024)][];
+            for (int i = 0; i < count; i++) {
+                if (i % 1024 == 0) {
+                    log[i / 1024] = new TransactionResponse[1024];
+                }
+                TransactionResponse source = input[from + i];
+                TransactionResponse tx = new TransactionResponse();
+                tx.setId(new String(source.getId()));
+                tx.setAmount(source.getAmount());
+                tx.setCurrency(new String(source.getCurrency()));
+                tx.setType(new String(source.getType()));
+                tx.setReference(new String(source.getReference()));
+                tx.setCreatedTimestamp(OffsetDateTime.of(source.getCreatedTimestamp().toLocalDateTime(),
+                        source.getCreatedTimestamp().getOffset()));
+                log[i / 1024][i % 1024] = tx;
+            }
+            accounts[a] = new Object[] {log, new int[indexCapacity(count)]};
+        }
+        long used = usedHeap() - before;
+        Reference.reachabilityFence(accounts);
+        return used;
+    }
+
+    private static long columnarLayout(TransactionResponse[] input, int accountRows, TransactionArchive archive) {
+        long before = usedHeap();
+        TransactionLog[] accounts = new TransactionLog[(input.length + accountRows - 1) / accountRows];
+        for (int a = 0; a < accounts.length; a++) {
+            accounts[a] = new TransactionLog(archive);
+            int from = a * accountRows;
+            int count = Math.min(accountRows, input.length - from);
+            for (int i = 0; i < count; i++) {
+                accounts[a].append(input[from + i]);
+            }
+        }
+        // Seal whatever the sealer thread has not reached yet.
+        for (TransactionLog log : accounts) {
+            log.seal();
+        }
+        long used = usedHeap() - before;
+        Reference.reachabilityFence(accounts);
+        return used;
+    }
+
+    /** The size of the log's id index for a number of transactions: a power of two at least twice as large. */
+    private static int indexCapacity(int count) {
+        int capacity = 16;
+        while (capacity < count * 2) capacity <<= 1;
+        return capacity;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,41 @@
+package org.banking.service.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.banking.service.model.ErrorResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing a fixed error body to the response stream: building an {@link ErrorResponse}
+ * and serializing it with Jackson, as message converters did, against copying the
+ * pre-serialized {@link CannedError} bytes. Run with {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CannedErrorBenchmark {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+    @Benchmark
+    public int jackson() throws IOException {
+        out.reset();
+        ErrorResponse error = new ErrorResponse();
+        error.setMessage("Access token is missing or invalid");
+        mapper.writeValue(out, error);
+        return out.size();
+    }
+
+    @Benchmark
+    public int canned() throws IOException {
+        out.reset();
+        out.write((byte[]) CannedError.UNAUTHORIZED.response().getBody());
+        return out.size();
+    }
+}
@@ -0,0 +1,75 @@
+package org.banking.service.util;
+
+import org.banking.service.model.BadRequestErrorResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rejecting a malformed account number: the previous path, which threw an
+ * {@link IllegalArgumentException} with a full stack trace and picked the field by scanning the
+ * message, against a stackless {@link ValidationException} mapped by {@link ErrorUtil#toResponse}.
+ * The stack depth parameter stands in for the servlet and Spring frames above a controller.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+    @Param({"10", "80"})
+    public int stackDepth;
+
+    private String accountNumber = "01-bad";
+
+    @Benchmark
+    public ResponseEntity<?> legacy() {
+        return atDepth(stackDepth, true);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> typed() {
+        return atDepth(stackDepth, false);
+    }
+
+    private ResponseEntity<?> atDepth(int depth, boolean legacy) {
+        if (depth > 0) {
+            return atDepth(depth - 1, legacy);
+        }
+        return legacy ? legacyHandler() : typedHandler();
+    }
+
+    private ResponseEntity<?> legacyHandler() {
+        try {
+            if (!Formats.isAccountNumber(accountNumber)) {
+                throw new IllegalArgumentException("Invalid accountNumber format");
+            }
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException ex) {
+            String msg = ex.getMessage();
+            if (msg.contains("Authorization")) {
+                return new ResponseEntity<>(ErrorUtil.error("Access token is missing or invalid"), HttpStatus.UNAUTHORIZED);
+            }
+            String field = null;
+            if (msg.contains("accountNumber")) field = "accountNumber";
+            else if (msg.contains("transactionId")) field = "transactionId";
+            else if (msg.contains("amount")) field = "amount";
+            else if (msg.contains("currency")) field = "currency";
+            else if (msg.contains("type")) field = "type";
+            BadRequestErrorResponse error = ErrorUtil.badRequest(msg, java.util.List.of(ErrorUtil.detail(field, msg, "pattern")));
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private ResponseEntity<?> typedHandler() {
+        try {
+            ValidationUtil.validateAccountNumber(accountNumber);
+            return ResponseEntity.ok().build();
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
+        }
+    }
+}
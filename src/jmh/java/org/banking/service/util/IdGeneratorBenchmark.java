@@ -0,0 +1,43 @@
+package org.banking.service.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link IdGenerator#next(String)} with the previous {@code UUID.randomUUID()}
+ * truncation, single-threaded and with several threads drawing IDs at once. Run with
+ * {@code -prof gc} to compare allocation per ID.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+    private final IdGenerator generator = new IdGenerator(0);
+
+    @Benchmark
+    public String uuid() {
+        return "tan-" + UUID.randomUUID().toString().replace("-", "").substring(0, 7);
+    }
+
+    @Benchmark
+    public String generator() {
+        return generator.next("tan-");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String uuidContended() {
+        return uuid();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generatorContended() {
+        return generator();
+    }
+}
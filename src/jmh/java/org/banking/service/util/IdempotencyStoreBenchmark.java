@@ -0,0 +1,51 @@
+package org.banking.service.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures {@link IdempotencyStore#execute} on a full store: replaying a remembered key, and
+ * using a new key, which claims it, remembers the result and evicts the oldest key. Cost should
+ * not depend on the store size. Run with {@code -prof gc} to see allocation per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdempotencyStoreBenchmark {
+    private static final String RESULT = "tan-1234567";
+    private static final Supplier<String> ACTION = () -> RESULT;
+
+    @Param({"10000", "1000000"})
+    public int maxKeys;
+
+    private IdempotencyStore<String> store;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new IdempotencyStore<>(maxKeys, Duration.ofHours(24), result -> true);
+        keys = new String[maxKeys];
+        for (int i = 0; i < maxKeys; i++) {
+            keys[i] = "usr-abc123 key-" + i;
+            store.execute(keys[i], "fp", ACTION, null);
+        }
+    }
+
+    @Benchmark
+    public String replay() {
+        next = next + 1 == maxKeys ? 0 : next + 1;
+        return store.execute(keys[next], "fp", ACTION, null);
+    }
+
+    @Benchmark
+    public String newKey() {
+        return store.execute("usr-abc123 new-" + next++, "fp", ACTION, null);
+    }
+}
@@ -0,0 +1,34 @@
+package org.banking.service.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link JwtUtil#validateTokenAndGetSubject(String)}, which serves repeat tokens from
+ * the {@link TokenCache}, against decoding and verifying the token on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = JwtUtil.generateToken("usr-bench");
+    }
+
+    @Benchmark
+    public String cached() {
+        return JwtUtil.validateTokenAndGetSubject(token);
+    }
+
+    @Benchmark
+    public String uncached() {
+        return JwtUtil.verify(token).getSubject();
+    }
+}
@@ -0,0 +1,86 @@
+package org.banking.service.util;
+
+import org.banking.service.model.BadRequestErrorResponse;
+import org.banking.service.model.CreateTransactionRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the {@link Formats} scanners against the regular expressions they replaced, and
+ * measures request validation on the success path. Run with {@code -prof gc} to see that the
+ * scanners and a valid request allocate nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    private static final Pattern ACCOUNT_NUMBER_PATTERN = Pattern.compile("^01\\d{6}$");
+    private static final Pattern USER_ID_PATTERN = Pattern.compile("^usr-[A-Za-z0-9]+$");
+    private static final Pattern PHONE_NUMBER_PATTERN = Pattern.compile("^\\+[1-9]\\d{1,14}$");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
+
+    private String accountNumber = "01000001";
+    private String userId = "usr-abc123def456";
+    private String phoneNumber = "+441234567890";
+    private String email = "alice.smith@example.co.uk";
+    private CreateTransactionRequest transaction;
+
+    @Setup
+    public void setUp() {
+        transaction = new CreateTransactionRequest();
+        transaction.setAmount(10.0);
+        transaction.setCurrency("GBP");
+        transaction.setType("deposit");
+    }
+
+    @Benchmark
+    public boolean regexAccountNumber() {
+        return ACCOUNT_NUMBER_PATTERN.matcher(accountNumber).matches();
+    }
+
+    @Benchmark
+    public boolean scanAccountNumber() {
+        return Formats.isAccountNumber(accountNumber);
+    }
+
+    @Benchmark
+    public boolean regexUserId() {
+        return USER_ID_PATTERN.matcher(userId).matches();
+    }
+
+    @Benchmark
+    public boolean scanUserId() {
+        return Formats.isUserId(userId);
+    }
+
+    @Benchmark
+    public boolean regexPhoneNumber() {
+        return PHONE_NUMBER_PATTERN.matcher(phoneNumber).matches();
+    }
+
+    @Benchmark
+    public boolean scanPhoneNumber() {
+        return Formats.isPhoneNumber(phoneNumber);
+    }
+
+    @Benchmark
+    public boolean regexEmail() {
+        return EMAIL_PATTERN.matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean scanEmail() {
+        return Formats.isEmail(email);
+    }
+
+    @Benchmark
+    public List<BadRequestErrorResponse.Detail> validTransactionRequest() {
+        return ValidationUtil.validateCreateTransactionRequestAll(transaction);
+    }
+}
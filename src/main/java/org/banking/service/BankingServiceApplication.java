@@ -2,10 +2,60 @@ package org.banking.service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
 
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Entry point of the banking service.
+ * <p>
+ * Requests are served by Tomcat's platform thread pool unless {@code banking.threads.virtual=true},
+ * which runs each request on its own virtual thread instead. Virtual threads need Java 21; the
+ * mode is looked up reflectively so the service still builds for Java 17, and enabling it on an
+ * older runtime fails startup rather than silently falling back.
+ */
 @SpringBootApplication
 public class BankingServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(BankingServiceApplication.class, args);
     }
-}
\ No newline at end of file
+
+    /**
+     * Hands Tomcat's request processing to a virtual-thread-per-request executor.
+     * @return the protocol handler customizer
+     * @throws IllegalStateException if the runtime does not support virtual threads
+     */
+    @Bean
+    @ConditionalOnProperty(name = "banking.threads.virtual", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadExecutor() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor("http-vt-");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Creates an executor that starts a named virtual thread per task, through the Java 21
+     * {@code Thread.ofVirtual()} and {@code Executors.newThreadPerTaskExecutor} APIs.
+     * @param namePrefix the thread name prefix; a counter is appended
+     * @return the executor
+     * @throws IllegalStateException if the runtime does not support virtual threads
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (ClassNotFoundException | NoSuchMethodException ex) {
+            throw new IllegalStateException("banking.threads.virtual=true requires Java 21 or later, running on "
+                    + Runtime.version(), ex);
+        } catch (IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalStateException("Cannot create virtual thread executor", ex);
+        }
+    }
+}
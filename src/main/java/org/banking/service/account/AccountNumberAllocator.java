@@ -0,0 +1,112 @@
+package org.banking.service.account;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free allocator for account numbers in the {@code 01NNNNNN} format.
+ * <p>
+ * Numbers come from a single atomic sequence, handed out in blocks to a small set of
+ * stripes selected by thread. Each stripe packs its current block as {@code next << 32 | end}
+ * in one long, so taking a number is a single CAS on a mostly thread-private slot and the
+ * shared sequence is only touched once per block. A number is never issued twice, even
+ * after the account that held it is deleted.
+ */
+public class AccountNumberAllocator {
+    static final String PREFIX = "01";
+    static final int DIGITS = 6;
+    static final long MAX_SEQUENCE = 999_999;
+    private static final int DEFAULT_BLOCK_SIZE = 64;
+    // Stripes are spaced one cache line apart to avoid false sharing between threads.
+    private static final int STRIDE = 8;
+
+    private final AtomicLong sequence = new AtomicLong(1);
+    private final AtomicLongArray stripes;
+    private final int stripeMask;
+    private final int blockSize;
+
+    /**
+     * Constructs an allocator with the default block size and one stripe per available processor.
+     */
+    public AccountNumberAllocator() {
+        this(DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs an allocator.
+     * @param blockSize how many numbers a stripe reserves from the shared sequence at a time
+     * @param concurrency expected number of concurrently allocating threads, rounded up to a power of two
+     */
+    public AccountNumberAllocator(int blockSize, int concurrency) {
+        if (blockSize < 1) throw new IllegalArgumentException("blockSize must be positive");
+        int stripeCount = Integer.highestOneBit(Math.max(1, concurrency - 1) << 1);
+        this.blockSize = blockSize;
+        this.stripeMask = stripeCount - 1;
+        this.stripes = new AtomicLongArray(stripeCount * STRIDE);
+    }
+
+    /**
+     * Allocates the next account number.
+     * @return a formatted account number, unique for the lifetime of this allocator
+     * @throws IllegalStateException if the account number space is exhausted
+     */
+    public String next() {
+        return format(nextSequence());
+    }
+
+    /**
+     * Ensures no number at or below the given sequence is issued in future, e.g. after replaying persisted accounts.
+     * @param issuedSequence the numeric part of an account number that is already in use
+     */
+    public void advancePast(long issuedSequence) {
+        sequence.accumulateAndGet(issuedSequence + 1, Math::max);
+    }
+
+    /**
+     * Extracts the numeric sequence from a formatted account number.
+     * @param accountNumber an account number in the {@code 01NNNNNN} format
+     * @return the numeric part of the account number
+     */
+    public static long sequenceOf(String accountNumber) {
+        return Long.parseLong(accountNumber, PREFIX.length(), accountNumber.length(), 10);
+    }
+
+    private long nextSequence() {
+        int slot = (int) (Thread.currentThread().getId() & stripeMask) * STRIDE;
+        for (;;) {
+            long packed = stripes.get(slot);
+            long next = packed >>> 32;
+            long end = packed & 0xFFFF_FFFFL;
+            if (next < end) {
+                if (stripes.compareAndSet(slot, packed, ((next + 1) << 32) | end)) {
+                    return next;
+                }
+                continue;
+            }
+            long start = sequence.getAndAdd(blockSize);
+            if (start > MAX_SEQUENCE) {
+                throw new IllegalStateException("Account number space exhausted");
+            }
+            long blockEnd = Math.min(start + blockSize, MAX_SEQUENCE + 1);
+            // If another thread refilled the stripe first, the rest of this block is simply abandoned.
+            stripes.compareAndSet(slot, packed, ((start + 1) << 32) | blockEnd);
+            return start;
+        }
+    }
+
+    /**
+     * Formats a sequence number as an account number.
+     * @param sequence the numeric part, at most {@value #MAX_SEQUENCE}
+     * @return the account number in the {@code 01NNNNNN} format
+     */
+    static String format(long sequence) {
+        char[] chars = new char[PREFIX.length() + DIGITS];
+        chars[0] = PREFIX.charAt(0);
+        chars[1] = PREFIX.charAt(1);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = (char) ('0' + sequence % 10);
+            sequence /= 10;
+        }
+        return new String(chars);
+    }
+}
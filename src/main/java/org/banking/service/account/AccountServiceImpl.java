@@ -2,23 +2,86 @@ package org.banking.service.account;
 
 import org.banking.service.model.*;
 import org.banking.service.service.AccountService;
+import org.banking.service.storage.Journal;
+import org.banking.service.storage.Journaled;
+import org.banking.service.storage.RecordReader;
+import org.banking.service.storage.RecordType;
+import org.banking.service.storage.RecordWriter;
+import org.banking.service.util.TinyLfuCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Service implementation for account management.
- * Stores bank accounts in a thread-safe in-memory map.
+ * Stores bank accounts and their balances in an {@link AccountStore}: by default an
+ * {@link OffHeapAccountStore} of fixed-width records outside the Java heap, or with
+ * {@code banking.accounts.off-heap=false} a {@link HeapAccountStore} of one object per account.
+ * Account changes are written to the {@link Journal}, and balances are rebuilt from
+ * journalled transactions on startup.
+ * <p>
+ * Each user's account list is cached, up to {@code banking.accounts.list-cache.size} users
+ * chosen by a {@link TinyLfuCache}, so repeated listings neither rescan the store nor, once
+ * the controller has kept the serialized response, serialize it again. Every change to an
+ * account (creation, update, deletion or a balance change) invalidates its owner's entry.
  */
 @Service
-public class AccountServiceImpl implements AccountService {
-    private final Map<String, BankAccountResponse> accounts = new ConcurrentHashMap<>();
+public class AccountServiceImpl implements AccountService, Journaled {
+    private final AccountStore accounts;
+    private final AccountNumberAllocator accountNumberAllocator = new AccountNumberAllocator();
+    private final Journal journal;
+    private final TinyLfuCache<String, ListBankAccountsResponse> accountLists;
     private static final String SORT_CODE = "10-10-10";
     private static final String CURRENCY = "GBP";
+    private static final int DEFAULT_LIST_CACHE_SIZE = 100_000;
+
+    /**
+     * Constructs an AccountServiceImpl that keeps state in memory only.
+     */
+    public AccountServiceImpl() {
+        this(Journal.NONE);
+    }
+
+    /**
+     * Constructs an AccountServiceImpl that records account changes in the given journal and
+     * keeps accounts off the heap.
+     * @param journal the journal to write account changes to
+     */
+    public AccountServiceImpl(Journal journal) {
+        this(journal, true);
+    }
+
+    /**
+     * Constructs an AccountServiceImpl that records account changes in the given journal and
+     * caches the account lists of the default number of users.
+     * @param journal the journal to write account changes to
+     * @param offHeap whether to keep accounts in direct memory rather than as heap objects
+     */
+    public AccountServiceImpl(Journal journal, boolean offHeap) {
+        this(journal, offHeap, DEFAULT_LIST_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs an AccountServiceImpl that records account changes in the given journal.
+     * @param journal the journal to write account changes to
+     * @param offHeap whether to keep accounts in direct memory rather than as heap objects
+     * @param listCacheSize the maximum number of users whose account lists are cached
+     */
+    @Autowired
+    public AccountServiceImpl(Journal journal, @Value("${banking.accounts.off-heap:true}") boolean offHeap,
+                              @Value("${banking.accounts.list-cache.size:100000}") int listCacheSize) {
+        this.journal = journal;
+        this.accounts = offHeap ? new OffHeapAccountStore(SORT_CODE, CURRENCY) : new HeapAccountStore();
+        this.accountLists = new TinyLfuCache<>(listCacheSize);
+    }
 
     /**
      * Creates a new bank account for the given user.
@@ -29,7 +92,7 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public BankAccountResponse createAccount(String userId, CreateBankAccountRequest request) {
         String accountNumber = generateAccountNumber();
-        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime now = now();
         BankAccountResponse account = new BankAccountResponse();
         account.setAccountNumber(accountNumber);
         account.setSortCode(SORT_CODE);
@@ -40,28 +103,40 @@ public class AccountServiceImpl implements AccountService {
         account.setCreatedTimestamp(now);
         account.setUpdatedTimestamp(now);
         account.setUserId(userId);
-        accounts.put(accountNumber, account);
+        journal.append(RecordType.ACCOUNT, encode(account));
+        accounts.put(account);
+        accountLists.invalidate(userId);
         return account;
     }
 
     /**
-     * Lists all bank accounts for the given user.
+     * Lists all bank accounts for the given user, from the cache when the user's accounts have
+     * not changed since they were last listed. A cached response is shared by every caller and
+     * must not be modified.
      * @param userId the user ID
      * @return the list of bank accounts response
      */
     @Override
     public ListBankAccountsResponse listAccounts(String userId) {
-        ListBankAccountsResponse response = new ListBankAccountsResponse();
-        List<BankAccountResponse> filtered = new ArrayList<>();
-        for (BankAccountResponse acc : accounts.values()) {
-            if (userId.equals(acc.getUserId())) {
-                filtered.add(acc);
-            }
+        ListBankAccountsResponse cached = accountLists.get(userId);
+        if (cached != null) {
+            return cached;
         }
-        response.setAccounts(filtered);
+        long stamp = accountLists.stamp(userId);
+        ListBankAccountsResponse response = new ListBankAccountsResponse();
+        response.setAccounts(Collections.unmodifiableList(accounts.list(userId)));
+        accountLists.put(userId, response, stamp);
         return response;
     }
 
+    /**
+     * Gets the cache of account lists, for its hit rate and other statistics.
+     * @return the cache
+     */
+    public TinyLfuCache<String, ListBankAccountsResponse> accountListCache() {
+        return accountLists;
+    }
+
     /**
      * Fetches a bank account by account number.
      * @param accountNumber the account number
@@ -80,11 +155,10 @@ public class AccountServiceImpl implements AccountService {
      */
     @Override
     public BankAccountResponse updateAccount(String accountNumber, UpdateBankAccountRequest request) {
-        BankAccountResponse account = accounts.get(accountNumber);
+        BankAccountResponse account = accounts.update(accountNumber, request.getName(), request.getAccountType(), now());
         if (account != null) {
-            if (request.getName() != null) account.setName(request.getName());
-            if (request.getAccountType() != null) account.setAccountType(request.getAccountType());
-            account.setUpdatedTimestamp(OffsetDateTime.now());
+            journal.append(RecordType.ACCOUNT, encode(account));
+            accountLists.invalidate(account.getUserId());
         }
         return account;
     }
@@ -95,7 +169,244 @@ public class AccountServiceImpl implements AccountService {
      */
     @Override
     public void deleteAccount(String accountNumber) {
-        accounts.remove(accountNumber);
+        BankAccountResponse account = accounts.get(accountNumber);
+        if (account != null) {
+            journal.append(RecordType.ACCOUNT_DELETED, new RecordWriter().writeString(accountNumber).toByteArray());
+        }
+        if (accounts.remove(accountNumber) && account != null) {
+            accountLists.invalidate(account.getUserId());
+        }
+    }
+
+    /**
+     * Updates an existing bank account and queues the change for the journal without waiting
+     * for it. If the journal fails to record the change, the previous name and type are put
+     * back, unless a later update has already replaced them.
+     * @param accountNumber the account number
+     * @param request the update request
+     * @return a future of the updated bank account response, or of null if not found, completed
+     *         once the change is durable
+     */
+    @Override
+    public CompletableFuture<BankAccountResponse> updateAccountAsync(String accountNumber, UpdateBankAccountRequest request) {
+        BankAccountResponse before = accounts.get(accountNumber);
+        if (before == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String previousName = before.getName();
+        String previousType = before.getAccountType();
+        OffsetDateTime previousUpdated = before.getUpdatedTimestamp();
+        BankAccountResponse account = accounts.update(accountNumber, request.getName(), request.getAccountType(), now());
+        if (account == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String name = account.getName();
+        String accountType = account.getAccountType();
+        accountLists.invalidate(account.getUserId());
+        return journal.appendAllAsync(RecordType.ACCOUNT, List.of(encode(account))).handle((ignored, ex) -> {
+            if (ex == null) {
+                return account;
+            }
+            BankAccountResponse current = accounts.get(accountNumber);
+            if (current != null && Objects.equals(name, current.getName()) && Objects.equals(accountType, current.getAccountType())) {
+                accounts.update(accountNumber, previousName, previousType, previousUpdated);
+                accountLists.invalidate(current.getUserId());
+            }
+            throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
+        });
+    }
+
+    /**
+     * Queues the deletion of a bank account for the journal without waiting for it, and removes
+     * the account once the deletion is durable, so nothing needs undoing if the journal fails.
+     * The caller must treat the account as deleted in the meantime.
+     * @param accountNumber the account number
+     * @return a future completed once the deletion is durable and the account removed
+     */
+    @Override
+    public CompletableFuture<Void> deleteAccountAsync(String accountNumber) {
+        BankAccountResponse account = accounts.get(accountNumber);
+        if (account == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return journal.appendAllAsync(RecordType.ACCOUNT_DELETED,
+                List.of(new RecordWriter().writeString(accountNumber).toByteArray())).thenRun(() -> {
+            if (accounts.remove(accountNumber)) {
+                accountLists.invalidate(account.getUserId());
+            }
+        });
+    }
+
+    /**
+     * Credits an account without a balance limit check, which {@link #applyDebits} makes when
+     * the credit is accepted.
+     * @param accountNumber the account number
+     * @param amountPence the amount to credit, in pence
+     * @return the new balance in pence, or {@link AccountService#ACCOUNT_NOT_FOUND}
+     */
+    @Override
+    public long deposit(String accountNumber, long amountPence) {
+        return touch(accountNumber, accounts.deposit(accountNumber, amountPence));
+    }
+
+    /**
+     * Debits an account if it holds sufficient funds, without taking a lock.
+     * @param accountNumber the account number
+     * @param amountPence the amount to debit, in pence
+     * @return the new balance in pence, {@link AccountService#INSUFFICIENT_FUNDS} or {@link AccountService#ACCOUNT_NOT_FOUND}
+     */
+    @Override
+    public long withdraw(String accountNumber, long amountPence) {
+        return touch(accountNumber, accounts.withdraw(accountNumber, amountPence));
+    }
+
+    /**
+     * Applies a batch of credits and debits to one account with a single atomic balance update.
+     * @param accountNumber the account number
+     * @param amountsPence the signed amounts in pence, positive to credit and negative to debit
+     * @return the balance after each entry in pence, {@link AccountService#INSUFFICIENT_FUNDS}
+     *         or {@link AccountService#BALANCE_LIMIT}, or null if the account does not exist
+     */
+    @Override
+    public long[] applyAll(String accountNumber, long[] amountsPence) {
+        return touchApplied(accountNumber, accounts.applyAll(accountNumber, amountsPence));
+    }
+
+    /**
+     * Checks a batch of credits and debits against a running balance, publishing only their net
+     * debit. A net credit is left for the caller to {@link #deposit} once it has been recorded.
+     * @param accountNumber the account number
+     * @param amountsPence the signed amounts in pence, positive to credit and negative to debit
+     * @param heldPence credits accepted for the account but not yet deposited, in pence
+     * @return the running balance after each entry in pence, {@link AccountService#INSUFFICIENT_FUNDS}
+     *         or {@link AccountService#BALANCE_LIMIT}, or null if the account does not exist
+     */
+    @Override
+    public long[] applyDebits(String accountNumber, long[] amountsPence, long heldPence) {
+        return touchApplied(accountNumber, accounts.applyDebits(accountNumber, amountsPence, heldPence));
+    }
+
+    /**
+     * Updates an account's last update time after a batch of which at least one entry was accepted.
+     * @param accountNumber the account number
+     * @param results the results of the batch, or null if the account does not exist
+     * @return the results
+     */
+    private long[] touchApplied(String accountNumber, long[] results) {
+        if (results != null) {
+            for (long result : results) {
+                if (result >= 0) {
+                    touch(accountNumber, result);
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Restores account state from a journal record.
+     * @param type the record type
+     * @param record the record payload
+     */
+    @Override
+    public void restore(byte type, RecordReader record) {
+        if (type == RecordType.ACCOUNT) {
+            BankAccountResponse account = decode(record);
+            String accountNumber = account.getAccountNumber();
+            accountNumberAllocator.advancePast(AccountNumberAllocator.sequenceOf(accountNumber));
+            accounts.put(account);
+            accountLists.invalidate(account.getUserId());
+        } else if (type == RecordType.ACCOUNT_DELETED) {
+            String accountNumber = record.readString();
+            // Snapshots keep only the tombstone of a deleted account, so it must also reserve the number.
+            accountNumberAllocator.advancePast(AccountNumberAllocator.sequenceOf(accountNumber));
+            BankAccountResponse account = accounts.get(accountNumber);
+            if (accounts.remove(accountNumber) && account != null) {
+                accountLists.invalidate(account.getUserId());
+            }
+        } else if (type == RecordType.TRANSACTION) {
+            String accountNumber = record.readString();
+            long amountPence = record.readLong();
+            OffsetDateTime createdTimestamp = record.readTimestamp();
+            if (accounts.deposit(accountNumber, amountPence) != AccountService.ACCOUNT_NOT_FOUND) {
+                invalidateOwner(accounts.touch(accountNumber, createdTimestamp));
+            }
+        } else if (type == RecordType.BALANCE) {
+            String accountNumber = record.readString();
+            long balancePence = record.readLong();
+            OffsetDateTime touchedTimestamp = record.readTimestamp();
+            if (accounts.deposit(accountNumber, balancePence) != AccountService.ACCOUNT_NOT_FOUND && touchedTimestamp != null) {
+                invalidateOwner(accounts.touch(accountNumber, touchedTimestamp));
+            }
+        }
+    }
+
+    /**
+     * Encodes account metadata (everything except the balance) as a journal record.
+     * @param account the account
+     * @return the record payload
+     */
+    private static byte[] encode(BankAccountResponse account) {
+        return new RecordWriter()
+                .writeString(account.getAccountNumber())
+                .writeString(account.getUserId())
+                .writeString(account.getName())
+                .writeString(account.getAccountType())
+                .writeTimestamp(account.getCreatedTimestamp())
+                .writeTimestamp(account.getUpdatedTimestamp())
+                .toByteArray();
+    }
+
+    /**
+     * Decodes account metadata written by {@link #encode(BankAccountResponse)}.
+     * @param record the record payload
+     * @return the account, with a zero balance
+     */
+    private static BankAccountResponse decode(RecordReader record) {
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber(record.readString());
+        account.setUserId(record.readString());
+        account.setName(record.readString());
+        account.setAccountType(record.readString());
+        account.setCreatedTimestamp(record.readTimestamp());
+        account.setUpdatedTimestamp(record.readTimestamp());
+        account.setSortCode(SORT_CODE);
+        account.setCurrency(CURRENCY);
+        return account;
+    }
+
+    /**
+     * Stamps the account as updated when a balance operation succeeded, and invalidates its
+     * owner's cached account list.
+     * @param accountNumber the account number
+     * @param result the balance operation result
+     * @return the unchanged result
+     */
+    private long touch(String accountNumber, long result) {
+        if (result >= 0) {
+            invalidateOwner(accounts.touch(accountNumber, now()));
+        }
+        return result;
+    }
+
+    /**
+     * Invalidates a user's cached account list.
+     * @param userId the owner's user ID, or null if the account no longer exists
+     */
+    private void invalidateOwner(String userId) {
+        if (userId != null) {
+            accountLists.invalidate(userId);
+        }
+    }
+
+    /**
+     * Gets the current time, cut to the microseconds the off-heap store keeps, so an account
+     * reads back exactly as it was returned.
+     * @return the current time
+     */
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     /**
@@ -103,6 +414,6 @@ public class AccountServiceImpl implements AccountService {
      * @return the generated account number
      */
     private String generateAccountNumber() {
-        return "0100000" + (accounts.size() + 1);
+        return accountNumberAllocator.next();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,67 @@
+package org.banking.service.account;
+
+import org.banking.service.model.BankAccountResponse;
+import org.banking.service.service.AccountService;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Holds accounts and their balances for {@link AccountServiceImpl}, which journals every change
+ * before applying it here. Balance operations follow the contracts of {@link AccountService}.
+ */
+interface AccountStore {
+    /**
+     * Adds an account with a zero balance, or replaces the details of an existing account and
+     * keeps its balance.
+     * @param account the account details
+     */
+    void put(BankAccountResponse account);
+
+    /**
+     * Gets an account with its current balance.
+     * @param accountNumber the account number
+     * @return the account, or null if it does not exist
+     */
+    BankAccountResponse get(String accountNumber);
+
+    /**
+     * Lists a user's accounts with their current balances.
+     * @param userId the owner's user ID
+     * @return the accounts, empty if the user owns none
+     */
+    List<BankAccountResponse> list(String userId);
+
+    /**
+     * Updates an account's details.
+     * @param accountNumber the account number
+     * @param name the new name, or null to keep the current one
+     * @param accountType the new account type, or null to keep the current one
+     * @param updated the update time
+     * @return the updated account with its current balance, or null if it does not exist
+     */
+    BankAccountResponse update(String accountNumber, String name, String accountType, OffsetDateTime updated);
+
+    /**
+     * Removes an account and its balance.
+     * @param accountNumber the account number
+     * @return whether the account existed
+     */
+    boolean remove(String accountNumber);
+
+    /**
+     * Sets an account's last update time, if it exists.
+     * @param accountNumber the account number
+     * @param updated the update time
+     * @return the owner's user ID, or null if the account does not exist
+     */
+    String touch(String accountNumber, OffsetDateTime updated);
+
+    long deposit(String accountNumber, long amountPence);
+
+    long withdraw(String accountNumber, long amountPence);
+
+    long[] applyAll(String accountNumber, long[] amountsPence);
+
+    long[] applyDebits(String accountNumber, long[] amountsPence, long heldPence);
+}
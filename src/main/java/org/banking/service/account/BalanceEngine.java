@@ -0,0 +1,141 @@
+package org.banking.service.account;
+
+import org.banking.service.service.AccountService;
+import org.banking.service.util.MoneyUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free store of account balances held as fixed-point pence.
+ * Each account owns one {@link AtomicLong}; deposits are a single atomic add and
+ * withdrawals a CAS loop that checks funds and debits in the same step, so concurrent
+ * updates are never lost and no lock is taken on either path.
+ */
+public class BalanceEngine {
+    private final Map<String, AtomicLong> balances = new ConcurrentHashMap<>();
+
+    /**
+     * Opens a zero balance for a new account.
+     * @param accountNumber the account number
+     */
+    public void open(String accountNumber) {
+        balances.putIfAbsent(accountNumber, new AtomicLong());
+    }
+
+    /**
+     * Drops the balance of a deleted account.
+     * @param accountNumber the account number
+     */
+    public void close(String accountNumber) {
+        balances.remove(accountNumber);
+    }
+
+    /**
+     * Gets the current balance of an account.
+     * @param accountNumber the account number
+     * @return the balance in pence, or {@link AccountService#ACCOUNT_NOT_FOUND}
+     */
+    public long balance(String accountNumber) {
+        AtomicLong balance = balances.get(accountNumber);
+        return balance == null ? AccountService.ACCOUNT_NOT_FOUND : balance.get();
+    }
+
+    /**
+     * Credits an account without checking it against {@link MoneyUtil#MAX_PENCE}, for credits
+     * that were checked when they were accepted and for putting back debits.
+     * @param accountNumber the account number
+     * @param amountPence the amount to credit, in pence
+     * @return the new balance in pence, or {@link AccountService#ACCOUNT_NOT_FOUND}
+     */
+    public long deposit(String accountNumber, long amountPence) {
+        AtomicLong balance = balances.get(accountNumber);
+        if (balance == null) return AccountService.ACCOUNT_NOT_FOUND;
+        return balance.addAndGet(amountPence);
+    }
+
+    /**
+     * Debits an account if it holds sufficient funds.
+     * @param accountNumber the account number
+     * @param amountPence the amount to debit, in pence
+     * @return the new balance in pence, {@link AccountService#INSUFFICIENT_FUNDS} or {@link AccountService#ACCOUNT_NOT_FOUND}
+     */
+    public long withdraw(String accountNumber, long amountPence) {
+        AtomicLong balance = balances.get(accountNumber);
+        if (balance == null) return AccountService.ACCOUNT_NOT_FOUND;
+        for (;;) {
+            long current = balance.get();
+            if (current < amountPence) {
+                return AccountService.INSUFFICIENT_FUNDS;
+            }
+            long updated = current - amountPence;
+            if (balance.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * Applies a sequence of credits and debits to one account as a single atomic update.
+     * Entries are applied in order against a running balance; a debit the running balance
+     * cannot cover, or a credit that would take it above {@link MoneyUtil#MAX_PENCE}, is rejected
+     * and later entries still apply. The net result is published with one compare-and-set,
+     * retried as a whole if another update intervened.
+     * @param accountNumber the account number
+     * @param amountsPence the signed amounts in pence, positive to credit and negative to debit
+     * @return the running balance after each entry, {@link AccountService#INSUFFICIENT_FUNDS} for
+     *         a rejected debit or {@link AccountService#BALANCE_LIMIT} for a rejected credit; null
+     *         if the account does not exist
+     */
+    public long[] applyAll(String accountNumber, long[] amountsPence) {
+        return apply(accountNumber, amountsPence, 0, false);
+    }
+
+    /**
+     * Checks a sequence of credits and debits against a running balance as
+     * {@link #applyAll(String, long[])} does, but publishes only their net debit, if they net to
+     * one. A net credit is left for the caller to {@link #deposit} once it has been recorded, so
+     * other updates never spend it before then.
+     * @param accountNumber the account number
+     * @param amountsPence the signed amounts in pence, positive to credit and negative to debit
+     * @param heldPence credits already accepted for the account but not yet deposited, in pence,
+     *                  counted against {@link MoneyUtil#MAX_PENCE}
+     * @return the running balance after each entry, {@link AccountService#INSUFFICIENT_FUNDS} for
+     *         a rejected debit or {@link AccountService#BALANCE_LIMIT} for a rejected credit; null
+     *         if the account does not exist
+     */
+    public long[] applyDebits(String accountNumber, long[] amountsPence, long heldPence) {
+        return apply(accountNumber, amountsPence, heldPence, true);
+    }
+
+    /**
+     * Applies credits and debits against a running balance, publishing either their net result
+     * or, if the credit is held, only a net debit. A credit is refused if the running balance
+     * plus the credits already held for the account would exceed {@link MoneyUtil#MAX_PENCE}.
+     */
+    private long[] apply(String accountNumber, long[] amountsPence, long heldPence, boolean holdCredit) {
+        AtomicLong balance = balances.get(accountNumber);
+        if (balance == null) return null;
+        long[] results = new long[amountsPence.length];
+        for (;;) {
+            long current = balance.get();
+            long running = current;
+            for (int i = 0; i < amountsPence.length; i++) {
+                long amount = amountsPence[i];
+                if (amount < 0 && running < -amount) {
+                    results[i] = AccountService.INSUFFICIENT_FUNDS;
+                } else if (amount > 0 && running > MoneyUtil.MAX_PENCE - heldPence - amount) {
+                    results[i] = AccountService.BALANCE_LIMIT;
+                } else {
+                    running += amount;
+                    results[i] = running;
+                }
+            }
+            long published = holdCredit ? Math.min(running, current) : running;
+            if (published == current || balance.compareAndSet(current, published)) {
+                return results;
+            }
+        }
+    }
+}
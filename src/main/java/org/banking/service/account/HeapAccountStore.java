@@ -0,0 +1,142 @@
+package org.banking.service.account;
+
+import org.banking.service.model.BankAccountResponse;
+import org.banking.service.util.MoneyUtil;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Account store that keeps one {@link BankAccountResponse} object per account in a thread-safe
+ * map, with a secondary index from userId to account numbers so listing is proportional to the
+ * number of accounts the user owns rather than the total account count.
+ * Balances are held as pence in a {@link BalanceEngine} and copied onto the stored object
+ * whenever an account is returned.
+ */
+class HeapAccountStore implements AccountStore {
+    private final Map<String, BankAccountResponse> accounts = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> accountNumbersByUser = new ConcurrentHashMap<>();
+    private final BalanceEngine balances = new BalanceEngine();
+
+    @Override
+    public void put(BankAccountResponse account) {
+        String accountNumber = account.getAccountNumber();
+        balances.open(accountNumber);
+        accounts.put(accountNumber, account);
+        indexAccount(account.getUserId(), accountNumber);
+    }
+
+    @Override
+    public BankAccountResponse get(String accountNumber) {
+        BankAccountResponse account = accounts.get(accountNumber);
+        return account == null ? null : withBalance(account);
+    }
+
+    @Override
+    public List<BankAccountResponse> list(String userId) {
+        Set<String> accountNumbers = accountNumbersByUser.get(userId);
+        if (accountNumbers == null) {
+            return new ArrayList<>();
+        }
+        List<BankAccountResponse> owned = new ArrayList<>(accountNumbers.size());
+        for (String accountNumber : accountNumbers) {
+            BankAccountResponse acc = accounts.get(accountNumber);
+            if (acc != null) {
+                owned.add(withBalance(acc));
+            }
+        }
+        return owned;
+    }
+
+    @Override
+    public BankAccountResponse update(String accountNumber, String name, String accountType, OffsetDateTime updated) {
+        BankAccountResponse account = accounts.get(accountNumber);
+        if (account != null) {
+            if (name != null) account.setName(name);
+            if (accountType != null) account.setAccountType(accountType);
+            account.setUpdatedTimestamp(updated);
+            withBalance(account);
+        }
+        return account;
+    }
+
+    @Override
+    public boolean remove(String accountNumber) {
+        BankAccountResponse removed = accounts.remove(accountNumber);
+        if (removed == null) {
+            return false;
+        }
+        unindexAccount(removed.getUserId(), accountNumber);
+        balances.close(accountNumber);
+        return true;
+    }
+
+    @Override
+    public String touch(String accountNumber, OffsetDateTime updated) {
+        BankAccountResponse account = accounts.get(accountNumber);
+        if (account == null) return null;
+        account.setUpdatedTimestamp(updated);
+        return account.getUserId();
+    }
+
+    @Override
+    public long deposit(String accountNumber, long amountPence) {
+        return balances.deposit(accountNumber, amountPence);
+    }
+
+    @Override
+    public long withdraw(String accountNumber, long amountPence) {
+        return balances.withdraw(accountNumber, amountPence);
+    }
+
+    @Override
+    public long[] applyAll(String accountNumber, long[] amountsPence) {
+        return balances.applyAll(accountNumber, amountsPence);
+    }
+
+    @Override
+    public long[] applyDebits(String accountNumber, long[] amountsPence, long heldPence) {
+        return balances.applyDebits(accountNumber, amountsPence, heldPence);
+    }
+
+    /**
+     * Copies the current balance from the balance engine onto the response model.
+     * @param account the stored account
+     * @return the same account, with its balance refreshed
+     */
+    private BankAccountResponse withBalance(BankAccountResponse account) {
+        long pence = balances.balance(account.getAccountNumber());
+        if (pence >= 0) account.setBalance(MoneyUtil.toPounds(pence));
+        return account;
+    }
+
+    /**
+     * Adds an account number to the owner's index entry.
+     * Uses compute so the per-user set is never observed half-created or dropped concurrently.
+     * @param userId the owner's user ID
+     * @param accountNumber the account number
+     */
+    private void indexAccount(String userId, String accountNumber) {
+        accountNumbersByUser.compute(userId, (k, numbers) -> {
+            Set<String> set = numbers != null ? numbers : ConcurrentHashMap.newKeySet();
+            set.add(accountNumber);
+            return set;
+        });
+    }
+
+    /**
+     * Removes an account number from the owner's index entry, dropping the entry once empty.
+     * @param userId the owner's user ID
+     * @param accountNumber the account number
+     */
+    private void unindexAccount(String userId, String accountNumber) {
+        accountNumbersByUser.computeIfPresent(userId, (k, numbers) -> {
+            numbers.remove(accountNumber);
+            return numbers.isEmpty() ? null : numbers;
+        });
+    }
+}
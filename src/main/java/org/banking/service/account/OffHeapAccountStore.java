@@ -0,0 +1,660 @@
+package org.banking.service.account;
+
+import org.banking.service.model.BankAccountResponse;
+import org.banking.service.service.AccountService;
+import org.banking.service.util.Formats;
+import org.banking.service.util.IdGenerator;
+import org.banking.service.util.MoneyUtil;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Account store that keeps each account in a fixed-width record in direct memory, outside the
+ * Java heap, so the number of accounts does not add to the objects the garbage collector traces.
+ * <p>
+ * A record is {@value #RECORD_SIZE} bytes: the balance in pence, the created and updated times in
+ * epoch microseconds, the owner's user ID as the value of its base-62 digits, the account
+ * number's six-digit sequence, a link to the owner's next account, the account type as a
+ * dictionary code and the name as up to {@value #NAME_BYTES} bytes of UTF-8. Records live in
+ * pages of {@value #PAGE_RECORDS} allocated as needed. The rare name too long for its record,
+ * account type outside the dictionary or user ID not in the generator's format is kept on the
+ * heap instead. Accounts are read back as new {@link BankAccountResponse} objects, with times
+ * in the system time zone.
+ * <p>
+ * Two open-addressing tables of {@code int}s, at most half full, index the records: one by
+ * account number sequence, and one by owner, pointing at the owner's first account, from which
+ * the rest are linked in creation order. Entries hold record slot + 1, with 0 marking an empty
+ * entry and -1 a deleted one, and each lookup confirms the key against the record itself.
+ * <p>
+ * Balances are changed lock-free with atomic operations on the record, as in
+ * {@link BalanceEngine}. Every other change is made under one lock. Readers never lock: a
+ * record's details are guarded by a sequence number that is odd while they are being written,
+ * and a reader that sees it odd or changed reads again. Slots of deleted accounts are not
+ * reused, which is safe because account numbers are never reissued and there are at most
+ * {@value AccountNumberAllocator#MAX_SEQUENCE} of them.
+ */
+class OffHeapAccountStore implements AccountStore {
+    /** Bytes per account record. */
+    static final int RECORD_SIZE = 96;
+    /** Longest name, in UTF-8 bytes, held in the record itself. */
+    static final int NAME_BYTES = 48;
+    /** Records per page of direct memory. */
+    static final int PAGE_RECORDS = 1 << 14;
+
+    private static final int PAGE_SHIFT = 14;
+    private static final int PAGE_MASK = PAGE_RECORDS - 1;
+    private static final int BALANCE = 0;
+    private static final int UPDATED = 8;
+    private static final int CREATED = 16;
+    private static final int USER = 24;
+    private static final int VERSION = 32;
+    private static final int SEQUENCE = 36;
+    private static final int NEXT = 40;
+    private static final int LIVE = 44;
+    private static final int TYPE = 45;
+    private static final int NAME_LENGTH = 46;
+    private static final int NAME = 48;
+    private static final int NULL_NAME = 254;
+    private static final int LONG_NAME = 255;
+    private static final int OTHER_TYPE = 255;
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+    private static final int INITIAL_INDEX_CAPACITY = 16;
+    private static final String USER_PREFIX = "usr-";
+    private static final long MICROS_PER_SECOND = TimeUnit.SECONDS.toMicros(1);
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final String sortCode;
+    private final String currency;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile ByteBuffer[] pages = new ByteBuffer[4];
+    private volatile int[] accountIndex = new int[INITIAL_INDEX_CAPACITY];
+    private volatile int[] userIndex = new int[INITIAL_INDEX_CAPACITY];
+    private volatile String[] accountTypes = {null};
+    private volatile String[] foreignUsers = new String[4];
+    private final Map<String, Long> foreignUserKeys = new ConcurrentHashMap<>();
+    private final Map<Integer, String> longNames = new ConcurrentHashMap<>();
+    private final Map<Integer, String> otherTypes = new ConcurrentHashMap<>();
+    private int slots;
+    private int accountEntries;
+    private int userEntries;
+    private int foreignUserCount;
+
+    /**
+     * Constructs an OffHeapAccountStore.
+     * @param sortCode the sort code of every account
+     * @param currency the currency of every account
+     */
+    OffHeapAccountStore(String sortCode, String currency) {
+        this.sortCode = sortCode;
+        this.currency = currency;
+    }
+
+    /**
+     * Adds or replaces an account.
+     * @param account the account details
+     * @throws IllegalArgumentException if the account number is not in the {@code 01NNNNNN} format
+     */
+    @Override
+    public void put(BankAccountResponse account) {
+        int sequence = sequenceOf(account.getAccountNumber());
+        if (sequence < 0) {
+            throw new IllegalArgumentException("Invalid account number " + account.getAccountNumber());
+        }
+        writeLock.lock();
+        try {
+            long user = userKey(account.getUserId(), true);
+            int slot = find(sequence);
+            if (slot >= 0) {
+                ByteBuffer page = page(slot);
+                int base = base(slot);
+                if (page.getLong(base + USER) != user) {
+                    unlink(slot);
+                    beginWrite(page, base);
+                    page.putLong(base + USER, user);
+                    page.putInt(base + NEXT, 0);
+                    endWrite(page, base);
+                    link(slot, user);
+                }
+                beginWrite(page, base);
+                writeDetails(page, base, slot, account.getName(), account.getAccountType());
+                page.putLong(base + CREATED, toMicros(account.getCreatedTimestamp()));
+                endWrite(page, base);
+                LONGS.setRelease(page, base + UPDATED, toMicros(account.getUpdatedTimestamp()));
+                return;
+            }
+            slot = allocate();
+            ByteBuffer page = page(slot);
+            int base = base(slot);
+            page.putLong(base + BALANCE, 0);
+            page.putLong(base + UPDATED, toMicros(account.getUpdatedTimestamp()));
+            page.putLong(base + CREATED, toMicros(account.getCreatedTimestamp()));
+            page.putLong(base + USER, user);
+            page.putInt(base + SEQUENCE, sequence);
+            page.putInt(base + NEXT, 0);
+            page.put(base + LIVE, (byte) 1);
+            writeDetails(page, base, slot, account.getName(), account.getAccountType());
+            INTS.setRelease(page, base + VERSION, 0);
+            link(slot, user);
+            indexAccount(slot, sequence);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public BankAccountResponse get(String accountNumber) {
+        int slot = find(sequenceOf(accountNumber));
+        return slot < 0 ? null : read(slot);
+    }
+
+    @Override
+    public List<BankAccountResponse> list(String userId) {
+        List<BankAccountResponse> owned = new ArrayList<>();
+        long user = userKey(userId, false);
+        int entry = user == Long.MIN_VALUE ? -1 : userEntry(user);
+        int next = entry < 0 ? EMPTY : (int) ENTRIES.getAcquire(userIndex, entry);
+        while (next > 0) {
+            int slot = next - 1;
+            BankAccountResponse account = read(slot);
+            if (account != null) {
+                owned.add(account);
+            }
+            next = (int) INTS.getAcquire(page(slot), base(slot) + NEXT);
+        }
+        return owned;
+    }
+
+    @Override
+    public BankAccountResponse update(String accountNumber, String name, String accountType, OffsetDateTime updated) {
+        writeLock.lock();
+        try {
+            int slot = find(sequenceOf(accountNumber));
+            if (slot < 0) {
+                return null;
+            }
+            BankAccountResponse current = read(slot);
+            ByteBuffer page = page(slot);
+            int base = base(slot);
+            beginWrite(page, base);
+            writeDetails(page, base, slot, name != null ? name : current.getName(),
+                    accountType != null ? accountType : current.getAccountType());
+            endWrite(page, base);
+            LONGS.setRelease(page, base + UPDATED, toMicros(updated));
+            return read(slot);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String accountNumber) {
+        writeLock.lock();
+        try {
+            int sequence = sequenceOf(accountNumber);
+            int entry = accountEntry(sequence);
+            if (entry < 0) {
+                return false;
+            }
+            int slot = accountIndex[entry] - 1;
+            ByteBuffer page = page(slot);
+            int base = base(slot);
+            beginWrite(page, base);
+            page.put(base + LIVE, (byte) 0);
+            endWrite(page, base);
+            ENTRIES.setRelease(accountIndex, entry, DELETED);
+            unlink(slot);
+            longNames.remove(slot);
+            otherTypes.remove(slot);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public String touch(String accountNumber, OffsetDateTime updated) {
+        int slot = find(sequenceOf(accountNumber));
+        if (slot < 0) {
+            return null;
+        }
+        ByteBuffer page = page(slot);
+        LONGS.setRelease(page, base(slot) + UPDATED, toMicros(updated));
+        long user = (long) LONGS.getAcquire(page, base(slot) + USER);
+        return user >= 0 ? IdGenerator.format(USER_PREFIX, user) : foreignUsers[(int) ~user];
+    }
+
+    @Override
+    public long deposit(String accountNumber, long amountPence) {
+        int slot = find(sequenceOf(accountNumber));
+        if (slot < 0) return AccountService.ACCOUNT_NOT_FOUND;
+        return (long) LONGS.getAndAdd(page(slot), base(slot) + BALANCE, amountPence) + amountPence;
+    }
+
+    @Override
+    public long withdraw(String accountNumber, long amountPence) {
+        int slot = find(sequenceOf(accountNumber));
+        if (slot < 0) return AccountService.ACCOUNT_NOT_FOUND;
+        ByteBuffer page = page(slot);
+        int offset = base(slot) + BALANCE;
+        for (;;) {
+            long current = (long) LONGS.getVolatile(page, offset);
+            if (current < amountPence) {
+                return AccountService.INSUFFICIENT_FUNDS;
+            }
+            long updated = current - amountPence;
+            if (LONGS.compareAndSet(page, offset, current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    @Override
+    public long[] applyAll(String accountNumber, long[] amountsPence) {
+        return apply(accountNumber, amountsPence, 0, false);
+    }
+
+    @Override
+    public long[] applyDebits(String accountNumber, long[] amountsPence, long heldPence) {
+        return apply(accountNumber, amountsPence, heldPence, true);
+    }
+
+    /**
+     * Applies credits and debits against a running balance, publishing either their net result
+     * or, if the credit is held, only a net debit. A credit is refused if the running balance
+     * plus the credits already held for the account would exceed {@link MoneyUtil#MAX_PENCE}.
+     */
+    private long[] apply(String accountNumber, long[] amountsPence, long heldPence, boolean holdCredit) {
+        int slot = find(sequenceOf(accountNumber));
+        if (slot < 0) return null;
+        ByteBuffer page = page(slot);
+        int offset = base(slot) + BALANCE;
+        long[] results = new long[amountsPence.length];
+        for (;;) {
+            long current = (long) LONGS.getVolatile(page, offset);
+            long running = current;
+            for (int i = 0; i < amountsPence.length; i++) {
+                long amount = amountsPence[i];
+                if (amount < 0 && running < -amount) {
+                    results[i] = AccountService.INSUFFICIENT_FUNDS;
+                } else if (amount > 0 && running > MoneyUtil.MAX_PENCE - heldPence - amount) {
+                    results[i] = AccountService.BALANCE_LIMIT;
+                } else {
+                    running += amount;
+                    results[i] = running;
+                }
+            }
+            long published = holdCredit ? Math.min(running, current) : running;
+            if (published == current || LONGS.compareAndSet(page, offset, current, published)) {
+                return results;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of record slots in use, including those of deleted accounts.
+     * @return the slot count
+     */
+    int slots() {
+        return slots;
+    }
+
+    /**
+     * Reads a record into a new account, retrying while a writer is changing it.
+     * @return the account, or null if it has been deleted
+     */
+    private BankAccountResponse read(int slot) {
+        ByteBuffer page = page(slot);
+        int base = base(slot);
+        byte[] nameBytes = new byte[NAME_BYTES];
+        for (;;) {
+            int version = (int) INTS.getAcquire(page, base + VERSION);
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            boolean live = page.get(base + LIVE) != 0;
+            int sequence = page.getInt(base + SEQUENCE);
+            long user = page.getLong(base + USER);
+            long created = page.getLong(base + CREATED);
+            int typeCode = page.get(base + TYPE) & 0xFF;
+            int nameLength = page.get(base + NAME_LENGTH) & 0xFF;
+            page.get(base + NAME, nameBytes);
+            VarHandle.acquireFence();
+            if ((int) INTS.get(page, base + VERSION) != version) {
+                continue;
+            }
+            if (!live) {
+                return null;
+            }
+            // The fields are consistent, so the codes refer to entries published before them.
+            BankAccountResponse account = new BankAccountResponse();
+            account.setAccountNumber(AccountNumberAllocator.format(sequence));
+            account.setSortCode(sortCode);
+            account.setName(nameLength == NULL_NAME ? null
+                    : nameLength == LONG_NAME ? longNames.get(slot)
+                    : new String(nameBytes, 0, nameLength, StandardCharsets.UTF_8));
+            account.setAccountType(typeCode == OTHER_TYPE ? otherTypes.get(slot) : accountTypes[typeCode]);
+            account.setBalance(MoneyUtil.toPounds((long) LONGS.getVolatile(page, base + BALANCE)));
+            account.setCurrency(currency);
+            account.setCreatedTimestamp(toTimestamp(created));
+            account.setUpdatedTimestamp(toTimestamp((long) LONGS.getAcquire(page, base + UPDATED)));
+            account.setUserId(user >= 0 ? IdGenerator.format(USER_PREFIX, user) : foreignUsers[(int) ~user]);
+            return account;
+        }
+    }
+
+    /**
+     * Writes the name and account type of a record. Must be called under the lock.
+     */
+    private void writeDetails(ByteBuffer page, int base, int slot, String name, String accountType) {
+        byte[] bytes = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+        if (bytes == null) {
+            page.put(base + NAME_LENGTH, (byte) NULL_NAME);
+            longNames.remove(slot);
+        } else if (bytes.length > NAME_BYTES) {
+            longNames.put(slot, name);
+            page.put(base + NAME_LENGTH, (byte) LONG_NAME);
+        } else {
+            page.put(base + NAME, bytes);
+            page.put(base + NAME_LENGTH, (byte) bytes.length);
+            longNames.remove(slot);
+        }
+        int code = typeCode(accountType);
+        if (code == OTHER_TYPE) {
+            otherTypes.put(slot, accountType);
+        } else {
+            otherTypes.remove(slot);
+        }
+        page.put(base + TYPE, (byte) code);
+    }
+
+    /**
+     * Finds or adds the dictionary code of an account type. Must be called under the lock.
+     */
+    private int typeCode(String accountType) {
+        String[] table = accountTypes;
+        for (int i = 0; i < table.length; i++) {
+            if (Objects.equals(table[i], accountType)) {
+                return i;
+            }
+        }
+        if (table.length == OTHER_TYPE) {
+            return OTHER_TYPE;
+        }
+        table = Arrays.copyOf(table, table.length + 1);
+        table[table.length - 1] = accountType;
+        accountTypes = table;
+        return table.length - 1;
+    }
+
+    /**
+     * Marks a record's details as being written. Must be called under the lock.
+     */
+    private static void beginWrite(ByteBuffer page, int base) {
+        INTS.setOpaque(page, base + VERSION, (int) INTS.get(page, base + VERSION) + 1);
+        VarHandle.releaseFence();
+    }
+
+    /**
+     * Publishes a record's details to readers. Must be called under the lock.
+     */
+    private static void endWrite(ByteBuffer page, int base) {
+        INTS.setRelease(page, base + VERSION, (int) INTS.get(page, base + VERSION) + 1);
+    }
+
+    /**
+     * Claims the next record slot, adding a page when the last one is full. Must be called
+     * under the lock.
+     */
+    private int allocate() {
+        int slot = slots;
+        int pageIndex = slot >>> PAGE_SHIFT;
+        ByteBuffer[] directory = pages;
+        if (pageIndex == directory.length) {
+            directory = Arrays.copyOf(directory, directory.length << 1);
+        }
+        if (directory[pageIndex] == null) {
+            // Aligned so the balance can be updated atomically.
+            directory[pageIndex] = ByteBuffer.allocateDirect(PAGE_RECORDS * RECORD_SIZE + Long.BYTES)
+                    .alignedSlice(Long.BYTES)
+                    .order(ByteOrder.nativeOrder());
+            pages = directory;
+        }
+        slots = slot + 1;
+        return slot;
+    }
+
+    private ByteBuffer page(int slot) {
+        return pages[slot >>> PAGE_SHIFT];
+    }
+
+    private static int base(int slot) {
+        return (slot & PAGE_MASK) * RECORD_SIZE;
+    }
+
+    /**
+     * Finds the record of a live account.
+     * @param sequence the account number sequence, or -1 for a malformed account number
+     * @return the record slot, or -1 if there is no such account
+     */
+    private int find(int sequence) {
+        if (sequence < 0) {
+            return -1;
+        }
+        int[] table = accountIndex;
+        int mask = table.length - 1;
+        for (int i = spread(sequence) & mask; ; i = (i + 1) & mask) {
+            int entry = (int) ENTRIES.getAcquire(table, i);
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != DELETED) {
+                int slot = entry - 1;
+                if (page(slot).getInt(base(slot) + SEQUENCE) == sequence) {
+                    return slot;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the account index entry of a live account. Must be called under the lock.
+     */
+    private int accountEntry(int sequence) {
+        if (sequence < 0) {
+            return -1;
+        }
+        int[] table = accountIndex;
+        int mask = table.length - 1;
+        for (int i = spread(sequence) & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != DELETED && page(entry - 1).getInt(base(entry - 1) + SEQUENCE) == sequence) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Finds the user index entry pointing at an owner's first account.
+     * @return the entry's position, or -1 if the owner has no accounts
+     */
+    private int userEntry(long user) {
+        int[] table = userIndex;
+        int mask = table.length - 1;
+        for (int i = spread(Long.hashCode(user)) & mask; ; i = (i + 1) & mask) {
+            int entry = (int) ENTRIES.getAcquire(table, i);
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != DELETED && page(entry - 1).getLong(base(entry - 1) + USER) == user) {
+                return i;
+            }
+        }
+    }
+
+    private void indexAccount(int slot, int sequence) {
+        if ((accountEntries + 1) * 2 > accountIndex.length) {
+            accountIndex = rebuild(accountIndex, SEQUENCE);
+            accountEntries = live(accountIndex);
+        }
+        if (insert(accountIndex, spread(sequence), slot)) {
+            accountEntries++;
+        }
+    }
+
+    /**
+     * Appends an account to its owner's list. Must be called under the lock.
+     */
+    private void link(int slot, long user) {
+        int entry = userEntry(user);
+        if (entry < 0) {
+            if ((userEntries + 1) * 2 > userIndex.length) {
+                userIndex = rebuild(userIndex, USER);
+                userEntries = live(userIndex);
+            }
+            if (insert(userIndex, spread(Long.hashCode(user)), slot)) {
+                userEntries++;
+            }
+            return;
+        }
+        int tail = userIndex[entry] - 1;
+        for (int next; (next = page(tail).getInt(base(tail) + NEXT)) > 0; ) {
+            tail = next - 1;
+        }
+        INTS.setRelease(page(tail), base(tail) + NEXT, slot + 1);
+    }
+
+    /**
+     * Removes an account from its owner's list. A reader already at the account still finds
+     * the rest of the list through it. Must be called under the lock.
+     */
+    private void unlink(int slot) {
+        ByteBuffer page = page(slot);
+        int base = base(slot);
+        int entry = userEntry(page.getLong(base + USER));
+        int next = page.getInt(base + NEXT);
+        int previous = userIndex[entry] - 1;
+        if (previous == slot) {
+            ENTRIES.setRelease(userIndex, entry, next > 0 ? next : DELETED);
+            return;
+        }
+        for (int after; (after = page(previous).getInt(base(previous) + NEXT)) != slot + 1; ) {
+            previous = after - 1;
+        }
+        INTS.setRelease(page(previous), base(previous) + NEXT, next);
+    }
+
+    /**
+     * Copies the live entries of an index into a table sized for them and their growth.
+     * @param keyOffset the record field the index is keyed on
+     */
+    private int[] rebuild(int[] table, int keyOffset) {
+        int live = live(table);
+        int capacity = INITIAL_INDEX_CAPACITY;
+        while (capacity < (live + 1) * 4) capacity <<= 1;
+        int[] rebuilt = new int[capacity];
+        for (int entry : table) {
+            if (entry > 0) {
+                int slot = entry - 1;
+                int hash = keyOffset == USER
+                        ? Long.hashCode(page(slot).getLong(base(slot) + USER))
+                        : page(slot).getInt(base(slot) + SEQUENCE);
+                insert(rebuilt, spread(hash), slot);
+            }
+        }
+        return rebuilt;
+    }
+
+    private static int live(int[] table) {
+        int live = 0;
+        for (int entry : table) {
+            if (entry > 0) live++;
+        }
+        return live;
+    }
+
+    /**
+     * Adds an entry to an index, reusing a deleted entry on its probe path if there is one.
+     * @return whether an empty entry was used, so the index holds one more entry
+     */
+    private static boolean insert(int[] table, int hash, int slot) {
+        int mask = table.length - 1;
+        int i = hash & mask;
+        while (table[i] > 0) {
+            i = (i + 1) & mask;
+        }
+        boolean fresh = table[i] == EMPTY;
+        ENTRIES.setRelease(table, i, slot + 1);
+        return fresh;
+    }
+
+    /**
+     * Gets the key of a user ID: the value of its base-62 digits, or the complement of its
+     * position among user IDs kept as strings.
+     * @param create whether to assign a key to an unknown user ID kept as a string, under the lock
+     * @return the key, or {@link Long#MIN_VALUE} for an unknown user ID if {@code create} is false
+     */
+    private long userKey(String userId, boolean create) {
+        long value = IdGenerator.parse(userId, USER_PREFIX);
+        if (value >= 0) {
+            return value;
+        }
+        Long key = foreignUserKeys.get(userId);
+        if (key != null) {
+            return key;
+        }
+        if (!create) {
+            return Long.MIN_VALUE;
+        }
+        String[] table = foreignUsers;
+        if (foreignUserCount == table.length) {
+            table = Arrays.copyOf(table, table.length << 1);
+        }
+        table[foreignUserCount] = userId;
+        foreignUsers = table;
+        long created = ~(long) foreignUserCount++;
+        foreignUserKeys.put(userId, created);
+        return created;
+    }
+
+    private static int sequenceOf(String accountNumber) {
+        return accountNumber != null && Formats.isAccountNumber(accountNumber)
+                ? (int) AccountNumberAllocator.sequenceOf(accountNumber) : -1;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B1;
+    }
+
+    private static long toMicros(OffsetDateTime time) {
+        return time.toEpochSecond() * MICROS_PER_SECOND + time.getNano() / 1_000;
+    }
+
+    private static OffsetDateTime toTimestamp(long micros) {
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                Math.floorMod(micros, MICROS_PER_SECOND) * 1_000);
+        return OffsetDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,47 @@
+package org.banking.service.auth;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.banking.service.util.JwtUtil;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Verifies the bearer token once per request and exposes its subject (userId) to controllers
+ * as the {@link #PRINCIPAL} request attribute.
+ * <p>
+ * The filter never rejects a request: when the header is missing or the token is invalid the
+ * attribute is simply left unset, and each endpoint keeps producing its own error response.
+ */
+@Component
+public class AuthenticationFilter extends OncePerRequestFilter {
+    /**
+     * Request attribute holding the verified userId.
+     */
+    public static final String PRINCIPAL = "org.banking.service.auth.principal";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    /**
+     * Resolves the principal from the Authorization header, then continues the chain.
+     * @param request the request
+     * @param response the response
+     * @param chain the filter chain
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith(BEARER_PREFIX) && header.length() > BEARER_PREFIX.length()) {
+            try {
+                request.setAttribute(PRINCIPAL, JwtUtil.validateTokenAndGetSubject(header.substring(BEARER_PREFIX.length())));
+            } catch (IllegalArgumentException ex) {
+                // Left unauthenticated; the endpoint reports the error in its own format.
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
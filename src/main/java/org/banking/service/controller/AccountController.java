@@ -1,11 +1,18 @@
 package org.banking.service.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.banking.service.auth.AuthenticationFilter;
 import org.banking.service.model.*;
 import org.banking.service.service.AccountService;
+import org.banking.service.service.LedgerService;
+import org.banking.service.util.CannedError;
 import org.banking.service.util.ErrorUtil;
+import org.banking.service.util.ValidationException;
 import org.banking.service.util.ValidationUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,26 +24,34 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/v1/accounts")
 public class AccountController {
     private final AccountService accountService;
+    private final LedgerService ledgerService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Constructs an AccountController with the given account service.
+     * Constructs an AccountController with the given services.
      * @param accountService the account service
+     * @param ledgerService the ledger that applies account updates and deletions
+     * @param objectMapper the mapper that serializes account lists
      */
     @Autowired
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, LedgerService ledgerService, ObjectMapper objectMapper) {
         this.accountService = accountService;
+        this.ledgerService = ledgerService;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Creates a new bank account for a user.
+     * @param authHeader the Authorization header
      * @param request the account creation request
+     * @param principal the userId verified by the authentication filter, if any
      * @return the created bank account response
      */
     @PostMapping("")
-    public ResponseEntity<?> createAccount(@RequestHeader("Authorization") String authHeader, @RequestBody CreateBankAccountRequest request) {
-        // Extract userId from JWT
-        String userId = org.banking.service.util.JwtUtil.validateTokenAndGetSubject(authHeader.substring(7));
+    public ResponseEntity<?> createAccount(@RequestHeader("Authorization") String authHeader, @RequestBody CreateBankAccountRequest request,
+                                           @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
         try {
+            String userId = ValidationUtil.authenticatedSubject(principal, authHeader);
             ValidationUtil.validateUserId(userId);
             java.util.List<BadRequestErrorResponse.Detail> details = ValidationUtil.validateCreateBankAccountRequestAll(request);
             if (!details.isEmpty()) {
@@ -48,88 +63,84 @@ public class AccountController {
             }
             BankAccountResponse account = accountService.createAccount(userId, request);
             return new ResponseEntity<>(account, HttpStatus.CREATED);
-        } catch (IllegalArgumentException ex) {
-            String msg = ex.getMessage();
-            String field = null;
-            if (msg.contains("accountNumber")) field = "accountNumber";
-            else if (msg.contains("name")) field = "name";
-            else if (msg.contains("accountType")) field = "accountType";
-            BadRequestErrorResponse error = ErrorUtil.badRequest(
-                msg,
-                java.util.List.of(ErrorUtil.detail(field, msg, "pattern"))
-            );
-            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
     }
 
     /**
      * Lists all bank accounts for the authenticated user.
+     * The response is serialized once and the JSON kept on it, so a list the account service
+     * serves from its cache is written straight from those bytes.
+     * @param authHeader the Authorization header
+     * @param principal the userId verified by the authentication filter, if any
      * @return the list of bank accounts response
+     * @throws JsonProcessingException if the response cannot be serialized
      */
     @GetMapping("")
-    public ResponseEntity<?> listAccounts(@RequestHeader("Authorization") String authHeader) {
-        String userId = org.banking.service.util.JwtUtil.validateTokenAndGetSubject(authHeader.substring(7));
-        ListBankAccountsResponse response = accountService.listAccounts(userId);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+    public ResponseEntity<?> listAccounts(@RequestHeader("Authorization") String authHeader,
+                                          @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal)
+            throws JsonProcessingException {
+        try {
+            String userId = ValidationUtil.authenticatedSubject(principal, authHeader);
+            ListBankAccountsResponse response = accountService.listAccounts(userId);
+            byte[] json = response.json();
+            if (json == null) {
+                json = objectMapper.writeValueAsBytes(response);
+                response.json(json);
+            }
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
+        }
     }
 
     /**
      * Fetches a bank account by account number.
      * @param accountNumber the account number
      * @param authHeader the Authorization header
+     * @param principal the userId verified by the authentication filter, if any
      * @return the bank account response
      */
     @GetMapping("/{accountNumber}")
-    public ResponseEntity<?> fetchAccount(@PathVariable String accountNumber, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> fetchAccount(@PathVariable String accountNumber, @RequestHeader("Authorization") String authHeader,
+                                          @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
         try {
             ValidationUtil.validateAccountNumber(accountNumber);
-            ValidationUtil.validateAuthHeaderForAccount(authHeader, accountService.fetchAccount(accountNumber));
             BankAccountResponse account = accountService.fetchAccount(accountNumber);
+            ValidationUtil.validateAuthHeaderForAccount(authHeader, principal, account);
             if (account == null) {
-                return new ResponseEntity<>(ErrorUtil.error("Account not found"), HttpStatus.NOT_FOUND);
+                return CannedError.ACCOUNT_NOT_FOUND.response();
             }
             return new ResponseEntity<>(account, HttpStatus.OK);
-        } catch (IllegalArgumentException ex) {
-            String msg = ex.getMessage();
-            String field = null;
-            if (msg.contains("accountNumber")) field = "accountNumber";
-            else if (msg.contains("name")) field = "name";
-            else if (msg.contains("accountType")) field = "accountType";
-            BadRequestErrorResponse error = ErrorUtil.badRequest(
-                msg,
-                java.util.List.of(ErrorUtil.detail(field, msg, "pattern"))
-            );
-            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
     }
 
     /**
-     * Updates an existing bank account.
+     * Updates an existing bank account if owned by the authenticated user.
      * @param accountNumber the account number
      * @param request the update request
+     * @param authHeader the Authorization header
+     * @param principal the userId verified by the authentication filter, if any
      * @return the updated bank account response
      */
     @PatchMapping("/{accountNumber}")
-    public ResponseEntity<?> updateAccount(@PathVariable String accountNumber, @RequestBody UpdateBankAccountRequest request) {
+    public ResponseEntity<?> updateAccount(@PathVariable String accountNumber, @RequestBody UpdateBankAccountRequest request,
+                                           @RequestHeader("Authorization") String authHeader,
+                                           @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
         try {
             ValidationUtil.validateAccountNumber(accountNumber);
+            ValidationUtil.validateAuthHeaderForAccount(authHeader, principal, accountService.fetchAccount(accountNumber));
             ValidationUtil.validateUpdateBankAccountRequest(request);
-            BankAccountResponse account = accountService.updateAccount(accountNumber, request);
+            BankAccountResponse account = ledgerService.updateAccount(accountNumber, request);
             if (account == null) {
-                return new ResponseEntity<>(ErrorUtil.error("Account not found"), HttpStatus.NOT_FOUND);
+                return CannedError.ACCOUNT_NOT_FOUND.response();
             }
             return new ResponseEntity<>(account, HttpStatus.OK);
-        } catch (IllegalArgumentException ex) {
-            String msg = ex.getMessage();
-            String field = null;
-            if (msg.contains("accountNumber")) field = "accountNumber";
-            else if (msg.contains("name")) field = "name";
-            else if (msg.contains("accountType")) field = "accountType";
-            BadRequestErrorResponse error = ErrorUtil.badRequest(
-                msg,
-                java.util.List.of(ErrorUtil.detail(field, msg, "pattern"))
-            );
-            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
     }
 
@@ -137,33 +148,23 @@ public class AccountController {
      * Deletes a bank account by account number if owned by the authenticated user.
      * @param accountNumber the account number
      * @param authHeader the Authorization header
+     * @param principal the userId verified by the authentication filter, if any
      * @return 204 No Content if deleted, 404 if not found, 403 if forbidden, 400 if invalid
      */
     @DeleteMapping("/{accountNumber}")
-    public ResponseEntity<?> deleteAccount(@PathVariable String accountNumber, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> deleteAccount(@PathVariable String accountNumber, @RequestHeader("Authorization") String authHeader,
+                                           @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
         try {
             ValidationUtil.validateAccountNumber(accountNumber);
             BankAccountResponse account = accountService.fetchAccount(accountNumber);
-            ValidationUtil.validateAuthHeaderForAccount(authHeader, account);
+            ValidationUtil.validateAuthHeaderForAccount(authHeader, principal, account);
             if (account == null) {
-                return new ResponseEntity<>(ErrorUtil.error("Account not found"), HttpStatus.NOT_FOUND);
+                return CannedError.ACCOUNT_NOT_FOUND.response();
             }
-            accountService.deleteAccount(accountNumber);
+            ledgerService.deleteAccount(accountNumber);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-        } catch (IllegalArgumentException ex) {
-            String msg = ex.getMessage();
-            if ("Account not found".equals(msg)) {
-                return new ResponseEntity<>(ErrorUtil.error(msg), HttpStatus.NOT_FOUND);
-            } else if ("Forbidden: You can only access your own bank account".equals(msg)) {
-                return new ResponseEntity<>(ErrorUtil.error(msg), HttpStatus.FORBIDDEN);
-            }
-            String field = null;
-            if (msg.contains("accountNumber")) field = "accountNumber";
-            BadRequestErrorResponse error = ErrorUtil.badRequest(
-                msg,
-                java.util.List.of(ErrorUtil.detail(field, msg, "pattern"))
-            );
-            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
     }
 }
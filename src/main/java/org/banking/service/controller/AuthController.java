@@ -2,14 +2,14 @@ package org.banking.service.controller;
 
 import org.banking.service.model.LoginRequest;
 import org.banking.service.model.LoginResponse;
-import org.banking.service.model.BadRequestErrorResponse;
+import org.banking.service.util.CannedError;
+import org.banking.service.util.ErrorUtil;
 import org.banking.service.util.JwtUtil;
+import org.banking.service.util.ValidationException;
 import org.banking.service.util.ValidationUtil;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.banking.service.service.UserService;
-import org.banking.service.model.ErrorResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
@@ -32,21 +32,12 @@ public class AuthController {
         String userId = request.getUserId();
         try {
             ValidationUtil.validateUserId(userId);
-        } catch (IllegalArgumentException ex) {
-            BadRequestErrorResponse error = new BadRequestErrorResponse();
-            error.setMessage(ex.getMessage());
-            BadRequestErrorResponse.Detail detail = new BadRequestErrorResponse.Detail();
-            detail.setField("userId");
-            detail.setMessage(ex.getMessage());
-            detail.setType("pattern");
-            error.setDetails(java.util.Collections.singletonList(detail));
-            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
         org.banking.service.model.UserResponse user = userService.fetchUser(userId);
         if (user == null) {
-            ErrorResponse error = new ErrorResponse();
-            error.setMessage("User not found");
-            return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+            return CannedError.USER_NOT_FOUND.response();
         }
         String token = JwtUtil.generateToken(userId);
         return ResponseEntity.ok(new LoginResponse(token));
@@ -62,15 +53,8 @@ public class AuthController {
         String userId = request.getUserId();
         try {
             ValidationUtil.validateUserId(userId);
-        } catch (IllegalArgumentException ex) {
-            BadRequestErrorResponse error = new BadRequestErrorResponse();
-            error.setMessage(ex.getMessage());
-            BadRequestErrorResponse.Detail detail = new BadRequestErrorResponse.Detail();
-            detail.setField("userId");
-            detail.setMessage(ex.getMessage());
-            detail.setType("pattern");
-            error.setDetails(java.util.Collections.singletonList(detail));
-            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
         String token = JwtUtil.generateToken(userId);
         return ResponseEntity.ok(new LoginResponse(token));
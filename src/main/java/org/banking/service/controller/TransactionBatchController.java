@@ -0,0 +1,46 @@
+package org.banking.service.controller;
+
+import org.banking.service.auth.AuthenticationFilter;
+import org.banking.service.model.BatchTransactionRequest;
+import org.banking.service.service.TransactionBatchService;
+import org.banking.service.util.ErrorUtil;
+import org.banking.service.util.ValidationException;
+import org.banking.service.util.ValidationUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for submitting transactions in bulk across several bank accounts.
+ */
+@RestController
+@RequestMapping("/v1/transactions")
+public class TransactionBatchController {
+    @Autowired
+    private TransactionBatchService transactionBatchService;
+
+    /**
+     * Submits a batch of deposits and withdrawals, each addressed to one of the caller's accounts.
+     * The batch as a whole fails only on authentication or a malformed batch; otherwise each
+     * item carries its own status, as if it had been posted to its account on its own.
+     * @param authorization the Authorization header
+     * @param requests the batch items, at most 1,000
+     * @param principal the userId verified by the authentication filter, if any
+     * @return the per-item results, in submission order
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> submitBatch(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                         @RequestBody(required = false) List<BatchTransactionRequest> requests,
+                                         @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
+        try {
+            ValidationUtil.validateBearerToken(authorization);
+            String userId = ValidationUtil.authenticatedSubject(principal, authorization);
+            ValidationUtil.validateBatch(requests);
+            return ResponseEntity.ok(transactionBatchService.submit(userId, requests));
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
+        }
+    }
+}
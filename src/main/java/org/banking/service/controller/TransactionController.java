@@ -1,21 +1,32 @@
 package org.banking.service.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.banking.service.auth.AuthenticationFilter;
 import org.banking.service.model.*;
 import org.banking.service.service.TransactionService;
+import org.banking.service.util.CannedError;
+import org.banking.service.util.ValidationException;
 import org.banking.service.util.ValidationUtil;
 import org.banking.service.service.AccountService;
+import org.banking.service.service.LedgerService;
 import org.banking.service.util.ErrorUtil;
+import org.banking.service.util.IdempotencyStore;
+import org.banking.service.util.TransactionExport;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * REST controller for transaction management endpoints.
- * Provides endpoints to create, fetch, and list transactions for a bank account.
+ * Provides endpoints to create, fetch, list and export transactions for a bank account.
  */
 @RestController
 @RequestMapping("/v1/accounts/{accountNumber}/transactions")
@@ -24,172 +35,207 @@ public class TransactionController {
     private TransactionService transactionService;
     @Autowired
     private AccountService accountService;
+    @Autowired
+    private LedgerService ledgerService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private IdempotencyStore<ResponseEntity<?>> idempotencyStore;
 
     /**
      * Creates a new transaction (deposit or withdrawal) for a bank account.
+     * With an {@code Idempotency-Key} header, a retry of a request that created a transaction
+     * returns the original transaction instead of creating another, and concurrent duplicates
+     * wait for the first rather than each applying the change.
      * @param authorization the Authorization header
+     * @param idempotencyKey the Idempotency-Key header, if any
      * @param accountNumber the account number
      * @param request the transaction creation request
+     * @param principal the userId verified by the authentication filter, if any
      * @return the created transaction response
      */
     @PostMapping
     public ResponseEntity<?> createTransaction(@RequestHeader(value = "Authorization", required = false) String authorization,
-                                               @PathVariable String accountNumber, @RequestBody CreateTransactionRequest request) {
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                               @PathVariable String accountNumber, @RequestBody CreateTransactionRequest request,
+                                               @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
         try {
             ValidationUtil.validateBearerToken(authorization);
             ValidationUtil.validateAccountNumber(accountNumber);
-            String token = authorization.substring(7);
-            String userId = org.banking.service.util.JwtUtil.validateTokenAndGetSubject(token);
-            BankAccountResponse account = accountService.fetchAccount(accountNumber);
-            if (account == null) {
-                ErrorResponse error = ErrorUtil.error("Bank account was not found");
-                return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
-            }
-            if (!userId.equals(account.getUserId())) {
-                ErrorResponse error = ErrorUtil.error("Forbidden: You can only transact on your own bank account");
-                return new ResponseEntity<>(error, HttpStatus.FORBIDDEN);
-            }
-            List<BadRequestErrorResponse.Detail> details = ValidationUtil.validateCreateTransactionRequestAll(request);
-            if (!details.isEmpty()) {
-                return new ResponseEntity<>(ErrorUtil.badRequest("Invalid details supplied", details), HttpStatus.BAD_REQUEST);
-            }
-            Double amount = request.getAmount();
-            if ("withdrawal".equalsIgnoreCase(request.getType())) {
-                if (amount == null || amount > account.getBalance()) {
-                    ErrorResponse error = ErrorUtil.error("Insufficient funds to process transaction");
-                    return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
-                }
-                account.setBalance(account.getBalance() - amount);
-                account.setUpdatedTimestamp(OffsetDateTime.now());
-            } else if ("deposit".equalsIgnoreCase(request.getType())) {
-                account.setBalance(account.getBalance() + amount);
-                account.setUpdatedTimestamp(OffsetDateTime.now());
-            }
-        } catch (IllegalArgumentException ex) {
-            String msg = ex.getMessage();
-            if (msg.contains("Authorization")) {
-                ErrorResponse error = ErrorUtil.error("Access token is missing or invalid");
-                return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
-            } else {
-                String field = null;
-                if (msg.contains("accountNumber")) field = "accountNumber";
-                else if (msg.contains("transactionId")) field = "transactionId";
-                else if (msg.contains("amount")) field = "amount";
-                else if (msg.contains("currency")) field = "currency";
-                else if (msg.contains("type")) field = "type";
-                BadRequestErrorResponse error = ErrorUtil.badRequest(
-                    msg,
-                    List.of(ErrorUtil.detail(field, msg, "pattern"))
-                );
-                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+            ValidationUtil.validateIdempotencyKey(idempotencyKey);
+            String userId = ValidationUtil.authenticatedSubject(principal, authorization);
+            if (idempotencyKey == null) {
+                return create(userId, accountNumber, request);
             }
+            List<Object> fingerprint = Arrays.asList(accountNumber, request.getAmount(), request.getCurrency(),
+                    request.getType(), request.getReference());
+            return idempotencyStore.execute(userId + ' ' + idempotencyKey, fingerprint,
+                    () -> create(userId, accountNumber, request), CannedError.IDEMPOTENCY_KEY_REUSED.response());
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
-        TransactionResponse response = transactionService.createTransaction(accountNumber, request);
+    }
+
+    /**
+     * Checks ownership and the request, then has the ledger apply the balance change and record the transaction.
+     * @param userId the authenticated user
+     * @param accountNumber the account number
+     * @param request the transaction creation request
+     * @return the created transaction response, or the error response
+     * @throws ValidationException if the account has gone or the withdrawal exceeds the balance
+     */
+    private ResponseEntity<?> create(String userId, String accountNumber, CreateTransactionRequest request) {
+        BankAccountResponse account = accountService.fetchAccount(accountNumber);
+        if (account == null) {
+            return CannedError.BANK_ACCOUNT_NOT_FOUND.response();
+        }
+        if (!userId.equals(account.getUserId())) {
+            return CannedError.FORBIDDEN_TRANSACT.response();
+        }
+        List<BadRequestErrorResponse.Detail> details = ValidationUtil.validateCreateTransactionRequestAll(request);
+        if (!details.isEmpty()) {
+            return new ResponseEntity<>(ErrorUtil.badRequest("Invalid details supplied", details), HttpStatus.BAD_REQUEST);
+        }
+        TransactionResponse response = ledgerService.createTransaction(accountNumber, request);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
     /**
-     * Lists all transactions for a bank account.
+     * Lists transactions for a bank account, oldest first.
+     * Without query parameters the whole history is returned; with any of them the listing is
+     * paginated, following {@code nextCursor} from one page to the next.
      * @param authorization the Authorization header
      * @param accountNumber the account number
+     * @param cursor the opaque cursor from the previous page
+     * @param limit the maximum number of transactions per page
+     * @param from the inclusive ISO-8601 lower bound on created time
+     * @param to the exclusive ISO-8601 upper bound on created time
+     * @param principal the userId verified by the authentication filter, if any
      * @return the list of transactions response
      */
     @GetMapping
     public ResponseEntity<?> listTransactions(@RequestHeader(value = "Authorization", required = false) String authorization,
-                                              @PathVariable String accountNumber) {
+                                              @PathVariable String accountNumber,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String from,
+                                              @RequestParam(required = false) String to,
+                                              @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
+        ListTransactionsResponse response;
         try {
             ValidationUtil.validateBearerToken(authorization);
             ValidationUtil.validateAccountNumber(accountNumber);
-            String token = authorization.substring(7);
-            String userId = org.banking.service.util.JwtUtil.validateTokenAndGetSubject(token);
+            ValidationUtil.validateLimit(limit);
+            OffsetDateTime fromTime = ValidationUtil.parseTimestamp(from, "from");
+            OffsetDateTime toTime = ValidationUtil.parseTimestamp(to, "to");
+            String userId = ValidationUtil.authenticatedSubject(principal, authorization);
             BankAccountResponse account = accountService.fetchAccount(accountNumber);
             if (account == null) {
-                ErrorResponse error = new ErrorResponse();
-                error.setMessage("Bank account was not found");
-                return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+                return CannedError.BANK_ACCOUNT_NOT_FOUND.response();
             }
             if (!userId.equals(account.getUserId())) {
-                ErrorResponse error = new ErrorResponse();
-                error.setMessage("Forbidden: You can only view transactions for your own bank account");
-                return new ResponseEntity<>(error, HttpStatus.FORBIDDEN);
+                return CannedError.FORBIDDEN_TRANSACTIONS.response();
             }
-        } catch (IllegalArgumentException ex) {
-            String msg = ex.getMessage();
-            if (msg.contains("Authorization")) {
-                ErrorResponse error = new ErrorResponse();
-                error.setMessage("Access token is missing or invalid");
-                return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
+            if (cursor == null && limit == null && fromTime == null && toTime == null) {
+                response = transactionService.listTransactions(accountNumber);
             } else {
-                String field = null;
-                if (msg.contains("accountNumber")) field = "accountNumber";
-                else if (msg.contains("transactionId")) field = "transactionId";
-                else if (msg.contains("amount")) field = "amount";
-                else if (msg.contains("currency")) field = "currency";
-                else if (msg.contains("type")) field = "type";
-                BadRequestErrorResponse error = ErrorUtil.badRequest(
-                    msg,
-                    java.util.List.of(ErrorUtil.detail(field, msg, "pattern"))
-                );
-                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+                response = transactionService.listTransactions(accountNumber, cursor, limit, fromTime, toTime);
             }
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
-        ListTransactionsResponse response = transactionService.listTransactions(accountNumber);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Streams an account's whole transaction history, oldest first, as NDJSON or CSV.
+     * Transactions are written as they are read from the log, so the response is never held in
+     * memory; it covers the history as of the request, excluding transactions created while it
+     * is being written.
+     * @param authorization the Authorization header
+     * @param accountNumber the account number
+     * @param format {@code ndjson} (the default) or {@code csv}
+     * @param principal the userId verified by the authentication filter, if any
+     * @return the streamed export
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                                                    @PathVariable String accountNumber,
+                                                                    @RequestParam(required = false) String format,
+                                                                    @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
+        TransactionExport.Format exportFormat;
+        try {
+            ValidationUtil.validateBearerToken(authorization);
+            ValidationUtil.validateAccountNumber(accountNumber);
+            exportFormat = TransactionExport.format(format);
+            String userId = ValidationUtil.authenticatedSubject(principal, authorization);
+            BankAccountResponse account = accountService.fetchAccount(accountNumber);
+            if (account == null) {
+                return streamed(CannedError.BANK_ACCOUNT_NOT_FOUND.response());
+            }
+            if (!userId.equals(account.getUserId())) {
+                return streamed(CannedError.FORBIDDEN_TRANSACTIONS.response());
+            }
+        } catch (ValidationException ex) {
+            return streamed(ErrorUtil.toResponse(ex));
+        }
+        List<TransactionResponse> history = transactionService.transactionHistory(accountNumber);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions-" + accountNumber + "." + exportFormat.extension() + "\"")
+                .body(out -> TransactionExport.write(exportFormat, history, objectMapper, out));
+    }
+
     /**
      * Fetches a transaction by account number and transaction ID.
      * @param authorization the Authorization header
      * @param accountNumber the account number
      * @param transactionId the transaction ID
+     * @param principal the userId verified by the authentication filter, if any
      * @return the transaction response
      */
     @GetMapping("/{transactionId}")
     public ResponseEntity<?> fetchTransaction(@RequestHeader(value = "Authorization", required = false) String authorization,
-                                              @PathVariable String accountNumber, @PathVariable String transactionId) {
+                                              @PathVariable String accountNumber, @PathVariable String transactionId,
+                                              @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
         try {
             ValidationUtil.validateBearerToken(authorization);
             ValidationUtil.validateAccountNumber(accountNumber);
             ValidationUtil.validateTransactionId(transactionId);
-            String token = authorization.substring(7);
-            String userId = org.banking.service.util.JwtUtil.validateTokenAndGetSubject(token);
+            String userId = ValidationUtil.authenticatedSubject(principal, authorization);
             BankAccountResponse account = accountService.fetchAccount(accountNumber);
             if (account == null) {
-                ErrorResponse error = new ErrorResponse();
-                error.setMessage("Bank account was not found");
-                return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+                return CannedError.BANK_ACCOUNT_NOT_FOUND.response();
             }
             if (!userId.equals(account.getUserId())) {
-                ErrorResponse error = new ErrorResponse();
-                error.setMessage("Forbidden: You can only view transactions for your own bank account");
-                return new ResponseEntity<>(error, HttpStatus.FORBIDDEN);
-            }
-        } catch (IllegalArgumentException ex) {
-            String msg = ex.getMessage();
-            if (msg.contains("Authorization")) {
-                ErrorResponse error = new ErrorResponse();
-                error.setMessage("Access token is missing or invalid");
-                return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
-            } else {
-                String field = null;
-                if (msg.contains("accountNumber")) field = "accountNumber";
-                else if (msg.contains("transactionId")) field = "transactionId";
-                else if (msg.contains("amount")) field = "amount";
-                else if (msg.contains("currency")) field = "currency";
-                else if (msg.contains("type")) field = "type";
-                BadRequestErrorResponse error = ErrorUtil.badRequest(
-                    msg,
-                    java.util.List.of(ErrorUtil.detail(field, msg, "pattern"))
-                );
-                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+                return CannedError.FORBIDDEN_TRANSACTIONS.response();
             }
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
         TransactionResponse response = transactionService.fetchTransaction(accountNumber, transactionId);
         if (response == null) {
-            ErrorResponse error = new ErrorResponse();
-            error.setMessage("Transaction was not found");
-            return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+            return CannedError.TRANSACTION_NOT_FOUND.response();
         }
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Wraps an error response so it can be returned from a streaming endpoint, keeping its status and JSON body.
+     * @param error the error response
+     * @return the same error as a streamed response
+     */
+    private ResponseEntity<StreamingResponseBody> streamed(ResponseEntity<Object> error) {
+        Object body = error.getBody();
+        return ResponseEntity.status(error.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> {
+                    if (body instanceof byte[]) {
+                        out.write((byte[]) body);
+                    } else {
+                        objectMapper.writeValue(out, body);
+                    }
+                });
+    }
 }
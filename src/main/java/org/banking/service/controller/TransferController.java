@@ -0,0 +1,96 @@
+package org.banking.service.controller;
+
+import org.banking.service.auth.AuthenticationFilter;
+import org.banking.service.model.BadRequestErrorResponse;
+import org.banking.service.model.BankAccountResponse;
+import org.banking.service.model.TransferRequest;
+import org.banking.service.model.TransferResponse;
+import org.banking.service.service.AccountService;
+import org.banking.service.service.LedgerService;
+import org.banking.service.util.CannedError;
+import org.banking.service.util.ErrorUtil;
+import org.banking.service.util.IdempotencyStore;
+import org.banking.service.util.ValidationException;
+import org.banking.service.util.ValidationUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * REST controller for moving money between two of the caller's bank accounts.
+ */
+@RestController
+@RequestMapping("/v1/transfers")
+public class TransferController {
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private LedgerService ledgerService;
+    @Autowired
+    private IdempotencyStore<ResponseEntity<?>> idempotencyStore;
+
+    /**
+     * Transfers money from one of the caller's accounts to another. The withdrawal and deposit
+     * are applied and recorded together, so either both accounts change or neither does.
+     * With an {@code Idempotency-Key} header, a retry of a request that made a transfer returns
+     * the original transfer instead of making another.
+     * @param authorization the Authorization header
+     * @param idempotencyKey the Idempotency-Key header, if any
+     * @param request the transfer request
+     * @param principal the userId verified by the authentication filter, if any
+     * @return the transactions recorded on the two accounts
+     */
+    @PostMapping
+    public ResponseEntity<?> createTransfer(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                            @RequestBody(required = false) TransferRequest request,
+                                            @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
+        try {
+            ValidationUtil.validateBearerToken(authorization);
+            ValidationUtil.validateIdempotencyKey(idempotencyKey);
+            String userId = ValidationUtil.authenticatedSubject(principal, authorization);
+            List<BadRequestErrorResponse.Detail> details = ValidationUtil.validateTransferRequestAll(request);
+            if (!details.isEmpty()) {
+                return new ResponseEntity<>(ErrorUtil.badRequest("Invalid details supplied", details), HttpStatus.BAD_REQUEST);
+            }
+            if (idempotencyKey == null) {
+                return transfer(userId, request);
+            }
+            List<Object> fingerprint = Arrays.asList("transfer", request.getFromAccountNumber(), request.getToAccountNumber(),
+                    request.getAmount(), request.getCurrency(), request.getReference());
+            return idempotencyStore.execute(userId + ' ' + idempotencyKey, fingerprint,
+                    () -> transfer(userId, request), CannedError.IDEMPOTENCY_KEY_REUSED.response());
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
+        }
+    }
+
+    /**
+     * Checks that the caller owns both accounts, then has the ledger make the transfer.
+     * @param userId the authenticated user
+     * @param request the validated transfer request
+     * @return the transfer response, or the error response
+     * @throws ValidationException if an account has gone or the amount exceeds the balance
+     */
+    private ResponseEntity<?> transfer(String userId, TransferRequest request) {
+        ResponseEntity<?> error = checkOwner(userId, request.getFromAccountNumber());
+        if (error == null) error = checkOwner(userId, request.getToAccountNumber());
+        if (error != null) {
+            return error;
+        }
+        TransferResponse response = ledgerService.transfer(request);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    private ResponseEntity<?> checkOwner(String userId, String accountNumber) {
+        BankAccountResponse account = accountService.fetchAccount(accountNumber);
+        if (account == null) {
+            return CannedError.BANK_ACCOUNT_NOT_FOUND.response();
+        }
+        return userId.equals(account.getUserId()) ? null : CannedError.FORBIDDEN_TRANSACT.response();
+    }
+}
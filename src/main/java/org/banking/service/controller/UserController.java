@@ -1,8 +1,11 @@
 package org.banking.service.controller;
 
+import org.banking.service.auth.AuthenticationFilter;
 import org.banking.service.model.*;
 import org.banking.service.service.UserService;
+import org.banking.service.util.CannedError;
 import org.banking.service.util.ErrorUtil;
+import org.banking.service.util.ValidationException;
 import org.banking.service.util.ValidationUtil;
 import org.banking.service.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,17 +45,8 @@ public class UserController {
             ValidationUtil.validateCreateUserRequest(request);
             UserResponse user = userService.createUser(request);
             return new ResponseEntity<>(user, HttpStatus.CREATED);
-        } catch (IllegalArgumentException ex) {
-            String msg = ex.getMessage();
-            String field = null;
-            if (msg.contains("userId")) field = "userId";
-            else if (msg.contains("phoneNumber")) field = "phoneNumber";
-            else if (msg.contains("email")) field = "email";
-            BadRequestErrorResponse error = ErrorUtil.badRequest(
-                msg,
-                java.util.List.of(ErrorUtil.detail(field, msg, "pattern"))
-            );
-            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
     }
 
@@ -60,29 +54,22 @@ public class UserController {
      * Fetches a user by userId.
      * @param userId the user ID
      * @param authHeader the Authorization header
+     * @param principal the userId verified by the authentication filter, if any
      * @return the user response
      */
     @GetMapping("/{userId}")
-    public ResponseEntity<?> fetchUser(@PathVariable String userId, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> fetchUser(@PathVariable String userId, @RequestHeader("Authorization") String authHeader,
+                                       @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
         try {
             ValidationUtil.validateUserId(userId);
-            ValidationUtil.validateAuthHeader(authHeader, userId);
+            ValidationUtil.validateAuthHeader(authHeader, principal, userId);
             UserResponse user = userService.fetchUser(userId);
             if (user == null) {
-                return new ResponseEntity<>(ErrorUtil.error("User not found"), HttpStatus.NOT_FOUND);
+                return CannedError.USER_NOT_FOUND.response();
             }
             return new ResponseEntity<>(user, HttpStatus.OK);
-        } catch (IllegalArgumentException ex) {
-            String msg = ex.getMessage();
-            String field = null;
-            if (msg.contains("userId")) field = "userId";
-            else if (msg.contains("phoneNumber")) field = "phoneNumber";
-            else if (msg.contains("email")) field = "email";
-            BadRequestErrorResponse error = ErrorUtil.badRequest(
-                msg,
-                java.util.List.of(ErrorUtil.detail(field, msg, "pattern"))
-            );
-            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
     }
 
@@ -91,30 +78,23 @@ public class UserController {
      * @param userId the user ID
      * @param authHeader the Authorization header
      * @param request the update request
+     * @param principal the userId verified by the authentication filter, if any
      * @return the updated user response
      */
     @PatchMapping("/{userId}")
-    public ResponseEntity<?> updateUser(@PathVariable String userId, @RequestHeader("Authorization") String authHeader, @RequestBody UpdateUserRequest request) {
+    public ResponseEntity<?> updateUser(@PathVariable String userId, @RequestHeader("Authorization") String authHeader, @RequestBody UpdateUserRequest request,
+                                        @RequestAttribute(name = AuthenticationFilter.PRINCIPAL, required = false) String principal) {
         try {
             ValidationUtil.validateUserId(userId);
-            ValidationUtil.validateAuthHeader(authHeader, userId);
+            ValidationUtil.validateAuthHeader(authHeader, principal, userId);
             ValidationUtil.validateUpdateUserRequest(request);
             UserResponse user = userService.updateUser(userId, request);
             if (user == null) {
-                return new ResponseEntity<>(ErrorUtil.error("User not found"), HttpStatus.NOT_FOUND);
+                return CannedError.USER_NOT_FOUND.response();
             }
             return new ResponseEntity<>(user, HttpStatus.OK);
-        } catch (IllegalArgumentException ex) {
-            String msg = ex.getMessage();
-            String field = null;
-            if (msg.contains("userId")) field = "userId";
-            else if (msg.contains("phoneNumber")) field = "phoneNumber";
-            else if (msg.contains("email")) field = "email";
-            BadRequestErrorResponse error = ErrorUtil.badRequest(
-                msg,
-                java.util.List.of(ErrorUtil.detail(field, msg, "pattern"))
-            );
-            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (ValidationException ex) {
+            return ErrorUtil.toResponse(ex);
         }
     }
 }
@@ -0,0 +1,747 @@
+package org.banking.service.ledger;
+
+import org.banking.service.model.BankAccountResponse;
+import org.banking.service.model.CreateTransactionRequest;
+import org.banking.service.model.TransactionResponse;
+import org.banking.service.model.TransferRequest;
+import org.banking.service.model.TransferResponse;
+import org.banking.service.model.UpdateBankAccountRequest;
+import org.banking.service.service.AccountService;
+import org.banking.service.service.LedgerService;
+import org.banking.service.service.TransactionService;
+import org.banking.service.util.CannedError;
+import org.banking.service.util.MoneyUtil;
+import org.banking.service.util.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies every change to an account on a single thread: account numbers are hash-partitioned
+ * across a fixed set of workers, each of which takes commands from its own queue in arrival order.
+ * <p>
+ * Because one worker owns an account, its balance change, transaction record, update and
+ * deletion never interleave. For example, a deposit can no longer be recorded against an
+ * account that was deleted after the deposit was checked, and concurrent renames cannot
+ * overwrite each other's fields. Callers wait on a future for the outcome.
+ * <p>
+ * Callers queue commands through a bounded queue and wait while it is full. Commands the
+ * ledger queues itself, reversals and transfers handed from one worker to another, go on an
+ * unbounded control queue that the worker drains first, so a worker or the journal's thread
+ * never waits for room in another worker's queue.
+ * <p>
+ * A worker drains all the commands waiting in its queues and applies their balance changes
+ * first. It then queues the accepted transactions of all of them for the journal with one
+ * {@link TransactionService#createTransactions} call and moves on to the next batch without
+ * waiting for the write to become durable; the commands complete once it has. The batch grows
+ * with load, so the cost of a write-ahead log commit is shared by everything queued behind it.
+ * <p>
+ * Only debits are applied before they are recorded. A command's withdrawals may draw on its own
+ * deposits, which are recorded with them, but the net credit of a command, and the deposit leg
+ * of a transfer, is held back and credited once the journal has recorded it, so no other command
+ * can spend money the journal may yet fail to record. Until then a held credit still counts
+ * against the account's balance limit, so credits accepted together can never take it past
+ * {@link MoneyUtil#MAX_PENCE}. If the journal fails, the commands fail and their debits are
+ * reversed by a command queued on each account's worker, so the balances
+ * again match what a restart would rebuild from the journal; a reversal only ever adds money
+ * back, so it can never take a balance below zero. An update first queues the transactions
+ * ahead of it, so each account sees its commands in submission order, and is then queued for
+ * the journal without waiting in the same way. A deletion is queued the same way, and the
+ * account is treated as missing by later commands but only removed once the deletion is
+ * durable, after the credits recorded ahead of it.
+ * <p>
+ * A transfer between accounts on different partitions is queued on the lower-numbered one.
+ * When its worker reaches it, that worker queues its own pending transactions for the journal,
+ * hands the transfer to the higher-numbered partition and waits until that worker has applied
+ * both legs and queued the transfer for the journal in turn. While it waits, none of its
+ * accounts can change, so the higher worker applies the transfer as if it owned both accounts, and
+ * the journal receives the transfer in order with both accounts' other transactions. A worker
+ * only ever waits for a higher-numbered one, so the waits cannot form a cycle and transfers
+ * cannot deadlock, however they cross.
+ */
+@Service
+public class PartitionedLedger implements LedgerService, AutoCloseable {
+    static final int QUEUE_CAPACITY = 16_384;
+    static final int MAX_DRAIN = 1_024;
+    /** Queued to wake a worker for a command on its control queue. */
+    private static final Command<Void> WAKE_UP = new Command<>(null) {
+        @Override
+        void apply(Pending pending) {
+        }
+    };
+
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final Partition[] partitions;
+    /** Deletions queued for the journal but not yet durable, by account number. */
+    private final Map<String, CompletableFuture<Void>> deletions = new ConcurrentHashMap<>();
+    /** Credits accepted but not yet recorded, in pence by account number, counted against the balance limit. */
+    private final Map<String, Long> heldCredits = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a PartitionedLedger and starts its workers.
+     * @param accountService the account service holding balances and account details
+     * @param transactionService the transaction service recording transactions
+     * @param partitions the number of workers, or zero for one per available processor
+     */
+    @Autowired
+    public PartitionedLedger(AccountService accountService, TransactionService transactionService,
+                             @Value("${banking.ledger.partitions:0}") int partitions) {
+        if (partitions < 0) throw new IllegalArgumentException("banking.ledger.partitions must not be negative");
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        int count = partitions == 0 ? Runtime.getRuntime().availableProcessors() : partitions;
+        this.partitions = new Partition[count];
+        for (int i = 0; i < count; i++) {
+            this.partitions[i] = new Partition(i);
+        }
+    }
+
+    /**
+     * Gets the number of workers.
+     * @return the partition count
+     */
+    public int partitions() {
+        return partitions.length;
+    }
+
+    /**
+     * Applies a deposit or withdrawal and records it as a transaction.
+     * @param accountNumber the account number
+     * @param request the validated transaction creation request
+     * @return the created transaction
+     * @throws ValidationException with {@code NOT_FOUND} if the account does not exist, or
+     *         {@code UNPROCESSABLE} if a withdrawal exceeds the balance or a deposit would take
+     *         it above the limit
+     */
+    @Override
+    public TransactionResponse createTransaction(String accountNumber, CreateTransactionRequest request) {
+        List<TransactionResponse> created = await(submitTransactions(accountNumber, List.of(request)));
+        if (created == null) {
+            throw ValidationException.notFound(CannedError.BANK_ACCOUNT_NOT_FOUND.message());
+        }
+        if (created.get(0) == null) {
+            CannedError error = "withdrawal".equalsIgnoreCase(request.getType())
+                    ? CannedError.INSUFFICIENT_FUNDS : CannedError.BALANCE_LIMIT;
+            throw ValidationException.unprocessable(error.message());
+        }
+        return created.get(0);
+    }
+
+    /**
+     * Queues several deposits and withdrawals on one account, applied in order; a withdrawal is
+     * checked against the balance left by the requests before it.
+     * @param accountNumber the account number
+     * @param requests the validated transaction creation requests
+     * @return a future of the created transactions in request order, with null for each
+     *         withdrawal refused for insufficient funds and each deposit refused for the balance
+     *         limit, or of null if the account does not exist
+     */
+    @Override
+    public CompletableFuture<List<TransactionResponse>> submitTransactions(String accountNumber,
+                                                                        List<? extends CreateTransactionRequest> requests) {
+        long[] amounts = new long[requests.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            CreateTransactionRequest request = requests.get(i);
+            long pence = MoneyUtil.toPence(request.getAmount());
+            amounts[i] = "withdrawal".equalsIgnoreCase(request.getType()) ? -pence : pence;
+        }
+        Transactions command = new Transactions(accountNumber, requests, amounts);
+        submit(command, partitionOf(accountNumber, partitions.length));
+        return command.result;
+    }
+
+    /**
+     * Moves money between two accounts: the withdrawal and the deposit are applied together and
+     * recorded in one journal record, or not at all.
+     * @param request the validated transfer request, between two different accounts
+     * @return the transactions recorded on the two accounts
+     * @throws ValidationException with {@code NOT_FOUND} if either account does not exist, or
+     *         {@code UNPROCESSABLE} if the amount exceeds the source account's balance or would
+     *         take the destination's above the limit
+     */
+    @Override
+    public TransferResponse transfer(TransferRequest request) {
+        Transfer command = new Transfer(request, MoneyUtil.toPence(request.getAmount()));
+        submit(command, Math.min(partitionOf(request.getFromAccountNumber(), partitions.length),
+                partitionOf(request.getToAccountNumber(), partitions.length)));
+        return await(command.result);
+    }
+
+    /**
+     * Updates an account's details.
+     * @param accountNumber the account number
+     * @param request the validated update request
+     * @return the updated account, or null if it does not exist
+     */
+    @Override
+    public BankAccountResponse updateAccount(String accountNumber, UpdateBankAccountRequest request) {
+        Update command = new Update(accountNumber, request);
+        submit(command, partitionOf(accountNumber, partitions.length));
+        return await(command.result);
+    }
+
+    /**
+     * Deletes an account, after any transactions already queued for it.
+     * @param accountNumber the account number
+     */
+    @Override
+    public void deleteAccount(String accountNumber) {
+        Delete command = new Delete(accountNumber);
+        submit(command, partitionOf(accountNumber, partitions.length));
+        await(command.result);
+    }
+
+    /**
+     * Stops the workers. Commands still queued fail with {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Partition partition : partitions) {
+            partition.thread.interrupt();
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queues a caller's command, waiting while the partition's queue is full.
+     * @param command the command
+     * @param index the partition index
+     */
+    private void submit(Command<?> command, int index) {
+        if (closed) {
+            throw new IllegalStateException("Ledger is closed");
+        }
+        Partition partition = partitions[index];
+        try {
+            partition.queue.put(command);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a ledger command", ex);
+        }
+        if (closed) {
+            // The worker may already have drained its queue for the last time.
+            partition.fail(command);
+        }
+    }
+
+    /**
+     * Queues a command from the ledger itself on a partition's control queue, without ever
+     * waiting. If the ledger is closed the command fails instead.
+     * @param command the command
+     * @param index the partition index
+     */
+    private void submitInternal(Command<?> command, int index) {
+        Partition partition = partitions[index];
+        partition.control.add(command);
+        // Wakes the worker if it is waiting; a full queue means it is busy and will see the command anyway.
+        partition.queue.offer(WAKE_UP);
+        if (closed) {
+            partition.fail(command);
+        }
+    }
+
+    /**
+     * Maps an account number to its partition.
+     * @param accountNumber the account number
+     * @param partitions the number of partitions
+     * @return the partition index
+     */
+    static int partitionOf(String accountNumber, int partitions) {
+        int hash = accountNumber.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw ex;
+        }
+    }
+
+    /**
+     * Reverses a debit the journal failed to record on the worker owning the account:
+     * straight away if called on that worker, otherwise on its control queue, ahead of any
+     * command submitted once the failure is reported. If the ledger is closed, the reversal is
+     * dropped, and a restart rebuilds the balances from the journal.
+     * @param accountNumber the account number
+     * @param amountPence the amount to add back, in pence
+     */
+    private void reverse(String accountNumber, long amountPence) {
+        int index = partitionOf(accountNumber, partitions.length);
+        if (Thread.currentThread() == partitions[index].thread) {
+            accountService.deposit(accountNumber, amountPence);
+            return;
+        }
+        submitInternal(new Reversal(accountNumber, amountPence), index);
+    }
+
+    /**
+     * Gets the credits accepted for an account but not yet recorded.
+     * @param accountNumber the account number
+     * @return the held credits, in pence
+     */
+    private long held(String accountNumber) {
+        return heldCredits.isEmpty() ? 0 : heldCredits.getOrDefault(accountNumber, 0L);
+    }
+
+    /**
+     * Adds an accepted credit to an account's held credits, on the worker owning the account.
+     * @param accountNumber the account number
+     * @param amountPence the credit, in pence
+     */
+    private void hold(String accountNumber, long amountPence) {
+        heldCredits.merge(accountNumber, amountPence, Long::sum);
+    }
+
+    /**
+     * Removes a credit from an account's held credits once it has been deposited or has failed.
+     * @param accountNumber the account number
+     * @param amountPence the credit, in pence
+     */
+    private void release(String accountNumber, long amountPence) {
+        heldCredits.computeIfPresent(accountNumber, (k, held) -> held == amountPence ? null : held - amountPence);
+    }
+
+    /**
+     * Checks whether an account's deletion has been queued, so commands after it must treat the
+     * account as missing even though it is only removed once the deletion is durable.
+     * @param accountNumber the account number
+     * @return whether a deletion of the account is in flight
+     */
+    private boolean isBeingDeleted(String accountNumber) {
+        return !deletions.isEmpty() && deletions.containsKey(accountNumber);
+    }
+
+    /**
+     * Waits for a future on a worker thread, leaving any failure for the caller to receive.
+     */
+    private static void awaitQuietly(CompletableFuture<?> future) {
+        try {
+            future.join();
+        } catch (CompletionException | CancellationException ex) {
+            // Reported through the command's own result.
+        }
+    }
+
+    /**
+     * One worker and the queues it owns.
+     */
+    private final class Partition implements Runnable {
+        private final BlockingQueue<Command<?>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final Queue<Command<?>> control = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private final Pending pending = new Pending();
+
+        Partition(int index) {
+            thread = new Thread(this, "ledger-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            List<Command<?>> batch = new ArrayList<>(MAX_DRAIN);
+            while (!closed) {
+                Command<?> next;
+                try {
+                    next = queue.take();
+                } catch (InterruptedException ex) {
+                    break;
+                }
+                Command<?> internal;
+                while ((internal = control.poll()) != null) {
+                    batch.add(internal);
+                }
+                batch.add(next);
+                queue.drainTo(batch, MAX_DRAIN - batch.size());
+                for (Command<?> command : batch) {
+                    try {
+                        command.apply(pending);
+                    } catch (RuntimeException | Error ex) {
+                        command.fail(ex);
+                    }
+                }
+                pending.flush();
+                batch.clear();
+            }
+            Command<?> command;
+            while ((command = control.poll()) != null || (command = queue.poll()) != null) {
+                fail(command);
+            }
+        }
+
+        void fail(Command<?> command) {
+            if (queue.remove(command) || control.remove(command) || Thread.currentThread() == thread) {
+                command.fail(new IllegalStateException("Ledger is closed"));
+            }
+        }
+    }
+
+    /**
+     * Transactions or transfers whose balance changes have been applied but which are not yet
+     * recorded. It holds one kind at a time, queueing the other kind for the journal before
+     * switching, so the journal sees them in the order they were applied. Only used by its
+     * partition's worker.
+     */
+    private final class Pending {
+        private List<String> accountNumbers = new ArrayList<>();
+        private List<CreateTransactionRequest> requests = new ArrayList<>();
+        private List<Transactions> owners = new ArrayList<>();
+        private List<Integer> positions = new ArrayList<>();
+        private List<TransferRequest> transferRequests = new ArrayList<>();
+        private List<Transfer> transfers = new ArrayList<>();
+
+        void add(Transactions owner, int position) {
+            if (!transfers.isEmpty()) {
+                flush();
+            }
+            accountNumbers.add(owner.accountNumber);
+            requests.add(owner.requests.get(position));
+            owners.add(owner);
+            positions.add(position);
+        }
+
+        void add(Transfer transfer) {
+            if (!requests.isEmpty()) {
+                flush();
+            }
+            transferRequests.add(transfer.request);
+            transfers.add(transfer);
+        }
+
+        /**
+         * Queues the pending changes for the journal without waiting for them to become durable.
+         * Their commands complete once they are, while the worker moves on.
+         */
+        void flush() {
+            if (!transfers.isEmpty()) {
+                flushTransfers();
+            } else if (!requests.isEmpty()) {
+                flushTransactions();
+            }
+        }
+
+        private void flushTransactions() {
+            List<Transactions> batchOwners = owners;
+            List<Integer> batchPositions = positions;
+            CompletableFuture<List<TransactionResponse>> recorded;
+            try {
+                recorded = transactionService.createTransactions(accountNumbers, requests);
+            } catch (RuntimeException | Error ex) {
+                recorded = CompletableFuture.failedFuture(ex);
+            }
+            accountNumbers = new ArrayList<>();
+            requests = new ArrayList<>();
+            owners = new ArrayList<>();
+            positions = new ArrayList<>();
+            recorded.whenComplete((created, ex) -> {
+                if (ex != null) {
+                    Transactions previous = null;
+                    for (Transactions owner : batchOwners) {
+                        if (owner != previous) {
+                            if (owner.debitPence > 0) {
+                                reverse(owner.accountNumber, owner.debitPence);
+                            }
+                            if (owner.creditPence > 0) {
+                                release(owner.accountNumber, owner.creditPence);
+                            }
+                            owner.result.completeExceptionally(ex);
+                            previous = owner;
+                        }
+                    }
+                    return;
+                }
+                for (int i = 0; i < created.size(); i++) {
+                    batchOwners.get(i).created[batchPositions.get(i)] = created.get(i);
+                }
+                Transactions previous = null;
+                for (Transactions owner : batchOwners) {
+                    if (owner != previous) {
+                        if (owner.creditPence > 0) {
+                            // Deposited before it is released, so the limit check never misses it.
+                            accountService.deposit(owner.accountNumber, owner.creditPence);
+                            release(owner.accountNumber, owner.creditPence);
+                        }
+                        owner.result.complete(Arrays.asList(owner.created));
+                        previous = owner;
+                    }
+                }
+            });
+        }
+
+        private void flushTransfers() {
+            List<Transfer> batch = transfers;
+            CompletableFuture<List<TransactionResponse>> recorded;
+            try {
+                recorded = transactionService.createTransfers(transferRequests);
+            } catch (RuntimeException | Error ex) {
+                recorded = CompletableFuture.failedFuture(ex);
+            }
+            transferRequests = new ArrayList<>();
+            transfers = new ArrayList<>();
+            for (Transfer transfer : batch) {
+                transfer.queued.complete(null);
+            }
+            recorded.whenComplete((created, ex) -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    Transfer transfer = batch.get(i);
+                    String to = transfer.request.getToAccountNumber();
+                    if (ex != null) {
+                        reverse(transfer.request.getFromAccountNumber(), transfer.amountPence);
+                        release(to, transfer.amountPence);
+                        transfer.result.completeExceptionally(ex);
+                    } else {
+                        accountService.deposit(to, transfer.amountPence);
+                        release(to, transfer.amountPence);
+                        transfer.result.complete(new TransferResponse(created.get(2 * i), created.get(2 * i + 1)));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * A change to one account, completed by the worker that owns it.
+     */
+    private abstract static class Command<T> {
+        final String accountNumber;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Command(String accountNumber) {
+            this.accountNumber = accountNumber;
+        }
+
+        /**
+         * Applies the command on its partition's worker.
+         * @param pending the worker's unrecorded transactions
+         */
+        abstract void apply(Pending pending);
+
+        /**
+         * Completes the command once a change queued for the journal is durable, without waiting for it.
+         * @param recorded the future of the change
+         */
+        void complete(CompletableFuture<T> recorded) {
+            recorded.whenComplete((value, ex) -> {
+                if (ex != null) {
+                    result.completeExceptionally(ex);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+
+        /**
+         * Completes the command with a failure.
+         * @param ex the failure
+         */
+        void fail(Throwable ex) {
+            result.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Deposits and withdrawals on one account.
+     */
+    private final class Transactions extends Command<List<TransactionResponse>> {
+        final List<? extends CreateTransactionRequest> requests;
+        final long[] amounts;
+        final TransactionResponse[] created;
+        /** Net debit applied by the worker, in pence, reversed if the journal fails. */
+        long debitPence;
+        /** Net credit held back until the journal has recorded it, in pence. */
+        long creditPence;
+
+        Transactions(String accountNumber, List<? extends CreateTransactionRequest> requests, long[] amounts) {
+            super(accountNumber);
+            this.requests = requests;
+            this.amounts = amounts;
+            this.created = new TransactionResponse[amounts.length];
+        }
+
+        @Override
+        void apply(Pending pending) {
+            long[] balances = isBeingDeleted(accountNumber)
+                    ? null : accountService.applyDebits(accountNumber, amounts, held(accountNumber));
+            if (balances == null) {
+                result.complete(null);
+                return;
+            }
+            boolean accepted = false;
+            long net = 0;
+            for (int i = 0; i < balances.length; i++) {
+                if (balances[i] >= 0) {
+                    pending.add(this, i);
+                    net += amounts[i];
+                    accepted = true;
+                }
+            }
+            debitPence = Math.max(0, -net);
+            creditPence = Math.max(0, net);
+            if (creditPence > 0) {
+                hold(accountNumber, creditPence);
+            }
+            if (!accepted) {
+                result.complete(Arrays.asList(created));
+            }
+        }
+    }
+
+    /**
+     * A transfer between two accounts, queued on the lower-numbered of their partitions.
+     */
+    private final class Transfer extends Command<TransferResponse> {
+        final TransferRequest request;
+        final long amountPence;
+        /** Completed once both legs are applied and queued for the journal, or the transfer has failed. */
+        final CompletableFuture<Void> queued = new CompletableFuture<>();
+        /** Set by the lower partition's worker before it queues the transfer on the higher one. */
+        boolean handedOff;
+
+        Transfer(TransferRequest request, long amountPence) {
+            super(request.getFromAccountNumber());
+            this.request = request;
+            this.amountPence = amountPence;
+        }
+
+        @Override
+        void apply(Pending pending) {
+            int from = partitionOf(request.getFromAccountNumber(), partitions.length);
+            int to = partitionOf(request.getToAccountNumber(), partitions.length);
+            if (from != to && !handedOff) {
+                pending.flush();
+                handedOff = true;
+                submitInternal(this, Math.max(from, to));
+                awaitQuietly(queued);
+                return;
+            }
+            if (isBeingDeleted(request.getFromAccountNumber()) || isBeingDeleted(request.getToAccountNumber())) {
+                fail(ValidationException.notFound(CannedError.BANK_ACCOUNT_NOT_FOUND.message()));
+                return;
+            }
+            long debited = accountService.withdraw(request.getFromAccountNumber(), amountPence);
+            if (debited == AccountService.ACCOUNT_NOT_FOUND) {
+                fail(ValidationException.notFound(CannedError.BANK_ACCOUNT_NOT_FOUND.message()));
+                return;
+            }
+            if (debited == AccountService.INSUFFICIENT_FUNDS) {
+                fail(ValidationException.unprocessable(CannedError.INSUFFICIENT_FUNDS.message()));
+                return;
+            }
+            // The deposit leg is only checked here, and credited once the transfer is recorded.
+            String destination = request.getToAccountNumber();
+            long[] credited = accountService.applyDebits(destination, new long[] {amountPence}, held(destination));
+            if (credited == null || credited[0] == AccountService.BALANCE_LIMIT) {
+                // Nothing is recorded yet, so putting the money back undoes the withdrawal.
+                accountService.deposit(request.getFromAccountNumber(), amountPence);
+                fail(credited == null
+                        ? ValidationException.notFound(CannedError.BANK_ACCOUNT_NOT_FOUND.message())
+                        : ValidationException.unprocessable(CannedError.BALANCE_LIMIT.message()));
+                return;
+            }
+            hold(destination, amountPence);
+            pending.add(this);
+            if (handedOff) {
+                // Release the lower partition's worker as soon as the transfer is in the journal's queue.
+                pending.flush();
+            }
+        }
+
+        @Override
+        void fail(Throwable ex) {
+            result.completeExceptionally(ex);
+            queued.complete(null);
+        }
+    }
+
+    /**
+     * Reversal of a debit that the journal failed to record.
+     */
+    private final class Reversal extends Command<Void> {
+        final long amountPence;
+
+        Reversal(String accountNumber, long amountPence) {
+            super(accountNumber);
+            this.amountPence = amountPence;
+        }
+
+        @Override
+        void apply(Pending pending) {
+            accountService.deposit(accountNumber, amountPence);
+            result.complete(null);
+        }
+    }
+
+    /**
+     * An update to an account's details.
+     */
+    private final class Update extends Command<BankAccountResponse> {
+        final UpdateBankAccountRequest request;
+
+        Update(String accountNumber, UpdateBankAccountRequest request) {
+            super(accountNumber);
+            this.request = request;
+        }
+
+        @Override
+        void apply(Pending pending) {
+            if (isBeingDeleted(accountNumber)) {
+                result.complete(null);
+                return;
+            }
+            pending.flush();
+            complete(accountService.updateAccountAsync(accountNumber, request));
+        }
+    }
+
+    /**
+     * Deletion of an account.
+     */
+    private final class Delete extends Command<Void> {
+        Delete(String accountNumber) {
+            super(accountNumber);
+        }
+
+        @Override
+        void apply(Pending pending) {
+            CompletableFuture<Void> inFlight = deletions.get(accountNumber);
+            if (inFlight != null) {
+                complete(inFlight);
+                return;
+            }
+            pending.flush();
+            CompletableFuture<Void> deleted = accountService.deleteAccountAsync(accountNumber);
+            deletions.put(accountNumber, deleted);
+            deleted.whenComplete((ignored, ex) -> deletions.remove(accountNumber, deleted));
+            complete(deleted);
+        }
+    }
+}
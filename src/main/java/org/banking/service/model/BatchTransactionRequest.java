@@ -0,0 +1,29 @@
+package org.banking.service.model;
+
+/**
+ * One item of a batch transaction submission: a transaction request addressed to an account.
+ */
+public class BatchTransactionRequest extends CreateTransactionRequest {
+    private String accountNumber;
+
+    /**
+     * Default constructor.
+     */
+    public BatchTransactionRequest() {}
+
+    /**
+     * Gets the account number.
+     * @return the account number
+     */
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    /**
+     * Sets the account number.
+     * @param accountNumber the account number
+     */
+    public void setAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+}
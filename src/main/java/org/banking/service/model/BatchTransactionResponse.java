@@ -0,0 +1,118 @@
+package org.banking.service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Response model for a batch transaction submission, with one result per submitted item in
+ * submission order.
+ */
+public class BatchTransactionResponse {
+    private List<Result> results;
+
+    /**
+     * Default constructor.
+     */
+    public BatchTransactionResponse() {}
+
+    /**
+     * Constructs a BatchTransactionResponse.
+     * @param results the per-item results
+     */
+    public BatchTransactionResponse(List<Result> results) {
+        this.results = results;
+    }
+
+    /**
+     * Gets the per-item results.
+     * @return the results, in submission order
+     */
+    public List<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Sets the per-item results.
+     * @param results the results, in submission order
+     */
+    public void setResults(List<Result> results) {
+        this.results = results;
+    }
+
+    /**
+     * Outcome of one item: the HTTP status the equivalent single request would have returned,
+     * with either the created transaction or the error body.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Result {
+        private int status;
+        private TransactionResponse transaction;
+        private Object error;
+
+        /**
+         * Default constructor.
+         */
+        public Result() {}
+
+        /**
+         * Constructs a Result.
+         * @param status the HTTP status code
+         * @param transaction the created transaction, or null if the item failed
+         * @param error the error body, or null if the item succeeded
+         */
+        public Result(int status, TransactionResponse transaction, Object error) {
+            this.status = status;
+            this.transaction = transaction;
+            this.error = error;
+        }
+
+        /**
+         * Gets the HTTP status code.
+         * @return the status code
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Sets the HTTP status code.
+         * @param status the status code
+         */
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        /**
+         * Gets the created transaction.
+         * @return the transaction, or null if the item failed
+         */
+        public TransactionResponse getTransaction() {
+            return transaction;
+        }
+
+        /**
+         * Sets the created transaction.
+         * @param transaction the transaction
+         */
+        public void setTransaction(TransactionResponse transaction) {
+            this.transaction = transaction;
+        }
+
+        /**
+         * Gets the error body, an {@link ErrorResponse} or {@link BadRequestErrorResponse}.
+         * @return the error, or null if the item succeeded
+         */
+        public Object getError() {
+            return error;
+        }
+
+        /**
+         * Sets the error body.
+         * @param error the error
+         */
+        public void setError(Object error) {
+            this.error = error;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List;
  */
 public class ListBankAccountsResponse {
     private List<BankAccountResponse> accounts;
+    private volatile byte[] json;
 
     /**
      * Default constructor.
@@ -28,4 +29,21 @@ public class ListBankAccountsResponse {
     public void setAccounts(List<BankAccountResponse> accounts) {
         this.accounts = accounts;
     }
+
+    /**
+     * Gets this response serialized as JSON, if it has been kept, so a response shared from a
+     * cache is serialized once. Not a property of the response.
+     * @return the UTF-8 JSON, or null if none has been kept
+     */
+    public byte[] json() {
+        return json;
+    }
+
+    /**
+     * Keeps this response serialized as JSON. The accounts must not change afterwards.
+     * @param json the UTF-8 JSON
+     */
+    public void json(byte[] json) {
+        this.json = json;
+    }
 } 
\ No newline at end of file
@@ -1,12 +1,17 @@
 package org.banking.service.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
  * Response model for listing multiple transactions for an account.
+ * When the listing is paginated, {@code nextCursor} is the opaque cursor for the following page.
  */
 public class ListTransactionsResponse {
     private List<TransactionResponse> transactions;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 
     /**
      * Default constructor.
@@ -28,4 +33,20 @@ public class ListTransactionsResponse {
     public void setTransactions(List<TransactionResponse> transactions) {
         this.transactions = transactions;
     }
+
+    /**
+     * Gets the cursor for the next page.
+     * @return the next page cursor, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor for the next page.
+     * @param nextCursor the next page cursor, or null if this is the last page
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,223 @@
+package org.banking.service.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.banking.service.util.TimestampFormat;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Hand-written streaming serializers for the response models, registered with the application's
+ * {@code ObjectMapper} in place of Jackson's reflective bean serialization.
+ * <p>
+ * Each serializer writes the same properties in the same order as the bean serializer did,
+ * with nulls written out except for {@code nextCursor}, and timestamps formatted by
+ * {@link TimestampFormat}, so responses are byte-for-byte unchanged.
+ */
+@JsonComponent
+public class ResponseSerializers {
+
+    /**
+     * Creates a module holding every serializer, for mappers built outside the application context.
+     * @return the module
+     */
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("ResponseSerializers");
+        module.addSerializer(TransactionResponse.class, new Transaction());
+        module.addSerializer(ListTransactionsResponse.class, new TransactionList());
+        module.addSerializer(BankAccountResponse.class, new BankAccount());
+        module.addSerializer(ListBankAccountsResponse.class, new BankAccountList());
+        module.addSerializer(UserResponse.class, new User());
+        return module;
+    }
+
+    /**
+     * Serializes a {@link TransactionResponse}.
+     */
+    public static class Transaction extends StdSerializer<TransactionResponse> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs a Transaction serializer.
+         */
+        public Transaction() {
+            super(TransactionResponse.class);
+        }
+
+        @Override
+        public void serialize(TransactionResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            write(value, gen);
+        }
+
+        static void write(TransactionResponse value, JsonGenerator gen) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("id", value.getId());
+            gen.writeNumberField("amount", value.getAmount());
+            gen.writeStringField("currency", value.getCurrency());
+            gen.writeStringField("type", value.getType());
+            gen.writeStringField("reference", value.getReference());
+            gen.writeStringField("userId", value.getUserId());
+            writeTimestamp(gen, "createdTimestamp", value.getCreatedTimestamp());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Serializes a {@link ListTransactionsResponse}.
+     */
+    public static class TransactionList extends StdSerializer<ListTransactionsResponse> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs a TransactionList serializer.
+         */
+        public TransactionList() {
+            super(ListTransactionsResponse.class);
+        }
+
+        @Override
+        public void serialize(ListTransactionsResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            List<TransactionResponse> transactions = value.getTransactions();
+            gen.writeFieldName("transactions");
+            if (transactions == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(transactions, transactions.size());
+                for (TransactionResponse transaction : transactions) {
+                    if (transaction == null) {
+                        gen.writeNull();
+                    } else {
+                        Transaction.write(transaction, gen);
+                    }
+                }
+                gen.writeEndArray();
+            }
+            if (value.getNextCursor() != null) {
+                gen.writeStringField("nextCursor", value.getNextCursor());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Serializes a {@link BankAccountResponse}.
+     */
+    public static class BankAccount extends StdSerializer<BankAccountResponse> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs a BankAccount serializer.
+         */
+        public BankAccount() {
+            super(BankAccountResponse.class);
+        }
+
+        @Override
+        public void serialize(BankAccountResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            write(value, gen);
+        }
+
+        static void write(BankAccountResponse value, JsonGenerator gen) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("accountNumber", value.getAccountNumber());
+            gen.writeStringField("sortCode", value.getSortCode());
+            gen.writeStringField("name", value.getName());
+            gen.writeStringField("accountType", value.getAccountType());
+            gen.writeNumberField("balance", value.getBalance());
+            gen.writeStringField("currency", value.getCurrency());
+            writeTimestamp(gen, "createdTimestamp", value.getCreatedTimestamp());
+            writeTimestamp(gen, "updatedTimestamp", value.getUpdatedTimestamp());
+            gen.writeStringField("userId", value.getUserId());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Serializes a {@link ListBankAccountsResponse}.
+     */
+    public static class BankAccountList extends StdSerializer<ListBankAccountsResponse> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs a BankAccountList serializer.
+         */
+        public BankAccountList() {
+            super(ListBankAccountsResponse.class);
+        }
+
+        @Override
+        public void serialize(ListBankAccountsResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            List<BankAccountResponse> accounts = value.getAccounts();
+            gen.writeFieldName("accounts");
+            if (accounts == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(accounts, accounts.size());
+                for (BankAccountResponse account : accounts) {
+                    if (account == null) {
+                        gen.writeNull();
+                    } else {
+                        BankAccount.write(account, gen);
+                    }
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Serializes a {@link UserResponse}, including its address.
+     */
+    public static class User extends StdSerializer<UserResponse> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs a User serializer.
+         */
+        public User() {
+            super(UserResponse.class);
+        }
+
+        @Override
+        public void serialize(UserResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("id", value.getId());
+            gen.writeStringField("name", value.getName());
+            UserResponse.Address address = value.getAddress();
+            gen.writeFieldName("address");
+            if (address == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartObject();
+                gen.writeStringField("line1", address.getLine1());
+                gen.writeStringField("line2", address.getLine2());
+                gen.writeStringField("line3", address.getLine3());
+                gen.writeStringField("town", address.getTown());
+                gen.writeStringField("county", address.getCounty());
+                gen.writeStringField("postcode", address.getPostcode());
+                gen.writeEndObject();
+            }
+            gen.writeStringField("phoneNumber", value.getPhoneNumber());
+            gen.writeStringField("email", value.getEmail());
+            writeTimestamp(gen, "createdTimestamp", value.getCreatedTimestamp());
+            writeTimestamp(gen, "updatedTimestamp", value.getUpdatedTimestamp());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeTimestamp(JsonGenerator gen, String name, OffsetDateTime value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(name);
+        } else {
+            gen.writeStringField(name, TimestampFormat.format(value));
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package org.banking.service.model;
 
 import java.time.OffsetDateTime;
+import java.util.Objects;
 
 /**
  * Response model for a transaction, including details and metadata.
+ * Transactions are compared by value, since each read of a stored transaction builds a new one.
  */
 public class TransactionResponse {
     private String id;
@@ -130,4 +132,23 @@ public class TransactionResponse {
     public void setCreatedTimestamp(OffsetDateTime createdTimestamp) {
         this.createdTimestamp = createdTimestamp;
     }
-} 
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TransactionResponse)) return false;
+        TransactionResponse that = (TransactionResponse) o;
+        return Double.compare(amount, that.amount) == 0
+                && Objects.equals(id, that.id)
+                && Objects.equals(currency, that.currency)
+                && Objects.equals(type, that.type)
+                && Objects.equals(reference, that.reference)
+                && Objects.equals(userId, that.userId)
+                && Objects.equals(createdTimestamp, that.createdTimestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, amount, currency, type, reference, userId, createdTimestamp);
+    }
+}
@@ -0,0 +1,97 @@
+package org.banking.service.model;
+
+/**
+ * Request model for moving money from one of the caller's accounts to another.
+ */
+public class TransferRequest {
+    private String fromAccountNumber;
+    private String toAccountNumber;
+    private Double amount;
+    private String currency;
+    private String reference;
+
+    /**
+     * Default constructor.
+     */
+    public TransferRequest() {}
+
+    /**
+     * Gets the account number to debit.
+     * @return the source account number
+     */
+    public String getFromAccountNumber() {
+        return fromAccountNumber;
+    }
+
+    /**
+     * Sets the account number to debit.
+     * @param fromAccountNumber the source account number
+     */
+    public void setFromAccountNumber(String fromAccountNumber) {
+        this.fromAccountNumber = fromAccountNumber;
+    }
+
+    /**
+     * Gets the account number to credit.
+     * @return the destination account number
+     */
+    public String getToAccountNumber() {
+        return toAccountNumber;
+    }
+
+    /**
+     * Sets the account number to credit.
+     * @param toAccountNumber the destination account number
+     */
+    public void setToAccountNumber(String toAccountNumber) {
+        this.toAccountNumber = toAccountNumber;
+    }
+
+    /**
+     * Gets the amount.
+     * @return the amount
+     */
+    public Double getAmount() {
+        return amount;
+    }
+
+    /**
+     * Sets the amount.
+     * @param amount the amount
+     */
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    /**
+     * Gets the currency.
+     * @return the currency
+     */
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Sets the currency.
+     * @param currency the currency
+     */
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    /**
+     * Gets the reference recorded on both legs.
+     * @return the reference
+     */
+    public String getReference() {
+        return reference;
+    }
+
+    /**
+     * Sets the reference recorded on both legs.
+     * @param reference the reference
+     */
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+}
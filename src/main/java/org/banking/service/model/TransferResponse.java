@@ -0,0 +1,57 @@
+package org.banking.service.model;
+
+/**
+ * Response model for a transfer: the withdrawal recorded on the source account and the deposit
+ * recorded on the destination account.
+ */
+public class TransferResponse {
+    private TransactionResponse withdrawal;
+    private TransactionResponse deposit;
+
+    /**
+     * Default constructor.
+     */
+    public TransferResponse() {}
+
+    /**
+     * Constructs a TransferResponse.
+     * @param withdrawal the transaction recorded on the source account
+     * @param deposit the transaction recorded on the destination account
+     */
+    public TransferResponse(TransactionResponse withdrawal, TransactionResponse deposit) {
+        this.withdrawal = withdrawal;
+        this.deposit = deposit;
+    }
+
+    /**
+     * Gets the transaction recorded on the source account.
+     * @return the withdrawal
+     */
+    public TransactionResponse getWithdrawal() {
+        return withdrawal;
+    }
+
+    /**
+     * Sets the transaction recorded on the source account.
+     * @param withdrawal the withdrawal
+     */
+    public void setWithdrawal(TransactionResponse withdrawal) {
+        this.withdrawal = withdrawal;
+    }
+
+    /**
+     * Gets the transaction recorded on the destination account.
+     * @return the deposit
+     */
+    public TransactionResponse getDeposit() {
+        return deposit;
+    }
+
+    /**
+     * Sets the transaction recorded on the destination account.
+     * @param deposit the deposit
+     */
+    public void setDeposit(TransactionResponse deposit) {
+        this.deposit = deposit;
+    }
+}
@@ -2,10 +2,25 @@ package org.banking.service.service;
 
 import org.banking.service.model.*;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface AccountService {
+    /** Returned by balance operations when the account does not exist. */
+    long ACCOUNT_NOT_FOUND = -2L;
+    /** Returned by {@link #withdraw} when the account cannot cover the amount. */
+    long INSUFFICIENT_FUNDS = -1L;
+    /** Returned for a credit that would take the balance above {@link org.banking.service.util.MoneyUtil#MAX_PENCE}. */
+    long BALANCE_LIMIT = -3L;
+
     BankAccountResponse createAccount(String userId, CreateBankAccountRequest request);
     ListBankAccountsResponse listAccounts(String userId);
     BankAccountResponse fetchAccount(String accountNumber);
     BankAccountResponse updateAccount(String accountNumber, UpdateBankAccountRequest request);
     void deleteAccount(String accountNumber);
+    CompletableFuture<BankAccountResponse> updateAccountAsync(String accountNumber, UpdateBankAccountRequest request);
+    CompletableFuture<Void> deleteAccountAsync(String accountNumber);
+    long deposit(String accountNumber, long amountPence);
+    long withdraw(String accountNumber, long amountPence);
+    long[] applyAll(String accountNumber, long[] amountsPence);
+    long[] applyDebits(String accountNumber, long[] amountsPence, long heldPence);
 } 
\ No newline at end of file
@@ -0,0 +1,14 @@
+package org.banking.service.service;
+
+import org.banking.service.model.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface LedgerService {
+    TransactionResponse createTransaction(String accountNumber, CreateTransactionRequest request);
+    CompletableFuture<List<TransactionResponse>> submitTransactions(String accountNumber, List<? extends CreateTransactionRequest> requests);
+    TransferResponse transfer(TransferRequest request);
+    BankAccountResponse updateAccount(String accountNumber, UpdateBankAccountRequest request);
+    void deleteAccount(String accountNumber);
+}
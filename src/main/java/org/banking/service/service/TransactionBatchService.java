@@ -0,0 +1,10 @@
+package org.banking.service.service;
+
+import org.banking.service.model.BatchTransactionRequest;
+import org.banking.service.model.BatchTransactionResponse;
+
+import java.util.List;
+
+public interface TransactionBatchService {
+    BatchTransactionResponse submit(String userId, List<BatchTransactionRequest> requests);
+}
@@ -2,8 +2,16 @@ package org.banking.service.service;
 
 import org.banking.service.model.*;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface TransactionService {
     TransactionResponse createTransaction(String accountNumber, CreateTransactionRequest request);
+    CompletableFuture<List<TransactionResponse>> createTransactions(List<String> accountNumbers, List<? extends CreateTransactionRequest> requests);
+    CompletableFuture<List<TransactionResponse>> createTransfers(List<? extends TransferRequest> requests);
     ListTransactionsResponse listTransactions(String accountNumber);
+    ListTransactionsResponse listTransactions(String accountNumber, String cursor, Integer limit, OffsetDateTime from, OffsetDateTime to);
     TransactionResponse fetchTransaction(String accountNumber, String transactionId);
+    List<TransactionResponse> transactionHistory(String accountNumber);
 } 
\ No newline at end of file
@@ -0,0 +1,102 @@
+package org.banking.service.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * History file: the {@link RecordType#TRANSACTION} records a snapshot moved out of the
+ * write-ahead log, as {@link RecordFrame records} grouped by account, so one account's history
+ * is read from a single extent. A file is written once, before the snapshot that refers to it,
+ * and never changed afterwards; later snapshots keep referring to it instead of copying it.
+ */
+final class HistorySegment {
+    private HistorySegment() {}
+
+    /**
+     * Writes a history file and forces it to disk.
+     * @param file the history file, replaced if it exists
+     * @param byAccount the transaction payloads of each account, oldest first
+     * @return the byte offset and length of each account's records in the file
+     * @throws IOException if the file cannot be written
+     */
+    static Map<String, long[]> write(Path file, Map<String, List<byte[]>> byAccount) throws IOException {
+        Map<String, long[]> extents = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 << 10));
+            CRC32C crc = new CRC32C();
+            long position = 0;
+            for (Map.Entry<String, List<byte[]>> account : byAccount.entrySet()) {
+                long offset = position;
+                for (byte[] payload : account.getValue()) {
+                    out.writeInt(payload.length);
+                    out.writeInt(RecordFrame.checksum(crc, RecordType.TRANSACTION, payload));
+                    out.writeByte(RecordType.TRANSACTION);
+                    out.write(payload);
+                    position += RecordFrame.HEADER_BYTES + payload.length;
+                }
+                extents.put(account.getKey(), new long[]{offset, position - offset});
+            }
+            out.flush();
+            channel.force(true);
+        }
+        WriteAheadLog.forceDirectory(file);
+        return extents;
+    }
+
+    /**
+     * Reads the records of one extent of a history file.
+     * @param file the history file
+     * @param offset the byte offset of the first record
+     * @param length the length of the extent in bytes
+     * @param sink the sink to receive each record
+     * @throws IOException if the file cannot be read or the extent is corrupt
+     */
+    static void read(Path file, long offset, long length, RecordSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(offset);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 << 10));
+            CRC32C crc = new CRC32C();
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                byte[] payload;
+                int checksum;
+                byte type;
+                try {
+                    int size = in.readInt();
+                    checksum = in.readInt();
+                    type = in.readByte();
+                    if (size < 0 || size > RecordFrame.MAX_PAYLOAD_BYTES || position + RecordFrame.HEADER_BYTES + size > end) {
+                        throw corrupt(file, position);
+                    }
+                    payload = new byte[size];
+                    in.readFully(payload);
+                } catch (EOFException ex) {
+                    throw corrupt(file, position);
+                }
+                if (RecordFrame.checksum(crc, type, payload) != checksum) {
+                    throw corrupt(file, position);
+                }
+                sink.write(type, payload);
+                position += RecordFrame.HEADER_BYTES + payload.length;
+            }
+        }
+    }
+
+    private static IOException corrupt(Path file, long position) {
+        return new IOException("Corrupt history file " + file + " at byte " + position);
+    }
+}
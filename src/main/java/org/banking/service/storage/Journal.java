@@ -0,0 +1,82 @@
+package org.banking.service.storage;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Durable, append-only record of state changes that the in-memory services replay on startup.
+ */
+public interface Journal extends AutoCloseable {
+    /**
+     * Journal that records nothing, used when persistence is disabled.
+     */
+    Journal NONE = new Journal() {
+        @Override
+        public void append(byte type, byte[] payload) {
+        }
+
+        @Override
+        public void replay(Journaled handler) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Appends a record and returns once it is durable.
+     * @param type the record type, one of {@link RecordType}
+     * @param payload the encoded record payload
+     */
+    void append(byte type, byte[] payload);
+
+    /**
+     * Appends several records of one type and returns once all of them are durable.
+     * Implementations may make the whole batch durable with a single wait.
+     * @param type the record type, one of {@link RecordType}
+     * @param payloads the encoded record payloads, in append order
+     */
+    default void appendAll(byte type, List<byte[]> payloads) {
+        for (byte[] payload : payloads) {
+            append(type, payload);
+        }
+    }
+
+    /**
+     * Appends several records of one type without waiting for them to become durable. Records
+     * appended afterwards, by any thread, are placed after them.
+     * Implementations that cannot append asynchronously return once the records are durable.
+     * @param type the record type, one of {@link RecordType}
+     * @param payloads the encoded record payloads, in append order
+     * @return a future completed once all of the records are durable
+     */
+    default CompletableFuture<Void> appendAllAsync(byte type, List<byte[]> payloads) {
+        appendAll(type, payloads);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Replays every durable record in append order.
+     * @param handler the handler to receive each record
+     */
+    void replay(Journaled handler);
+
+    /**
+     * Replays the {@link RecordType#TRANSACTION} records of an account that {@link #replay} left
+     * out, oldest first and ahead of any the account received during or after the replay.
+     * Each account's held-back records are replayed at most once.
+     * @param accountNumber the account number
+     * @param handler the handler to receive each record
+     * @return whether any records were held back for the account
+     */
+    default boolean replayHistory(String accountNumber, Journaled handler) {
+        return false;
+    }
+
+    /**
+     * Flushes pending records and releases the journal.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,49 @@
+package org.banking.service.storage;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rebuilds service state from the journal once all beans are created and before the
+ * web server starts accepting requests. The journal is read in a single pass and each
+ * record is offered to every {@link Journaled} service. A {@link RecordType#TRANSFER} is
+ * offered as its two {@link RecordType#TRANSACTION} legs.
+ */
+@Component
+public class JournalRecovery implements SmartInitializingSingleton {
+    private final Journal journal;
+    private final List<Journaled> services;
+
+    /**
+     * Constructs a JournalRecovery.
+     * @param journal the journal to replay
+     * @param services the services whose state is rebuilt from the journal
+     */
+    public JournalRecovery(Journal journal, List<Journaled> services) {
+        this.journal = journal;
+        this.services = services;
+    }
+
+    /**
+     * Replays the journal into every service.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        journal.replay(this::dispatch);
+    }
+
+    private void dispatch(byte type, RecordReader record) {
+        if (type == RecordType.TRANSFER) {
+            byte[] withdrawal = record.readBytes();
+            byte[] deposit = record.readBytes();
+            dispatch(RecordType.TRANSACTION, new RecordReader(withdrawal));
+            dispatch(RecordType.TRANSACTION, new RecordReader(deposit));
+            return;
+        }
+        for (Journaled service : services) {
+            service.restore(type, record.duplicate());
+        }
+    }
+}
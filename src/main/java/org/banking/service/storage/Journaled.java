@@ -0,0 +1,14 @@
+package org.banking.service.storage;
+
+/**
+ * Implemented by services whose state is rebuilt from journal records on startup.
+ */
+public interface Journaled {
+    /**
+     * Applies one journal record to in-memory state.
+     * Records of types the implementation does not own must be ignored.
+     * @param type the record type, one of {@link RecordType}
+     * @param record a reader positioned at the start of the record payload
+     */
+    void restore(byte type, RecordReader record);
+}
@@ -0,0 +1,33 @@
+package org.banking.service.storage;
+
+import java.util.zip.CRC32C;
+
+/**
+ * Framing shared by the write-ahead log, snapshot and history files:
+ * {@code [int payloadLength][int crc32c][byte type][payload]}, where the checksum covers the type and payload.
+ */
+final class RecordFrame {
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + 1;
+    static final int MAX_PAYLOAD_BYTES = 16 << 20;
+    /**
+     * Type of the record a write-ahead log starts with once its head has been discarded. Its
+     * payload is the log position of the record that follows it.
+     */
+    static final byte BASE = 0;
+
+    private RecordFrame() {}
+
+    /**
+     * Computes the checksum of a record.
+     * @param crc a reusable checksum instance
+     * @param type the record type
+     * @param payload the record payload
+     * @return the checksum stored in the frame header
+     */
+    static int checksum(CRC32C crc, byte type, byte[] payload) {
+        crc.reset();
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
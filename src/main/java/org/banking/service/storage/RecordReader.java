@@ -0,0 +1,104 @@
+package org.banking.service.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Decodes journal record payloads written by {@link RecordWriter}.
+ */
+public final class RecordReader {
+    private final ByteBuffer buffer;
+
+    /**
+     * Constructs a reader over an encoded payload.
+     * @param payload the payload bytes
+     */
+    public RecordReader(byte[] payload) {
+        this.buffer = ByteBuffer.wrap(payload);
+    }
+
+    private RecordReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates an independent reader over the same payload, positioned where this one is.
+     * @return the new reader
+     */
+    public RecordReader duplicate() {
+        return new RecordReader(buffer.duplicate());
+    }
+
+    /**
+     * Reads a single byte.
+     * @return the value
+     */
+    public byte readByte() {
+        return buffer.get();
+    }
+
+    /**
+     * Reads a 4-byte integer.
+     * @return the value
+     */
+    public int readInt() {
+        return buffer.getInt();
+    }
+
+    /**
+     * Reads an 8-byte integer.
+     * @return the value
+     */
+    public long readLong() {
+        return buffer.getLong();
+    }
+
+    /**
+     * Reads a double.
+     * @return the value
+     */
+    public double readDouble() {
+        return buffer.getDouble();
+    }
+
+    /**
+     * Reads a nullable string.
+     * @return the value, or null
+     */
+    public String readString() {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Reads a length-prefixed byte array.
+     * @return the value
+     */
+    public byte[] readBytes() {
+        byte[] value = new byte[buffer.getInt()];
+        buffer.get(value);
+        return value;
+    }
+
+    /**
+     * Reads a nullable timestamp.
+     * @return the value, or null
+     */
+    public OffsetDateTime readTimestamp() {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(buffer.getInt());
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), offset);
+    }
+}
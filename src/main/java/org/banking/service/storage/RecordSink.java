@@ -0,0 +1,17 @@
+package org.banking.service.storage;
+
+import java.io.IOException;
+
+/**
+ * Receives raw journal records as type and encoded payload.
+ */
+@FunctionalInterface
+interface RecordSink {
+    /**
+     * Accepts one record.
+     * @param type the record type, one of {@link RecordType}
+     * @param payload the encoded record payload
+     * @throws IOException if the record cannot be written
+     */
+    void write(byte type, byte[] payload) throws IOException;
+}
@@ -0,0 +1,37 @@
+package org.banking.service.storage;
+
+/**
+ * Type codes of journal records.
+ */
+public final class RecordType {
+    /** Full state of a user, written on create and update. */
+    public static final byte USER = 1;
+    /** Full metadata of a bank account (everything except its balance), written on create and update. */
+    public static final byte ACCOUNT = 2;
+    /** Account number of a deleted bank account. */
+    public static final byte ACCOUNT_DELETED = 3;
+    /**
+     * A transaction applied to an account. The payload starts with the account number,
+     * the signed balance change in pence and the created timestamp, so account state can be
+     * restored without decoding the rest of the transaction.
+     */
+    public static final byte TRANSACTION = 4;
+    /**
+     * A transfer between two accounts: the withdrawal's {@link #TRANSACTION} payload followed by
+     * the deposit's, each length-prefixed. Both legs are in one record so that a crash keeps
+     * both or neither; recovery replays them as two transactions.
+     */
+    public static final byte TRANSFER = 5;
+    /**
+     * Balance of an account in a snapshot, in pence, and the time of the last transaction folded
+     * into it, or null if none followed the account's latest {@link #ACCOUNT} record.
+     */
+    public static final byte BALANCE = 6;
+    /**
+     * Where a snapshot's history file holds some of an account's transactions. Read by the
+     * journal itself and never passed to services.
+     */
+    public static final byte HISTORY = 7;
+
+    private RecordType() {}
+}
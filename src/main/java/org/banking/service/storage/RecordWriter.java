@@ -0,0 +1,120 @@
+package org.banking.service.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+/**
+ * Encodes journal record payloads in a compact big-endian binary format.
+ */
+public final class RecordWriter {
+    private static final int NULL_LENGTH = -1;
+
+    private byte[] buffer = new byte[128];
+    private int size;
+
+    /**
+     * Writes a single byte.
+     * @param value the value
+     * @return this writer
+     */
+    public RecordWriter writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Writes a 4-byte integer.
+     * @param value the value
+     * @return this writer
+     */
+    public RecordWriter writeInt(int value) {
+        ensureCapacity(Integer.BYTES);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    /**
+     * Writes an 8-byte integer.
+     * @param value the value
+     * @return this writer
+     */
+    public RecordWriter writeLong(long value) {
+        ensureCapacity(Long.BYTES);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a double as its IEEE 754 bits.
+     * @param value the value
+     * @return this writer
+     */
+    public RecordWriter writeDouble(double value) {
+        return writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Writes a nullable string as a length-prefixed UTF-8 sequence.
+     * @param value the value, or null
+     * @return this writer
+     */
+    public RecordWriter writeString(String value) {
+        if (value == null) {
+            return writeInt(NULL_LENGTH);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    /**
+     * Writes a byte array as a length-prefixed sequence.
+     * @param value the value
+     * @return this writer
+     */
+    public RecordWriter writeBytes(byte[] value) {
+        writeInt(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, size, value.length);
+        size += value.length;
+        return this;
+    }
+
+    /**
+     * Writes a nullable timestamp as epoch seconds, nanos and offset seconds.
+     * @param value the value, or null
+     * @return this writer
+     */
+    public RecordWriter writeTimestamp(OffsetDateTime value) {
+        if (value == null) {
+            return writeByte(0);
+        }
+        writeByte(1);
+        writeLong(value.toEpochSecond());
+        writeInt(value.getNano());
+        return writeInt(value.getOffset().getTotalSeconds());
+    }
+
+    /**
+     * Gets the encoded payload.
+     * @return a copy of the bytes written so far
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + extra));
+        }
+    }
+}
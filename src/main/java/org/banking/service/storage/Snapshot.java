@@ -0,0 +1,168 @@
+package org.banking.service.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshot file: a header followed by {@link RecordFrame records} that rebuild the state the
+ * write-ahead log held up to a recorded position.
+ * <p>
+ * Header: {@code [int magic][int version][long walPosition]}. Snapshots are written to a
+ * temporary file, forced and atomically renamed into place, so a snapshot file is either
+ * complete or absent. They are read through memory-mapped windows rather than a stream.
+ */
+final class Snapshot {
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int MAGIC = 0x42534E50;
+    private static final int VERSION = 1;
+    private static final long MAP_WINDOW_BYTES = 1L << 30;
+
+    private Snapshot() {}
+
+    /**
+     * Produces the records of a snapshot.
+     */
+    @FunctionalInterface
+    interface Contents {
+        /**
+         * Writes every record of the snapshot, in replay order.
+         * @param out the sink for the records
+         * @throws IOException if a record cannot be read or written
+         */
+        void writeTo(RecordSink out) throws IOException;
+    }
+
+    /**
+     * Writes a snapshot, replacing any previous snapshot at the same path.
+     * @param file the snapshot file
+     * @param walPosition the write-ahead log position the snapshot covers up to
+     * @param contents the records to write
+     * @throws IOException if the snapshot cannot be written
+     */
+    static void write(Path file, long walPosition, Contents contents) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 << 10));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(walPosition);
+            CRC32C crc = new CRC32C();
+            contents.writeTo((type, payload) -> {
+                out.writeInt(payload.length);
+                out.writeInt(RecordFrame.checksum(crc, type, payload));
+                out.writeByte(type);
+                out.write(payload);
+            });
+            out.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        WriteAheadLog.forceDirectory(file);
+    }
+
+    /**
+     * Reads the write-ahead log position a snapshot covers, without reading its records.
+     * @param file the snapshot file
+     * @return the covered log position, or -1 if there is no snapshot
+     * @throws IOException if the file exists but is not a valid snapshot
+     */
+    static long position(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readHeader(channel);
+        }
+    }
+
+    /**
+     * Reads every record of a snapshot.
+     * @param file the snapshot file
+     * @param sink the sink to receive each record, or null to only validate
+     * @return the covered log position, or -1 if there is no snapshot
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    static long read(Path file, RecordSink sink) throws IOException {
+        if (!Files.exists(file)) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long walPosition = readHeader(channel);
+            long size = channel.size();
+            CRC32C crc = new CRC32C();
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+            long position = HEADER_BYTES;
+            while (position < size) {
+                if (position + RecordFrame.HEADER_BYTES > size) {
+                    throw corrupt(file, position);
+                }
+                if (window == null || position + RecordFrame.HEADER_BYTES > windowStart + window.limit()) {
+                    window = map(channel, position, RecordFrame.HEADER_BYTES);
+                    windowStart = position;
+                }
+                int offset = (int) (position - windowStart);
+                int length = window.getInt(offset);
+                int checksum = window.getInt(offset + Integer.BYTES);
+                byte type = window.get(offset + Integer.BYTES + Integer.BYTES);
+                long end = position + RecordFrame.HEADER_BYTES + length;
+                if (length < 0 || length > RecordFrame.MAX_PAYLOAD_BYTES || end > size) {
+                    throw corrupt(file, position);
+                }
+                if (end > windowStart + window.limit()) {
+                    window = map(channel, position, RecordFrame.HEADER_BYTES + length);
+                    windowStart = position;
+                    offset = 0;
+                }
+                byte[] payload = new byte[length];
+                window.get(offset + RecordFrame.HEADER_BYTES, payload);
+                if (RecordFrame.checksum(crc, type, payload) != checksum) {
+                    throw corrupt(file, position);
+                }
+                if (sink != null) {
+                    sink.write(type, payload);
+                }
+                position = end;
+            }
+            return walPosition;
+        }
+    }
+
+    private static long readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // keep reading until the header is full or the file ends
+        }
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a snapshot file");
+        }
+        return header.getLong();
+    }
+
+    /**
+     * Maps a window starting at a position, at least large enough for one record.
+     */
+    private static MappedByteBuffer map(FileChannel channel, long position, int minimum) throws IOException {
+        long length = Math.min(channel.size() - position, Math.max(MAP_WINDOW_BYTES, minimum));
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    private static IOException corrupt(Path file, long position) {
+        return new IOException("Corrupt snapshot " + file + " at byte " + position);
+    }
+}
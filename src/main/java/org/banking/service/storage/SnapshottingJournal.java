@@ -0,0 +1,395 @@
+package org.banking.service.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Journal} that pairs a {@link WriteAheadLog} with a periodically written {@link Snapshot},
+ * so startup replays the current state plus the short log tail written since, instead of the
+ * whole history.
+ * <p>
+ * A snapshot is built from the previous snapshot and the durable log records after it, never
+ * from the live services, so appenders are not paused while it is written. It keeps the latest
+ * record of each user and account, each account's balance, and the tombstone of the highest
+ * deleted account number, which keeps numbers from being reused. The transactions folded in are
+ * moved to a {@link HistorySegment history file} that this and every later snapshot refer to.
+ * They are not replayed on startup but read for one account at a time through
+ * {@link #replayHistory}. Once a snapshot is durable, the log before it is discarded, so
+ * neither the log nor the snapshot grows with the history.
+ * <p>
+ * A snapshot that cannot be read is skipped in favour of a full log replay only while none of
+ * the log has been discarded; after that it fails startup.
+ */
+public final class SnapshottingJournal implements Journal {
+    private static final Logger log = LoggerFactory.getLogger(SnapshottingJournal.class);
+
+    private final WriteAheadLog wal;
+    private final Path snapshotFile;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler;
+    /** History files holding each account's transactions, until they are replayed. */
+    private final Map<String, List<Extent>> history = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a SnapshottingJournal.
+     * @param wal the write-ahead log to journal to and compact
+     * @param snapshotFile the snapshot file
+     * @param interval how often to write a snapshot, or zero to only write them on {@link #snapshot()}
+     */
+    public SnapshottingJournal(WriteAheadLog wal, Path snapshotFile, Duration interval) {
+        this.wal = wal;
+        this.snapshotFile = snapshotFile;
+        if (interval.isZero()) {
+            this.scheduler = null;
+        } else {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "snapshot-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = interval.toMillis();
+            this.scheduler.scheduleWithFixedDelay(this::scheduledSnapshot, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Opens a write-ahead log and its snapshot. Only the part of the log after the snapshot is
+     * checked for a torn tail, so opening does not read the history the snapshot already covers.
+     * @param walFile the log file
+     * @param commitWindow how long the log gathers concurrent appends into one fsync
+     * @param snapshotFile the snapshot file
+     * @param interval how often to write a snapshot, or zero to only write them on {@link #snapshot()}
+     * @return the opened journal
+     * @throws IOException if the log cannot be opened
+     */
+    public static SnapshottingJournal open(Path walFile, Duration commitWindow, Path snapshotFile, Duration interval) throws IOException {
+        long verified;
+        try {
+            verified = Math.max(Snapshot.position(snapshotFile), 0);
+        } catch (IOException ex) {
+            verified = 0;
+        }
+        return new SnapshottingJournal(WriteAheadLog.open(walFile, commitWindow, verified), snapshotFile, interval);
+    }
+
+    /**
+     * Appends a record to the write-ahead log and returns once it is durable.
+     * @param type the record type, one of {@link RecordType}
+     * @param payload the encoded record payload
+     */
+    @Override
+    public void append(byte type, byte[] payload) {
+        wal.append(type, payload);
+    }
+
+    /**
+     * Appends several records to the write-ahead log and returns once all of them are durable.
+     * @param type the record type, one of {@link RecordType}
+     * @param payloads the encoded record payloads
+     */
+    @Override
+    public void appendAll(byte type, List<byte[]> payloads) {
+        wal.appendAll(type, payloads);
+    }
+
+    /**
+     * Appends several records to the write-ahead log without waiting for them to become durable.
+     * @param type the record type, one of {@link RecordType}
+     * @param payloads the encoded record payloads
+     * @return a future completed once all of them are durable
+     */
+    @Override
+    public CompletableFuture<Void> appendAllAsync(byte type, List<byte[]> payloads) {
+        return wal.appendAllAsync(type, payloads);
+    }
+
+    /**
+     * Replays the snapshot, then the log records written after it. Transactions the snapshot
+     * moved to history files are left for {@link #replayHistory}.
+     * @param handler the handler to receive each record
+     * @throws IllegalStateException if the snapshot covers more of the log than exists, or does
+     *         not cover the part of the log that has been discarded
+     * @throws UncheckedIOException if the snapshot or the log cannot be read
+     */
+    @Override
+    public void replay(Journaled handler) {
+        long from;
+        try {
+            from = Snapshot.read(snapshotFile, null);
+        } catch (IOException ex) {
+            if (wal.start() > 0) {
+                throw new IllegalStateException("Snapshot " + snapshotFile + " is unreadable and the write-ahead log before it has been discarded", ex);
+            }
+            log.warn("Ignoring unreadable snapshot {}, replaying the full write-ahead log", snapshotFile, ex);
+            from = -1;
+        }
+        if (from > wal.position()) {
+            throw new IllegalStateException("Snapshot " + snapshotFile + " is ahead of the write-ahead log");
+        }
+        if (Math.max(from, 0) < wal.start()) {
+            throw new IllegalStateException("Snapshot " + snapshotFile + " does not cover the write-ahead log discarded before position " + wal.start());
+        }
+        history.clear();
+        if (from >= 0) {
+            try {
+                Snapshot.read(snapshotFile, (type, payload) -> {
+                    if (type == RecordType.HISTORY) {
+                        RecordReader record = new RecordReader(payload);
+                        history.computeIfAbsent(record.readString(), k -> new ArrayList<>())
+                                .add(new Extent(snapshotFile.resolveSibling(record.readString()), record.readLong(), record.readLong()));
+                    } else {
+                        handler.restore(type, new RecordReader(payload));
+                    }
+                });
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        wal.replay(Math.max(from, 0), handler);
+    }
+
+    /**
+     * Replays the transactions of an account that the snapshot moved to history files.
+     * @param accountNumber the account number
+     * @param handler the handler to receive each record
+     * @return whether the account had any
+     * @throws UncheckedIOException if a history file cannot be read; the history is kept to be retried
+     */
+    @Override
+    public boolean replayHistory(String accountNumber, Journaled handler) {
+        List<Extent> extents = history.get(accountNumber);
+        if (extents == null) {
+            return false;
+        }
+        try {
+            for (Extent extent : extents) {
+                HistorySegment.read(extent.file, extent.offset, extent.length,
+                        (type, payload) -> handler.restore(type, new RecordReader(payload)));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        history.remove(accountNumber);
+        return true;
+    }
+
+    /**
+     * Folds the durable log into a new snapshot, unless nothing has been written since the last
+     * one. The transactions folded in are written to a new history file first, and the log
+     * before the snapshot is discarded once the snapshot is in place.
+     * @return true if a snapshot was written
+     * @throws IOException if the snapshot cannot be written, or the log cannot be folded because
+     *         the previous snapshot is unreadable and the log before it has been discarded
+     */
+    public boolean snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long end = wal.position();
+            long start;
+            try {
+                start = Snapshot.position(snapshotFile);
+            } catch (IOException ex) {
+                start = -1;
+            }
+            if (start == end) {
+                return false;
+            }
+            boolean hasPrevious = start >= 0 && start < end;
+            long from = hasPrevious ? start : 0;
+            if (from < wal.start()) {
+                throw new IOException("Snapshot " + snapshotFile + " does not cover the write-ahead log discarded before position " + wal.start());
+            }
+
+            Compaction state = new Compaction();
+            if (hasPrevious) {
+                Snapshot.read(snapshotFile, state);
+            }
+            wal.scan(from, end, state);
+            if (!state.newHistory.isEmpty()) {
+                Path historyFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".history-" + end);
+                String name = historyFile.getFileName().toString();
+                for (Map.Entry<String, long[]> extent : HistorySegment.write(historyFile, state.newHistory).entrySet()) {
+                    state.historyRefs.computeIfAbsent(extent.getKey(), k -> new ArrayList<>()).add(new RecordWriter()
+                            .writeString(extent.getKey())
+                            .writeString(name)
+                            .writeLong(extent.getValue()[0])
+                            .writeLong(extent.getValue()[1])
+                            .toByteArray());
+                }
+            }
+            Snapshot.write(snapshotFile, end, state::writeTo);
+            wal.discardBefore(end);
+            return true;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Stops scheduled snapshots and closes the write-ahead log.
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        wal.close();
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Failed to write snapshot {}", snapshotFile, ex);
+        }
+    }
+
+    /**
+     * Users, accounts, balances, account deletions and history references all start with the id they apply to.
+     */
+    private static String key(byte[] payload) {
+        return new RecordReader(payload).readString();
+    }
+
+    /**
+     * State folded from a snapshot and the log records after it.
+     */
+    private static final class Compaction implements RecordSink {
+        private final Map<String, byte[]> users = new LinkedHashMap<>();
+        private final Map<String, Account> accounts = new LinkedHashMap<>();
+        private final Map<String, List<byte[]>> historyRefs = new LinkedHashMap<>();
+        private final Map<String, List<byte[]>> newHistory = new LinkedHashMap<>();
+        private byte[] lastDeleted;
+
+        /**
+         * Folds one record into the state.
+         * @param type the record type
+         * @param payload the record payload
+         */
+        @Override
+        public void write(byte type, byte[] payload) {
+            if (type == RecordType.USER) {
+                users.put(key(payload), payload);
+            } else if (type == RecordType.ACCOUNT) {
+                Account account = accounts.computeIfAbsent(key(payload), k -> new Account());
+                account.metadata = payload;
+                account.touched = null;
+            } else if (type == RecordType.BALANCE) {
+                RecordReader record = new RecordReader(payload);
+                Account account = accounts.get(record.readString());
+                if (account != null) {
+                    account.pence += record.readLong();
+                    account.touched = record.readTimestamp();
+                }
+            } else if (type == RecordType.ACCOUNT_DELETED) {
+                String accountNumber = key(payload);
+                accounts.remove(accountNumber);
+                historyRefs.remove(accountNumber);
+                newHistory.remove(accountNumber);
+                // Account numbers are fixed width, so the highest one also sorts last.
+                if (lastDeleted == null || accountNumber.compareTo(key(lastDeleted)) > 0) {
+                    lastDeleted = payload;
+                }
+            } else if (type == RecordType.HISTORY) {
+                historyRefs.computeIfAbsent(key(payload), k -> new ArrayList<>()).add(payload);
+            } else if (type == RecordType.TRANSACTION) {
+                transaction(payload);
+            } else if (type == RecordType.TRANSFER) {
+                RecordReader record = new RecordReader(payload);
+                transaction(record.readBytes());
+                transaction(record.readBytes());
+            }
+        }
+
+        /**
+         * Folds a transaction into its account's balance and new history. Transactions of
+         * accounts that do not exist are dropped, as recovery would ignore them.
+         * @param payload the transaction record payload
+         */
+        private void transaction(byte[] payload) {
+            RecordReader record = new RecordReader(payload);
+            String accountNumber = record.readString();
+            Account account = accounts.get(accountNumber);
+            if (account == null) {
+                return;
+            }
+            account.pence += record.readLong();
+            account.touched = record.readTimestamp();
+            newHistory.computeIfAbsent(accountNumber, k -> new ArrayList<>()).add(payload);
+        }
+
+        /**
+         * Writes the folded state as snapshot records.
+         * @param out the sink for the records
+         */
+        void writeTo(RecordSink out) throws IOException {
+            for (byte[] user : users.values()) {
+                out.write(RecordType.USER, user);
+            }
+            for (Map.Entry<String, Account> entry : accounts.entrySet()) {
+                Account account = entry.getValue();
+                out.write(RecordType.ACCOUNT, account.metadata);
+                if (account.pence != 0 || account.touched != null) {
+                    out.write(RecordType.BALANCE, new RecordWriter()
+                            .writeString(entry.getKey())
+                            .writeLong(account.pence)
+                            .writeTimestamp(account.touched)
+                            .toByteArray());
+                }
+            }
+            if (lastDeleted != null) {
+                out.write(RecordType.ACCOUNT_DELETED, lastDeleted);
+            }
+            for (List<byte[]> refs : historyRefs.values()) {
+                for (byte[] ref : refs) {
+                    out.write(RecordType.HISTORY, ref);
+                }
+            }
+        }
+    }
+
+    /**
+     * An account kept in memory while compacting.
+     */
+    private static final class Account {
+        private byte[] metadata;
+        private long pence;
+        private OffsetDateTime touched;
+    }
+
+    /**
+     * Where a history file holds some of an account's transactions.
+     */
+    private static final class Extent {
+        private final Path file;
+        private final long offset;
+        private final long length;
+
+        Extent(Path file, long offset, long length) {
+            this.file = file;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
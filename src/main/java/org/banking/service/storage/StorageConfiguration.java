@@ -0,0 +1,47 @@
+package org.banking.service.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configures the journal backing the in-memory services.
+ * Persistence is off unless {@code banking.wal.enabled=true}; the log file and group commit
+ * window are set with {@code banking.wal.path} and {@code banking.wal.commit-window}, and the
+ * log is compacted into {@code banking.snapshot.path} every {@code banking.snapshot.interval}.
+ * Compaction discards the log it covers, so a snapshot already written is read on startup
+ * even once snapshots are disabled.
+ */
+@Configuration
+public class StorageConfiguration {
+
+    /**
+     * Creates the journal.
+     * @param enabled whether to persist state changes
+     * @param path the write-ahead log file
+     * @param commitWindow how long to gather concurrent appends into one fsync
+     * @param snapshotPath the snapshot file
+     * @param snapshotInterval how often to write a snapshot, or zero to disable snapshots
+     * @return the journal, or {@link Journal#NONE} when persistence is disabled
+     * @throws IOException if the log cannot be opened
+     */
+    @Bean(destroyMethod = "close")
+    public Journal journal(@Value("${banking.wal.enabled:false}") boolean enabled,
+                           @Value("${banking.wal.path:data/banking.wal}") Path path,
+                           @Value("${banking.wal.commit-window:1ms}") Duration commitWindow,
+                           @Value("${banking.snapshot.path:data/banking.snapshot}") Path snapshotPath,
+                           @Value("${banking.snapshot.interval:5m}") Duration snapshotInterval) throws IOException {
+        if (!enabled) {
+            return Journal.NONE;
+        }
+        if (snapshotInterval.isZero() && !Files.exists(snapshotPath)) {
+            return WriteAheadLog.open(path, commitWindow);
+        }
+        return SnapshottingJournal.open(path, commitWindow, snapshotPath, snapshotInterval);
+    }
+}
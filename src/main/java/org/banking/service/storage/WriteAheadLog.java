@@ -0,0 +1,618 @@
+package org.banking.service.storage;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * File-backed {@link Journal} with group commit.
+ * <p>
+ * Each record is written as a {@link RecordFrame}. Appending threads enqueue their record and park;
+ * a single committer thread waits for the commit window to let concurrent appends join the
+ * batch, writes the whole batch through a direct buffer of at most {@value #MAX_BUFFER_BYTES}
+ * bytes, in as many passes as it takes, and one {@link FileChannel#force}, then wakes every
+ * appender in the batch.
+ * <p>
+ * On open, the file is scanned and truncated after the last intact record, so a write torn
+ * by a crash is discarded rather than replayed. If a commit fails, the file is truncated back to
+ * the end of the last durable batch before the next one is written, so records reported as
+ * failed are never replayed and later batches never follow torn bytes. If even that repair
+ * fails, the log fails every later append.
+ * <p>
+ * Positions are log positions rather than file offsets. Once the head of the log has been
+ * discarded with {@link #discardBefore}, the file starts with a {@link RecordFrame#BASE} record
+ * holding the position of the first record kept, so positions handed out earlier stay valid.
+ */
+public final class WriteAheadLog implements Journal {
+    /** Largest buffer a batch is written through; a larger batch is written in several passes. */
+    static final int MAX_BUFFER_BYTES = 32 << 20;
+    private static final int BASE_FRAME_BYTES = RecordFrame.HEADER_BYTES + Long.BYTES;
+
+    private final Path file;
+    private final long commitWindowNanos;
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Condition queued = queueLock.newCondition();
+    /** Held while the file is written, read from or replaced. */
+    private final ReentrantLock fileLock = new ReentrantLock();
+    private final Thread committer;
+    private List<PendingRecord> queue = new ArrayList<>();
+    private ByteBuffer batchBuffer = ByteBuffer.allocateDirect(64 << 10);
+    private boolean closed;
+    /** Why the file could not be repaired after a failed commit, or null; guarded by the queue lock. */
+    private IOException failure;
+    /** The file; guarded by the file lock. */
+    private FileChannel channel;
+    /** Position of the first record in the file; guarded by the file lock. */
+    private volatile long start;
+    /** File offset of the first record; guarded by the file lock. */
+    private long origin;
+    private volatile long durablePosition;
+
+    private WriteAheadLog(Path file, FileChannel channel, long start, long origin, long validEnd, Duration commitWindow) {
+        this.file = file;
+        this.channel = channel;
+        this.start = start;
+        this.origin = origin;
+        this.durablePosition = validEnd;
+        this.commitWindowNanos = commitWindow.toNanos();
+        this.committer = new Thread(this::commitLoop, "wal-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Opens or creates a write-ahead log, discarding any torn record at its tail.
+     * @param file the log file
+     * @param commitWindow how long the committer waits for further appends before each fsync
+     * @return the opened log
+     * @throws IOException if the file cannot be opened or repaired
+     */
+    public static WriteAheadLog open(Path file, Duration commitWindow) throws IOException {
+        return open(file, commitWindow, 0);
+    }
+
+    /**
+     * Opens or creates a write-ahead log whose records before a position are already known to be
+     * intact, e.g. because a snapshot covers them, so only the rest of the file is checked.
+     * @param file the log file
+     * @param commitWindow how long the committer waits for further appends before each fsync
+     * @param verifiedPosition a record boundary up to which the file need not be checked; ignored if beyond the end of the file
+     * @return the opened log
+     * @throws IOException if the file cannot be opened or repaired
+     */
+    public static WriteAheadLog open(Path file, Duration commitWindow, long verifiedPosition) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return open(file, FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                commitWindow, verifiedPosition);
+    }
+
+    /**
+     * Opens a write-ahead log through a channel already opened on its file.
+     * @param file the log file
+     * @param channel a readable and writable channel on the file, closed if opening fails
+     * @param commitWindow how long the committer waits for further appends before each fsync
+     * @param verifiedPosition a record boundary up to which the file need not be checked; ignored if beyond the end of the file
+     * @return the opened log
+     * @throws IOException if the file cannot be repaired
+     */
+    static WriteAheadLog open(Path file, FileChannel channel, Duration commitWindow, long verifiedPosition) throws IOException {
+        try {
+            long start = readBase(channel);
+            long origin = start == 0 ? 0 : BASE_FRAME_BYTES;
+            long verified = verifiedPosition - start + origin;
+            long from = verifiedPosition >= start && verified <= channel.size() ? verified : origin;
+            long validEnd;
+            try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+                validEnd = scan(reader, from, Long.MAX_VALUE, null);
+            }
+            if (validEnd < channel.size()) {
+                channel.truncate(validEnd);
+                channel.force(true);
+            }
+            channel.position(validEnd);
+            return new WriteAheadLog(file, channel, start, origin, validEnd - origin + start, commitWindow);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Appends a record and blocks until it has been forced to disk.
+     * @param type the record type, one of {@link RecordType}
+     * @param payload the encoded record payload
+     * @throws UncheckedIOException if the batch containing the record could not be written, or
+     *         the log could not be repaired after an earlier failed commit
+     * @throws IllegalStateException if the log has been closed
+     */
+    @Override
+    public void append(byte type, byte[] payload) {
+        checkSize(payload);
+        PendingRecord record = new PendingRecord(type, payload);
+        enqueue(List.of(record));
+        awaitDurable(record);
+    }
+
+    /**
+     * Appends several records under one queue lock and blocks until all have been forced to
+     * disk. They join the same commit batch, or consecutive ones if a commit is already under way.
+     * @param type the record type, one of {@link RecordType}
+     * @param payloads the encoded record payloads, in append order
+     * @throws UncheckedIOException if a batch containing the records could not be written
+     * @throws IllegalStateException if the log has been closed
+     */
+    @Override
+    public void appendAll(byte type, List<byte[]> payloads) {
+        List<PendingRecord> records = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            checkSize(payload);
+            records.add(new PendingRecord(type, payload));
+        }
+        enqueue(records);
+        for (PendingRecord record : records) {
+            awaitDurable(record);
+        }
+    }
+
+    /**
+     * Appends several records under one queue lock and returns without waiting for the commit.
+     * Records are made durable in append order, and the future's dependent actions run on the
+     * committer thread in that order too.
+     * @param type the record type, one of {@link RecordType}
+     * @param payloads the encoded record payloads, in append order
+     * @return a future completed once all of the records have been forced to disk, or failed
+     *         with {@link UncheckedIOException} if they could not be written
+     * @throws IllegalStateException if the log has been closed
+     */
+    @Override
+    public CompletableFuture<Void> appendAllAsync(byte type, List<byte[]> payloads) {
+        if (payloads.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<PendingRecord> records = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            checkSize(payload);
+            records.add(new PendingRecord(type, payload));
+        }
+        enqueue(records);
+        // The last record is completed after the others, so its future stands for the whole batch.
+        return records.get(records.size() - 1).durable.handle((ignored, ex) -> {
+            if (ex instanceof IOException) throw new UncheckedIOException((IOException) ex);
+            if (ex != null) throw new CompletionException(ex);
+            return null;
+        });
+    }
+
+    private static void checkSize(byte[] payload) {
+        if (payload.length > RecordFrame.MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Journal record too large: " + payload.length + " bytes");
+        }
+    }
+
+    private void enqueue(List<PendingRecord> records) {
+        queueLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            if (failure != null) {
+                for (PendingRecord record : records) {
+                    record.durable.completeExceptionally(failure);
+                }
+                return;
+            }
+            boolean wasEmpty = queue.isEmpty();
+            queue.addAll(records);
+            if (wasEmpty) {
+                queued.signal();
+            }
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private static void awaitDurable(PendingRecord record) {
+        try {
+            record.durable.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Replays every durable record in append order.
+     * @param handler the handler to receive each record
+     * @throws IllegalStateException if the head of the log has been discarded
+     */
+    @Override
+    public void replay(Journaled handler) {
+        replay(0, handler);
+    }
+
+    /**
+     * Replays the durable records starting at a position previously returned by {@link #position()}.
+     * @param fromPosition the position of the first record to replay
+     * @param handler the handler to receive each record
+     * @throws IllegalStateException if records before the position have been discarded
+     * @throws UncheckedIOException if the log cannot be read
+     */
+    public void replay(long fromPosition, Journaled handler) {
+        try {
+            scan(fromPosition, durablePosition, (type, payload) -> handler.restore(type, new RecordReader(payload)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Reads the raw records between two durable positions.
+     * @param fromPosition the position of the first record
+     * @param toPosition the position to stop at, no later than {@link #position()}
+     * @param sink the sink to receive each record
+     * @throws IllegalStateException if records before the first position have been discarded
+     * @throws IOException if the log cannot be read or the sink fails
+     */
+    void scan(long fromPosition, long toPosition, RecordSink sink) throws IOException {
+        FileChannel reader;
+        long offset;
+        fileLock.lock();
+        try {
+            if (fromPosition < start) {
+                throw new IllegalStateException("Write-ahead log " + file + " before position " + start + " has been discarded");
+            }
+            // Opened under the lock, so it reads the file the offset belongs to even if the head is discarded meanwhile.
+            reader = FileChannel.open(file, StandardOpenOption.READ);
+            offset = start - origin;
+        } finally {
+            fileLock.unlock();
+        }
+        try (reader) {
+            scan(reader, fromPosition - offset, toPosition - offset, sink);
+        }
+    }
+
+    /**
+     * Gets the position just after the last durable record.
+     * @return the durable end of the log
+     */
+    public long position() {
+        return durablePosition;
+    }
+
+    /**
+     * Gets the position of the first record still in the log.
+     * @return zero, or the position the head of the log was last discarded before
+     */
+    public long start() {
+        return start;
+    }
+
+    /**
+     * Discards the records before a position, e.g. once a snapshot covers them. The records from
+     * the position on are copied behind a {@link RecordFrame#BASE} record into a new file, which
+     * is forced and atomically renamed over the log, so a crash leaves either the old file or the
+     * new one. Commits wait while the records are copied, which are only those written since
+     * the position.
+     * @param position a record boundary no later than {@link #position()}; ignored if no later
+     *                 than {@link #start()}
+     * @throws IOException if the file cannot be replaced; if it was replaced but cannot be
+     *         reopened, the log also fails every later append
+     */
+    public void discardBefore(long position) throws IOException {
+        fileLock.lock();
+        try {
+            if (position <= start) {
+                return;
+            }
+            if (position > durablePosition) {
+                throw new IllegalArgumentException("Position " + position + " is beyond the end of the write-ahead log");
+            }
+            long from = position - start + origin;
+            long length = durablePosition - position;
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.deleteIfExists(temp);
+            try (FileChannel copy = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                byte[] payload = ByteBuffer.allocate(Long.BYTES).putLong(position).array();
+                ByteBuffer base = ByteBuffer.allocate(BASE_FRAME_BYTES).putInt(payload.length)
+                        .putInt(RecordFrame.checksum(new CRC32C(), RecordFrame.BASE, payload))
+                        .put(RecordFrame.BASE).put(payload).flip();
+                while (base.hasRemaining()) {
+                    copy.write(base);
+                }
+                for (long copied = 0; copied < length; ) {
+                    copied += channel.transferTo(from + copied, length - copied, copy);
+                }
+                copy.force(true);
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(temp);
+                throw ex;
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            FileChannel reopened;
+            try {
+                forceDirectory(file);
+                reopened = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                reopened.position(BASE_FRAME_BYTES + length);
+            } catch (IOException ex) {
+                // Appends would otherwise go to the old file, which is no longer the log.
+                failPermanently(new IOException("Write-ahead log could not be reopened after discarding its head", ex));
+                throw ex;
+            }
+            try (FileChannel replaced = channel) {
+                channel = reopened;
+                start = position;
+                origin = BASE_FRAME_BYTES;
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the directory entry of a file that was just created or renamed.
+     * @param file the file
+     * @throws IOException if the directory cannot be forced
+     */
+    static void forceDirectory(Path file) throws IOException {
+        try (FileChannel directory = FileChannel.open(file.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (AccessDeniedException ex) {
+            // Platforms that cannot open a directory make renames durable without it.
+        }
+    }
+
+    /**
+     * Commits any queued records, stops the committer and closes the file.
+     */
+    @Override
+    public void close() {
+        queueLock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            queued.signal();
+        } finally {
+            queueLock.unlock();
+        }
+        try {
+            committer.join();
+            fileLock.lock();
+            try {
+                channel.close();
+            } finally {
+                fileLock.unlock();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void commitLoop() {
+        for (;;) {
+            queueLock.lock();
+            try {
+                while (queue.isEmpty() && !closed) {
+                    queued.awaitUninterruptibly();
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+            } finally {
+                queueLock.unlock();
+            }
+            if (commitWindowNanos > 0) {
+                LockSupport.parkNanos(commitWindowNanos);
+            }
+            List<PendingRecord> batch;
+            queueLock.lock();
+            try {
+                batch = queue;
+                queue = new ArrayList<>();
+            } finally {
+                queueLock.unlock();
+            }
+            commit(batch);
+        }
+    }
+
+    private void commit(List<PendingRecord> batch) {
+        queueLock.lock();
+        try {
+            if (failure != null) {
+                for (PendingRecord record : batch) {
+                    record.durable.completeExceptionally(failure);
+                }
+                return;
+            }
+        } finally {
+            queueLock.unlock();
+        }
+        Exception failed = null;
+        fileLock.lock();
+        try {
+            long bytes = 0;
+            for (PendingRecord record : batch) {
+                bytes += RecordFrame.HEADER_BYTES + record.payload.length;
+            }
+            if (batchBuffer.capacity() < bytes && batchBuffer.capacity() < MAX_BUFFER_BYTES) {
+                batchBuffer = ByteBuffer.allocateDirect((int) Math.min(MAX_BUFFER_BYTES, Long.highestOneBit(bytes - 1) << 1));
+            }
+            ByteBuffer buffer = batchBuffer;
+            buffer.clear();
+            CRC32C crc = new CRC32C();
+            for (PendingRecord record : batch) {
+                if (buffer.remaining() < RecordFrame.HEADER_BYTES + record.payload.length) {
+                    write(buffer);
+                }
+                int checksum = RecordFrame.checksum(crc, record.type, record.payload);
+                buffer.putInt(record.payload.length).putInt(checksum).put(record.type).put(record.payload);
+            }
+            write(buffer);
+            channel.force(false);
+            durablePosition = channel.position() - origin + start;
+        } catch (IOException | RuntimeException ex) {
+            discardFailedBatch(ex);
+            failed = ex;
+        } finally {
+            fileLock.unlock();
+        }
+        for (PendingRecord record : batch) {
+            if (failed == null) {
+                record.durable.complete(null);
+            } else {
+                record.durable.completeExceptionally(failed);
+            }
+        }
+    }
+
+    /**
+     * Writes out a filled batch buffer and clears it for the rest of the batch.
+     * @param buffer the buffer, in fill mode
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Truncates whatever part of a failed batch reached the file, so the next batch follows the
+     * last durable one. If the file cannot be repaired, the log is failed for good.
+     * @param cause why the batch failed
+     */
+    private void discardFailedBatch(Exception cause) {
+        try {
+            long end = durablePosition - start + origin;
+            channel.truncate(end);
+            channel.position(end);
+            channel.force(false);
+        } catch (IOException | RuntimeException ex) {
+            IOException repair = new IOException("Write-ahead log could not be repaired after a failed commit", ex);
+            repair.addSuppressed(cause);
+            failPermanently(repair);
+        }
+    }
+
+    /**
+     * Fails every later append.
+     * @param cause why the log can no longer be appended to
+     */
+    private void failPermanently(IOException cause) {
+        queueLock.lock();
+        try {
+            failure = cause;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the position of the first record in a file from its {@link RecordFrame#BASE} record.
+     * @param channel the file
+     * @return the position, or zero if the file does not start with one
+     */
+    private static long readBase(FileChannel channel) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(BASE_FRAME_BYTES);
+        while (frame.hasRemaining() && channel.read(frame, frame.position()) >= 0) {
+            // keep reading until the frame is full or the file ends
+        }
+        if (frame.hasRemaining()) {
+            return 0;
+        }
+        frame.flip();
+        int length = frame.getInt();
+        int checksum = frame.getInt();
+        byte type = frame.get();
+        byte[] payload = new byte[Long.BYTES];
+        frame.get(payload);
+        if (length != Long.BYTES || type != RecordFrame.BASE || RecordFrame.checksum(new CRC32C(), type, payload) != checksum) {
+            return 0;
+        }
+        return ByteBuffer.wrap(payload).getLong();
+    }
+
+    /**
+     * Reads intact records from a file offset.
+     * @param reader a channel on the log file
+     * @param from the offset of the first record
+     * @param limit the offset to stop at
+     * @param sink the sink to receive each record, or null to only validate
+     * @return the offset just after the last intact record
+     */
+    private static long scan(FileChannel reader, long from, long limit, RecordSink sink) throws IOException {
+        reader.position(from);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(reader), 64 << 10));
+        CRC32C crc = new CRC32C();
+        long position = from;
+        while (position + RecordFrame.HEADER_BYTES <= limit) {
+            int length;
+            int checksum;
+            byte type;
+            byte[] payload;
+            try {
+                length = in.readInt();
+                checksum = in.readInt();
+                type = in.readByte();
+                if (length < 0 || length > RecordFrame.MAX_PAYLOAD_BYTES || position + RecordFrame.HEADER_BYTES + length > limit) {
+                    break;
+                }
+                payload = new byte[length];
+                in.readFully(payload);
+            } catch (EOFException ex) {
+                break;
+            }
+            if (RecordFrame.checksum(crc, type, payload) != checksum) {
+                break;
+            }
+            if (sink != null) {
+                sink.write(type, payload);
+            }
+            position += RecordFrame.HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    /**
+     * A record waiting for the committer.
+     */
+    private static final class PendingRecord {
+        private final byte type;
+        private final byte[] payload;
+        private final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        PendingRecord(byte type, byte[] payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+}
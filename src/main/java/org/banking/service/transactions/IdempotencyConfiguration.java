@@ -0,0 +1,32 @@
+package org.banking.service.transactions;
+
+import org.banking.service.util.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+/**
+ * Configures the store behind {@code Idempotency-Key} support on transaction creation.
+ * Keys are remembered for {@code banking.idempotency.ttl}, and at most
+ * {@code banking.idempotency.max-keys} are held at once.
+ */
+@Configuration
+public class IdempotencyConfiguration {
+
+    /**
+     * Creates the idempotency store. Only created transactions are remembered, so a request
+     * that failed can be retried with the same key.
+     * @param maxKeys the maximum number of keys held
+     * @param ttl how long a key is remembered
+     * @return the store
+     */
+    @Bean
+    public IdempotencyStore<ResponseEntity<?>> idempotencyStore(@Value("${banking.idempotency.max-keys:100000}") int maxKeys,
+                                                                @Value("${banking.idempotency.ttl:24h}") Duration ttl) {
+        return new IdempotencyStore<>(maxKeys, ttl, response -> response.getStatusCode() == HttpStatus.CREATED);
+    }
+}
@@ -0,0 +1,284 @@
+package org.banking.service.transactions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cold tier of the transaction logs: files holding sealed segments, written once and read back
+ * through memory mapping.
+ * <p>
+ * Segments from every account are appended back to back to the current file, which is replaced
+ * by a new one once it reaches its size limit. Each file is created sparse at that full size and
+ * mapped once, whole, on the first read, so the sealed bytes live in the page cache rather than
+ * on the heap, and a file never needs more than one mapping however many segments are appended
+ * to it after it is mapped. The files only hold history that the journal also holds, so
+ * segments are never forced to disk and files left by a previous run are deleted on open.
+ * <p>
+ * A transaction is cold once it is older than the hot window. {@link #NONE} never treats a
+ * transaction as cold, so logs using it keep their whole history in memory. Sealing runs on the
+ * archive's own thread, on its schedule and whenever a log asks for it, so the threads
+ * appending transactions never encode or write segments.
+ */
+public final class TransactionArchive {
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchive.class);
+    private static final String FILE_GLOB = "segments-*.seg";
+    private static final long DEFAULT_FILE_SIZE = 64L << 20;
+
+    /** An archive that never seals anything. */
+    public static final TransactionArchive NONE = new TransactionArchive(null, Duration.ZERO, Duration.ZERO, DEFAULT_FILE_SIZE);
+
+    private final Path directory;
+    private final long hotWindowMicros;
+    private final Duration sealInterval;
+    private final long fileSize;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final List<ArchiveFile> files = new ArrayList<>();
+    private final ScheduledExecutorService sealer;
+    /** Whether sealing has been scheduled; guarded by the write lock. */
+    private boolean scheduled;
+
+    /**
+     * Constructs a TransactionArchive.
+     * @param directory the directory of the segment files
+     * @param hotWindow how long transactions stay in memory after they are created
+     * @param sealInterval how often {@link #schedule(Runnable)} runs sealing, or zero to only seal when logs ask
+     * @param fileSize the size at which a segment file is closed and a new one started
+     */
+    TransactionArchive(Path directory, Duration hotWindow, Duration sealInterval, long fileSize) {
+        this.directory = directory;
+        this.hotWindowMicros = TimeUnit.NANOSECONDS.toMicros(hotWindow.toNanos());
+        this.sealInterval = sealInterval;
+        this.fileSize = fileSize;
+        this.sealer = directory == null ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-sealer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens an archive directory, deleting segment files left by a previous run.
+     * @param directory the directory of the segment files
+     * @param hotWindow how long transactions stay in memory after they are created
+     * @param sealInterval how often {@link #schedule(Runnable)} runs sealing, or zero to only seal when logs ask
+     * @return the archive
+     * @throws IOException if the directory cannot be created or cleared
+     */
+    public static TransactionArchive open(Path directory, Duration hotWindow, Duration sealInterval) throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, FILE_GLOB)) {
+            for (Path file : stale) {
+                Files.delete(file);
+            }
+        }
+        return new TransactionArchive(directory, hotWindow, sealInterval, DEFAULT_FILE_SIZE);
+    }
+
+    /**
+     * Checks whether a transaction created at the given time belongs in the archive.
+     * @param micros the created time in epoch microseconds
+     * @return whether it is older than the hot window; always false for {@link #NONE}
+     */
+    boolean isCold(long micros) {
+        return directory != null && micros < ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now()) - hotWindowMicros;
+    }
+
+    /**
+     * Runs a sealing pass every seal interval on the sealer thread, if the interval is not zero.
+     * @param sealing the sealing pass
+     */
+    void schedule(Runnable sealing) {
+        if (directory == null || sealInterval.isZero()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (scheduled) {
+                throw new IllegalStateException("Sealing is already scheduled");
+            }
+            scheduled = true;
+        } finally {
+            writeLock.unlock();
+        }
+        long millis = sealInterval.toMillis();
+        sealer.scheduleWithFixedDelay(() -> runSealing(sealing), millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a sealing pass on the sealer thread once it is free, unless the archive is {@link #NONE} or closed.
+     * @param sealing the sealing pass
+     */
+    void sealLater(Runnable sealing) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            sealer.execute(() -> runSealing(sealing));
+        } catch (RejectedExecutionException ex) {
+            // Closed: the segments stay in memory.
+        }
+    }
+
+    private void runSealing(Runnable sealing) {
+        try {
+            sealing.run();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to seal transactions into {}", directory, ex);
+        }
+    }
+
+    /**
+     * Appends a sealed segment to the current file.
+     * @param bytes the encoded segment
+     * @return where the segment was written, or null if it could not be written, in which case
+     *         the failure is logged and the caller keeps the segment in memory
+     */
+    Extent append(byte[] bytes) {
+        writeLock.lock();
+        try {
+            ArchiveFile file = files.isEmpty() ? null : files.get(files.size() - 1);
+            if (file == null || file.length + bytes.length > file.capacity) {
+                Path path = directory.resolve(String.format("segments-%06d.seg", files.size() + 1));
+                try {
+                    file = new ArchiveFile(FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE), Math.max(fileSize, bytes.length));
+                } catch (IOException ex) {
+                    Files.deleteIfExists(path);
+                    throw ex;
+                }
+                files.add(file);
+            }
+            long offset = file.length;
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                file.channel.write(buffer, offset + buffer.position());
+            }
+            file.length = offset + bytes.length;
+            return new Extent(file, (int) offset, bytes.length);
+        } catch (IOException ex) {
+            log.warn("Failed to write a sealed segment to {}", directory, ex);
+            return null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Stops sealing and closes the segment files, trimmed to the bytes written. Sealed segments
+     * already mapped stay readable.
+     */
+    public void close() {
+        if (sealer != null) {
+            sealer.shutdownNow();
+            try {
+                sealer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writeLock.lock();
+        try {
+            for (ArchiveFile file : files) {
+                // Only the sparse tail is cut, which no sealed segment reads.
+                file.channel.truncate(file.length);
+                file.channel.close();
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to close segment files in {}", directory, ex);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * The location of one sealed segment in a segment file.
+     */
+    static final class Extent {
+        private final ArchiveFile file;
+        private final int offset;
+        private final int length;
+
+        Extent(ArchiveFile file, int offset, int length) {
+            this.file = file;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * Maps the segment's bytes.
+         * @return a read-only buffer positioned at the segment's first byte
+         * @throws UncheckedIOException if the file cannot be mapped
+         */
+        ByteBuffer buffer() {
+            return file.slice(offset, length);
+        }
+    }
+
+    /**
+     * A segment file and its mapping.
+     */
+    private static final class ArchiveFile {
+        private final FileChannel channel;
+        private final long capacity;
+        private final ReentrantLock mapLock = new ReentrantLock();
+        /** Bytes written; only grows, under the archive's write lock. */
+        private long length;
+        private volatile MappedByteBuffer mapped;
+
+        /**
+         * Takes a new, empty file and extends it, sparse, to its full size.
+         * @param channel the file's channel, closed if it cannot be extended
+         * @param capacity the file's size
+         * @throws IOException if the file cannot be extended
+         */
+        ArchiveFile(FileChannel channel, long capacity) throws IOException {
+            this.channel = channel;
+            this.capacity = capacity;
+            try {
+                channel.write(ByteBuffer.allocate(1), capacity - 1);
+            } catch (IOException ex) {
+                channel.close();
+                throw ex;
+            }
+        }
+
+        ByteBuffer slice(int offset, int size) {
+            MappedByteBuffer buffer = mapped;
+            if (buffer == null) {
+                mapLock.lock();
+                try {
+                    buffer = mapped;
+                    if (buffer == null) {
+                        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+                        mapped = buffer;
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                } finally {
+                    mapLock.unlock();
+                }
+            }
+            return buffer.slice(offset, size);
+        }
+    }
+}
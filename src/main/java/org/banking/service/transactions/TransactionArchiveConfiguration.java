@@ -0,0 +1,39 @@
+package org.banking.service.transactions;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configures tiered transaction storage.
+ * Tiering is off unless {@code banking.transactions.archive.enabled=true}; transactions older
+ * than {@code banking.transactions.hot-window} are then sealed into segment files under
+ * {@code banking.transactions.archive.path}, checked every {@code banking.transactions.archive.interval}.
+ */
+@Configuration
+public class TransactionArchiveConfiguration {
+
+    /**
+     * Creates the transaction archive.
+     * @param enabled whether to move older transactions out of memory
+     * @param path the directory of the segment files
+     * @param hotWindow how long transactions stay in memory after they are created
+     * @param interval how often to look for transactions to seal, or zero to only seal when logs fill
+     * @return the archive, or {@link TransactionArchive#NONE} when tiering is disabled
+     * @throws IOException if the directory cannot be prepared
+     */
+    @Bean(destroyMethod = "close")
+    public TransactionArchive transactionArchive(@Value("${banking.transactions.archive.enabled:false}") boolean enabled,
+                                                 @Value("${banking.transactions.archive.path:data/transactions}") Path path,
+                                                 @Value("${banking.transactions.hot-window:30d}") Duration hotWindow,
+                                                 @Value("${banking.transactions.archive.interval:10m}") Duration interval) throws IOException {
+        if (!enabled) {
+            return TransactionArchive.NONE;
+        }
+        return TransactionArchive.open(path, hotWindow, interval);
+    }
+}
@@ -0,0 +1,164 @@
+package org.banking.service.transactions;
+
+import org.banking.service.model.*;
+import org.banking.service.service.AccountService;
+import org.banking.service.service.LedgerService;
+import org.banking.service.service.TransactionBatchService;
+import org.banking.service.util.CannedError;
+import org.banking.service.util.ErrorUtil;
+import org.banking.service.util.Formats;
+import org.banking.service.util.ValidationUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service implementation for batch transaction submission.
+ * <p>
+ * The batch is validated in one pass, with each distinct account looked up once. Each account's
+ * valid items are then submitted to the {@link LedgerService} as one command, so the accounts'
+ * partitions apply them in parallel, each with one balance update and one journal write.
+ * Each item gets the status and body that submitting it on its own would have produced.
+ */
+@Service
+public class TransactionBatchServiceImpl implements TransactionBatchService {
+    private final AccountService accountService;
+    private final LedgerService ledgerService;
+
+    /**
+     * Constructs a TransactionBatchServiceImpl.
+     * @param accountService the account service used to look up accounts
+     * @param ledgerService the ledger that applies the transactions
+     */
+    @Autowired
+    public TransactionBatchServiceImpl(AccountService accountService, LedgerService ledgerService) {
+        this.accountService = accountService;
+        this.ledgerService = ledgerService;
+    }
+
+    /**
+     * Validates and applies a batch of transactions on behalf of a user.
+     * Items for the same account are applied in submission order; a withdrawal is checked
+     * against the balance left by the account's earlier items in the batch.
+     * @param userId the authenticated user
+     * @param requests the batch items
+     * @return one result per item, in submission order
+     */
+    @Override
+    public BatchTransactionResponse submit(String userId, List<BatchTransactionRequest> requests) {
+        BatchTransactionResponse.Result[] results = new BatchTransactionResponse.Result[requests.size()];
+        Map<String, BatchTransactionResponse.Result> accountErrors = new HashMap<>();
+        Map<String, List<Integer>> byAccount = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            BatchTransactionRequest request = requests.get(i);
+            BatchTransactionResponse.Result error = validate(userId, request, accountErrors);
+            if (error != null) {
+                results[i] = error;
+            } else {
+                byAccount.computeIfAbsent(request.getAccountNumber(), k -> new ArrayList<>()).add(i);
+            }
+        }
+        List<CompletableFuture<List<TransactionResponse>>> submitted = new ArrayList<>(byAccount.size());
+        for (Map.Entry<String, List<Integer>> group : byAccount.entrySet()) {
+            List<BatchTransactionRequest> items = new ArrayList<>(group.getValue().size());
+            for (int index : group.getValue()) {
+                items.add(requests.get(index));
+            }
+            submitted.add(ledgerService.submitTransactions(group.getKey(), items));
+        }
+        int next = 0;
+        for (List<Integer> indexes : byAccount.values()) {
+            fill(requests, indexes, submitted.get(next++).join(), results);
+        }
+        return new BatchTransactionResponse(Arrays.asList(results));
+    }
+
+    /**
+     * Checks one item, in the order the single-transaction endpoint does.
+     * @param userId the authenticated user
+     * @param request the item
+     * @param accountErrors the ownership outcome of each account seen so far, null if owned
+     * @return the error result, or null if the item is valid
+     */
+    private BatchTransactionResponse.Result validate(String userId, BatchTransactionRequest request,
+                                                     Map<String, BatchTransactionResponse.Result> accountErrors) {
+        if (request == null) {
+            return invalid("Invalid details supplied", ValidationUtil.validateCreateTransactionRequestAll(null));
+        }
+        String accountNumber = request.getAccountNumber();
+        if (!Formats.isAccountNumber(accountNumber)) {
+            return invalid("Invalid accountNumber format",
+                    List.of(ErrorUtil.detail("accountNumber", "Invalid accountNumber format", "pattern")));
+        }
+        BatchTransactionResponse.Result accountError;
+        if (accountErrors.containsKey(accountNumber)) {
+            accountError = accountErrors.get(accountNumber);
+        } else {
+            BankAccountResponse account = accountService.fetchAccount(accountNumber);
+            if (account == null) {
+                accountError = failed(CannedError.BANK_ACCOUNT_NOT_FOUND);
+            } else if (!userId.equals(account.getUserId())) {
+                accountError = failed(CannedError.FORBIDDEN_TRANSACT);
+            } else {
+                accountError = null;
+            }
+            accountErrors.put(accountNumber, accountError);
+        }
+        if (accountError != null) {
+            return accountError;
+        }
+        List<BadRequestErrorResponse.Detail> details = ValidationUtil.validateCreateTransactionRequestAll(request);
+        return details.isEmpty() ? null : invalid("Invalid details supplied", details);
+    }
+
+    /**
+     * Fills in the results of one account's items from the ledger's outcome.
+     * @param requests the items of the batch
+     * @param indexes the positions of the account's items in the batch
+     * @param created the created transactions, null for each withdrawal refused for insufficient
+     *                funds and each deposit refused for the balance limit, or null altogether if
+     *                the account no longer exists
+     * @param results the results to fill in
+     */
+    private static void fill(List<BatchTransactionRequest> requests, List<Integer> indexes,
+                             List<TransactionResponse> created, BatchTransactionResponse.Result[] results) {
+        if (created == null) {
+            BatchTransactionResponse.Result notFound = failed(CannedError.BANK_ACCOUNT_NOT_FOUND);
+            for (int index : indexes) {
+                results[index] = notFound;
+            }
+            return;
+        }
+        BatchTransactionResponse.Result insufficientFunds = null;
+        BatchTransactionResponse.Result balanceLimit = null;
+        for (int j = 0; j < indexes.size(); j++) {
+            int index = indexes.get(j);
+            TransactionResponse transaction = created.get(j);
+            if (transaction != null) {
+                results[index] = new BatchTransactionResponse.Result(HttpStatus.CREATED.value(), transaction, null);
+            } else if ("withdrawal".equalsIgnoreCase(requests.get(index).getType())) {
+                if (insufficientFunds == null) insufficientFunds = failed(CannedError.INSUFFICIENT_FUNDS);
+                results[index] = insufficientFunds;
+            } else {
+                if (balanceLimit == null) balanceLimit = failed(CannedError.BALANCE_LIMIT);
+                results[index] = balanceLimit;
+            }
+        }
+    }
+
+    private static BatchTransactionResponse.Result invalid(String message, List<BadRequestErrorResponse.Detail> details) {
+        return new BatchTransactionResponse.Result(HttpStatus.BAD_REQUEST.value(), null, ErrorUtil.badRequest(message, details));
+    }
+
+    private static BatchTransactionResponse.Result failed(CannedError error) {
+        return new BatchTransactionResponse.Result(error.status().value(), null, ErrorUtil.error(error.message()));
+    }
+}
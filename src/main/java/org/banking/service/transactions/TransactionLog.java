@@ -0,0 +1,816 @@
+package org.banking.service.transactions;
+
+import org.banking.service.model.TransactionResponse;
+import org.banking.service.util.IdGenerator;
+import org.banking.service.util.MoneyUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only log of one account's transactions, stored column by column in fixed-size segments.
+ * <p>
+ * Each row is held in primitive columns rather than as a {@link TransactionResponse}: the id as
+ * the eight-byte value of its base-62 digits, the amount in pence, the created time in epoch
+ * microseconds, an int code for the type, currency and user, and the reference as UTF-8
+ * bytes in a per-segment heap addressed by end offsets. A row costs 32 bytes plus its reference
+ * and its share of the id index, about 50 bytes in all, against about 180 for the objects it
+ * replaces (see {@code ./gradlew transactionFootprint}). {@link TransactionResponse} objects
+ * are built only when a row is read, so they live no longer than the request reading them.
+ * Ids not in the generator's format are kept as strings, and timestamps are read back in the
+ * system time zone.
+ * <p>
+ * Writers serialise on a lock among themselves, fill the next row and then publish the
+ * new length through a volatile write. Readers never lock: they read the published length
+ * and see every row below it, so a snapshot stays stable while appends continue.
+ * The first segment starts small and doubles until full, so an account with a handful of
+ * transactions stays small; later segments are allocated full. Full segments are never copied.
+ * <p>
+ * Transaction ids are indexed by an open-addressing table of primitive positions
+ * (stored as position + 1, with 0 marking an empty slot), kept at most half full and
+ * maintained under the same lock as appends.
+ * <p>
+ * Rows are kept in non-decreasing created time order (a transaction stamped earlier than its
+ * predecessor is clamped to the predecessor's time when appended), so a point in time can be
+ * found by binary search.
+ * <p>
+ * With a {@link TransactionArchive}, full segments whose newest row is older than the archive's
+ * hot window are sealed: encoded into the archive and replaced by a {@link SealedSegment} that
+ * keeps only the segment's location and id range on the heap, so the heap held by a log stays
+ * proportional to its recent rows however long its history grows. Sealed rows are encoded in
+ * blocks of {@value #BLOCK_SIZE}, each row as varints of its id and created time deltas, its
+ * amount, its kind and its reference length, then its reference bytes. A sparse index of each
+ * block's first created time and offset leads the segment, so one row is read by decoding only
+ * its block. Sealed rows leave the id index and are found by scanning the segments whose id
+ * range covers the id; an id kept as a string is first turned into its stored code through a
+ * hash map. Segments are sealed oldest first by {@link #seal()}, and a sealed segment
+ * is never written again. Appends never seal: a segment that fills already outside the hot
+ * window asks the archive to run {@link #seal()} on its sealer thread.
+ */
+class TransactionLog {
+    /** Prefix of the transaction ids stored as numbers. */
+    static final String ID_PREFIX = "tan-";
+    private static final int SEGMENT_SHIFT = 10;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+    private static final int INITIAL_INDEX_CAPACITY = 16;
+    private static final long MICROS_PER_SECOND = TimeUnit.SECONDS.toMicros(1);
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final TransactionArchive archive;
+    private final AtomicBoolean sealRequested = new AtomicBoolean();
+    private volatile Segment[] segments = new Segment[4];
+    private volatile Kind[] kinds = new Kind[4];
+    /** Code of each kind in {@link #kinds}; guarded by the append lock. */
+    private final Map<Kind, Integer> kindCodes = new HashMap<>();
+    private volatile String[] foreignIds = new String[0];
+    /** Position of each id in {@link #foreignIds}, for lookups among sealed rows; written under the append lock. */
+    private final Map<String, Integer> foreignCodes = new ConcurrentHashMap<>();
+    private volatile int[] idIndex = new int[INITIAL_INDEX_CAPACITY];
+    private volatile int size;
+    /** Number of leading segments sealed into the archive; guarded by the append lock. */
+    private int sealedSegments;
+    /** Created time of the last row, in epoch microseconds; guarded by the append lock. */
+    private long lastMicros;
+
+    /**
+     * Constructs a TransactionLog that keeps its whole history in memory.
+     */
+    TransactionLog() {
+        this(TransactionArchive.NONE);
+    }
+
+    /**
+     * Constructs a TransactionLog that seals full segments older than the archive's hot window.
+     * @param archive the archive to seal segments into
+     */
+    TransactionLog(TransactionArchive archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Appends a transaction and publishes it to readers.
+     * @param transaction the transaction to append
+     * @return the position of the transaction in the log
+     */
+    int append(TransactionResponse transaction) {
+        appendLock.lock();
+        try {
+            return appendLocked(transaction);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Appends several transactions under one acquisition of the append lock, publishing each in turn.
+     * @param transactions the transactions to append, in order
+     */
+    void appendAll(List<TransactionResponse> transactions) {
+        appendLock.lock();
+        try {
+            for (TransactionResponse transaction : transactions) {
+                appendLocked(transaction);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Appends one transaction; must be called with the append lock held.
+     * @param transaction the transaction to append
+     * @return the position of the transaction in the log
+     */
+    private int appendLocked(TransactionResponse transaction) {
+        int index = size;
+        int kind = kindOf(transaction);
+        Segment[] directory = segments;
+        int segmentIndex = index >>> SEGMENT_SHIFT;
+        if (segmentIndex == directory.length) {
+            directory = Arrays.copyOf(directory, directory.length << 1);
+        }
+        Columns segment = (Columns) directory[segmentIndex];
+        int row = index & SEGMENT_MASK;
+        if (segment == null) {
+            segment = new Columns(segmentIndex == 0 ? INITIAL_SEGMENT_CAPACITY : SEGMENT_SIZE, null, 0);
+            directory[segmentIndex] = segment;
+        } else if (row == segment.capacity()) {
+            segment = new Columns(segment.capacity() << 1, segment, row);
+            directory[segmentIndex] = segment;
+        }
+        long micros = toMicros(transaction.getCreatedTimestamp());
+        if (index > 0 && micros < lastMicros) {
+            micros = lastMicros;
+            transaction.setCreatedTimestamp(toTimestamp(micros));
+        }
+        lastMicros = micros;
+        segment.ids[row] = encodeId(transaction.getId());
+        segment.amounts[row] = MoneyUtil.toPence(transaction.getAmount());
+        segment.micros[row] = micros;
+        segment.kinds[row] = kind;
+        segment.appendReference(row, transaction.getReference());
+        segments = directory;
+        indexId(directory, transaction.getId(), index);
+        size = index + 1;
+        if (row == SEGMENT_MASK && archive.isCold(micros) && sealRequested.compareAndSet(false, true)) {
+            archive.sealLater(() -> {
+                sealRequested.set(false);
+                seal();
+            });
+        }
+        return index;
+    }
+
+    /**
+     * Seals every full segment, oldest first, until one holds a row inside the archive's hot window.
+     * @return the number of transactions sealed
+     */
+    int seal() {
+        appendLock.lock();
+        try {
+            return sealLocked();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Seals full segments older than the hot window; must be called with the append lock held.
+     * The directory is copied before a published segment is replaced, so snapshots taken
+     * earlier keep reading the in-memory columns, and the id index is rebuilt over the rows left
+     * in memory once the new directory is published.
+     * @return the number of transactions sealed
+     */
+    private int sealLocked() {
+        Segment[] directory = segments;
+        int first = sealedSegments;
+        int next = first;
+        int full = size >>> SEGMENT_SHIFT;
+        while (next < full && archive.isCold(directory[next].micros(SEGMENT_MASK))) {
+            SealedSegment sealed = SealedSegment.seal((Columns) directory[next], archive);
+            if (sealed == null) {
+                break;
+            }
+            if (next == first) {
+                directory = directory.clone();
+            }
+            directory[next++] = sealed;
+        }
+        if (next == first) {
+            return 0;
+        }
+        sealedSegments = next;
+        segments = directory;
+        rebuildIndex(directory, size);
+        return (next - first) << SEGMENT_SHIFT;
+    }
+
+    /**
+     * Looks up a published transaction by id.
+     * @param transactionId the transaction ID
+     * @return the transaction, or null if no published transaction has that id
+     */
+    TransactionResponse find(String transactionId) {
+        int length = size;
+        int[] table = idIndex;
+        Segment[] directory = segments;
+        long value = IdGenerator.parse(transactionId, ID_PREFIX);
+        int mask = table.length - 1;
+        for (int slot = spread(hash(transactionId, value)) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return directory[0] instanceof SealedSegment ? findSealed(directory, transactionId, value) : null;
+            }
+            int position = entry - 1;
+            // Positions at or beyond the published length belong to appends still in flight.
+            if (position < length) {
+                long id = directory[position >>> SEGMENT_SHIFT].id(position & SEGMENT_MASK);
+                if (value >= 0 ? id == value : id < 0 && transactionId.equals(foreignIds[(int) ~id])) {
+                    return read(directory, position);
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks up a transaction among the sealed segments, scanning those whose id range covers it.
+     * The directory must be read after the id index that missed the transaction, so rows
+     * dropped from that index are in its sealed segments.
+     * @param directory the segment directory
+     * @param transactionId the transaction ID
+     * @param value the numeric value of the id, or -1 if it is not in the generator's format
+     * @return the transaction, or null if no sealed segment holds it
+     */
+    private TransactionResponse findSealed(Segment[] directory, String transactionId, long value) {
+        long id = value;
+        if (value < 0) {
+            Integer foreign = foreignCodes.get(transactionId);
+            if (foreign == null) {
+                return null;
+            }
+            id = ~(long) foreign;
+        }
+        for (int s = 0; s < directory.length && directory[s] instanceof SealedSegment; s++) {
+            int row = ((SealedSegment) directory[s]).find(id);
+            if (row >= 0) {
+                return read(directory, (s << SEGMENT_SHIFT) | row);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the published number of transactions.
+     * @return the number of transactions visible to readers
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Takes a read-only view of the log up to its currently published length. Each element is
+     * built from the columns when it is read. Later appends are not visible through the
+     * returned list.
+     * @return the snapshot view
+     */
+    List<TransactionResponse> snapshot() {
+        int length = size;
+        return new Snapshot(segments, length);
+    }
+
+    /**
+     * Finds the first position in a snapshot whose transaction was created at or after the given time.
+     * @param snapshot a snapshot taken from a transaction log
+     * @param time the time to seek to
+     * @return the first matching position, or the snapshot size if every transaction is earlier
+     */
+    static int seek(List<TransactionResponse> snapshot, OffsetDateTime time) {
+        if (!(snapshot instanceof Snapshot)) {
+            return snapshot.isEmpty() ? 0 : seekObjects(snapshot, time);
+        }
+        Segment[] directory = ((Snapshot) snapshot).segments;
+        // A row at a whole microsecond is at or after the time if it is at or after the time rounded up.
+        long target = toMicros(time) + (time.getNano() % 1_000 == 0 ? 0 : 1);
+        int low = 0;
+        int high = snapshot.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (directory[mid >>> SEGMENT_SHIFT].micros(mid & SEGMENT_MASK) < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int seekObjects(List<TransactionResponse> snapshot, OffsetDateTime time) {
+        int low = 0;
+        int high = snapshot.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (snapshot.get(mid).getCreatedTimestamp().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Builds the transaction at a published position.
+     * @param directory a segment directory read after the length covering the position
+     * @param position the position
+     * @return a new transaction holding the row's values
+     */
+    private TransactionResponse read(Segment[] directory, int position) {
+        Segment segment = directory[position >>> SEGMENT_SHIFT];
+        int row = position & SEGMENT_MASK;
+        if (segment instanceof SealedSegment) {
+            return read(((SealedSegment) segment).block(row >>> BLOCK_SHIFT), row & BLOCK_MASK);
+        }
+        return read((Columns) segment, row);
+    }
+
+    /**
+     * Builds the transaction in a row of in-memory columns.
+     * @param segment a segment or decoded block
+     * @param row the row within it
+     * @return a new transaction holding the row's values
+     */
+    private TransactionResponse read(Columns segment, int row) {
+        Kind kind = kinds[segment.kinds[row]];
+        long id = segment.ids[row];
+        TransactionResponse transaction = new TransactionResponse();
+        transaction.setId(id >= 0 ? IdGenerator.format(ID_PREFIX, id) : foreignIds[(int) ~id]);
+        transaction.setAmount(MoneyUtil.toPounds(segment.amounts[row]));
+        transaction.setCurrency(kind.currency);
+        transaction.setType(kind.type);
+        transaction.setReference(segment.reference(row));
+        transaction.setUserId(kind.userId);
+        transaction.setCreatedTimestamp(toTimestamp(segment.micros[row]));
+        return transaction;
+    }
+
+    /**
+     * Finds or adds the code for a transaction's type, currency and user. The kind table doubles
+     * as it fills and is published before the row using a new code. Must be called under the
+     * append lock.
+     */
+    private int kindOf(TransactionResponse transaction) {
+        Kind kind = new Kind(transaction.getType(), transaction.getCurrency(), transaction.getUserId());
+        Integer existing = kindCodes.get(kind);
+        if (existing != null) {
+            return existing;
+        }
+        int code = kindCodes.size();
+        Kind[] table = kinds;
+        if (code == table.length) {
+            table = Arrays.copyOf(table, table.length << 1);
+        }
+        table[code] = kind;
+        kinds = table;
+        kindCodes.put(kind, code);
+        return code;
+    }
+
+    /**
+     * Encodes an id as its numeric value, or as the complement of its position among the
+     * ids kept as strings. Must be called under the append lock.
+     */
+    private long encodeId(String transactionId) {
+        long value = IdGenerator.parse(transactionId, ID_PREFIX);
+        if (value >= 0) {
+            return value;
+        }
+        String[] table = Arrays.copyOf(foreignIds, foreignIds.length + 1);
+        table[table.length - 1] = transactionId;
+        foreignIds = table;
+        foreignCodes.putIfAbsent(transactionId, table.length - 1);
+        return ~(long) (table.length - 1);
+    }
+
+    /**
+     * Adds a position to the id index, doubling the table once it would exceed half full.
+     * Must be called under the append lock, before the new length is published.
+     * @param directory the current segment directory
+     * @param transactionId the id of the appended transaction
+     * @param position the position of the appended transaction
+     */
+    private void indexId(Segment[] directory, String transactionId, int position) {
+        int[] table = idIndex;
+        if ((position - (sealedSegments << SEGMENT_SHIFT) + 1) * 2 > table.length) {
+            rebuildIndex(directory, position + 1);
+        } else {
+            insert(table, hash(transactionId, IdGenerator.parse(transactionId, ID_PREFIX)), position);
+        }
+    }
+
+    /**
+     * Replaces the id index with one over the rows held in memory, at most half full.
+     * Must be called under the append lock.
+     * @param directory the current segment directory
+     * @param length the number of rows to index, including any not yet published
+     */
+    private void rebuildIndex(Segment[] directory, int length) {
+        int first = sealedSegments << SEGMENT_SHIFT;
+        int capacity = INITIAL_INDEX_CAPACITY;
+        while (capacity < (length - first) * 2) {
+            capacity <<= 1;
+        }
+        int[] table = new int[capacity];
+        for (int i = first; i < length; i++) {
+            long id = directory[i >>> SEGMENT_SHIFT].id(i & SEGMENT_MASK);
+            insert(table, id >= 0 ? Long.hashCode(id) : foreignIds[(int) ~id].hashCode(), i);
+        }
+        idIndex = table;
+    }
+
+    private static int hash(String transactionId, long value) {
+        return value >= 0 ? Long.hashCode(value) : transactionId.hashCode();
+    }
+
+    private static void insert(int[] table, int hash, int position) {
+        int mask = table.length - 1;
+        int slot = spread(hash) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = position + 1;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B1;
+    }
+
+    private static long toMicros(OffsetDateTime time) {
+        return time.toEpochSecond() * MICROS_PER_SECOND + time.getNano() / 1_000;
+    }
+
+    private static OffsetDateTime toTimestamp(long micros) {
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                Math.floorMod(micros, MICROS_PER_SECOND) * 1_000);
+        return OffsetDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    /**
+     * A distinct combination of type, currency and user, shared by every row with that combination.
+     */
+    private static final class Kind {
+        private final String type;
+        private final String currency;
+        private final String userId;
+
+        Kind(String type, String currency, String userId) {
+            this.type = type;
+            this.currency = currency;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Kind)) return false;
+            Kind other = (Kind) o;
+            return Objects.equals(type, other.type)
+                    && Objects.equals(currency, other.currency)
+                    && Objects.equals(userId, other.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, currency, userId);
+        }
+    }
+
+    /**
+     * Up to {@value #SEGMENT_SIZE} consecutive rows of the log.
+     */
+    private abstract static class Segment {
+        abstract long id(int row);
+
+        abstract long micros(int row);
+    }
+
+    /**
+     * Columns for up to {@value #SEGMENT_SIZE} consecutive rows, held in memory. A segment
+     * outgrowing its capacity is replaced by a larger copy, so the columns of rows already
+     * published are never written again. Blocks decoded from a {@link SealedSegment} use the
+     * same columns.
+     */
+    private static final class Columns extends Segment {
+        final long[] ids;
+        final long[] amounts;
+        final long[] micros;
+        final int[] kinds;
+        /** End offset of each row's reference in {@link #references}, complemented for a null reference. */
+        final int[] referenceEnds;
+        /** UTF-8 bytes of the references, back to back. Replaced by a larger copy as it fills. */
+        volatile byte[] references;
+
+        Columns(int capacity, Columns previous, int rows) {
+            ids = new long[capacity];
+            amounts = new long[capacity];
+            micros = new long[capacity];
+            kinds = new int[capacity];
+            referenceEnds = new int[capacity];
+            if (previous == null) {
+                references = new byte[0];
+                return;
+            }
+            System.arraycopy(previous.ids, 0, ids, 0, rows);
+            System.arraycopy(previous.amounts, 0, amounts, 0, rows);
+            System.arraycopy(previous.micros, 0, micros, 0, rows);
+            System.arraycopy(previous.kinds, 0, kinds, 0, rows);
+            System.arraycopy(previous.referenceEnds, 0, referenceEnds, 0, rows);
+            references = previous.references;
+        }
+
+        int capacity() {
+            return ids.length;
+        }
+
+        @Override
+        long id(int row) {
+            return ids[row];
+        }
+
+        @Override
+        long micros(int row) {
+            return micros[row];
+        }
+
+        /**
+         * Stores a row's reference, trimming the byte heap to size once the segment is full.
+         */
+        void appendReference(int row, String reference) {
+            int start = row == 0 ? 0 : end(row - 1);
+            if (reference == null) {
+                referenceEnds[row] = ~start;
+            } else {
+                byte[] bytes = reference.getBytes(StandardCharsets.UTF_8);
+                byte[] heap = references;
+                int end = start + bytes.length;
+                if (end > heap.length) {
+                    heap = Arrays.copyOf(heap, Math.max(end, heap.length << 1));
+                }
+                System.arraycopy(bytes, 0, heap, start, bytes.length);
+                referenceEnds[row] = end;
+                references = heap;
+            }
+            if (row == SEGMENT_SIZE - 1 && references.length > end(row)) {
+                references = Arrays.copyOf(references, end(row));
+            }
+        }
+
+        String reference(int row) {
+            int end = referenceEnds[row];
+            if (end < 0) {
+                return null;
+            }
+            int start = row == 0 ? 0 : end(row - 1);
+            return new String(references, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        private int end(int row) {
+            int end = referenceEnds[row];
+            return end < 0 ? ~end : end;
+        }
+    }
+
+    /**
+     * A full segment encoded into the archive. Only its location and id range stay on the heap;
+     * rows are decoded a block at a time from the mapped file when read.
+     * <p>
+     * The encoding starts with a sparse index holding, for each block, the created time of its
+     * first row and the offset of its first row. Each row then holds the zigzag varint of its id
+     * less the previous id in the block, the varint of its created time less the previous one,
+     * the zigzag varint of its amount in pence, the varint of its kind, and the varint of its reference
+     * length plus one (zero for a null reference) followed by the reference's UTF-8 bytes.
+     */
+    private static final class SealedSegment extends Segment {
+        private static final int BLOCKS = SEGMENT_SIZE / BLOCK_SIZE;
+        private static final int INDEX_ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+
+        private final TransactionArchive.Extent extent;
+        private final long minId;
+        private final long maxId;
+
+        private SealedSegment(TransactionArchive.Extent extent, long minId, long maxId) {
+            this.extent = extent;
+            this.minId = minId;
+            this.maxId = maxId;
+        }
+
+        /**
+         * Encodes a full segment and appends it to the archive.
+         * @param segment the segment's columns
+         * @param archive the archive to write to
+         * @return the sealed segment, or null if the archive could not write it
+         */
+        static SealedSegment seal(Columns segment, TransactionArchive archive) {
+            int maxRowBytes = 3 * 10 + 5 + 5;
+            ByteBuffer buffer = ByteBuffer.allocate(BLOCKS * INDEX_ENTRY_BYTES + SEGMENT_SIZE * maxRowBytes
+                    + segment.references.length);
+            buffer.position(BLOCKS * INDEX_ENTRY_BYTES);
+            long minId = Long.MAX_VALUE;
+            long maxId = Long.MIN_VALUE;
+            long previousId = 0;
+            long previousMicros = 0;
+            for (int row = 0; row < SEGMENT_SIZE; row++) {
+                if ((row & BLOCK_MASK) == 0) {
+                    buffer.putLong((row >>> BLOCK_SHIFT) * INDEX_ENTRY_BYTES, segment.micros[row]);
+                    buffer.putInt((row >>> BLOCK_SHIFT) * INDEX_ENTRY_BYTES + Long.BYTES, buffer.position());
+                    previousId = 0;
+                    previousMicros = segment.micros[row];
+                }
+                long id = segment.ids[row];
+                minId = Math.min(minId, id);
+                maxId = Math.max(maxId, id);
+                putVarint(buffer, zigzag(id - previousId));
+                putVarint(buffer, segment.micros[row] - previousMicros);
+                putVarint(buffer, zigzag(segment.amounts[row]));
+                putVarint(buffer, segment.kinds[row]);
+                int end = segment.referenceEnds[row];
+                if (end < 0) {
+                    putVarint(buffer, 0);
+                } else {
+                    int start = row == 0 ? 0 : segment.end(row - 1);
+                    putVarint(buffer, end - start + 1);
+                    buffer.put(segment.references, start, end - start);
+                }
+                previousId = id;
+                previousMicros = segment.micros[row];
+            }
+            TransactionArchive.Extent extent = archive.append(Arrays.copyOf(buffer.array(), buffer.position()));
+            return extent == null ? null : new SealedSegment(extent, minId, maxId);
+        }
+
+        /**
+         * Decodes one block of rows from the archive.
+         * @param block the block number
+         * @return the block's columns
+         */
+        Columns block(int block) {
+            ByteBuffer buffer = extent.buffer();
+            long micros = buffer.getLong(block * INDEX_ENTRY_BYTES);
+            buffer.position(buffer.getInt(block * INDEX_ENTRY_BYTES + Long.BYTES));
+            Columns columns = new Columns(BLOCK_SIZE, null, 0);
+            byte[] references = new byte[0];
+            int referenceEnd = 0;
+            long id = 0;
+            for (int row = 0; row < BLOCK_SIZE; row++) {
+                id += unzigzag(getVarint(buffer));
+                micros += getVarint(buffer);
+                columns.ids[row] = id;
+                columns.micros[row] = micros;
+                columns.amounts[row] = unzigzag(getVarint(buffer));
+                columns.kinds[row] = (int) getVarint(buffer);
+                int length = (int) getVarint(buffer) - 1;
+                if (length < 0) {
+                    columns.referenceEnds[row] = ~referenceEnd;
+                } else {
+                    if (referenceEnd + length > references.length) {
+                        references = Arrays.copyOf(references, Math.max(referenceEnd + length, references.length << 1));
+                    }
+                    buffer.get(references, referenceEnd, length);
+                    referenceEnd += length;
+                    columns.referenceEnds[row] = referenceEnd;
+                }
+            }
+            columns.references = references;
+            return columns;
+        }
+
+        /**
+         * Finds a row by its encoded id.
+         * @param id the id as stored in the id column
+         * @return the row, or -1 if the segment does not hold the id
+         */
+        int find(long id) {
+            if (id < minId || id > maxId) {
+                return -1;
+            }
+            for (int block = 0; block < BLOCKS; block++) {
+                Columns columns = block(block);
+                for (int row = 0; row < BLOCK_SIZE; row++) {
+                    if (columns.ids[row] == id) {
+                        return (block << BLOCK_SHIFT) | row;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        long id(int row) {
+            return block(row >>> BLOCK_SHIFT).ids[row & BLOCK_MASK];
+        }
+
+        @Override
+        long micros(int row) {
+            if ((row & BLOCK_MASK) == 0) {
+                return extent.buffer().getLong((row >>> BLOCK_SHIFT) * INDEX_ENTRY_BYTES);
+            }
+            return block(row >>> BLOCK_SHIFT).micros[row & BLOCK_MASK];
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private static void putVarint(ByteBuffer buffer, long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) (value | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private static long getVarint(ByteBuffer buffer) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Read-only list over the segments below a fixed length. The last block decoded from a
+     * sealed segment is kept, so reading rows in order decodes each block once.
+     */
+    private final class Snapshot extends AbstractList<TransactionResponse> implements RandomAccess {
+        private final Segment[] segments;
+        private final int length;
+        private DecodedBlock decoded;
+
+        Snapshot(Segment[] segments, int length) {
+            this.segments = segments;
+            this.length = length;
+        }
+
+        @Override
+        public TransactionResponse get(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+            }
+            Segment segment = segments[index >>> SEGMENT_SHIFT];
+            if (!(segment instanceof SealedSegment)) {
+                return read((Columns) segment, index & SEGMENT_MASK);
+            }
+            int block = index >>> BLOCK_SHIFT;
+            DecodedBlock last = decoded;
+            if (last == null || last.block != block) {
+                last = new DecodedBlock(block, ((SealedSegment) segment).block((index & SEGMENT_MASK) >>> BLOCK_SHIFT));
+                decoded = last;
+            }
+            return read(last.columns, index & BLOCK_MASK);
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+    }
+
+    /**
+     * A block decoded for a snapshot, numbered by its position in the log.
+     */
+    private static final class DecodedBlock {
+        private final int block;
+        private final Columns columns;
+
+        DecodedBlock(int block, Columns columns) {
+            this.block = block;
+            this.columns = columns;
+        }
+    }
+}
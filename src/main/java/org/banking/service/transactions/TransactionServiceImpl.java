@@ -2,23 +2,91 @@ package org.banking.service.transactions;
 
 import org.banking.service.model.*;
 import org.banking.service.service.TransactionService;
+import org.banking.service.storage.Journal;
+import org.banking.service.storage.Journaled;
+import org.banking.service.storage.RecordReader;
+import org.banking.service.storage.RecordType;
+import org.banking.service.storage.RecordWriter;
+import org.banking.service.util.IdGenerator;
+import org.banking.service.util.MoneyUtil;
+import org.banking.service.util.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
 import java.time.OffsetDateTime;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.UUID;
 import java.util.Collections;
 
 /**
  * Service implementation for transaction management.
- * Stores transactions in a thread-safe in-memory map.
+ * Stores each account's transactions in an append-only, columnar {@link TransactionLog},
+ * so listing returns a stable snapshot while new transactions are appended. Transactions
+ * read back are built from the log's columns for each call.
+ * Each transaction is written to the {@link Journal} before it becomes visible.
+ * With a {@link TransactionArchive}, history older than the archive's hot window is sealed
+ * out of the heap into compressed segment files by the archive's sealer thread, as logs fill
+ * and on its schedule, and read back from them when a listing, export or lookup reaches it.
+ * History the journal holds back on startup is loaded into an account's log the first time
+ * the account's transactions are read or written.
  */
 @Service
-public class TransactionServiceImpl implements TransactionService {
-    private final Map<String, List<TransactionResponse>> transactions = new ConcurrentHashMap<>();
+public class TransactionServiceImpl implements TransactionService, Journaled {
+    static final int DEFAULT_PAGE_SIZE = 100;
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+    private final Map<String, TransactionLog> transactions = new ConcurrentHashMap<>();
+    private final Journal journal;
+    private final IdGenerator idGenerator;
+    private final TransactionArchive archive;
+
+    /**
+     * Constructs a TransactionServiceImpl that keeps state in memory only.
+     */
+    public TransactionServiceImpl() {
+        this(Journal.NONE);
+    }
+
+    /**
+     * Constructs a TransactionServiceImpl that records transactions in the given journal, as node 0.
+     * @param journal the journal to write transactions to
+     */
+    public TransactionServiceImpl(Journal journal) {
+        this(journal, new IdGenerator(0));
+    }
+
+    /**
+     * Constructs a TransactionServiceImpl that records transactions in the given journal and
+     * keeps their whole history in memory.
+     * @param journal the journal to write transactions to
+     * @param idGenerator the generator of transaction IDs
+     */
+    public TransactionServiceImpl(Journal journal, IdGenerator idGenerator) {
+        this(journal, idGenerator, TransactionArchive.NONE);
+    }
+
+    /**
+     * Constructs a TransactionServiceImpl that records transactions in the given journal and
+     * seals older history into the given archive.
+     * @param journal the journal to write transactions to
+     * @param idGenerator the generator of transaction IDs
+     * @param archive the archive for history older than its hot window
+     */
+    @Autowired
+    public TransactionServiceImpl(Journal journal, IdGenerator idGenerator, TransactionArchive archive) {
+        this.journal = journal;
+        this.idGenerator = idGenerator;
+        this.archive = archive;
+        archive.schedule(this::seal);
+    }
 
     /**
      * Creates a new transaction for the given account number.
@@ -28,17 +96,74 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public TransactionResponse createTransaction(String accountNumber, CreateTransactionRequest request) {
-        TransactionResponse transaction = new TransactionResponse();
-        transaction.setId(generateTransactionId());
-        transaction.setAmount(request.getAmount());
-        transaction.setCurrency(request.getCurrency());
-        transaction.setType(request.getType());
-        transaction.setReference(request.getReference());
-        transaction.setCreatedTimestamp(OffsetDateTime.now());
-        transactions.computeIfAbsent(accountNumber, k -> new ArrayList<>()).add(transaction);
+        TransactionResponse transaction = newTransaction(request);
+        journal.append(RecordType.TRANSACTION, encode(accountNumber, transaction));
+        log(accountNumber).append(transaction);
         return transaction;
     }
 
+    /**
+     * Creates several transactions, possibly across accounts, without waiting for the journal.
+     * All records are queued for the journal at once. Once they are durable, they are appended
+     * to each account's log under one lock acquisition and the future completes. Later calls
+     * are journalled and appended after these.
+     * @param accountNumbers the account number of each request
+     * @param requests the transaction creation requests, in order
+     * @return a future of the created transactions, in request order
+     */
+    @Override
+    public CompletableFuture<List<TransactionResponse>> createTransactions(List<String> accountNumbers, List<? extends CreateTransactionRequest> requests) {
+        List<TransactionResponse> created = new ArrayList<>(requests.size());
+        List<byte[]> records = new ArrayList<>(requests.size());
+        Map<String, List<TransactionResponse>> byAccount = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String accountNumber = accountNumbers.get(i);
+            TransactionResponse transaction = newTransaction(requests.get(i));
+            created.add(transaction);
+            records.add(encode(accountNumber, transaction));
+            byAccount.computeIfAbsent(accountNumber, k -> new ArrayList<>()).add(transaction);
+        }
+        return journal.appendAllAsync(RecordType.TRANSACTION, records).thenApply(ignored -> {
+            for (Map.Entry<String, List<TransactionResponse>> entry : byAccount.entrySet()) {
+                log(entry.getKey()).appendAll(entry.getValue());
+            }
+            return created;
+        });
+    }
+
+    /**
+     * Records transfers as a withdrawal from the source account and a deposit to the destination
+     * account, without waiting for the journal. Both legs of a transfer are journalled as one
+     * {@link RecordType#TRANSFER} record, so a crash cannot keep one without the other, and all
+     * transfers are queued for the journal at once.
+     * @param requests the transfers, already applied to the balances
+     * @return a future of the withdrawal and then the deposit of each transfer, in request order,
+     *         completed once they are durable and visible
+     */
+    @Override
+    public CompletableFuture<List<TransactionResponse>> createTransfers(List<? extends TransferRequest> requests) {
+        List<TransactionResponse> created = new ArrayList<>(requests.size() * 2);
+        List<byte[]> records = new ArrayList<>(requests.size());
+        for (TransferRequest request : requests) {
+            TransactionResponse withdrawal = newTransaction(request.getAmount(), request.getCurrency(), "withdrawal", request.getReference());
+            TransactionResponse deposit = newTransaction(request.getAmount(), request.getCurrency(), "deposit", request.getReference());
+            created.add(withdrawal);
+            created.add(deposit);
+            records.add(new RecordWriter()
+                    .writeBytes(encode(request.getFromAccountNumber(), withdrawal))
+                    .writeBytes(encode(request.getToAccountNumber(), deposit))
+                    .toByteArray());
+        }
+        return journal.appendAllAsync(RecordType.TRANSFER, records).thenApply(ignored -> {
+            for (int i = 0; i < requests.size(); i++) {
+                TransferRequest request = requests.get(i);
+                log(request.getFromAccountNumber()).append(created.get(2 * i));
+                log(request.getToAccountNumber()).append(created.get(2 * i + 1));
+            }
+            return created;
+        });
+    }
+
     /**
      * Lists all transactions for the given account number.
      * @param accountNumber the account number
@@ -47,10 +172,49 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     public ListTransactionsResponse listTransactions(String accountNumber) {
         ListTransactionsResponse response = new ListTransactionsResponse();
-        response.setTransactions(transactions.getOrDefault(accountNumber, Collections.emptyList()));
+        response.setTransactions(snapshot(accountNumber));
         return response;
     }
 
+    /**
+     * Lists one page of transactions for the given account number, oldest first.
+     * Time bounds are located by binary search over the time-ordered log.
+     * @param accountNumber the account number
+     * @param cursor the opaque cursor returned with the previous page, or null to start at the beginning
+     * @param limit the maximum number of transactions to return, or null for the default page size
+     * @param from the inclusive lower bound on created time, or null for no lower bound
+     * @param to the exclusive upper bound on created time, or null for no upper bound
+     * @return the page of transactions, with a next cursor if more transactions match
+     * @throws ValidationException if the cursor is malformed
+     */
+    @Override
+    public ListTransactionsResponse listTransactions(String accountNumber, String cursor, Integer limit, OffsetDateTime from, OffsetDateTime to) {
+        List<TransactionResponse> snapshot = snapshot(accountNumber);
+        int start = cursor == null ? 0 : decodeCursor(cursor);
+        if (from != null) start = Math.max(start, TransactionLog.seek(snapshot, from));
+        int end = to == null ? snapshot.size() : TransactionLog.seek(snapshot, to);
+        start = Math.min(start, end);
+        int pageEnd = (int) Math.min((long) start + (limit == null ? DEFAULT_PAGE_SIZE : limit), end);
+        ListTransactionsResponse response = new ListTransactionsResponse();
+        response.setTransactions(snapshot.subList(start, pageEnd));
+        if (pageEnd < end) {
+            response.setNextCursor(encodeCursor(pageEnd));
+        }
+        return response;
+    }
+
+    /**
+     * Gets the whole transaction history of an account, oldest first, for streaming export.
+     * The list is a read-only view over the log's segments as of this call: nothing is
+     * copied, and transactions appended afterwards are not included.
+     * @param accountNumber the account number
+     * @return the transactions, empty if the account has none
+     */
+    @Override
+    public List<TransactionResponse> transactionHistory(String accountNumber) {
+        return snapshot(accountNumber);
+    }
+
     /**
      * Fetches a transaction by account number and transaction ID.
      * @param accountNumber the account number
@@ -59,8 +223,177 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public TransactionResponse fetchTransaction(String accountNumber, String transactionId) {
-        List<TransactionResponse> txs = transactions.getOrDefault(accountNumber, Collections.emptyList());
-        return txs.stream().filter(tx -> tx.getId().equals(transactionId)).findFirst().orElse(null);
+        TransactionLog log = find(accountNumber);
+        return log == null ? null : log.find(transactionId);
+    }
+
+    /**
+     * Restores a transaction from a journal record.
+     * @param type the record type
+     * @param record the record payload
+     */
+    @Override
+    public void restore(byte type, RecordReader record) {
+        if (type != RecordType.TRANSACTION) {
+            return;
+        }
+        String accountNumber = record.duplicate().readString();
+        log(accountNumber).append(decode(record));
+    }
+
+    /**
+     * Gets an account's log, loading the history the journal held back for it on first use.
+     * @param accountNumber the account number
+     * @return the log, or null if the account has no transactions
+     */
+    private TransactionLog find(String accountNumber) {
+        TransactionLog log = transactions.get(accountNumber);
+        return log != null ? log : transactions.computeIfAbsent(accountNumber, this::loadHistory);
+    }
+
+    /**
+     * Gets an account's log, creating it if the account has no transactions yet.
+     * @param accountNumber the account number
+     * @return the log
+     */
+    private TransactionLog log(String accountNumber) {
+        TransactionLog log = find(accountNumber);
+        return log != null ? log : transactions.computeIfAbsent(accountNumber, k -> new TransactionLog(archive));
+    }
+
+    /**
+     * Builds a log from the history the journal held back for an account.
+     * @param accountNumber the account number
+     * @return the log, or null if the journal held nothing back
+     */
+    private TransactionLog loadHistory(String accountNumber) {
+        TransactionLog log = new TransactionLog(archive);
+        boolean found = journal.replayHistory(accountNumber, (type, record) -> {
+            if (type == RecordType.TRANSACTION) {
+                log.append(decode(record));
+            }
+        });
+        return found ? log : null;
+    }
+
+    /**
+     * Seals every account's history that has left the archive's hot window into the archive.
+     * @return the number of transactions sealed
+     */
+    int seal() {
+        int sealed = 0;
+        for (TransactionLog log : transactions.values()) {
+            sealed += log.seal();
+        }
+        return sealed;
+    }
+
+    /**
+     * Builds a new transaction, stamped with a fresh id and the current time.
+     * @param request the transaction creation request
+     * @return the transaction
+     */
+    private TransactionResponse newTransaction(CreateTransactionRequest request) {
+        return newTransaction(request.getAmount(), request.getCurrency(), request.getType(), request.getReference());
+    }
+
+    /**
+     * Builds a new transaction, stamped with a fresh id and the current time. The time is cut to
+     * the microseconds the log keeps and the type is lower-cased, so the transaction reads back
+     * exactly as it was returned.
+     * @param amount the amount
+     * @param currency the currency
+     * @param type deposit or withdrawal, in any case
+     * @param reference the reference, or null
+     * @return the transaction
+     */
+    private TransactionResponse newTransaction(Double amount, String currency, String type, String reference) {
+        TransactionResponse transaction = new TransactionResponse();
+        transaction.setId(generateTransactionId());
+        transaction.setAmount(amount);
+        transaction.setCurrency(currency);
+        transaction.setType(type.toLowerCase(Locale.ROOT));
+        transaction.setReference(reference);
+        transaction.setCreatedTimestamp(OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        return transaction;
+    }
+
+    /**
+     * Encodes a transaction as a journal record, led by the fields that account state is restored from.
+     * @param accountNumber the account number
+     * @param transaction the transaction
+     * @return the record payload
+     */
+    private static byte[] encode(String accountNumber, TransactionResponse transaction) {
+        long amountPence = MoneyUtil.toPence(transaction.getAmount());
+        return new RecordWriter()
+                .writeString(accountNumber)
+                .writeLong("withdrawal".equalsIgnoreCase(transaction.getType()) ? -amountPence : amountPence)
+                .writeTimestamp(transaction.getCreatedTimestamp())
+                .writeString(transaction.getId())
+                .writeDouble(transaction.getAmount())
+                .writeString(transaction.getCurrency())
+                .writeString(transaction.getType())
+                .writeString(transaction.getReference())
+                .writeString(transaction.getUserId())
+                .toByteArray();
+    }
+
+    /**
+     * Decodes a transaction written by {@link #encode(String, TransactionResponse)}.
+     * @param record the record payload
+     * @return the transaction
+     */
+    private static TransactionResponse decode(RecordReader record) {
+        record.readString();
+        record.readLong();
+        TransactionResponse transaction = new TransactionResponse();
+        transaction.setCreatedTimestamp(record.readTimestamp());
+        transaction.setId(record.readString());
+        transaction.setAmount(record.readDouble());
+        transaction.setCurrency(record.readString());
+        transaction.setType(record.readString());
+        transaction.setReference(record.readString());
+        transaction.setUserId(record.readString());
+        return transaction;
+    }
+
+    /**
+     * Takes a read-only snapshot of an account's transactions.
+     * @param accountNumber the account number
+     * @return the snapshot, or an empty list if the account has no transactions
+     */
+    private List<TransactionResponse> snapshot(String accountNumber) {
+        TransactionLog log = find(accountNumber);
+        return log == null ? Collections.emptyList() : log.snapshot();
+    }
+
+    /**
+     * Encodes a log position as an opaque, URL-safe cursor.
+     * @param position the position of the first transaction on the next page
+     * @return the cursor
+     */
+    private static String encodeCursor(int position) {
+        return CURSOR_ENCODER.encodeToString(ByteBuffer.allocate(Integer.BYTES).putInt(position).array());
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeCursor(int)}.
+     * @param cursor the cursor
+     * @return the log position it refers to
+     * @throws ValidationException if the cursor is malformed
+     */
+    private static int decodeCursor(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = CURSOR_DECODER.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            bytes = null;
+        }
+        if (bytes == null || bytes.length != Integer.BYTES || ByteBuffer.wrap(bytes).getInt() < 0) {
+            throw ValidationException.invalid("cursor", "Invalid cursor");
+        }
+        return ByteBuffer.wrap(bytes).getInt();
     }
 
     /**
@@ -68,6 +401,6 @@ public class TransactionServiceImpl implements TransactionService {
      * @return the generated transaction ID
      */
     private String generateTransactionId() {
-        return "tan-" + UUID.randomUUID().toString().replace("-", "").substring(0, 7);
+        return idGenerator.next(TransactionLog.ID_PREFIX);
     }
 } 
\ No newline at end of file
@@ -7,28 +7,50 @@ package org.banking.service.user;
 import org.banking.service.model.*;
 import org.banking.service.service.UserService;
 import org.banking.service.service.AccountService;
+import org.banking.service.storage.Journal;
+import org.banking.service.storage.Journaled;
+import org.banking.service.storage.RecordReader;
+import org.banking.service.storage.RecordType;
+import org.banking.service.storage.RecordWriter;
+import org.banking.service.util.IdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.UUID;
 
 /**
  * Service implementation for user management.
- * Stores users in a thread-safe in-memory map.
+ * Stores users in a thread-safe in-memory map and writes every change to the {@link Journal}.
  */
 @Service
-public class UserServiceImpl implements UserService {
+public class UserServiceImpl implements UserService, Journaled {
     private final Map<String, UserResponse> users = new ConcurrentHashMap<>();
     private final AccountService accountService;
+    private final Journal journal;
+    private final IdGenerator idGenerator;
 
     /**
-     * Constructs a UserServiceImpl with the given AccountService dependency.
+     * Constructs a UserServiceImpl with the given dependencies, generating IDs as node 0.
      * @param accountService the account service used for user-account operations
+     * @param journal the journal to write user changes to
      */
-    public UserServiceImpl(AccountService accountService) {
+    public UserServiceImpl(AccountService accountService, Journal journal) {
+        this(accountService, journal, new IdGenerator(0));
+    }
+
+    /**
+     * Constructs a UserServiceImpl with the given dependencies.
+     * @param accountService the account service used for user-account operations
+     * @param journal the journal to write user changes to
+     * @param idGenerator the generator of user IDs
+     */
+    @Autowired
+    public UserServiceImpl(AccountService accountService, Journal journal, IdGenerator idGenerator) {
         this.accountService = accountService;
+        this.journal = journal;
+        this.idGenerator = idGenerator;
     }
 
     /**
@@ -48,6 +70,7 @@ public class UserServiceImpl implements UserService {
         user.setEmail(request.getEmail());
         user.setCreatedTimestamp(now);
         user.setUpdatedTimestamp(now);
+        journal.append(RecordType.USER, encode(user));
         users.put(userId, user);
         return user;
     }
@@ -77,16 +100,76 @@ public class UserServiceImpl implements UserService {
             if (request.getPhoneNumber() != null) user.setPhoneNumber(request.getPhoneNumber());
             if (request.getEmail() != null) user.setEmail(request.getEmail());
             user.setUpdatedTimestamp(OffsetDateTime.now());
+            journal.append(RecordType.USER, encode(user));
         }
         return user;
     }
 
+    /**
+     * Restores a user from a journal record.
+     * @param type the record type
+     * @param record the record payload
+     */
+    @Override
+    public void restore(byte type, RecordReader record) {
+        if (type != RecordType.USER) {
+            return;
+        }
+        UserResponse user = new UserResponse();
+        user.setId(record.readString());
+        user.setName(record.readString());
+        if (record.readByte() != 0) {
+            UserResponse.Address addr = new UserResponse.Address();
+            addr.setLine1(record.readString());
+            addr.setLine2(record.readString());
+            addr.setLine3(record.readString());
+            addr.setTown(record.readString());
+            addr.setCounty(record.readString());
+            addr.setPostcode(record.readString());
+            user.setAddress(addr);
+        }
+        user.setPhoneNumber(record.readString());
+        user.setEmail(record.readString());
+        user.setCreatedTimestamp(record.readTimestamp());
+        user.setUpdatedTimestamp(record.readTimestamp());
+        users.put(user.getId(), user);
+    }
+
+    /**
+     * Encodes the full state of a user as a journal record.
+     * @param user the user
+     * @return the record payload
+     */
+    private static byte[] encode(UserResponse user) {
+        RecordWriter writer = new RecordWriter()
+                .writeString(user.getId())
+                .writeString(user.getName());
+        UserResponse.Address addr = user.getAddress();
+        if (addr == null) {
+            writer.writeByte(0);
+        } else {
+            writer.writeByte(1)
+                    .writeString(addr.getLine1())
+                    .writeString(addr.getLine2())
+                    .writeString(addr.getLine3())
+                    .writeString(addr.getTown())
+                    .writeString(addr.getCounty())
+                    .writeString(addr.getPostcode());
+        }
+        return writer
+                .writeString(user.getPhoneNumber())
+                .writeString(user.getEmail())
+                .writeTimestamp(user.getCreatedTimestamp())
+                .writeTimestamp(user.getUpdatedTimestamp())
+                .toByteArray();
+    }
+
     /**
      * Generates a unique user ID.
      * @return a new user ID string
      */
     private String generateUserId() {
-        return "usr-" + UUID.randomUUID().toString().replace("-", "").substring(0, 7);
+        return idGenerator.next("usr-");
     }
 
     /**
@@ -0,0 +1,105 @@
+package org.banking.service.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the fixed-message error responses, each serialized once at startup.
+ * <p>
+ * Every entry holds a ready {@link ResponseEntity} whose body is the UTF-8 JSON of the
+ * equivalent {@link org.banking.service.model.ErrorResponse}, so returning it skips both the
+ * response object and Jackson: the bytes are copied straight to the response stream. The
+ * entities are immutable (Spring makes their headers read-only) and are shared across requests.
+ */
+public enum CannedError {
+    /** Missing, malformed, invalid or expired bearer token. */
+    UNAUTHORIZED(HttpStatus.UNAUTHORIZED, ErrorUtil.UNAUTHORIZED_MESSAGE),
+    /** Account addressed by the account endpoints does not exist. */
+    ACCOUNT_NOT_FOUND(HttpStatus.NOT_FOUND, "Account not found"),
+    /** Account addressed by the transaction endpoints does not exist. */
+    BANK_ACCOUNT_NOT_FOUND(HttpStatus.NOT_FOUND, "Bank account was not found"),
+    /** User does not exist. */
+    USER_NOT_FOUND(HttpStatus.NOT_FOUND, "User not found"),
+    /** Transaction does not exist on the account. */
+    TRANSACTION_NOT_FOUND(HttpStatus.NOT_FOUND, "Transaction was not found"),
+    /** Caller does not own the account. */
+    FORBIDDEN_ACCOUNT(HttpStatus.FORBIDDEN, "Forbidden: You can only access your own bank account"),
+    /** Caller is not the user addressed. */
+    FORBIDDEN_USER(HttpStatus.FORBIDDEN, "Forbidden: You can only access your own user details"),
+    /** Caller does not own the account being transacted on. */
+    FORBIDDEN_TRANSACT(HttpStatus.FORBIDDEN, "Forbidden: You can only transact on your own bank account"),
+    /** Caller does not own the account whose transactions are requested. */
+    FORBIDDEN_TRANSACTIONS(HttpStatus.FORBIDDEN, "Forbidden: You can only view transactions for your own bank account"),
+    /** Withdrawal exceeds the balance. */
+    INSUFFICIENT_FUNDS(HttpStatus.UNPROCESSABLE_ENTITY, "Insufficient funds to process transaction"),
+    /** Deposit would take the balance above the largest balance held. */
+    BALANCE_LIMIT(HttpStatus.UNPROCESSABLE_ENTITY, "Deposit would take the balance above the maximum"),
+    /** Idempotency key was first used for a different request. */
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key has already been used for a different request");
+
+    private static final Map<String, CannedError> BY_MESSAGE = new HashMap<>();
+
+    static {
+        for (CannedError error : values()) {
+            BY_MESSAGE.put(error.message, error);
+        }
+    }
+
+    private final HttpStatus status;
+    private final String message;
+    private final ResponseEntity<Object> response;
+
+    CannedError(HttpStatus status, String message) {
+        this.status = status;
+        this.message = message;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            this.response = new ResponseEntity<>(new ObjectMapper().writeValueAsBytes(ErrorUtil.error(message)), headers, status);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize error message: " + message, ex);
+        }
+    }
+
+    /**
+     * Finds the canned response for an error message.
+     * @param status the HTTP status the response must carry
+     * @param message the error message
+     * @return the canned error, or null if the message is not registered with that status
+     */
+    public static CannedError find(HttpStatus status, String message) {
+        CannedError error = message == null ? null : BY_MESSAGE.get(message);
+        return error != null && error.status == status ? error : null;
+    }
+
+    /**
+     * Gets the HTTP status.
+     * @return the HTTP status
+     */
+    public HttpStatus status() {
+        return status;
+    }
+
+    /**
+     * Gets the error message.
+     * @return the error message
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     * Gets the shared, pre-serialized response.
+     * @return the response entity; its body is a JSON byte array that must not be modified
+     */
+    public ResponseEntity<Object> response() {
+        return response;
+    }
+}
@@ -0,0 +1,33 @@
+package org.banking.service.util;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Categories of request errors, each mapped to one HTTP status by {@link ErrorUtil#toResponse(ValidationException)}.
+ */
+public enum ErrorCode {
+    /** A request field is missing or malformed; reported with field-level details. */
+    INVALID_FIELD(HttpStatus.BAD_REQUEST),
+    /** The bearer token is missing, malformed, invalid or expired. */
+    UNAUTHORIZED(HttpStatus.UNAUTHORIZED),
+    /** The caller is authenticated but does not own the resource. */
+    FORBIDDEN(HttpStatus.FORBIDDEN),
+    /** The addressed resource does not exist. */
+    NOT_FOUND(HttpStatus.NOT_FOUND),
+    /** The request is well-formed but cannot be applied, such as a withdrawal exceeding the balance. */
+    UNPROCESSABLE(HttpStatus.UNPROCESSABLE_ENTITY);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the HTTP status for this error.
+     * @return the HTTP status
+     */
+    public HttpStatus status() {
+        return status;
+    }
+}
@@ -2,6 +2,7 @@ package org.banking.service.util;
 
 import org.banking.service.model.BadRequestErrorResponse;
 import org.banking.service.model.ErrorResponse;
+import org.springframework.http.ResponseEntity;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,6 +11,29 @@ import java.util.List;
  * Utility class for constructing error responses for the API.
  */
 public class ErrorUtil {
+    static final String UNAUTHORIZED_MESSAGE = "Access token is missing or invalid";
+
+    /**
+     * Maps a typed request error to its HTTP response: field errors become a
+     * {@link BadRequestErrorResponse} with one detail, authentication errors a generic 401, and
+     * the remaining codes an {@link ErrorResponse} carrying the exception message. Fixed messages
+     * are answered with their pre-serialized {@link CannedError} response.
+     * @param ex the request error
+     * @return the error response
+     */
+    public static ResponseEntity<Object> toResponse(ValidationException ex) {
+        ErrorCode code = ex.getCode();
+        String message = ex.getMessage();
+        if (code == ErrorCode.INVALID_FIELD) {
+            return new ResponseEntity<>(badRequest(message, List.of(detail(ex.getField(), message, "pattern"))), code.status());
+        }
+        if (code == ErrorCode.UNAUTHORIZED) {
+            return CannedError.UNAUTHORIZED.response();
+        }
+        CannedError canned = CannedError.find(code.status(), message);
+        return canned != null ? canned.response() : new ResponseEntity<>(error(message), code.status());
+    }
+
     /**
      * Creates a simple error response with a message.
      * @param message the error message
@@ -0,0 +1,121 @@
+package org.banking.service.util;
+
+/**
+ * Character-scanning checks for the identifier and contact formats accepted by the API.
+ * Each method accepts exactly the strings its documented pattern matches in full, without
+ * the regex engine and without allocating.
+ */
+public final class Formats {
+    private static final int ACCOUNT_DIGITS = 6;
+    private static final int MAX_PHONE_DIGITS = 15;
+
+    private Formats() {}
+
+    /**
+     * Checks the {@code 01\d{6}} account number format.
+     * @param value the value to check
+     * @return true if the value is a well-formed account number
+     */
+    public static boolean isAccountNumber(String value) {
+        if (value == null || value.length() != 2 + ACCOUNT_DIGITS || value.charAt(0) != '0' || value.charAt(1) != '1') {
+            return false;
+        }
+        return isDigits(value, 2);
+    }
+
+    /**
+     * Checks the {@code usr-[A-Za-z0-9]+} user ID format.
+     * @param value the value to check
+     * @return true if the value is a well-formed user ID
+     */
+    public static boolean isUserId(String value) {
+        return isPrefixedId(value, "usr-");
+    }
+
+    /**
+     * Checks the {@code tan-[A-Za-z0-9]+} transaction ID format.
+     * @param value the value to check
+     * @return true if the value is a well-formed transaction ID
+     */
+    public static boolean isTransactionId(String value) {
+        return isPrefixedId(value, "tan-");
+    }
+
+    /**
+     * Checks the {@code \+[1-9]\d{1,14}} E.164 phone number format.
+     * @param value the value to check
+     * @return true if the value is a well-formed phone number
+     */
+    public static boolean isPhoneNumber(String value) {
+        if (value == null) return false;
+        int length = value.length();
+        if (length < 3 || length > 1 + MAX_PHONE_DIGITS || value.charAt(0) != '+') {
+            return false;
+        }
+        char first = value.charAt(1);
+        return first >= '1' && first <= '9' && isDigits(value, 2);
+    }
+
+    /**
+     * Checks the {@code [A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+} email format.
+     * @param value the value to check
+     * @return true if the value is a well-formed email address
+     */
+    public static boolean isEmail(String value) {
+        if (value == null) return false;
+        int length = value.length();
+        int at = -1;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '@') {
+                if (at >= 0) return false;
+                at = i;
+            } else if (at < 0 ? !isLocalPartChar(c) : !isDomainChar(c)) {
+                return false;
+            }
+        }
+        return at > 0 && at < length - 1;
+    }
+
+    /**
+     * Checks whether a value is empty after trimming, with the same notion of whitespace as {@link String#trim()}.
+     * @param value the value to check, not null
+     * @return true if every character is at or below U+0020
+     */
+    public static boolean isBlank(String value) {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            if (value.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+
+    private static boolean isPrefixedId(String value, String prefix) {
+        if (value == null || value.length() <= prefix.length() || !value.startsWith(prefix)) {
+            return false;
+        }
+        for (int i = prefix.length(), n = value.length(); i < n; i++) {
+            if (!isAlphanumeric(value.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigits(String value, int from) {
+        for (int i = from, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static boolean isLocalPartChar(char c) {
+        return isAlphanumeric(c) || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+
+    private static boolean isDomainChar(char c) {
+        return isAlphanumeric(c) || c == '.' || c == '-';
+    }
+}
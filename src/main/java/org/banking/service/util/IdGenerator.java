@@ -0,0 +1,156 @@
+package org.banking.service.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered unique IDs such as {@code tan-0Ck3bU9nPq2}, without coordination between nodes.
+ * <p>
+ * Each ID is a 63-bit number laid out as 41 bits of milliseconds since {@link #EPOCH}, 10 bits
+ * of node ID and a 12-bit sequence, written as 11 base-62 digits after the prefix. The digits
+ * sort in ASCII order, so IDs with the same prefix sort by creation time.
+ * <p>
+ * The next value is the larger of the current millisecond with a zero sequence and the
+ * previous value plus one, claimed with a single CAS. So IDs from one generator strictly
+ * increase even if the clock steps back. A burst of more than 4,096 IDs in one millisecond
+ * borrows from the following milliseconds instead of waiting. IDs from different nodes
+ * differ in the node bits, so they cannot collide provided each node has its own
+ * {@code banking.node-id}.
+ */
+@Component
+public class IdGenerator {
+    /** Start of the timestamp range: 2024-01-01T00:00:00Z. Timestamps run out in 2093. */
+    public static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+    /** Number of distinct node IDs. */
+    public static final int NODES = 1 << 10;
+    /** Number of base-62 digits after the prefix. */
+    public static final int DIGITS = 11;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int MAX_PREFIX = 16;
+    private static final long FIVE_DIGITS = 62L * 62 * 62 * 62 * 62;
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[MAX_PREFIX + DIGITS]);
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private final long epochMillis = EPOCH.toEpochMilli();
+    private final long node;
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * Constructs an IdGenerator.
+     * @param nodeId this node's ID, unique among the nodes sharing the ID space
+     * @throws IllegalArgumentException if the node ID is out of range
+     */
+    @Autowired
+    public IdGenerator(@Value("${banking.node-id:0}") int nodeId) {
+        if (nodeId < 0 || nodeId >= NODES) {
+            throw new IllegalArgumentException("banking.node-id must be between 0 and " + (NODES - 1) + ", got " + nodeId);
+        }
+        this.node = nodeId;
+    }
+
+    /**
+     * Generates the next ID.
+     * @param prefix the ASCII prefix, e.g. {@code tan-}, at most 16 characters
+     * @return the prefix followed by {@value #DIGITS} base-62 digits
+     */
+    public String next(String prefix) {
+        return format(prefix, nextValue());
+    }
+
+    /**
+     * Generates the next numeric ID.
+     * @return the ID
+     */
+    long nextValue() {
+        long stamp = (System.currentTimeMillis() - epochMillis) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            next = Math.max(stamp, previous + 1);
+        } while (!last.compareAndSet(previous, next));
+        return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * Gets the creation time encoded in an ID's digits.
+     * @param id an ID produced by this class
+     * @param prefix the ID's prefix
+     * @return the millisecond the ID was generated in, or a little later after a burst
+     */
+    public static Instant timestamp(String id, String prefix) {
+        long value = 0;
+        for (int i = prefix.length(); i < id.length(); i++) {
+            char c = id.charAt(i);
+            int digit = c <= '9' ? c - '0' : c <= 'Z' ? c - 'A' + 10 : c - 'a' + 36;
+            value = value * 62 + digit;
+        }
+        return Instant.ofEpochMilli((value >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH.toEpochMilli());
+    }
+
+    /**
+     * Reads back the numeric value of an ID, so it can be stored in eight bytes and restored
+     * with {@link #format(String, long)}.
+     * @param id the ID
+     * @param prefix the expected prefix
+     * @return the ID's value, or -1 if the ID is not the prefix followed by {@value #DIGITS}
+     *         base-62 digits that fit in a non-negative long
+     */
+    public static long parse(String id, String prefix) {
+        if (id.length() != prefix.length() + DIGITS || !id.startsWith(prefix)) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = prefix.length(); i < id.length(); i++) {
+            char c = id.charAt(i);
+            int digit = c >= '0' && c <= '9' ? c - '0'
+                    : c >= 'A' && c <= 'Z' ? c - 'A' + 10
+                    : c >= 'a' && c <= 'z' ? c - 'a' + 36 : -1;
+            if (digit < 0 || value > (Long.MAX_VALUE - digit) / 62) {
+                return -1;
+            }
+            value = value * 62 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Writes an ID as its prefix followed by fixed-width base-62 digits. The digits are assembled
+     * in a per-thread buffer, so the returned string is the only allocation.
+     * @param prefix the ASCII prefix, at most {@value #MAX_PREFIX} characters
+     * @param value the non-negative ID
+     * @return the ID string
+     */
+    public static String format(String prefix, long value) {
+        int length = prefix.length() + DIGITS;
+        byte[] bytes = BUFFER.get();
+        for (int i = 0; i < prefix.length(); i++) {
+            bytes[i] = (byte) prefix.charAt(i);
+        }
+        // Peel off two blocks of five digits so most of the division is done in int arithmetic.
+        int low = (int) (value % FIVE_DIGITS);
+        long rest = value / FIVE_DIGITS;
+        int middle = (int) (rest % FIVE_DIGITS);
+        int high = (int) (rest / FIVE_DIGITS);
+        writeDigits(bytes, length, low, 5);
+        writeDigits(bytes, length - 5, middle, 5);
+        writeDigits(bytes, length - 10, high, 1);
+        return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void writeDigits(byte[] bytes, int end, int value, int count) {
+        for (int i = end - 1; i >= end - count; i--) {
+            bytes[i] = ALPHABET[value % 62];
+            value /= 62;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.banking.service.util;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory store of idempotency keys, each mapped to the result of the request that
+ * first used it.
+ * <p>
+ * The first request with a key runs its action; a later request with the same key and an equal
+ * fingerprint gets the remembered result without running anything, and one that arrives while
+ * the first is still running waits for it rather than running concurrently. A key is released
+ * as soon as its action produces a result that should not be remembered (such as a validation
+ * error) or throws, so the request can be retried, and in any case once the time-to-live has
+ * passed since the key was first used.
+ * <p>
+ * Keys live in a hash map, and remembered keys also join a queue in the order their results
+ * arrive. Because every key has the same time-to-live, the queue is also (near enough) in
+ * expiry order: each remembered key drops expired keys from its head, and then the oldest keys
+ * while the store is over its size, so lookups and eviction are both constant time. A key
+ * whose action is still running is not in the queue and is never dropped, so the store may
+ * briefly exceed its bound by the number of requests in flight.
+ *
+ * @param <T> the result type
+ */
+public class IdempotencyStore<T> {
+    private final ConcurrentHashMap<String, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry<T>> order = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final int maxKeys;
+    private final long ttlNanos;
+    private final Predicate<? super T> remember;
+    private final LongSupplier nanoClock;
+    private final LongAdder replays = new LongAdder();
+
+    /**
+     * Constructs an IdempotencyStore.
+     * @param maxKeys the maximum number of keys held
+     * @param ttl how long a key is remembered after its first use
+     * @param remember whether a result should be replayed to later requests with the same key
+     */
+    public IdempotencyStore(int maxKeys, Duration ttl, Predicate<? super T> remember) {
+        this(maxKeys, ttl, remember, System::nanoTime);
+    }
+
+    IdempotencyStore(int maxKeys, Duration ttl, Predicate<? super T> remember, LongSupplier nanoClock) {
+        if (maxKeys < 1) throw new IllegalArgumentException("maxKeys must be positive");
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl must be positive");
+        this.maxKeys = maxKeys;
+        this.ttlNanos = ttl.toNanos();
+        this.remember = remember;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Runs an action at most once per key, or returns the result of the run that already used the key.
+     * @param key the idempotency key, already scoped to the caller
+     * @param fingerprint identifies the request, compared with {@code equals} against the one that first used the key
+     * @param action performs the request
+     * @param mismatch the result to return if the key was first used for a request with a different fingerprint
+     * @return the action's result, the remembered result, or {@code mismatch}
+     */
+    public T execute(String key, Object fingerprint, Supplier<T> action, T mismatch) {
+        for (;;) {
+            long now = nanoClock.getAsLong();
+            Entry<T> existing = entries.get(key);
+            if (existing != null && now - existing.expiresAtNanos < 0) {
+                if (!existing.fingerprint.equals(fingerprint)) {
+                    return mismatch;
+                }
+                T result = existing.result.join();
+                if (result != null) {
+                    replays.increment();
+                    return result;
+                }
+                // The first run released the key; claim it for this one.
+                continue;
+            }
+            Entry<T> entry = new Entry<>(key, fingerprint, now + ttlNanos);
+            boolean claimed = existing == null
+                    ? entries.putIfAbsent(key, entry) == null
+                    : entries.replace(key, existing, entry);
+            if (claimed) {
+                return run(entry, action);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of requests answered with a remembered result.
+     * @return the replay count
+     */
+    public long replays() {
+        return replays.sum();
+    }
+
+    /**
+     * Gets the number of keys held, including any expired ones not yet removed.
+     * @return the store size
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private T run(Entry<T> entry, Supplier<T> action) {
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error ex) {
+            release(entry);
+            throw ex;
+        }
+        if (result != null && remember.test(result)) {
+            entry.result.complete(result);
+            order.add(entry);
+            evict(nanoClock.getAsLong());
+        } else {
+            release(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Forgets a key and wakes any requests waiting on it, which then claim it themselves.
+     */
+    private void release(Entry<T> entry) {
+        entries.remove(entry.key, entry);
+        entry.result.complete(null);
+    }
+
+    private void evict(long now) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            Entry<T> head;
+            while ((head = order.peek()) != null) {
+                boolean expired = now - head.expiresAtNanos >= 0;
+                boolean current = entries.get(head.key) == head;
+                if (current && !expired && entries.size() <= maxKeys) {
+                    break;
+                }
+                order.poll();
+                if (current) {
+                    entries.remove(head.key, head);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * One use of a key: the request's fingerprint, when the key expires and the eventual result,
+     * which is null if the result is not to be remembered.
+     */
+    private static final class Entry<T> {
+        private final String key;
+        private final Object fingerprint;
+        private final long expiresAtNanos;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Entry(String key, Object fingerprint, long expiresAtNanos) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -9,10 +9,14 @@ import java.util.Date;
 
 /**
  * Utility class for generating and validating JWT tokens.
+ * Verified tokens are cached until they expire, so repeat requests with the same token
+ * skip decoding and signature verification.
  */
 public class JwtUtil {
     private static final String SECRET_KEY = "my-very-secret-key";
     private static final long EXPIRATION_MS = 3600_000; // 1 hour
+    private static final int CACHE_SIZE = 10_000;
+    private static final TokenCache CACHE = new TokenCache(CACHE_SIZE);
 
     /**
      * Generates a JWT token for the given subject (userId).
@@ -32,17 +36,47 @@ public class JwtUtil {
      * Validates a JWT token and returns the subject (userId).
      * @param token the JWT token
      * @return the subject (userId) if valid
-     * @throws IllegalArgumentException if the token is invalid or expired
+     * @throws ValidationException if the token is invalid or expired
      */
     public static String validateTokenAndGetSubject(String token) {
+        if (token == null) {
+            throw ValidationException.unauthorized("Invalid or expired JWT token");
+        }
+        String subject = CACHE.get(token, System.currentTimeMillis());
+        if (subject != null) {
+            return subject;
+        }
+        Claims claims = verify(token);
+        subject = claims.getSubject();
+        Date expiration = claims.getExpiration();
+        if (subject != null && expiration != null) {
+            CACHE.put(token, subject, expiration.getTime(), System.currentTimeMillis());
+        }
+        return subject;
+    }
+
+    /**
+     * Gets the cache of verified tokens, e.g. to read its hit and miss counts.
+     * @return the token cache
+     */
+    public static TokenCache tokenCache() {
+        return CACHE;
+    }
+
+    /**
+     * Decodes a JWT token and verifies its signature and expiry, bypassing the cache.
+     * @param token the JWT token
+     * @return the token's claims
+     * @throws ValidationException if the token is invalid or expired
+     */
+    static Claims verify(String token) {
         try {
-            Claims claims = Jwts.parser()
+            return Jwts.parser()
                     .setSigningKey(SECRET_KEY)
                     .parseClaimsJws(token)
                     .getBody();
-            return claims.getSubject();
         } catch (JwtException | IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid or expired JWT token");
+            throw ValidationException.unauthorized("Invalid or expired JWT token");
         }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package org.banking.service.util;
+
+/**
+ * Utility class for converting between API amounts in pounds and internal fixed-point pence.
+ */
+public class MoneyUtil {
+    /**
+     * Largest amount or balance, in pence. Every whole number of pence up to it is exact as a
+     * double, and it is far enough below the range of a long that credits accepted on top of a
+     * balance at the limit cannot overflow.
+     */
+    public static final long MAX_PENCE = 1_000_000_000_000_000L;
+
+    /**
+     * Checks that an API amount is positive, at most {@link #MAX_PENCE} and a whole number of pence,
+     * so it converts to pence exactly.
+     * @param pounds the amount in pounds
+     * @return whether the amount is valid
+     */
+    public static boolean isValidAmount(double pounds) {
+        // A whole number of pence below 2^53 converts back to exactly the double it was parsed as.
+        return pounds > 0 && pounds <= toPounds(MAX_PENCE) && toPounds(toPence(pounds)) == pounds;
+    }
+
+    /**
+     * Converts an amount in pounds to pence, rounding to the nearest penny.
+     * @param pounds the amount in pounds
+     * @return the amount in pence
+     */
+    public static long toPence(double pounds) {
+        return Math.round(pounds * 100);
+    }
+
+    /**
+     * Converts an amount in pence to pounds.
+     * @param pence the amount in pence
+     * @return the amount in pounds
+     */
+    public static double toPounds(long pence) {
+        return pence / 100.0;
+    }
+}
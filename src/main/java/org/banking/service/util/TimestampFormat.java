@@ -0,0 +1,68 @@
+package org.banking.service.util;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formats timestamps exactly as {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME} does, which is how
+ * Jackson writes {@link OffsetDateTime} values in API responses.
+ * <p>
+ * The date, time-of-day and offset of the most recently formatted second are cached and shared
+ * by all threads, so a burst of timestamps from the same second only appends the fraction.
+ */
+public final class TimestampFormat {
+    private static volatile Second last = new Second(Long.MIN_VALUE, 0, "", "");
+
+    private TimestampFormat() {}
+
+    /**
+     * Formats a timestamp.
+     * @param value the timestamp, not null
+     * @return the ISO-8601 text, e.g. {@code 2024-05-01T09:30:15.25Z}
+     */
+    public static String format(OffsetDateTime value) {
+        long epochSecond = value.toEpochSecond();
+        int offsetSeconds = value.getOffset().getTotalSeconds();
+        Second second = last;
+        if (second.epochSecond != epochSecond || second.offsetSeconds != offsetSeconds) {
+            LocalDateTime wholeSecond = value.toLocalDateTime().withNano(0);
+            second = new Second(epochSecond, offsetSeconds,
+                    DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(wholeSecond), value.getOffset().getId());
+            last = second;
+        }
+        int nano = value.getNano();
+        if (nano == 0) {
+            return second.whole;
+        }
+        char[] fraction = new char[10];
+        fraction[0] = '.';
+        int end = 1;
+        for (int divisor = 100_000_000; nano != 0; divisor /= 10) {
+            int digit = nano / divisor;
+            fraction[end++] = (char) ('0' + digit);
+            nano -= digit * divisor;
+        }
+        return new StringBuilder(second.dateTime.length() + end + second.offset.length())
+                .append(second.dateTime).append(fraction, 0, end).append(second.offset).toString();
+    }
+
+    /**
+     * The formatted parts of one second at one offset.
+     */
+    private static final class Second {
+        private final long epochSecond;
+        private final int offsetSeconds;
+        private final String dateTime;
+        private final String offset;
+        private final String whole;
+
+        Second(long epochSecond, int offsetSeconds, String dateTime, String offset) {
+            this.epochSecond = epochSecond;
+            this.offsetSeconds = offsetSeconds;
+            this.dateTime = dateTime;
+            this.offset = offset;
+            this.whole = dateTime + offset;
+        }
+    }
+}
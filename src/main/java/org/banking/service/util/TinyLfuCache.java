@@ -0,0 +1,342 @@
+package org.banking.service.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache that decides what to keep with the W-TinyLFU policy.
+ * <p>
+ * New entries enter a small LRU window (1% of the capacity). An entry pushed out of the window
+ * joins the main space only if it has been requested more often than the entry the main space
+ * would evict for it; otherwise it is dropped. The main space is a segmented LRU: entries start
+ * in a probation segment and move to a protected segment (80% of the main space) when hit
+ * again, so a burst of one-off keys cannot flush the keys requested over and over. Request
+ * frequencies, including those of keys not cached, are estimated by a count-min sketch of 4-bit
+ * counters, which are all halved after every ten requests per entry of capacity so old
+ * popularity fades.
+ * <p>
+ * Lookups read a concurrent map without locking. The policy's queues and sketch are updated
+ * under one lock, which a lookup only tries to take: if it is busy the lookup still returns
+ * the entry, and its effect on the policy is skipped.
+ * <p>
+ * {@link #invalidate} is precise even against a value being computed concurrently: a caller
+ * takes a {@link #stamp} before reading the data it caches and passes it to {@link #put},
+ * which drops the value if the key was invalidated in between. Stamps are counters in a fixed
+ * set of stripes, so invalidating a key also makes puts in flight for keys sharing its stripe
+ * drop their values, which costs only a later miss.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class TinyLfuCache<K, V> {
+    private static final int STAMP_STRIPES = 1024;
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int REMOVED = 3;
+
+    private final ConcurrentHashMap<K, Node<K, V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final Node<K, V>[] queues;
+    private final int[] sizes = new int[3];
+    private final int maxSize;
+    private final int maxWindow;
+    private final int maxProtected;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a TinyLfuCache.
+     * @param maxSize the maximum number of entries held
+     */
+    public TinyLfuCache(int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be positive");
+        this.maxSize = maxSize;
+        this.maxWindow = Math.max(1, maxSize / 100);
+        this.maxProtected = (maxSize - maxWindow) * 4 / 5;
+        this.sketch = new FrequencySketch(maxSize);
+        this.queues = newQueues(3);
+        for (int i = 0; i < queues.length; i++) {
+            Node<K, V> sentinel = new Node<>(null, null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            queues[i] = sentinel;
+        }
+    }
+
+    /**
+     * Creates an array for the policy's queue sentinels.
+     * @param length the number of queues
+     * @return the empty array
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newQueues(int length) {
+        return (Node<K, V>[]) new Node<?, ?>[length];
+    }
+
+    /**
+     * Looks up a cached value and records the request.
+     * @param key the key
+     * @return the value, or null if the key is not cached
+     */
+    public V get(K key) {
+        Node<K, V> node = entries.get(key);
+        if (node == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        if (policyLock.tryLock()) {
+            try {
+                sketch.increment(key.hashCode());
+                if (node != null && node.queue != REMOVED) {
+                    onHit(node);
+                }
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Takes the stamp to pass to {@link #put} for a value about to be computed.
+     * @param key the key
+     * @return the stamp
+     */
+    public long stamp(K key) {
+        return stamps.get(stripe(key));
+    }
+
+    /**
+     * Caches a value, unless the key was invalidated since the stamp was taken. The value may
+     * be dropped straight away if its key is requested less often than those already cached.
+     * @param key the key
+     * @param value the value
+     * @param stamp the stamp taken by {@link #stamp} before the value was computed
+     */
+    public void put(K key, V value, long stamp) {
+        policyLock.lock();
+        try {
+            if (stamps.get(stripe(key)) != stamp) {
+                return;
+            }
+            Node<K, V> existing = entries.get(key);
+            if (existing != null) {
+                existing.value = value;
+                return;
+            }
+            Node<K, V> node = new Node<>(key, value);
+            entries.put(key, node);
+            link(WINDOW, node);
+            while (sizes[WINDOW] > maxWindow) {
+                Node<K, V> candidate = queues[WINDOW].next;
+                unlink(candidate);
+                link(PROBATION, candidate);
+                if (sizes[PROBATION] + sizes[PROTECTED] > maxSize - maxWindow) {
+                    evict(candidate);
+                }
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a key, and stops values for it computed before this call from being cached.
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        stamps.incrementAndGet(stripe(key));
+        Node<K, V> node = entries.remove(key);
+        if (node != null) {
+            policyLock.lock();
+            try {
+                if (node.queue != REMOVED) {
+                    unlink(node);
+                }
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries held.
+     * @return the size
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of lookups that returned a cached value.
+     * @return the hit count
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that found nothing cached.
+     * @return the miss count
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the share of lookups that returned a cached value.
+     * @return the hit rate between 0 and 1, or 0 before any lookup
+     */
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Gets the number of entries dropped by the policy to stay within the size, including
+     * new entries refused admission. Invalidations are not counted.
+     * @return the eviction count
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Moves a hit entry to the most recent end of its queue, promoting it out of probation.
+     * Must be called under the policy lock.
+     */
+    private void onHit(Node<K, V> node) {
+        int queue = node.queue;
+        unlink(node);
+        if (queue != PROBATION) {
+            link(queue, node);
+            return;
+        }
+        link(PROTECTED, node);
+        if (sizes[PROTECTED] > maxProtected) {
+            Node<K, V> demoted = queues[PROTECTED].next;
+            unlink(demoted);
+            link(PROBATION, demoted);
+        }
+    }
+
+    /**
+     * Evicts whichever of the candidate just admitted to probation and the main space's
+     * least recently used entry is requested less often. Must be called under the policy lock.
+     */
+    private void evict(Node<K, V> candidate) {
+        Node<K, V> victim = queues[PROBATION].next;
+        if (victim == candidate) {
+            victim = sizes[PROTECTED] > 0 ? queues[PROTECTED].next : candidate;
+        }
+        if (victim != candidate && sketch.frequency(candidate.key.hashCode()) <= sketch.frequency(victim.key.hashCode())) {
+            victim = candidate;
+        }
+        unlink(victim);
+        entries.remove(victim.key, victim);
+        evictions.increment();
+    }
+
+    private void link(int queue, Node<K, V> node) {
+        Node<K, V> sentinel = queues[queue];
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+        node.queue = queue;
+        sizes[queue]++;
+    }
+
+    private void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        sizes[node.queue]--;
+        node.queue = REMOVED;
+    }
+
+    private int stripe(K key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STAMP_STRIPES - 1);
+    }
+
+    /**
+     * A cached entry and its place in the policy's queues, which are guarded by the policy lock.
+     */
+    private static final class Node<K, V> {
+        private final K key;
+        private volatile V value;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+        private volatile int queue = REMOVED;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Count-min sketch of request frequencies: four hashed 4-bit counters per key in one table
+     * of a byte per counter, read as their minimum and only raised where they equal it.
+     * Not thread-safe.
+     */
+    private static final class FrequencySketch {
+        private static final int[] SEEDS = {0x97CB3127, 0xB3DC6A4F, 0x5D5B6E1B, 0x8D3BB2D9};
+        private static final int MAX_COUNT = 15;
+
+        private final byte[] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maxSize) {
+            int width = Integer.highestOneBit(Math.max(16, maxSize - 1) << 1);
+            this.counters = new byte[width];
+            this.mask = width - 1;
+            this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * maxSize);
+        }
+
+        int frequency(int hash) {
+            int min = MAX_COUNT;
+            for (int seed : SEEDS) {
+                min = Math.min(min, counters[index(hash, seed)]);
+            }
+            return min;
+        }
+
+        void increment(int hash) {
+            int min = frequency(hash);
+            if (min == MAX_COUNT) {
+                return;
+            }
+            for (int seed : SEEDS) {
+                int index = index(hash, seed);
+                if (counters[index] == min) {
+                    counters[index]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>= 1;
+                }
+                additions >>>= 1;
+            }
+        }
+
+        private int index(int hash, int seed) {
+            int h = hash * seed;
+            h ^= h >>> 16;
+            return h & mask;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.banking.service.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of verified tokens, mapping each token to its subject and expiry.
+ * <p>
+ * An entry is served only while the token itself would still be accepted, i.e. until the
+ * millisecond its {@code exp} claim passes; the first lookup after that removes it. When the
+ * cache is full, an insert first drops expired entries and then, if still needed, a small
+ * batch of arbitrary ones, so the size stays at the cap (give or take concurrent inserts) and
+ * eviction cost is amortised over many inserts.
+ */
+public class TokenCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructs a TokenCache.
+     * @param maxSize the maximum number of tokens held
+     */
+    public TokenCache(int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be positive");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Looks up the subject of a previously verified token.
+     * @param token the token
+     * @param nowMillis the current time in epoch milliseconds
+     * @return the subject, or null if the token is not cached or has expired
+     */
+    public String get(String token, long nowMillis) {
+        Entry entry = entries.get(token);
+        if (entry != null) {
+            if (nowMillis <= entry.expiresAtMillis) {
+                hits.increment();
+                return entry.subject;
+            }
+            entries.remove(token, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches a verified token.
+     * @param token the token
+     * @param subject the token's subject
+     * @param expiresAtMillis the token's expiry in epoch milliseconds; the token is accepted up to and including this instant
+     * @param nowMillis the current time in epoch milliseconds
+     */
+    public void put(String token, String subject, long expiresAtMillis, long nowMillis) {
+        if (entries.size() >= maxSize) {
+            evict(nowMillis);
+        }
+        entries.put(token, new Entry(subject, expiresAtMillis));
+    }
+
+    /**
+     * Gets the number of lookups that returned a cached subject.
+     * @return the hit count
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that found no usable entry.
+     * @return the miss count
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of cached tokens, including any expired ones not yet removed.
+     * @return the cache size
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes every cached token.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private void evict(long nowMillis) {
+        int target = maxSize - Math.max(1, maxSize / 16);
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            if (nowMillis > it.next().expiresAtMillis) {
+                it.remove();
+            }
+        }
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext() && entries.size() > target; ) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * A verified token's subject and expiry.
+     */
+    private static final class Entry {
+        private final String subject;
+        private final long expiresAtMillis;
+
+        Entry(String subject, long expiresAtMillis) {
+            this.subject = subject;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.banking.service.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.banking.service.model.TransactionResponse;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a transaction history as newline-delimited JSON or CSV, one transaction at a time.
+ * <p>
+ * Output passes through a fixed-size buffer and is flushed every {@value #FLUSH_EVERY} rows, so
+ * memory use does not depend on the length of the history and the client receives the export
+ * in chunks as it is written.
+ */
+public final class TransactionExport {
+    static final int FLUSH_EVERY = 1_000;
+    private static final String CSV_HEADER = "id,amount,currency,type,reference,userId,createdTimestamp\r\n";
+
+    private TransactionExport() {}
+
+    /**
+     * Export formats.
+     */
+    public enum Format {
+        /** One JSON transaction object per line, as returned by the list endpoint. */
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+        /** RFC 4180 CSV with a header row. */
+        CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        /**
+         * Gets the file extension.
+         * @return the extension, without the dot
+         */
+        public String extension() {
+            return extension;
+        }
+
+        /**
+         * Gets the response content type.
+         * @return the media type
+         */
+        public MediaType mediaType() {
+            return mediaType;
+        }
+    }
+
+    /**
+     * Parses the {@code format} request parameter.
+     * @param name the parameter value, or null for the default of NDJSON
+     * @return the format
+     * @throws ValidationException if the format is not supported
+     */
+    public static Format format(String name) {
+        if (name == null || "ndjson".equalsIgnoreCase(name)) return Format.NDJSON;
+        if ("csv".equalsIgnoreCase(name)) return Format.CSV;
+        throw ValidationException.invalid("format", "Invalid format: must be ndjson or csv");
+    }
+
+    /**
+     * Writes transactions in the given format. The stream is flushed but not closed.
+     * @param format the format
+     * @param transactions the transactions, oldest first
+     * @param mapper the mapper used for NDJSON lines
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public static void write(Format format, Iterable<TransactionResponse> transactions, ObjectMapper mapper, OutputStream out) throws IOException {
+        if (format == Format.CSV) {
+            writeCsv(transactions, out);
+        } else {
+            writeNdjson(transactions, mapper, out);
+        }
+    }
+
+    /**
+     * Writes one JSON transaction object per line.
+     * @param transactions the transactions, oldest first
+     * @param mapper the mapper that serializes each transaction
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public static void writeNdjson(Iterable<TransactionResponse> transactions, ObjectMapper mapper, OutputStream out) throws IOException {
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.setRootValueSeparator(null);
+            int rows = 0;
+            for (TransactionResponse transaction : transactions) {
+                writer.writeValue(gen, transaction);
+                gen.writeRaw('\n');
+                if (++rows % FLUSH_EVERY == 0) {
+                    gen.flush();
+                }
+            }
+            gen.flush();
+        }
+    }
+
+    /**
+     * Writes a CSV header row followed by one row per transaction. Missing values are left
+     * empty, and fields containing commas, quotes or line breaks are quoted.
+     * @param transactions the transactions, oldest first
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public static void writeCsv(Iterable<TransactionResponse> transactions, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        int rows = 0;
+        for (TransactionResponse transaction : transactions) {
+            writeField(writer, transaction.getId());
+            writer.write(',');
+            writer.write(Double.toString(transaction.getAmount()));
+            writer.write(',');
+            writeField(writer, transaction.getCurrency());
+            writer.write(',');
+            writeField(writer, transaction.getType());
+            writer.write(',');
+            writeField(writer, transaction.getReference());
+            writer.write(',');
+            writeField(writer, transaction.getUserId());
+            writer.write(',');
+            if (transaction.getCreatedTimestamp() != null) {
+                writer.write(TimestampFormat.format(transaction.getCreatedTimestamp()));
+            }
+            writer.write("\r\n");
+            if (++rows % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) return;
+        boolean quote = false;
+        for (int i = 0, n = value.length(); i < n && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c == '"') writer.write('"');
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
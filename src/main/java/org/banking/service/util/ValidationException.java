@@ -0,0 +1,98 @@
+package org.banking.service.util;
+
+/**
+ * Typed request error carrying an {@link ErrorCode} and, for field errors, the offending field.
+ * <p>
+ * Validation failures are expected control flow on bad input, so the exception does not
+ * capture a stack trace. It extends {@link IllegalArgumentException} so existing callers that
+ * catch that type keep working.
+ */
+public class ValidationException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final ErrorCode code;
+    private final String field;
+
+    /**
+     * Constructs a ValidationException.
+     * @param code the error category
+     * @param field the offending field, or null if the error is not about a single field
+     * @param message the error message
+     */
+    public ValidationException(ErrorCode code, String field, String message) {
+        super(message);
+        this.code = code;
+        this.field = field;
+    }
+
+    /**
+     * Creates an error for a missing or malformed field.
+     * @param field the offending field
+     * @param message the error message
+     * @return the exception
+     */
+    public static ValidationException invalid(String field, String message) {
+        return new ValidationException(ErrorCode.INVALID_FIELD, field, message);
+    }
+
+    /**
+     * Creates an authentication error.
+     * @param message the error message
+     * @return the exception
+     */
+    public static ValidationException unauthorized(String message) {
+        return new ValidationException(ErrorCode.UNAUTHORIZED, null, message);
+    }
+
+    /**
+     * Creates an ownership error.
+     * @param message the error message
+     * @return the exception
+     */
+    public static ValidationException forbidden(String message) {
+        return new ValidationException(ErrorCode.FORBIDDEN, null, message);
+    }
+
+    /**
+     * Creates a missing-resource error.
+     * @param message the error message
+     * @return the exception
+     */
+    public static ValidationException notFound(String message) {
+        return new ValidationException(ErrorCode.NOT_FOUND, null, message);
+    }
+
+    /**
+     * Creates an error for a request that cannot be applied in the current state.
+     * @param message the error message
+     * @return the exception
+     */
+    public static ValidationException unprocessable(String message) {
+        return new ValidationException(ErrorCode.UNPROCESSABLE, null, message);
+    }
+
+    /**
+     * Gets the error category.
+     * @return the error code
+     */
+    public ErrorCode getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the offending field.
+     * @return the field, or null if the error is not about a single field
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Skips stack trace capture, which dominates the cost of throwing on the error path.
+     * @return this exception
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
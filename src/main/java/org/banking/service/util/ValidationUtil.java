@@ -1,119 +1,178 @@
 package org.banking.service.util;
 
-import java.util.regex.Pattern;
 import org.banking.service.model.BadRequestErrorResponse;
 import org.banking.service.model.CreateTransactionRequest;
+import org.banking.service.model.TransferRequest;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Utility class for validating user, account, and transaction data formats.
  */
 public class ValidationUtil {
-    private static final Pattern ACCOUNT_NUMBER_PATTERN = Pattern.compile("^01\\d{6}$");
-    private static final Pattern USER_ID_PATTERN = Pattern.compile("^usr-[A-Za-z0-9]+$");
-    private static final Pattern PHONE_NUMBER_PATTERN = Pattern.compile("^\\+[1-9]\\d{1,14}$");
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
-    private static final Pattern TRANSACTION_ID_PATTERN = Pattern.compile("^tan-[A-Za-z0-9]+$");
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final String AMOUNT_OUT_OF_RANGE = "Invalid amount: must be at most 10000000000000.00 with no more than 2 decimal places";
 
     /**
      * Validates the format of an account number.
      * @param accountNumber the account number to validate
-     * @throws IllegalArgumentException if the format is invalid
+     * @throws ValidationException if the format is invalid
      */
     public static void validateAccountNumber(String accountNumber) {
-        if (accountNumber == null || !ACCOUNT_NUMBER_PATTERN.matcher(accountNumber).matches()) {
-            throw new IllegalArgumentException("Invalid accountNumber format");
+        if (accountNumber == null || !Formats.isAccountNumber(accountNumber)) {
+            throw ValidationException.invalid("accountNumber", "Invalid accountNumber format");
         }
     }
 
     /**
      * Validates the format of a user ID.
      * @param userId the user ID to validate
-     * @throws IllegalArgumentException if the format is invalid
+     * @throws ValidationException if the format is invalid
      */
     public static void validateUserId(String userId) {
-        if (userId == null || !USER_ID_PATTERN.matcher(userId).matches()) {
-            throw new IllegalArgumentException("Invalid userId format");
+        if (userId == null || !Formats.isUserId(userId)) {
+            throw ValidationException.invalid("userId", "Invalid userId format");
         }
     }
 
     /**
      * Validates the format of a phone number.
      * @param phoneNumber the phone number to validate
-     * @throws IllegalArgumentException if the format is invalid
+     * @throws ValidationException if the format is invalid
      */
     public static void validatePhoneNumber(String phoneNumber) {
-        if (phoneNumber == null || !PHONE_NUMBER_PATTERN.matcher(phoneNumber).matches()) {
-            throw new IllegalArgumentException("Invalid phoneNumber format");
+        if (phoneNumber == null || !Formats.isPhoneNumber(phoneNumber)) {
+            throw ValidationException.invalid("phoneNumber", "Invalid phoneNumber format");
         }
     }
 
     /**
      * Validates the format of an email address.
      * @param email the email address to validate
-     * @throws IllegalArgumentException if the format is invalid
+     * @throws ValidationException if the format is invalid
      */
     public static void validateEmail(String email) {
-        if (email == null || !EMAIL_PATTERN.matcher(email).matches()) {
-            throw new IllegalArgumentException("Invalid email format");
+        if (email == null || !Formats.isEmail(email)) {
+            throw ValidationException.invalid("email", "Invalid email format");
         }
     }
 
     /**
      * Validates the format of a transaction ID.
      * @param transactionId the transaction ID to validate
-     * @throws IllegalArgumentException if the format is invalid
+     * @throws ValidationException if the format is invalid
      */
     public static void validateTransactionId(String transactionId) {
-        if (transactionId == null || !TRANSACTION_ID_PATTERN.matcher(transactionId).matches()) {
-            throw new IllegalArgumentException("Invalid transactionId format");
+        if (transactionId == null || !Formats.isTransactionId(transactionId)) {
+            throw ValidationException.invalid("transactionId", "Invalid transactionId format");
+        }
+    }
+
+    /**
+     * Validates the number of items in a batch submission.
+     * @param items the batch items
+     * @throws ValidationException if the batch is missing, empty or too large
+     */
+    public static void validateBatch(List<?> items) {
+        if (items == null) throw ValidationException.invalid("request", "Request body is missing");
+        if (items.isEmpty() || items.size() > MAX_BATCH_SIZE) {
+            throw ValidationException.invalid("request", "Invalid batch: must contain between 1 and " + MAX_BATCH_SIZE + " transactions");
+        }
+    }
+
+    /**
+     * Validates an {@code Idempotency-Key} header value.
+     * @param key the header value, or null if absent
+     * @throws ValidationException if the key is empty, too long or not printable ASCII
+     */
+    public static void validateIdempotencyKey(String key) {
+        if (key == null) return;
+        boolean valid = !key.isEmpty() && key.length() <= MAX_IDEMPOTENCY_KEY_LENGTH;
+        for (int i = 0, n = key.length(); i < n && valid; i++) {
+            char c = key.charAt(i);
+            valid = c > ' ' && c < 0x7f;
+        }
+        if (!valid) {
+            throw ValidationException.invalid("Idempotency-Key",
+                    "Invalid Idempotency-Key: must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " printable ASCII characters");
+        }
+    }
+
+    /**
+     * Validates a page size for paginated listings.
+     * @param limit the requested page size, or null for the default
+     * @throws ValidationException if the limit is out of range
+     */
+    public static void validateLimit(Integer limit) {
+        if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+            throw ValidationException.invalid("limit", "Invalid limit: must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Parses an optional ISO-8601 timestamp query parameter.
+     * @param value the parameter value, or null if absent
+     * @param field the parameter name, used in the error message
+     * @return the parsed timestamp, or null if absent
+     * @throws ValidationException if the value is not an ISO-8601 date-time with offset
+     */
+    public static OffsetDateTime parseTimestamp(String value, String field) {
+        if (value == null) return null;
+        try {
+            return OffsetDateTime.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw ValidationException.invalid(field, "Invalid " + field + " timestamp");
         }
     }
 
     /**
      * Validates the format of a Bearer token in the Authorization header.
      * @param authorizationHeader the Authorization header value
-     * @throws IllegalArgumentException if the header is missing or invalid
+     * @throws ValidationException if the header is missing or invalid
      */
     public static void validateBearerToken(String authorizationHeader) {
         if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ") || authorizationHeader.length() <= 7) {
-            throw new IllegalArgumentException("Missing or invalid Authorization header");
+            throw ValidationException.unauthorized("Missing or invalid Authorization header");
         }
     }
 
     /**
      * Validates a CreateUserRequest for required fields and correct formats.
      * @param request the CreateUserRequest to validate
-     * @throws IllegalArgumentException if any required field is missing or invalid
+     * @throws ValidationException if any required field is missing or invalid
      */
     public static void validateCreateUserRequest(org.banking.service.model.CreateUserRequest request) {
-        if (request == null) throw new IllegalArgumentException("Request body is missing");
-        if (request.getName() == null || request.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Missing required field: name");
+        if (request == null) throw ValidationException.invalid("request", "Request body is missing");
+        if (request.getName() == null || Formats.isBlank(request.getName())) {
+            throw ValidationException.invalid("name", "Missing required field: name");
         }
         if (request.getAddress() == null) {
-            throw new IllegalArgumentException("Missing required field: address");
+            throw ValidationException.invalid("address", "Missing required field: address");
         }
         org.banking.service.model.CreateUserRequest.Address addr = request.getAddress();
-        if (addr.getLine1() == null || addr.getLine1().trim().isEmpty()) {
-            throw new IllegalArgumentException("Missing required field: address.line1");
+        if (addr.getLine1() == null || Formats.isBlank(addr.getLine1())) {
+            throw ValidationException.invalid("address.line1", "Missing required field: address.line1");
         }
-        if (addr.getTown() == null || addr.getTown().trim().isEmpty()) {
-            throw new IllegalArgumentException("Missing required field: address.town");
+        if (addr.getTown() == null || Formats.isBlank(addr.getTown())) {
+            throw ValidationException.invalid("address.town", "Missing required field: address.town");
         }
-        if (addr.getCounty() == null || addr.getCounty().trim().isEmpty()) {
-            throw new IllegalArgumentException("Missing required field: address.county");
+        if (addr.getCounty() == null || Formats.isBlank(addr.getCounty())) {
+            throw ValidationException.invalid("address.county", "Missing required field: address.county");
         }
-        if (addr.getPostcode() == null || addr.getPostcode().trim().isEmpty()) {
-            throw new IllegalArgumentException("Missing required field: address.postcode");
+        if (addr.getPostcode() == null || Formats.isBlank(addr.getPostcode())) {
+            throw ValidationException.invalid("address.postcode", "Missing required field: address.postcode");
         }
-        if (request.getPhoneNumber() == null || request.getPhoneNumber().trim().isEmpty()) {
-            throw new IllegalArgumentException("Missing required field: phoneNumber");
+        if (request.getPhoneNumber() == null || Formats.isBlank(request.getPhoneNumber())) {
+            throw ValidationException.invalid("phoneNumber", "Missing required field: phoneNumber");
         }
         validatePhoneNumber(request.getPhoneNumber());
-        if (request.getEmail() == null || request.getEmail().trim().isEmpty()) {
-            throw new IllegalArgumentException("Missing required field: email");
+        if (request.getEmail() == null || Formats.isBlank(request.getEmail())) {
+            throw ValidationException.invalid("email", "Missing required field: email");
         }
         validateEmail(request.getEmail());
     }
@@ -121,41 +180,65 @@ public class ValidationUtil {
     /**
      * Validates an UpdateUserRequest for correct formats if fields are present.
      * @param request the UpdateUserRequest to validate
-     * @throws IllegalArgumentException if any present field is invalid
+     * @throws ValidationException if any present field is invalid
      */
     public static void validateUpdateUserRequest(org.banking.service.model.UpdateUserRequest request) {
-        if (request == null) throw new IllegalArgumentException("Request body is missing");
+        if (request == null) throw ValidationException.invalid("request", "Request body is missing");
         if (request.getPhoneNumber() != null) validatePhoneNumber(request.getPhoneNumber());
         if (request.getEmail() != null) validateEmail(request.getEmail());
         if (request.getAddress() != null) {
             org.banking.service.model.UpdateUserRequest.Address addr = request.getAddress();
-            if (addr.getLine1() != null && addr.getLine1().trim().isEmpty()) {
-                throw new IllegalArgumentException("address.line1 cannot be empty");
+            if (addr.getLine1() != null && Formats.isBlank(addr.getLine1())) {
+                throw ValidationException.invalid("address.line1", "address.line1 cannot be empty");
             }
-            if (addr.getTown() != null && addr.getTown().trim().isEmpty()) {
-                throw new IllegalArgumentException("address.town cannot be empty");
+            if (addr.getTown() != null && Formats.isBlank(addr.getTown())) {
+                throw ValidationException.invalid("address.town", "address.town cannot be empty");
             }
-            if (addr.getCounty() != null && addr.getCounty().trim().isEmpty()) {
-                throw new IllegalArgumentException("address.county cannot be empty");
+            if (addr.getCounty() != null && Formats.isBlank(addr.getCounty())) {
+                throw ValidationException.invalid("address.county", "address.county cannot be empty");
             }
-            if (addr.getPostcode() != null && addr.getPostcode().trim().isEmpty()) {
-                throw new IllegalArgumentException("address.postcode cannot be empty");
+            if (addr.getPostcode() != null && Formats.isBlank(addr.getPostcode())) {
+                throw ValidationException.invalid("address.postcode", "address.postcode cannot be empty");
             }
         }
     }
 
+    /**
+     * Resolves the authenticated userId for a request.
+     * @param principal the userId verified by {@link org.banking.service.auth.AuthenticationFilter}, or null
+     * @param authHeader the Authorization header, verified here only if the filter did not resolve a principal
+     * @return the authenticated userId
+     * @throws ValidationException if the token is invalid or expired
+     */
+    public static String authenticatedSubject(String principal, String authHeader) {
+        if (principal != null) {
+            return principal;
+        }
+        return org.banking.service.util.JwtUtil.validateTokenAndGetSubject(authHeader.substring(7));
+    }
+
     /**
      * Validates the Authorization header and ensures the JWT subject matches the userId.
      * @param authHeader the Authorization header
      * @param userId the user ID to match
-     * @throws IllegalArgumentException if the header is missing/invalid or subject does not match userId
+     * @throws ValidationException if the header is missing/invalid or subject does not match userId
      */
     public static void validateAuthHeader(String authHeader, String userId) {
+        validateAuthHeader(authHeader, null, userId);
+    }
+
+    /**
+     * Validates the Authorization header and ensures the authenticated user matches the userId.
+     * @param authHeader the Authorization header
+     * @param principal the userId already verified for this request, or null
+     * @param userId the user ID to match
+     * @throws ValidationException if the header is missing/invalid or subject does not match userId
+     */
+    public static void validateAuthHeader(String authHeader, String principal, String userId) {
         validateBearerToken(authHeader);
-        String token = authHeader.substring(7);
-        String subject = org.banking.service.util.JwtUtil.validateTokenAndGetSubject(token);
+        String subject = authenticatedSubject(principal, authHeader);
         if (!userId.equals(subject)) {
-            throw new IllegalArgumentException("Forbidden: You can only access your own user details");
+            throw ValidationException.forbidden("Forbidden: You can only access your own user details");
         }
     }
 
@@ -163,55 +246,65 @@ public class ValidationUtil {
      * Validates the Authorization header and ensures the JWT subject matches the account's userId.
      * @param authHeader the Authorization header
      * @param account the BankAccountResponse to check ownership
-     * @throws IllegalArgumentException if the header is missing/invalid or subject does not match account userId
+     * @throws ValidationException if the header is missing/invalid or subject does not match account userId
      */
     public static void validateAuthHeaderForAccount(String authHeader, org.banking.service.model.BankAccountResponse account) {
+        validateAuthHeaderForAccount(authHeader, null, account);
+    }
+
+    /**
+     * Validates the Authorization header and ensures the authenticated user owns the account.
+     * The caller resolves the account once and passes it in, so the same lookup serves the response.
+     * @param authHeader the Authorization header
+     * @param principal the userId already verified for this request, or null
+     * @param account the BankAccountResponse to check ownership
+     * @throws ValidationException if the header is missing/invalid, the account is null or not owned by the user
+     */
+    public static void validateAuthHeaderForAccount(String authHeader, String principal, org.banking.service.model.BankAccountResponse account) {
         validateBearerToken(authHeader);
         if (account == null) {
-            throw new IllegalArgumentException("Account not found");
+            throw ValidationException.notFound("Account not found");
         }
-        String token = authHeader.substring(7);
-        String subject = org.banking.service.util.JwtUtil.validateTokenAndGetSubject(token);
+        String subject = authenticatedSubject(principal, authHeader);
         if (!subject.equals(account.getUserId())) {
-            throw new IllegalArgumentException("Forbidden: You can only access your own bank account");
+            throw ValidationException.forbidden("Forbidden: You can only access your own bank account");
         }
     }
 
     /**
      * Validates an UpdateBankAccountRequest for correct formats if fields are present.
      * @param request the UpdateBankAccountRequest to validate
-     * @throws IllegalArgumentException if any present field is invalid
+     * @throws ValidationException if any present field is invalid
      */
     public static void validateUpdateBankAccountRequest(org.banking.service.model.UpdateBankAccountRequest request) {
-        if (request == null) throw new IllegalArgumentException("Request body is missing");
-        if (request.getName() != null && request.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("name cannot be empty");
+        if (request == null) throw ValidationException.invalid("request", "Request body is missing");
+        if (request.getName() != null && Formats.isBlank(request.getName())) {
+            throw ValidationException.invalid("name", "name cannot be empty");
         }
-        if (request.getAccountType() != null && request.getAccountType().trim().isEmpty()) {
-            throw new IllegalArgumentException("accountType cannot be empty");
+        if (request.getAccountType() != null && Formats.isBlank(request.getAccountType())) {
+            throw ValidationException.invalid("accountType", "accountType cannot be empty");
         } else if (request.getAccountType() != null && !"personal".equalsIgnoreCase(request.getAccountType())) {
-            throw new IllegalArgumentException("Invalid accountType: only 'personal' is allowed");
+            throw ValidationException.invalid("accountType", "Invalid accountType: only 'personal' is allowed");
         }
     }
 
     /**
      * Validates a CreateBankAccountRequest for required fields and returns a list of error details for all missing fields.
      * @param request the CreateBankAccountRequest to validate
-     * @return a list of BadRequestErrorResponse.Detail for all missing fields
+     * @return a list of BadRequestErrorResponse.Detail for all missing fields, empty (and shared) when the request is valid
      */
-    public static java.util.List<org.banking.service.model.BadRequestErrorResponse.Detail> validateCreateBankAccountRequestAll(org.banking.service.model.CreateBankAccountRequest request) {
-        java.util.List<org.banking.service.model.BadRequestErrorResponse.Detail> details = new java.util.ArrayList<>();
+    public static List<BadRequestErrorResponse.Detail> validateCreateBankAccountRequestAll(org.banking.service.model.CreateBankAccountRequest request) {
         if (request == null) {
-            details.add(new org.banking.service.model.BadRequestErrorResponse.Detail("request", "Request body is missing", "pattern"));
-            return details;
+            return List.of(new BadRequestErrorResponse.Detail("request", "Request body is missing", "pattern"));
         }
-        if (request.getName() == null || request.getName().trim().isEmpty()) {
-            details.add(new org.banking.service.model.BadRequestErrorResponse.Detail("name", "Missing required field: name", "pattern"));
+        List<BadRequestErrorResponse.Detail> details = Collections.emptyList();
+        if (request.getName() == null || Formats.isBlank(request.getName())) {
+            details = add(details, new BadRequestErrorResponse.Detail("name", "Missing required field: name", "pattern"));
         }
-        if (request.getAccountType() == null || request.getAccountType().trim().isEmpty()) {
-            details.add(new org.banking.service.model.BadRequestErrorResponse.Detail("accountType", "Missing required field: accountType", "pattern"));
+        if (request.getAccountType() == null || Formats.isBlank(request.getAccountType())) {
+            details = add(details, new BadRequestErrorResponse.Detail("accountType", "Missing required field: accountType", "pattern"));
         } else if (!"personal".equalsIgnoreCase(request.getAccountType())) {
-            details.add(new org.banking.service.model.BadRequestErrorResponse.Detail("accountType", "Invalid accountType: only 'personal' is allowed", "pattern"));
+            details = add(details, new BadRequestErrorResponse.Detail("accountType", "Invalid accountType: only 'personal' is allowed", "pattern"));
         }
         return details;
     }
@@ -219,23 +312,67 @@ public class ValidationUtil {
     /**
      * Validates a CreateTransactionRequest for required fields and returns a list of error details for all missing/invalid fields.
      * @param request the CreateTransactionRequest to validate
-     * @return a list of BadRequestErrorResponse.Detail for all missing/invalid fields
+     * @return a list of BadRequestErrorResponse.Detail for all missing/invalid fields, empty (and shared) when the request is valid
      */
     public static List<BadRequestErrorResponse.Detail> validateCreateTransactionRequestAll(CreateTransactionRequest request) {
-        List<BadRequestErrorResponse.Detail> details = new ArrayList<>();
         if (request == null) {
-            details.add(new BadRequestErrorResponse.Detail("request", "Request body is missing", "pattern"));
-            return details;
+            return List.of(new BadRequestErrorResponse.Detail("request", "Request body is missing", "pattern"));
         }
+        List<BadRequestErrorResponse.Detail> details = Collections.emptyList();
         if (request.getAmount() == null || request.getAmount() <= 0) {
-            details.add(new BadRequestErrorResponse.Detail("amount", "Missing or invalid required field: amount", "missing"));
+            details = add(details, new BadRequestErrorResponse.Detail("amount", "Missing or invalid required field: amount", "missing"));
+        } else if (!MoneyUtil.isValidAmount(request.getAmount())) {
+            details = add(details, new BadRequestErrorResponse.Detail("amount", AMOUNT_OUT_OF_RANGE, "pattern"));
         }
         if (request.getCurrency() == null || !"GBP".equals(request.getCurrency())) {
-            details.add(new BadRequestErrorResponse.Detail("currency", "Missing or invalid required field: currency", "missing"));
+            details = add(details, new BadRequestErrorResponse.Detail("currency", "Missing or invalid required field: currency", "missing"));
         }
         if (request.getType() == null || !("deposit".equalsIgnoreCase(request.getType()) || "withdrawal".equalsIgnoreCase(request.getType()))) {
-            details.add(new BadRequestErrorResponse.Detail("type", "Missing or invalid required field: type", "missing"));
+            details = add(details, new BadRequestErrorResponse.Detail("type", "Missing or invalid required field: type", "missing"));
+        }
+        return details;
+    }
+
+    /**
+     * Validates a TransferRequest and returns a list of error details for all missing/invalid fields.
+     * @param request the TransferRequest to validate
+     * @return a list of BadRequestErrorResponse.Detail for all missing/invalid fields, empty (and shared) when the request is valid
+     */
+    public static List<BadRequestErrorResponse.Detail> validateTransferRequestAll(TransferRequest request) {
+        if (request == null) {
+            return List.of(new BadRequestErrorResponse.Detail("request", "Request body is missing", "pattern"));
+        }
+        List<BadRequestErrorResponse.Detail> details = Collections.emptyList();
+        if (request.getFromAccountNumber() == null || !Formats.isAccountNumber(request.getFromAccountNumber())) {
+            details = add(details, new BadRequestErrorResponse.Detail("fromAccountNumber", "Missing or invalid required field: fromAccountNumber", "missing"));
+        }
+        if (request.getToAccountNumber() == null || !Formats.isAccountNumber(request.getToAccountNumber())) {
+            details = add(details, new BadRequestErrorResponse.Detail("toAccountNumber", "Missing or invalid required field: toAccountNumber", "missing"));
+        } else if (request.getToAccountNumber().equals(request.getFromAccountNumber())) {
+            details = add(details, new BadRequestErrorResponse.Detail("toAccountNumber", "Invalid toAccountNumber: must differ from fromAccountNumber", "pattern"));
+        }
+        if (request.getAmount() == null || request.getAmount() <= 0) {
+            details = add(details, new BadRequestErrorResponse.Detail("amount", "Missing or invalid required field: amount", "missing"));
+        } else if (!MoneyUtil.isValidAmount(request.getAmount())) {
+            details = add(details, new BadRequestErrorResponse.Detail("amount", AMOUNT_OUT_OF_RANGE, "pattern"));
+        }
+        if (request.getCurrency() == null || !"GBP".equals(request.getCurrency())) {
+            details = add(details, new BadRequestErrorResponse.Detail("currency", "Missing or invalid required field: currency", "missing"));
+        }
+        return details;
+    }
+
+    /**
+     * Appends an error detail, allocating the list only when the first error is found.
+     * @param details the details found so far, possibly the shared empty list
+     * @param detail the detail to append
+     * @return a mutable list containing the details
+     */
+    private static List<BadRequestErrorResponse.Detail> add(List<BadRequestErrorResponse.Detail> details, BadRequestErrorResponse.Detail detail) {
+        if (details.isEmpty()) {
+            details = new ArrayList<>(3);
         }
+        details.add(detail);
         return details;
     }
 } 
\ No newline at end of file
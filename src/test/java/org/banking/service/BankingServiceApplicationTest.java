@@ -0,0 +1,30 @@
+package org.banking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BankingServiceApplicationTest {
+
+    @Test
+    void testNewVirtualThreadPerTaskExecutor_dependsOnRuntime() throws Exception {
+        if (Runtime.version().feature() < 21) {
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> BankingServiceApplication.newVirtualThreadPerTaskExecutor("test-"));
+            assertTrue(ex.getMessage().contains("requires Java 21"));
+            return;
+        }
+        ExecutorService executor = BankingServiceApplication.newVirtualThreadPerTaskExecutor("test-");
+        try {
+            Future<Boolean> virtual = executor.submit(() -> (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+            Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+            assertTrue(virtual.get());
+            assertTrue(name.get().startsWith("test-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.banking.service.account;
 import org.banking.service.controller.AccountController;
 import org.banking.service.model.*;
 import org.banking.service.service.AccountService;
+import org.banking.service.service.LedgerService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -22,6 +23,8 @@ public class AccountControllerTest {
 
     @MockBean
     private AccountService accountService;
+    @MockBean
+    private LedgerService ledgerService;
 
     private String getAuthHeader() {
         return "Bearer " + JwtUtil.generateToken("usr-abc123");
@@ -120,6 +123,35 @@ public class AccountControllerTest {
                 .header("Authorization", getAuthHeader()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accountNumber").value("01000001"));
+        verify(accountService, times(1)).fetchAccount("01000001");
+    }
+
+    @Test
+    void testFetchAccount_otherUsersAccount() throws Exception {
+        BankAccountResponse resp = new BankAccountResponse();
+        resp.setAccountNumber("01000001");
+        resp.setUserId("usr-other");
+        when(accountService.fetchAccount("01000001")).thenReturn(resp);
+        mockMvc.perform(get("/v1/accounts/01000001")
+                .header("Authorization", getAuthHeader()))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("Forbidden: You can only access your own bank account"));
+    }
+
+    @Test
+    void testFetchAccount_notFound() throws Exception {
+        mockMvc.perform(get("/v1/accounts/01000001")
+                .header("Authorization", getAuthHeader()))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Account not found"));
+    }
+
+    @Test
+    void testListAccounts_invalidToken() throws Exception {
+        mockMvc.perform(get("/v1/accounts")
+                .header("Authorization", "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Access token is missing or invalid"));
     }
 
     @Test
@@ -138,7 +170,9 @@ public class AccountControllerTest {
         BankAccountResponse resp = new BankAccountResponse();
         resp.setAccountNumber("01000001");
         resp.setName("Updated");
-        when(accountService.updateAccount(eq("01000001"), any())).thenReturn(resp);
+        resp.setUserId("usr-abc123");
+        when(accountService.fetchAccount("01000001")).thenReturn(resp);
+        when(ledgerService.updateAccount(eq("01000001"), any())).thenReturn(resp);
         mockMvc.perform(patch("/v1/accounts/01000001")
                 .header("Authorization", getAuthHeader())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -147,8 +181,42 @@ public class AccountControllerTest {
                 .andExpect(jsonPath("$.name").value("Updated"));
     }
 
+    @Test
+    void testUpdateAccount_otherUsersAccount() throws Exception {
+        BankAccountResponse resp = new BankAccountResponse();
+        resp.setAccountNumber("01000001");
+        resp.setUserId("usr-other");
+        when(accountService.fetchAccount("01000001")).thenReturn(resp);
+        mockMvc.perform(patch("/v1/accounts/01000001")
+                .header("Authorization", getAuthHeader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Updated\"}"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("Forbidden: You can only access your own bank account"));
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void testUpdateAccount_invalidToken() throws Exception {
+        BankAccountResponse resp = new BankAccountResponse();
+        resp.setAccountNumber("01000001");
+        resp.setUserId("usr-abc123");
+        when(accountService.fetchAccount("01000001")).thenReturn(resp);
+        mockMvc.perform(patch("/v1/accounts/01000001")
+                .header("Authorization", "Bearer not-a-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Updated\"}"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Access token is missing or invalid"));
+        verifyNoInteractions(ledgerService);
+    }
+
     @Test
     void testUpdateAccount_invalidAccountType() throws Exception {
+        BankAccountResponse resp = new BankAccountResponse();
+        resp.setAccountNumber("01000001");
+        resp.setUserId("usr-abc123");
+        when(accountService.fetchAccount("01000001")).thenReturn(resp);
         mockMvc.perform(patch("/v1/accounts/01000001")
                 .header("Authorization", getAuthHeader())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -174,10 +242,10 @@ public class AccountControllerTest {
         resp.setAccountNumber("01000001");
         resp.setUserId("usr-abc123");
         when(accountService.fetchAccount("01000001")).thenReturn(resp);
-        doNothing().when(accountService).deleteAccount("01000001");
         mockMvc.perform(delete("/v1/accounts/01000001")
                 .header("Authorization", getAuthHeader()))
                 .andExpect(status().isNoContent());
+        verify(ledgerService).deleteAccount("01000001");
     }
 
     @Test
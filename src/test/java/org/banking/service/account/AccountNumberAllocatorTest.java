@@ -0,0 +1,42 @@
+package org.banking.service.account;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountNumberAllocatorTest {
+
+    @Test
+    void testNext_matchesAccountNumberFormat() {
+        AccountNumberAllocator allocator = new AccountNumberAllocator();
+        assertEquals("01000001", allocator.next());
+        assertTrue(allocator.next().matches("^01\\d{6}$"));
+    }
+
+    @Test
+    void testNext_neverRepeatsAcrossBlocks() {
+        AccountNumberAllocator allocator = new AccountNumberAllocator(4, 1);
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(seen.add(allocator.next()));
+        }
+    }
+
+    @Test
+    void testAdvancePast_skipsIssuedNumbers() {
+        AccountNumberAllocator allocator = new AccountNumberAllocator(1, 1);
+        allocator.advancePast(AccountNumberAllocator.sequenceOf("01000500"));
+        assertEquals("01000501", allocator.next());
+    }
+
+    @Test
+    void testNext_exhausted() {
+        AccountNumberAllocator allocator = new AccountNumberAllocator(1, 1);
+        allocator.advancePast(AccountNumberAllocator.MAX_SEQUENCE - 1);
+        assertEquals("01999999", allocator.next());
+        assertThrows(IllegalStateException.class, allocator::next);
+    }
+}
@@ -0,0 +1,138 @@
+package org.banking.service.account;
+
+import org.banking.service.model.BankAccountResponse;
+import org.banking.service.model.CreateBankAccountRequest;
+import org.banking.service.model.ListBankAccountsResponse;
+import org.banking.service.model.UpdateBankAccountRequest;
+import org.banking.service.service.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountServiceImplTest {
+    private AccountServiceImpl accountService;
+
+    private CreateBankAccountRequest createRequest() {
+        CreateBankAccountRequest req = new CreateBankAccountRequest();
+        req.setName("Test Account");
+        req.setAccountType("personal");
+        return req;
+    }
+
+    private List<String> accountNumbers(ListBankAccountsResponse response) {
+        return response.getAccounts().stream().map(BankAccountResponse::getAccountNumber).collect(Collectors.toList());
+    }
+
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountServiceImpl();
+    }
+
+    @Test
+    void testListAccounts_onlyReturnsOwnedAccounts() {
+        BankAccountResponse first = accountService.createAccount("usr-abc123", createRequest());
+        accountService.createAccount("usr-other", createRequest());
+        BankAccountResponse second = accountService.createAccount("usr-abc123", createRequest());
+
+        List<String> numbers = accountNumbers(accountService.listAccounts("usr-abc123"));
+        assertEquals(2, numbers.size());
+        assertTrue(numbers.containsAll(List.of(first.getAccountNumber(), second.getAccountNumber())));
+    }
+
+    @Test
+    void testListAccounts_unknownUser() {
+        accountService.createAccount("usr-abc123", createRequest());
+        assertTrue(accountService.listAccounts("usr-nobody").getAccounts().isEmpty());
+    }
+
+    @Test
+    void testListAccounts_excludesDeletedAccounts() {
+        BankAccountResponse kept = accountService.createAccount("usr-abc123", createRequest());
+        BankAccountResponse deleted = accountService.createAccount("usr-abc123", createRequest());
+        accountService.deleteAccount(deleted.getAccountNumber());
+
+        assertEquals(List.of(kept.getAccountNumber()), accountNumbers(accountService.listAccounts("usr-abc123")));
+
+        accountService.deleteAccount(kept.getAccountNumber());
+        assertTrue(accountService.listAccounts("usr-abc123").getAccounts().isEmpty());
+    }
+
+    @Test
+    void testCreateAccount_concurrentCreatesNeverCollide() throws Exception {
+        int threads = 64;
+        int perThread = 500;
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            String userId = "usr-" + t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    issued.add(accountService.createAccount(userId, createRequest()).getAccountNumber());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, issued.size());
+        for (int t = 0; t < threads; t++) {
+            assertEquals(perThread, accountService.listAccounts("usr-" + t).getAccounts().size());
+        }
+        for (String accountNumber : issued) {
+            assertTrue(accountNumber.matches("^01\\d{6}$"));
+            assertNotNull(accountService.fetchAccount(accountNumber));
+        }
+    }
+
+    @Test
+    void testListAccounts_servesCachedListUntilTheUsersAccountsChange() {
+        BankAccountResponse account = accountService.createAccount("usr-abc123", createRequest());
+        BankAccountResponse other = accountService.createAccount("usr-other", createRequest());
+        String number = account.getAccountNumber();
+
+        ListBankAccountsResponse first = accountService.listAccounts("usr-abc123");
+        assertSame(first, accountService.listAccounts("usr-abc123"));
+        assertThrows(UnsupportedOperationException.class, () -> first.getAccounts().clear());
+
+        // Changes to another user's accounts and failed balance operations leave the entry alone.
+        accountService.deposit(other.getAccountNumber(), 100);
+        assertEquals(AccountService.INSUFFICIENT_FUNDS, accountService.withdraw(number, 100));
+        assertSame(first, accountService.listAccounts("usr-abc123"));
+
+        accountService.deposit(number, 500);
+        ListBankAccountsResponse deposited = accountService.listAccounts("usr-abc123");
+        assertEquals(5.0, deposited.getAccounts().get(0).getBalance());
+
+        accountService.withdraw(number, 200);
+        assertEquals(3.0, accountService.listAccounts("usr-abc123").getAccounts().get(0).getBalance());
+
+        accountService.applyAll(number, new long[] {100});
+        assertEquals(4.0, accountService.listAccounts("usr-abc123").getAccounts().get(0).getBalance());
+
+        UpdateBankAccountRequest update = new UpdateBankAccountRequest();
+        update.setName("Renamed");
+        accountService.updateAccount(number, update);
+        assertEquals("Renamed", accountService.listAccounts("usr-abc123").getAccounts().get(0).getName());
+
+        BankAccountResponse created = accountService.createAccount("usr-abc123", createRequest());
+        assertEquals(2, accountService.listAccounts("usr-abc123").getAccounts().size());
+
+        accountService.deleteAccount(created.getAccountNumber());
+        assertEquals(List.of(number), accountNumbers(accountService.listAccounts("usr-abc123")));
+        assertEquals(2, accountService.accountListCache().hits());
+    }
+}
@@ -0,0 +1,103 @@
+package org.banking.service.account;
+
+import org.banking.service.service.AccountService;
+import org.banking.service.util.MoneyUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BalanceEngineTest {
+    private BalanceEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new BalanceEngine();
+        engine.open("01000001");
+    }
+
+    @Test
+    void testWithdraw_insufficientFunds() {
+        engine.deposit("01000001", 1000);
+        assertEquals(AccountService.INSUFFICIENT_FUNDS, engine.withdraw("01000001", 1001));
+        assertEquals(1000, engine.balance("01000001"));
+        assertEquals(0, engine.withdraw("01000001", 1000));
+    }
+
+    @Test
+    void testUnknownAccount() {
+        assertEquals(AccountService.ACCOUNT_NOT_FOUND, engine.deposit("01000002", 1));
+        assertEquals(AccountService.ACCOUNT_NOT_FOUND, engine.withdraw("01000002", 1));
+        engine.close("01000001");
+        assertEquals(AccountService.ACCOUNT_NOT_FOUND, engine.balance("01000001"));
+    }
+
+    @Test
+    void testApplyAll_checksEachWithdrawalAgainstRunningBalance() {
+        engine.deposit("01000001", 500);
+        long[] results = engine.applyAll("01000001", new long[] {-400, -200, 300, -200});
+        assertArrayEquals(new long[] {100, AccountService.INSUFFICIENT_FUNDS, 400, 200}, results);
+        assertEquals(200, engine.balance("01000001"));
+        assertNull(engine.applyAll("01000002", new long[] {100}));
+    }
+
+    @Test
+    void testApplyDebits_publishesOnlyTheNetDebit() {
+        engine.deposit("01000001", 500);
+        long[] results = engine.applyDebits("01000001", new long[] {300, -700, -200}, 0);
+        assertArrayEquals(new long[] {800, 100, AccountService.INSUFFICIENT_FUNDS}, results);
+        assertEquals(100, engine.balance("01000001"));
+        results = engine.applyDebits("01000001", new long[] {-100, 400}, 0);
+        assertArrayEquals(new long[] {0, 400}, results);
+        assertEquals(100, engine.balance("01000001"));
+        assertNull(engine.applyDebits("01000002", new long[] {100}, 0));
+    }
+
+    @Test
+    void testApplyDebits_refusesCreditsAboveTheBalanceLimit() {
+        engine.deposit("01000001", MoneyUtil.MAX_PENCE - 500);
+        long[] results = engine.applyDebits("01000001", new long[] {400, 200, -300, 200}, 100);
+        assertArrayEquals(new long[] {MoneyUtil.MAX_PENCE - 100, AccountService.BALANCE_LIMIT,
+                MoneyUtil.MAX_PENCE - 400, MoneyUtil.MAX_PENCE - 200}, results);
+        assertEquals(MoneyUtil.MAX_PENCE - 500, engine.balance("01000001"));
+        assertArrayEquals(new long[] {AccountService.BALANCE_LIMIT},
+                engine.applyAll("01000001", new long[] {MoneyUtil.MAX_PENCE}));
+    }
+
+    @Test
+    void testConcurrentUpdates_noLostUpdatesAndNeverNegative() throws Exception {
+        int threads = 16;
+        int perThread = 10_000;
+        AtomicInteger successfulWithdrawals = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            boolean depositor = t % 2 == 0;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    if (depositor) {
+                        engine.deposit("01000001", 3);
+                    } else {
+                        long result = engine.withdraw("01000001", 2);
+                        assertTrue(result >= 0 || result == AccountService.INSUFFICIENT_FUNDS);
+                        if (result >= 0) successfulWithdrawals.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        long deposited = 3L * perThread * (threads / 2);
+        assertEquals(deposited - 2L * successfulWithdrawals.get(), engine.balance("01000001"));
+    }
+}
@@ -0,0 +1,180 @@
+package org.banking.service.account;
+
+import org.banking.service.model.BankAccountResponse;
+import org.banking.service.service.AccountService;
+import org.banking.service.util.IdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapAccountStoreTest {
+    private OffHeapAccountStore store;
+
+    private BankAccountResponse account(int sequence, String userId, String name) {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber(AccountNumberAllocator.format(sequence));
+        account.setSortCode("10-10-10");
+        account.setName(name);
+        account.setAccountType("personal");
+        account.setCurrency("GBP");
+        account.setCreatedTimestamp(now);
+        account.setUpdatedTimestamp(now);
+        account.setUserId(userId);
+        return account;
+    }
+
+    private static Set<String> numbers(List<BankAccountResponse> accounts) {
+        return accounts.stream().map(BankAccountResponse::getAccountNumber).collect(Collectors.toSet());
+    }
+
+    @BeforeEach
+    void setUp() {
+        store = new OffHeapAccountStore("10-10-10", "GBP");
+    }
+
+    @Test
+    void testGet_readsBackEveryField() {
+        String longName = "A name that is far too long to fit in the fixed-width record itself";
+        List<BankAccountResponse> stored = List.of(
+                account(1, new IdGenerator(0).next("usr-"), "Main"),
+                account(2, "usr-abc123", "Épargne"),
+                account(3, "usr-abc123", longName),
+                account(4, "usr-abc123", null));
+        stored.get(3).setAccountType("PERSONAL");
+        for (BankAccountResponse account : stored) {
+            store.put(account);
+        }
+        for (BankAccountResponse account : stored) {
+            BankAccountResponse read = store.get(account.getAccountNumber());
+            assertEquals(account.getAccountNumber(), read.getAccountNumber());
+            assertEquals(account.getName(), read.getName());
+            assertEquals(account.getAccountType(), read.getAccountType());
+            assertEquals(account.getUserId(), read.getUserId());
+            assertEquals(account.getCreatedTimestamp(), read.getCreatedTimestamp());
+            assertEquals(account.getUpdatedTimestamp(), read.getUpdatedTimestamp());
+            assertEquals("10-10-10", read.getSortCode());
+            assertEquals("GBP", read.getCurrency());
+            assertEquals(0.0, read.getBalance());
+        }
+        assertNull(store.get("01000099"));
+        assertNull(store.get("not-an-account"));
+    }
+
+    @Test
+    void testList_followsCreatesUpdatesAndDeletesAcrossIndexGrowth() {
+        int accounts = 5_000;
+        for (int i = 1; i <= accounts; i++) {
+            store.put(account(i, "usr-" + (i % 50), "Account " + i));
+        }
+        for (int i = 1; i <= accounts; i += 3) {
+            assertTrue(store.remove(AccountNumberAllocator.format(i)));
+        }
+        assertFalse(store.remove(AccountNumberAllocator.format(1)));
+        for (int u = 0; u < 50; u++) {
+            Set<String> expected = new HashSet<>();
+            for (int i = 1; i <= accounts; i++) {
+                if (i % 50 == u && i % 3 != 1) expected.add(AccountNumberAllocator.format(i));
+            }
+            assertEquals(expected, numbers(store.list("usr-" + u)));
+        }
+        assertTrue(store.list("usr-nobody").isEmpty());
+
+        BankAccountResponse updated = store.update(AccountNumberAllocator.format(2), "Renamed", null,
+                OffsetDateTime.now());
+        assertEquals("Renamed", updated.getName());
+        assertEquals("personal", updated.getAccountType());
+        assertNull(store.update(AccountNumberAllocator.format(1), "Gone", null, OffsetDateTime.now()));
+
+        // Replaying a record for an existing account keeps its balance and may move it to another owner.
+        store.deposit(AccountNumberAllocator.format(2), 500);
+        store.put(account(2, "usr-moved", "Moved"));
+        assertEquals(5.0, store.get(AccountNumberAllocator.format(2)).getBalance());
+        assertEquals(Set.of(AccountNumberAllocator.format(2)), numbers(store.list("usr-moved")));
+        assertFalse(numbers(store.list("usr-2")).contains(AccountNumberAllocator.format(2)));
+    }
+
+    @Test
+    void testBalances_matchBalanceEngineContracts() {
+        store.put(account(1, "usr-abc123", "Main"));
+        assertEquals(1000, store.deposit("01000001", 1000));
+        assertEquals(AccountService.INSUFFICIENT_FUNDS, store.withdraw("01000001", 1001));
+        assertArrayEquals(new long[] {600, AccountService.INSUFFICIENT_FUNDS, 900},
+                store.applyAll("01000001", new long[] {-400, -700, 300}));
+        assertEquals(9.0, store.get("01000001").getBalance());
+        assertEquals(AccountService.ACCOUNT_NOT_FOUND, store.deposit("01000002", 1));
+        assertEquals(AccountService.ACCOUNT_NOT_FOUND, store.withdraw("01000002", 1));
+        assertNull(store.applyAll("01000002", new long[] {1}));
+        assertArrayEquals(new long[] {1200, 200}, store.applyDebits("01000001", new long[] {300, -1000}, 0));
+        assertEquals(2.0, store.get("01000001").getBalance());
+        assertArrayEquals(new long[] {700}, store.applyDebits("01000001", new long[] {500}, 0));
+        assertEquals(2.0, store.get("01000001").getBalance());
+        assertNull(store.applyDebits("01000002", new long[] {1}, 0));
+    }
+
+    @Test
+    void testConcurrentUpdates_readersNeverSeeTornDetails() throws Exception {
+        store.put(account(1, "usr-abc123", "aaaaaaaa"));
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        List<Future<?>> depositors = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            depositors.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20_000; i++) {
+                    store.deposit("01000001", 1);
+                }
+                return null;
+            }));
+        }
+        Future<?> updater = executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 20_000; i++) {
+                store.update("01000001", i % 2 == 0 ? "bb" : "aaaaaaaa", null, OffsetDateTime.now());
+            }
+            return null;
+        });
+        List<Future<?>> readers = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            readers.add(executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    String name = store.get("01000001").getName();
+                    assertTrue(name.equals("aaaaaaaa") || name.equals("bb"), name);
+                    assertEquals(1, store.list("usr-abc123").size());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            updater.get(30, TimeUnit.SECONDS);
+            for (Future<?> depositor : depositors) {
+                depositor.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdown();
+        }
+        for (Future<?> reader : readers) {
+            reader.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(400.0, store.get("01000001").getBalance());
+    }
+}
@@ -0,0 +1,42 @@
+package org.banking.service.auth;
+
+import org.banking.service.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthenticationFilterTest {
+    private final AuthenticationFilter filter = new AuthenticationFilter();
+
+    private MockHttpServletRequest filter(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/accounts");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertSame(request, chain.getRequest());
+        return request;
+    }
+
+    @Test
+    void testValidToken_setsPrincipal() throws Exception {
+        MockHttpServletRequest request = filter("Bearer " + JwtUtil.generateToken("usr-abc123"));
+        assertEquals("usr-abc123", request.getAttribute(AuthenticationFilter.PRINCIPAL));
+    }
+
+    @Test
+    void testInvalidToken_continuesWithoutPrincipal() throws Exception {
+        assertNull(filter("Bearer not-a-token").getAttribute(AuthenticationFilter.PRINCIPAL));
+    }
+
+    @Test
+    void testMissingOrMalformedHeader_continuesWithoutPrincipal() throws Exception {
+        assertNull(filter(null).getAttribute(AuthenticationFilter.PRINCIPAL));
+        assertNull(filter("Basic abc").getAttribute(AuthenticationFilter.PRINCIPAL));
+        assertNull(filter("Bearer ").getAttribute(AuthenticationFilter.PRINCIPAL));
+    }
+}
@@ -0,0 +1,448 @@
+package org.banking.service.ledger;
+
+import org.banking.service.account.AccountServiceImpl;
+import org.banking.service.model.BankAccountResponse;
+import org.banking.service.model.CreateBankAccountRequest;
+import org.banking.service.model.CreateTransactionRequest;
+import org.banking.service.model.TransactionResponse;
+import org.banking.service.model.TransferRequest;
+import org.banking.service.model.TransferResponse;
+import org.banking.service.model.UpdateBankAccountRequest;
+import org.banking.service.storage.Journal;
+import org.banking.service.storage.Journaled;
+import org.banking.service.transactions.TransactionServiceImpl;
+import org.banking.service.util.ErrorCode;
+import org.banking.service.util.MoneyUtil;
+import org.banking.service.util.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedLedgerTest {
+    private AccountServiceImpl accountService;
+    private TransactionServiceImpl transactionService;
+    private PartitionedLedger ledger;
+    private FailingJournal journal;
+    private FailingJournal accountJournal;
+
+    private CreateTransactionRequest request(double amount, String type) {
+        CreateTransactionRequest req = new CreateTransactionRequest();
+        req.setAmount(amount);
+        req.setCurrency("GBP");
+        req.setType(type);
+        return req;
+    }
+
+    private String createAccount() {
+        CreateBankAccountRequest req = new CreateBankAccountRequest();
+        req.setName("Test Account");
+        req.setAccountType("personal");
+        return accountService.createAccount("usr-abc123", req).getAccountNumber();
+    }
+
+    private TransferRequest transfer(String from, String to, double amount) {
+        TransferRequest req = new TransferRequest();
+        req.setFromAccountNumber(from);
+        req.setToAccountNumber(to);
+        req.setAmount(amount);
+        req.setCurrency("GBP");
+        return req;
+    }
+
+    private double recordedBalance(String accountNumber) {
+        double balance = 0;
+        for (TransactionResponse tx : transactionService.transactionHistory(accountNumber)) {
+            balance += "withdrawal".equals(tx.getType()) ? -tx.getAmount() : tx.getAmount();
+        }
+        return balance;
+    }
+
+    @BeforeEach
+    void setUp() {
+        accountJournal = new FailingJournal();
+        accountService = new AccountServiceImpl(accountJournal);
+        journal = new FailingJournal();
+        transactionService = new TransactionServiceImpl(journal);
+        ledger = new PartitionedLedger(accountService, transactionService, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.close();
+    }
+
+    @Test
+    void testPartitionOf_spreadsAccountNumbersEvenly() {
+        int[] counts = new int[8];
+        for (int i = 1; i <= 8_000; i++) {
+            counts[PartitionedLedger.partitionOf(String.format("01%06d", i), counts.length)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 800 && count < 1200, Arrays.toString(counts));
+        }
+    }
+
+    @Test
+    void testCreateTransaction_appliesBalanceAndRecords() {
+        String accountNumber = createAccount();
+        TransactionResponse deposit = ledger.createTransaction(accountNumber, request(25.0, "deposit"));
+        TransactionResponse withdrawal = ledger.createTransaction(accountNumber, request(10.5, "withdrawal"));
+
+        assertEquals(14.5, accountService.fetchAccount(accountNumber).getBalance());
+        assertEquals(List.of(deposit, withdrawal), transactionService.transactionHistory(accountNumber));
+
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> ledger.createTransaction(accountNumber, request(20.0, "withdrawal")));
+        assertEquals(ErrorCode.UNPROCESSABLE, ex.getCode());
+        ex = assertThrows(ValidationException.class, () -> ledger.createTransaction("01999999", request(1.0, "deposit")));
+        assertEquals(ErrorCode.NOT_FOUND, ex.getCode());
+        assertEquals(2, transactionService.transactionHistory(accountNumber).size());
+    }
+
+    @Test
+    void testSubmitTransactions_refusesOnlyUncoveredWithdrawals() {
+        String accountNumber = createAccount();
+        List<TransactionResponse> created = ledger.submitTransactions(accountNumber, List.of(
+                request(5.0, "deposit"), request(6.0, "withdrawal"), request(5.0, "withdrawal"))).join();
+        assertNotNull(created.get(0));
+        assertNull(created.get(1));
+        assertNotNull(created.get(2));
+        assertEquals(0.0, accountService.fetchAccount(accountNumber).getBalance());
+        assertNull(ledger.submitTransactions("01999999", List.of(request(1.0, "deposit"))).join());
+    }
+
+    @Test
+    void testDeleteAccount_ordersAfterQueuedTransactions() {
+        String accountNumber = createAccount();
+        List<CompletableFuture<List<TransactionResponse>>> before = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            before.add(ledger.submitTransactions(accountNumber, List.of(request(1.0, "deposit"))));
+        }
+        ledger.deleteAccount(accountNumber);
+        List<TransactionResponse> after = ledger.submitTransactions(accountNumber, List.of(request(1.0, "deposit"))).join();
+
+        for (CompletableFuture<List<TransactionResponse>> future : before) {
+            assertNotNull(future.join().get(0));
+        }
+        assertNull(after);
+        assertNull(accountService.fetchAccount(accountNumber));
+        assertEquals(100, transactionService.transactionHistory(accountNumber).size());
+    }
+
+    @Test
+    void testConcurrentCommands_balancesMatchRecordedTransactions() throws Exception {
+        List<String> accounts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            accounts.add(createAccount());
+        }
+        int threads = 8;
+        int perThread = 2_000;
+        AtomicLong refused = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    String accountNumber = accounts.get((thread + i) % accounts.size());
+                    if (i % 100 == 0) {
+                        UpdateBankAccountRequest rename = new UpdateBankAccountRequest();
+                        rename.setName("Renamed " + thread + "-" + i);
+                        assertNotNull(ledger.updateAccount(accountNumber, rename));
+                    }
+                    boolean withdrawal = i % 3 == 0;
+                    try {
+                        ledger.createTransaction(accountNumber, request(withdrawal ? 2.0 : 1.0, withdrawal ? "withdrawal" : "deposit"));
+                    } catch (ValidationException ex) {
+                        assertEquals(ErrorCode.UNPROCESSABLE, ex.getCode());
+                        refused.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        long recorded = 0;
+        for (String accountNumber : accounts) {
+            recorded += transactionService.transactionHistory(accountNumber).size();
+            assertEquals(recordedBalance(accountNumber), accountService.fetchAccount(accountNumber).getBalance(), 1e-9);
+            assertTrue(accountService.fetchAccount(accountNumber).getBalance() >= 0);
+        }
+        assertEquals((long) threads * perThread, recorded + refused.get());
+    }
+
+    @Test
+    void testTransfer_withinAndAcrossPartitions() {
+        String from = createAccount();
+        String samePartition = null;
+        String otherPartition = null;
+        while (samePartition == null || otherPartition == null) {
+            String accountNumber = createAccount();
+            boolean same = PartitionedLedger.partitionOf(accountNumber, 4) == PartitionedLedger.partitionOf(from, 4);
+            if (same && samePartition == null) samePartition = accountNumber;
+            if (!same && otherPartition == null) otherPartition = accountNumber;
+        }
+        ledger.createTransaction(from, request(100.0, "deposit"));
+
+        TransferResponse local = ledger.transfer(transfer(from, samePartition, 30.0));
+        TransferResponse remote = ledger.transfer(transfer(from, otherPartition, 45.5));
+        ledger.transfer(transfer(otherPartition, from, 0.5));
+
+        assertEquals("withdrawal", local.getWithdrawal().getType());
+        assertEquals("deposit", remote.getDeposit().getType());
+        assertEquals(25.0, accountService.fetchAccount(from).getBalance());
+        assertEquals(30.0, accountService.fetchAccount(samePartition).getBalance());
+        assertEquals(45.0, accountService.fetchAccount(otherPartition).getBalance());
+        assertEquals(List.of(local.getDeposit()), transactionService.transactionHistory(samePartition));
+        assertEquals(25.0, recordedBalance(from));
+    }
+
+    @Test
+    void testTransfer_refusedWithoutChangingEitherAccount() {
+        String from = createAccount();
+        String to = createAccount();
+        ledger.createTransaction(from, request(10.0, "deposit"));
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> ledger.transfer(transfer(from, to, 10.01)));
+        assertEquals(ErrorCode.UNPROCESSABLE, ex.getCode());
+        ex = assertThrows(ValidationException.class, () -> ledger.transfer(transfer(from, "01999999", 5.0)));
+        assertEquals(ErrorCode.NOT_FOUND, ex.getCode());
+        ex = assertThrows(ValidationException.class, () -> ledger.transfer(transfer("01999999", to, 5.0)));
+        assertEquals(ErrorCode.NOT_FOUND, ex.getCode());
+
+        assertEquals(10.0, accountService.fetchAccount(from).getBalance());
+        assertEquals(0.0, accountService.fetchAccount(to).getBalance());
+        assertEquals(1, transactionService.transactionHistory(from).size());
+        assertTrue(transactionService.transactionHistory(to).isEmpty());
+    }
+
+    @Test
+    void testConcurrentTransfers_conserveMoneyWithoutDeadlock() throws Exception {
+        List<String> accounts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            String accountNumber = createAccount();
+            ledger.createTransaction(accountNumber, request(100.0, "deposit"));
+            accounts.add(accountNumber);
+        }
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2_000; i++) {
+                    int from = random.nextInt(accounts.size());
+                    int to = (from + 1 + random.nextInt(accounts.size() - 1)) % accounts.size();
+                    try {
+                        ledger.transfer(transfer(accounts.get(from), accounts.get(to), 1 + random.nextInt(50)));
+                    } catch (ValidationException ex) {
+                        assertEquals(ErrorCode.UNPROCESSABLE, ex.getCode());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        double total = 0;
+        for (String accountNumber : accounts) {
+            double balance = accountService.fetchAccount(accountNumber).getBalance();
+            assertTrue(balance >= 0);
+            assertEquals(recordedBalance(accountNumber), balance, 1e-9);
+            total += balance;
+        }
+        assertEquals(1_600.0, total, 1e-9);
+    }
+
+    @Test
+    void testClose_rejectsNewCommands() {
+        String accountNumber = createAccount();
+        ledger.close();
+        assertThrows(IllegalStateException.class, () -> ledger.createTransaction(accountNumber, request(1.0, "deposit")));
+    }
+
+    @Test
+    void testJournalFailure_reversesTransactions() {
+        String accountNumber = createAccount();
+        ledger.createTransaction(accountNumber, request(10.0, "deposit"));
+
+        journal.failing = true;
+        CompletionException ex = assertThrows(CompletionException.class, () -> ledger.submitTransactions(accountNumber,
+                List.of(request(5.0, "deposit"), request(12.0, "withdrawal"))).join());
+        assertInstanceOf(UncheckedIOException.class, ex.getCause());
+        journal.failing = false;
+        ledger.createTransaction(accountNumber, request(1.0, "deposit"));
+
+        assertEquals(11.0, accountService.fetchAccount(accountNumber).getBalance());
+        assertEquals(11.0, recordedBalance(accountNumber));
+    }
+
+    @Test
+    void testJournalFailure_depositIsNeverSpentBeforeItIsRecorded() throws Exception {
+        String accountNumber = createAccount();
+        ledger.createTransaction(accountNumber, request(10.0, "deposit"));
+
+        journal.gate = new CompletableFuture<>();
+        CompletableFuture<List<TransactionResponse>> deposit = ledger.submitTransactions(accountNumber,
+                List.of(request(50.0, "deposit")));
+        List<TransactionResponse> spent = ledger.submitTransactions(accountNumber,
+                List.of(request(30.0, "withdrawal"))).get(10, TimeUnit.SECONDS);
+        assertNull(spent.get(0));
+        assertEquals(10.0, accountService.fetchAccount(accountNumber).getBalance());
+        CompletableFuture<Void> gate = journal.gate;
+        journal.gate = null;
+        gate.completeExceptionally(new UncheckedIOException(new IOException("Injected journal failure")));
+
+        CompletionException ex = assertThrows(CompletionException.class, deposit::join);
+        assertInstanceOf(UncheckedIOException.class, ex.getCause());
+        ledger.createTransaction(accountNumber, request(1.0, "deposit"));
+        assertEquals(11.0, accountService.fetchAccount(accountNumber).getBalance());
+        assertEquals(11.0, recordedBalance(accountNumber));
+    }
+
+    @Test
+    void testBalanceLimit_countsCreditsNotYetRecorded() throws Exception {
+        String accountNumber = createAccount();
+        String other = createAccount();
+        ledger.createTransaction(accountNumber, request(MoneyUtil.toPounds(MoneyUtil.MAX_PENCE - 1_000), "deposit"));
+        ledger.createTransaction(other, request(5.0, "deposit"));
+
+        journal.gate = new CompletableFuture<>();
+        CompletableFuture<List<TransactionResponse>> held = ledger.submitTransactions(accountNumber,
+                List.of(request(6.0, "deposit")));
+        List<TransactionResponse> refused = ledger.submitTransactions(accountNumber,
+                List.of(request(5.0, "deposit"))).get(10, TimeUnit.SECONDS);
+        assertNull(refused.get(0));
+        CompletableFuture<Void> gate = journal.gate;
+        journal.gate = null;
+        gate.complete(null);
+        assertNotNull(held.get(10, TimeUnit.SECONDS).get(0));
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> ledger.transfer(transfer(other, accountNumber, 5.0)));
+        assertEquals(ErrorCode.UNPROCESSABLE, ex.getCode());
+        assertEquals(5.0, accountService.fetchAccount(other).getBalance());
+        ledger.createTransaction(accountNumber, request(4.0, "deposit"));
+        assertEquals(MoneyUtil.toPounds(MoneyUtil.MAX_PENCE), accountService.fetchAccount(accountNumber).getBalance());
+        assertEquals(MoneyUtil.toPounds(MoneyUtil.MAX_PENCE), recordedBalance(accountNumber));
+    }
+
+    @Test
+    void testJournalFailure_reversesBothLegsOfTransfers() {
+        String from = createAccount();
+        String to = createAccount();
+        while (PartitionedLedger.partitionOf(to, 4) == PartitionedLedger.partitionOf(from, 4)) {
+            to = createAccount();
+        }
+        String other = to;
+        ledger.createTransaction(from, request(100.0, "deposit"));
+
+        journal.failing = true;
+        assertThrows(UncheckedIOException.class, () -> ledger.transfer(transfer(from, other, 30.0)));
+        journal.failing = false;
+        ledger.createTransaction(from, request(1.0, "deposit"));
+        ledger.createTransaction(other, request(1.0, "deposit"));
+
+        assertEquals(101.0, accountService.fetchAccount(from).getBalance());
+        assertEquals(1.0, accountService.fetchAccount(other).getBalance());
+        assertEquals(101.0, recordedBalance(from));
+        assertEquals(1.0, recordedBalance(other));
+    }
+
+    @Test
+    void testUpdateAccount_doesNotHoldUpTheWorkerWhileJournalled() throws Exception {
+        String accountNumber = createAccount();
+        UpdateBankAccountRequest rename = new UpdateBankAccountRequest();
+        rename.setName("Renamed");
+
+        accountJournal.gate = new CompletableFuture<>();
+        CompletableFuture<BankAccountResponse> updated = CompletableFuture.supplyAsync(() -> ledger.updateAccount(accountNumber, rename));
+        ledger.createTransaction(accountNumber, request(1.0, "deposit"));
+        assertFalse(updated.isDone());
+        accountJournal.gate.complete(null);
+
+        assertEquals("Renamed", updated.get(10, TimeUnit.SECONDS).getName());
+        assertEquals(1.0, accountService.fetchAccount(accountNumber).getBalance());
+    }
+
+    @Test
+    void testJournalFailure_undoesUpdatesAndDeletions() {
+        String accountNumber = createAccount();
+        ledger.createTransaction(accountNumber, request(10.0, "deposit"));
+        UpdateBankAccountRequest rename = new UpdateBankAccountRequest();
+        rename.setName("Renamed");
+
+        accountJournal.failing = true;
+        assertThrows(UncheckedIOException.class, () -> ledger.updateAccount(accountNumber, rename));
+        assertEquals("Test Account", accountService.fetchAccount(accountNumber).getName());
+        assertThrows(UncheckedIOException.class, () -> ledger.deleteAccount(accountNumber));
+        assertEquals(10.0, accountService.fetchAccount(accountNumber).getBalance());
+        assertEquals(1, accountService.listAccounts("usr-abc123").getAccounts().size());
+
+        accountJournal.failing = false;
+        assertEquals("Renamed", ledger.updateAccount(accountNumber, rename).getName());
+        ledger.deleteAccount(accountNumber);
+        assertNull(accountService.fetchAccount(accountNumber));
+    }
+
+    /**
+     * Journal that records nothing and, while failing, fails appends from another thread as a
+     * write-ahead log's committer would.
+     */
+    private static final class FailingJournal implements Journal {
+        private volatile boolean failing;
+        /** If set, asynchronous appends complete only once it does. */
+        private volatile CompletableFuture<Void> gate;
+
+        @Override
+        public void append(byte type, byte[] payload) {
+            if (failing) throw new UncheckedIOException(new IOException("Injected journal failure"));
+        }
+
+        @Override
+        public CompletableFuture<Void> appendAllAsync(byte type, List<byte[]> payloads) {
+            if (gate != null) return gate.thenRun(() -> { });
+            if (!failing) return CompletableFuture.completedFuture(null);
+            return CompletableFuture.runAsync(() -> {
+                throw new UncheckedIOException(new IOException("Injected journal failure"));
+            });
+        }
+
+        @Override
+        public void replay(Journaled handler) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.banking.service.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseSerializersTest {
+    private final ObjectMapper reflective = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    private final ObjectMapper streaming = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(ResponseSerializers.module()).build();
+
+    private void assertSameJson(Object value) throws Exception {
+        assertEquals(reflective.writeValueAsString(value), streaming.writeValueAsString(value));
+    }
+
+    private TransactionResponse transaction(int i) {
+        TransactionResponse transaction = new TransactionResponse();
+        transaction.setId("tan-" + i);
+        transaction.setAmount(i * 1.01);
+        transaction.setCurrency("GBP");
+        transaction.setType(i % 2 == 0 ? "deposit" : "withdrawal");
+        transaction.setReference(i % 3 == 0 ? null : "Ref \"" + i + "\" é\n");
+        transaction.setUserId("usr-abc123");
+        transaction.setCreatedTimestamp(OffsetDateTime.of(2024, 5, 1, 9, 30, i % 60, i * 1_000_000, ZoneOffset.ofHours(i % 3)));
+        return transaction;
+    }
+
+    private BankAccountResponse account(String accountNumber) {
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber(accountNumber);
+        account.setSortCode("10-10-10");
+        account.setName("Main");
+        account.setAccountType("personal");
+        account.setBalance(1234.56);
+        account.setCurrency("GBP");
+        account.setCreatedTimestamp(OffsetDateTime.now());
+        account.setUserId("usr-abc123");
+        return account;
+    }
+
+    @Test
+    void testTransactions_matchBeanSerialization() throws Exception {
+        List<TransactionResponse> transactions = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            transactions.add(transaction(i));
+            assertSameJson(transaction(i));
+        }
+        ListTransactionsResponse page = new ListTransactionsResponse();
+        assertSameJson(page);
+        page.setTransactions(transactions);
+        assertSameJson(page);
+        page.setNextCursor("abc");
+        assertSameJson(page);
+        assertSameJson(new TransactionResponse());
+    }
+
+    @Test
+    void testAccounts_matchBeanSerialization() throws Exception {
+        ListBankAccountsResponse list = new ListBankAccountsResponse();
+        assertSameJson(list);
+        list.setAccounts(Arrays.asList(account("01000001"), new BankAccountResponse(), null));
+        assertSameJson(list);
+    }
+
+    @Test
+    void testUsers_matchBeanSerialization() throws Exception {
+        UserResponse user = new UserResponse();
+        assertSameJson(user);
+        user.setId("usr-abc123");
+        user.setName("Alice");
+        UserResponse.Address address = new UserResponse.Address();
+        address.setLine1("1 High Street");
+        address.setTown("London");
+        address.setCounty("Greater London");
+        address.setPostcode("SW1A 1AA");
+        user.setAddress(address);
+        user.setPhoneNumber("+441234567890");
+        user.setEmail("alice@example.com");
+        user.setCreatedTimestamp(OffsetDateTime.now());
+        user.setUpdatedTimestamp(OffsetDateTime.now(ZoneOffset.ofHoursMinutes(5, 30)));
+        assertSameJson(user);
+    }
+}
@@ -0,0 +1,84 @@
+package org.banking.service.storage;
+
+import org.banking.service.account.AccountServiceImpl;
+import org.banking.service.model.*;
+import org.banking.service.transactions.TransactionServiceImpl;
+import org.banking.service.user.UserServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalRecoveryTest {
+    @TempDir
+    Path dir;
+
+    private CreateTransactionRequest transaction(double amount, String type) {
+        CreateTransactionRequest req = new CreateTransactionRequest();
+        req.setAmount(amount);
+        req.setCurrency("GBP");
+        req.setType(type);
+        req.setReference("ref");
+        return req;
+    }
+
+    @Test
+    void testRestart_restoresUsersAccountsAndTransactions() throws IOException {
+        Path file = dir.resolve("banking.wal");
+        String userId;
+        String keptAccount;
+        String deletedAccount;
+        String transactionId;
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            AccountServiceImpl accounts = new AccountServiceImpl(wal);
+            TransactionServiceImpl transactions = new TransactionServiceImpl(wal);
+            UserServiceImpl users = new UserServiceImpl(accounts, wal);
+
+            CreateUserRequest userRequest = new CreateUserRequest();
+            userRequest.setName("Alice");
+            userRequest.setPhoneNumber("+441234567890");
+            userRequest.setEmail("alice@example.com");
+            userId = users.createUser(userRequest).getId();
+            UpdateUserRequest update = new UpdateUserRequest();
+            update.setName("Alice Smith");
+            users.updateUser(userId, update);
+
+            CreateBankAccountRequest accountRequest = new CreateBankAccountRequest();
+            accountRequest.setName("Main");
+            accountRequest.setAccountType("personal");
+            keptAccount = accounts.createAccount(userId, accountRequest).getAccountNumber();
+            deletedAccount = accounts.createAccount(userId, accountRequest).getAccountNumber();
+            accounts.deleteAccount(deletedAccount);
+
+            accounts.deposit(keptAccount, 10_000);
+            transactionId = transactions.createTransaction(keptAccount, transaction(100.0, "deposit")).getId();
+            accounts.withdraw(keptAccount, 2_550);
+            transactions.createTransaction(keptAccount, transaction(25.5, "withdrawal"));
+        }
+
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            AccountServiceImpl accounts = new AccountServiceImpl(wal);
+            TransactionServiceImpl transactions = new TransactionServiceImpl(wal);
+            UserServiceImpl users = new UserServiceImpl(accounts, wal);
+            new JournalRecovery(wal, List.of(users, accounts, transactions)).afterSingletonsInstantiated();
+
+            assertEquals("Alice Smith", users.fetchUser(userId).getName());
+            assertEquals(74.5, accounts.fetchAccount(keptAccount).getBalance());
+            assertNull(accounts.fetchAccount(deletedAccount));
+            assertEquals(1, accounts.listAccounts(userId).getAccounts().size());
+            assertEquals(2, transactions.listTransactions(keptAccount).getTransactions().size());
+            assertEquals("ref", transactions.fetchTransaction(keptAccount, transactionId).getReference());
+
+            CreateBankAccountRequest accountRequest = new CreateBankAccountRequest();
+            accountRequest.setName("Second");
+            accountRequest.setAccountType("personal");
+            String next = accounts.createAccount(userId, accountRequest).getAccountNumber();
+            assertTrue(next.compareTo(deletedAccount) > 0);
+        }
+    }
+}
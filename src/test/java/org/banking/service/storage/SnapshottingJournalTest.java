@@ -0,0 +1,271 @@
+package org.banking.service.storage;
+
+import org.banking.service.account.AccountServiceImpl;
+import org.banking.service.model.*;
+import org.banking.service.transactions.TransactionServiceImpl;
+import org.banking.service.user.UserServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshottingJournalTest {
+    @TempDir
+    Path dir;
+
+    private Path walFile() {
+        return dir.resolve("banking.wal");
+    }
+
+    private Path snapshotFile() {
+        return dir.resolve("banking.snapshot");
+    }
+
+    private SnapshottingJournal open() throws IOException {
+        return SnapshottingJournal.open(walFile(), Duration.ZERO, snapshotFile(), Duration.ZERO);
+    }
+
+    private CreateTransactionRequest transaction(double amount, String type) {
+        CreateTransactionRequest req = new CreateTransactionRequest();
+        req.setAmount(amount);
+        req.setCurrency("GBP");
+        req.setType(type);
+        req.setReference("ref");
+        return req;
+    }
+
+    private CreateBankAccountRequest account(String name) {
+        CreateBankAccountRequest req = new CreateBankAccountRequest();
+        req.setName(name);
+        req.setAccountType("personal");
+        return req;
+    }
+
+    private CreateUserRequest user(String name) {
+        CreateUserRequest req = new CreateUserRequest();
+        req.setName(name);
+        req.setPhoneNumber("+441234567890");
+        req.setEmail("alice@example.com");
+        return req;
+    }
+
+    private void deposit(AccountServiceImpl accounts, TransactionServiceImpl transactions, String accountNumber, long pence) {
+        accounts.deposit(accountNumber, pence);
+        transactions.createTransaction(accountNumber, transaction(pence / 100.0, "deposit"));
+    }
+
+    @Test
+    void testRestart_loadsSnapshotThenLogTail() throws IOException {
+        String userId;
+        String keptAccount;
+        String deletedAccount;
+        try (SnapshottingJournal journal = open()) {
+            AccountServiceImpl accounts = new AccountServiceImpl(journal);
+            TransactionServiceImpl transactions = new TransactionServiceImpl(journal);
+            UserServiceImpl users = new UserServiceImpl(accounts, journal);
+
+            userId = users.createUser(user("Alice")).getId();
+            for (int i = 0; i < 5; i++) {
+                UpdateUserRequest update = new UpdateUserRequest();
+                update.setName("Alice " + i);
+                users.updateUser(userId, update);
+            }
+            keptAccount = accounts.createAccount(userId, account("Main")).getAccountNumber();
+            deletedAccount = accounts.createAccount(userId, account("Spare")).getAccountNumber();
+            deposit(accounts, transactions, keptAccount, 10_000);
+            assertTrue(journal.snapshot());
+            assertFalse(journal.snapshot());
+
+            accounts.deleteAccount(deletedAccount);
+            deposit(accounts, transactions, keptAccount, 250);
+            assertTrue(journal.snapshot());
+
+            UpdateUserRequest update = new UpdateUserRequest();
+            update.setName("Alice Smith");
+            users.updateUser(userId, update);
+            deposit(accounts, transactions, keptAccount, 5);
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(walFile(), Duration.ZERO)) {
+            List<Byte> tail = new ArrayList<>();
+            wal.replay(wal.start(), (type, record) -> tail.add(type));
+            assertEquals(List.of(RecordType.USER, RecordType.TRANSACTION), tail);
+        }
+
+        try (SnapshottingJournal journal = open()) {
+            AccountServiceImpl accounts = new AccountServiceImpl(journal);
+            TransactionServiceImpl transactions = new TransactionServiceImpl(journal);
+            UserServiceImpl users = new UserServiceImpl(accounts, journal);
+            new JournalRecovery(journal, List.of(users, accounts, transactions)).afterSingletonsInstantiated();
+
+            assertEquals("Alice Smith", users.fetchUser(userId).getName());
+            assertEquals(102.55, accounts.fetchAccount(keptAccount).getBalance());
+            assertNull(accounts.fetchAccount(deletedAccount));
+            assertEquals(3, transactions.listTransactions(keptAccount).getTransactions().size());
+            String next = accounts.createAccount(userId, account("Second")).getAccountNumber();
+            assertTrue(next.compareTo(deletedAccount) > 0);
+        }
+    }
+
+    @Test
+    void testRestart_restoresBothLegsOfTransfers() throws IOException {
+        String from;
+        String to;
+        try (SnapshottingJournal journal = open()) {
+            AccountServiceImpl accounts = new AccountServiceImpl(journal);
+            TransactionServiceImpl transactions = new TransactionServiceImpl(journal);
+            from = accounts.createAccount("usr-abc123", account("Main")).getAccountNumber();
+            to = accounts.createAccount("usr-abc123", account("Savings")).getAccountNumber();
+            deposit(accounts, transactions, from, 10_000);
+
+            TransferRequest transfer = new TransferRequest();
+            transfer.setFromAccountNumber(from);
+            transfer.setToAccountNumber(to);
+            transfer.setAmount(30.0);
+            transfer.setCurrency("GBP");
+            transfer.setReference("rent");
+            accounts.withdraw(from, 3_000);
+            accounts.deposit(to, 3_000);
+            List<TransactionResponse> legs = transactions.createTransfers(List.of(transfer)).join();
+            assertEquals("withdrawal", legs.get(0).getType());
+            assertEquals("deposit", legs.get(1).getType());
+            assertTrue(journal.snapshot());
+
+            accounts.withdraw(from, 3_000);
+            accounts.deposit(to, 3_000);
+            transactions.createTransfers(List.of(transfer)).join();
+        }
+
+        try (SnapshottingJournal journal = open()) {
+            AccountServiceImpl accounts = new AccountServiceImpl(journal);
+            TransactionServiceImpl transactions = new TransactionServiceImpl(journal);
+            new JournalRecovery(journal, List.of(accounts, transactions)).afterSingletonsInstantiated();
+
+            assertEquals(40.0, accounts.fetchAccount(from).getBalance());
+            assertEquals(60.0, accounts.fetchAccount(to).getBalance());
+            assertEquals(3, transactions.listTransactions(from).getTransactions().size());
+            List<TransactionResponse> credits = transactions.listTransactions(to).getTransactions();
+            assertEquals(2, credits.size());
+            assertEquals("rent", credits.get(0).getReference());
+        }
+    }
+
+    @Test
+    void testSnapshot_keepsLatestRecordPerUserAndAccount() throws IOException {
+        long end;
+        try (SnapshottingJournal journal = open()) {
+            AccountServiceImpl accounts = new AccountServiceImpl(journal);
+            TransactionServiceImpl transactions = new TransactionServiceImpl(journal);
+            UserServiceImpl users = new UserServiceImpl(accounts, journal);
+            String userId = users.createUser(user("Alice")).getId();
+            UpdateUserRequest update = new UpdateUserRequest();
+            update.setName("Alice Smith");
+            users.updateUser(userId, update);
+            String accountNumber = accounts.createAccount(userId, account("Main")).getAccountNumber();
+            UpdateBankAccountRequest rename = new UpdateBankAccountRequest();
+            rename.setName("Renamed");
+            accounts.updateAccount(accountNumber, rename);
+            String deleted = accounts.createAccount(userId, account("Spare")).getAccountNumber();
+            accounts.deleteAccount(deleted);
+            deposit(accounts, transactions, accountNumber, 100);
+            deposit(accounts, transactions, accountNumber, 200);
+            end = Files.size(walFile());
+            journal.snapshot();
+        }
+
+        List<Byte> types = new ArrayList<>();
+        long position = Snapshot.read(snapshotFile(), (type, payload) -> types.add(type));
+        assertEquals(end, position);
+        assertEquals(List.of(RecordType.USER, RecordType.ACCOUNT, RecordType.BALANCE, RecordType.ACCOUNT_DELETED,
+                RecordType.HISTORY), types);
+    }
+
+    @Test
+    void testSnapshot_discardsLogAndDoesNotCopyEarlierHistory() throws IOException {
+        String accountNumber;
+        try (SnapshottingJournal journal = open()) {
+            AccountServiceImpl accounts = new AccountServiceImpl(journal);
+            TransactionServiceImpl transactions = new TransactionServiceImpl(journal);
+            accountNumber = accounts.createAccount("usr-1", account("Main")).getAccountNumber();
+            for (int i = 1; i <= 20; i++) {
+                deposit(accounts, transactions, accountNumber, i);
+            }
+            assertTrue(journal.snapshot());
+            deposit(accounts, transactions, accountNumber, 21);
+            assertTrue(journal.snapshot());
+        }
+        List<Path> historyFiles;
+        try (var files = Files.list(dir)) {
+            historyFiles = files.filter(file -> file.getFileName().toString().startsWith("banking.snapshot.history-")).sorted().toList();
+        }
+        assertEquals(2, historyFiles.size());
+        assertTrue(Files.size(historyFiles.get(0)) > 10 * Files.size(historyFiles.get(1)));
+        try (WriteAheadLog wal = WriteAheadLog.open(walFile(), Duration.ZERO)) {
+            assertTrue(wal.start() > 0);
+            assertEquals(wal.start(), wal.position());
+            assertThrows(IllegalStateException.class, () -> wal.replay((type, record) -> { }));
+        }
+
+        try (SnapshottingJournal journal = open()) {
+            AccountServiceImpl accounts = new AccountServiceImpl(journal);
+            TransactionServiceImpl transactions = new TransactionServiceImpl(journal);
+            new JournalRecovery(journal, List.of(accounts, transactions)).afterSingletonsInstantiated();
+            assertEquals(2.31, accounts.fetchAccount(accountNumber).getBalance());
+            deposit(accounts, transactions, accountNumber, 22);
+            List<TransactionResponse> history = transactions.listTransactions(accountNumber).getTransactions();
+            assertEquals(22, history.size());
+            for (int i = 0; i < history.size(); i++) {
+                assertEquals((i + 1) / 100.0, history.get(i).getAmount());
+            }
+        }
+    }
+
+    @Test
+    void testReplay_unreadableSnapshotFallsBackToFullLogUntilTheLogIsCompacted() throws IOException {
+        String accountNumber;
+        try (SnapshottingJournal journal = open()) {
+            AccountServiceImpl accounts = new AccountServiceImpl(journal);
+            TransactionServiceImpl transactions = new TransactionServiceImpl(journal);
+            accountNumber = accounts.createAccount("usr-1", account("Main")).getAccountNumber();
+            deposit(accounts, transactions, accountNumber, 1_234);
+        }
+        Files.write(snapshotFile(), new byte[]{1, 2, 3});
+
+        try (SnapshottingJournal journal = open()) {
+            AccountServiceImpl accounts = new AccountServiceImpl(journal);
+            TransactionServiceImpl transactions = new TransactionServiceImpl(journal);
+            new JournalRecovery(journal, List.of(accounts, transactions)).afterSingletonsInstantiated();
+            assertEquals(12.34, accounts.fetchAccount(accountNumber).getBalance());
+            assertEquals(1, transactions.listTransactions(accountNumber).getTransactions().size());
+            assertTrue(journal.snapshot());
+        }
+        byte[] bytes = Files.readAllBytes(snapshotFile());
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(snapshotFile(), bytes);
+
+        try (SnapshottingJournal journal = open()) {
+            AccountServiceImpl accounts = new AccountServiceImpl(journal);
+            assertThrows(IllegalStateException.class, () -> journal.replay(accounts));
+        }
+    }
+
+    @Test
+    void testReplay_snapshotAheadOfLogIsRejected() throws IOException {
+        try (SnapshottingJournal journal = open()) {
+            new AccountServiceImpl(journal).createAccount("usr-1", account("Main"));
+            journal.snapshot();
+        }
+        Files.delete(walFile());
+
+        try (SnapshottingJournal journal = open()) {
+            AccountServiceImpl accounts = new AccountServiceImpl(journal);
+            assertThrows(IllegalStateException.class, () -> journal.replay(accounts));
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package org.banking.service.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTest {
+    @TempDir
+    Path dir;
+
+    private static byte[] payload(String value) {
+        return new RecordWriter().writeString(value).toByteArray();
+    }
+
+    private static List<String> replayAll(WriteAheadLog wal) {
+        List<String> values = new ArrayList<>();
+        wal.replay((type, record) -> values.add(type + ":" + record.readString()));
+        return values;
+    }
+
+    @Test
+    void testAppendAndReplay_inOrderAcrossReopen() throws IOException {
+        Path file = dir.resolve("test.wal");
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            wal.append(RecordType.USER, payload("a"));
+            wal.append(RecordType.ACCOUNT, payload("b"));
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            wal.append(RecordType.TRANSACTION, payload("c"));
+            assertEquals(List.of("1:a", "2:b", "4:c"), replayAll(wal));
+        }
+    }
+
+    @Test
+    void testAppendAll_replaysInOrderAfterSingleAppends() throws IOException {
+        Path file = dir.resolve("test.wal");
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ofMillis(2))) {
+            wal.append(RecordType.USER, payload("a"));
+            wal.appendAll(RecordType.TRANSACTION, List.of(payload("b"), payload("c"), payload("d")));
+            wal.appendAll(RecordType.TRANSACTION, List.of());
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            assertEquals(List.of("1:a", "4:b", "4:c", "4:d"), replayAll(wal));
+        }
+    }
+
+    @Test
+    void testOpen_discardsRecordTornAtAnyByte() throws IOException {
+        Path file = dir.resolve("torn.wal");
+        long intactEnd;
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            wal.append(RecordType.USER, payload("first"));
+            wal.append(RecordType.USER, payload("second"));
+            intactEnd = wal.position();
+            wal.append(RecordType.USER, payload("torn"));
+        }
+        byte[] full = Files.readAllBytes(file);
+        // Simulate the process dying part-way through writing the last record.
+        for (long cut = intactEnd; cut < full.length; cut++) {
+            Files.write(file, java.util.Arrays.copyOf(full, (int) cut));
+            try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+                assertEquals(List.of("1:first", "1:second"), replayAll(wal));
+                assertEquals(intactEnd, Files.size(file));
+                wal.append(RecordType.USER, payload("after"));
+                assertEquals(List.of("1:first", "1:second", "1:after"), replayAll(wal));
+            }
+        }
+    }
+
+    @Test
+    void testOpen_discardsCorruptedTail() throws IOException {
+        Path file = dir.resolve("corrupt.wal");
+        long intactEnd;
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            wal.append(RecordType.USER, payload("kept"));
+            intactEnd = wal.position();
+            wal.append(RecordType.USER, payload("garbled"));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), Files.size(file) - 1);
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            assertEquals(List.of("1:kept"), replayAll(wal));
+            assertEquals(intactEnd, wal.position());
+        }
+    }
+
+    @Test
+    void testGroupCommit_concurrentAppendsAreAllDurable() throws Exception {
+        Path file = dir.resolve("group.wal");
+        int threads = 32;
+        int perThread = 200;
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ofMillis(1))) {
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        wal.append(RecordType.TRANSACTION, payload(thread + "-" + i));
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            Set<String> values = new HashSet<>(replayAll(wal));
+            assertEquals(threads * perThread, values.size());
+        }
+    }
+
+    @Test
+    void testAppendAll_writesBatchesLargerThanTheBufferInPasses() throws IOException {
+        Path file = dir.resolve("large.wal");
+        List<byte[]> payloads = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (char c = 'a'; c < 'f'; c++) {
+            String value = String.valueOf(c).repeat(10 << 20);
+            payloads.add(payload(value));
+            expected.add("1:" + value);
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            wal.appendAll(RecordType.USER, payloads);
+            assertTrue(wal.position() > WriteAheadLog.MAX_BUFFER_BYTES);
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            assertEquals(expected, replayAll(wal));
+        }
+    }
+
+    @Test
+    void testDiscardBefore_keepsPositionsAndTheRecordsAfter() throws IOException {
+        Path file = dir.resolve("discard.wal");
+        long kept;
+        long end;
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            wal.append(RecordType.USER, payload("a".repeat(1000)));
+            wal.append(RecordType.USER, payload("b".repeat(1000)));
+            kept = wal.position();
+            wal.append(RecordType.USER, payload("c"));
+            long before = Files.size(file);
+            wal.discardBefore(kept);
+            assertTrue(Files.size(file) < before - 1000);
+            assertEquals(kept, wal.start());
+            assertThrows(IllegalStateException.class, () -> wal.replay((type, record) -> { }));
+
+            wal.append(RecordType.USER, payload("d"));
+            end = wal.position();
+            List<String> values = new ArrayList<>();
+            wal.replay(kept, (type, record) -> values.add(record.readString()));
+            assertEquals(List.of("c", "d"), values);
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            assertEquals(kept, wal.start());
+            assertEquals(end, wal.position());
+            wal.append(RecordType.USER, payload("e"));
+            List<String> values = new ArrayList<>();
+            wal.replay(kept, (type, record) -> values.add(record.readString()));
+            assertEquals(List.of("c", "d", "e"), values);
+        }
+    }
+
+    @Test
+    void testAppend_afterCloseFails() throws IOException {
+        WriteAheadLog wal = WriteAheadLog.open(dir.resolve("closed.wal"), Duration.ZERO);
+        wal.close();
+        assertThrows(IllegalStateException.class, () -> wal.append(RecordType.USER, payload("late")));
+    }
+
+    @Test
+    void testFailedCommit_isTruncatedSoLaterBatchesReplay() throws IOException {
+        Path file = dir.resolve("failing.wal");
+        FailingChannel channel = new FailingChannel(file);
+        try (WriteAheadLog wal = WriteAheadLog.open(file, channel, Duration.ZERO, 0)) {
+            wal.append(RecordType.USER, payload("a"));
+            long durable = wal.position();
+            channel.failWrites.set(true);
+            assertThrows(UncheckedIOException.class, () -> wal.append(RecordType.USER, payload("torn")));
+            CompletionException failed = assertThrows(CompletionException.class,
+                    () -> wal.appendAllAsync(RecordType.USER, List.of(payload("torn"))).join());
+            assertInstanceOf(UncheckedIOException.class, failed.getCause());
+            assertEquals(durable, Files.size(file));
+            channel.failWrites.set(false);
+            wal.append(RecordType.USER, payload("b"));
+            assertEquals(List.of("1:a", "1:b"), replayAll(wal));
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            assertEquals(List.of("1:a", "1:b"), replayAll(wal));
+        }
+    }
+
+    @Test
+    void testFailedCommit_thatCannotBeRepairedFailsEveryLaterAppend() throws IOException {
+        Path file = dir.resolve("broken.wal");
+        FailingChannel channel = new FailingChannel(file);
+        try (WriteAheadLog wal = WriteAheadLog.open(file, channel, Duration.ZERO, 0)) {
+            wal.append(RecordType.USER, payload("a"));
+            channel.failWrites.set(true);
+            channel.failTruncates.set(true);
+            assertThrows(UncheckedIOException.class, () -> wal.append(RecordType.USER, payload("torn")));
+            channel.failWrites.set(false);
+            channel.failTruncates.set(false);
+            assertThrows(UncheckedIOException.class, () -> wal.append(RecordType.USER, payload("b")));
+            CompletionException failed = assertThrows(CompletionException.class,
+                    () -> wal.appendAllAsync(RecordType.USER, List.of(payload("c"))).join());
+            assertInstanceOf(UncheckedIOException.class, failed.getCause());
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(file, Duration.ZERO)) {
+            assertEquals(List.of("1:a"), replayAll(wal));
+        }
+    }
+
+    /**
+     * File channel that can be made to fail, writing half of the bytes before failing a write.
+     */
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+        private final AtomicBoolean failWrites = new AtomicBoolean();
+        private final AtomicBoolean failTruncates = new AtomicBoolean();
+
+        FailingChannel(Path file) throws IOException {
+            this.delegate = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failWrites.get()) {
+                ByteBuffer half = src.slice();
+                half.limit(half.remaining() / 2);
+                delegate.write(half);
+                throw new IOException("Injected write failure");
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncates.get()) throw new IOException("Injected truncate failure");
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
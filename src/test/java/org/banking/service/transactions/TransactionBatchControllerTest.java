@@ -0,0 +1,72 @@
+package org.banking.service.transactions;
+
+import org.banking.service.controller.TransactionBatchController;
+import org.banking.service.model.BatchTransactionResponse;
+import org.banking.service.model.TransactionResponse;
+import org.banking.service.service.TransactionBatchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TransactionBatchController.class)
+public class TransactionBatchControllerTest {
+    private static final String BATCH = "[{\"accountNumber\":\"01000001\",\"amount\":100.0,\"currency\":\"GBP\",\"type\":\"deposit\"}]";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TransactionBatchService transactionBatchService;
+
+    private String getAuthHeader() {
+        return "Bearer " + org.banking.service.util.JwtUtil.generateToken("usr-abc123");
+    }
+
+    @Test
+    void testSubmitBatch() throws Exception {
+        TransactionResponse tx = new TransactionResponse();
+        tx.setId("tan-1234567");
+        tx.setAmount(100.0);
+        BatchTransactionResponse resp = new BatchTransactionResponse(List.of(new BatchTransactionResponse.Result(201, tx, null)));
+        when(transactionBatchService.submit(eq("usr-abc123"), argThat(items -> items.size() == 1
+                && "01000001".equals(items.get(0).getAccountNumber())))).thenReturn(resp);
+
+        mockMvc.perform(post("/v1/transactions/batch")
+                .header("Authorization", getAuthHeader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BATCH))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[0].transaction.id").value("tan-1234567"))
+                .andExpect(jsonPath("$.results[0].error").doesNotExist());
+    }
+
+    @Test
+    void testSubmitBatch_missingToken() throws Exception {
+        mockMvc.perform(post("/v1/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BATCH))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(transactionBatchService);
+    }
+
+    @Test
+    void testSubmitBatch_emptyBatch() throws Exception {
+        mockMvc.perform(post("/v1/transactions/batch")
+                .header("Authorization", getAuthHeader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0].field").value("request"));
+        verifyNoInteractions(transactionBatchService);
+    }
+}
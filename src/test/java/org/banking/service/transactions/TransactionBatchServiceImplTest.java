@@ -0,0 +1,115 @@
+package org.banking.service.transactions;
+
+import org.banking.service.account.AccountServiceImpl;
+import org.banking.service.ledger.PartitionedLedger;
+import org.banking.service.model.BadRequestErrorResponse;
+import org.banking.service.model.BatchTransactionRequest;
+import org.banking.service.model.BatchTransactionResponse;
+import org.banking.service.model.CreateBankAccountRequest;
+import org.banking.service.model.ErrorResponse;
+import org.banking.service.model.TransactionResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionBatchServiceImplTest {
+    private AccountServiceImpl accountService;
+    private TransactionServiceImpl transactionService;
+    private PartitionedLedger ledger;
+    private TransactionBatchServiceImpl batchService;
+    private String own;
+    private String other;
+
+    private BatchTransactionRequest item(String accountNumber, double amount, String type) {
+        BatchTransactionRequest req = new BatchTransactionRequest();
+        req.setAccountNumber(accountNumber);
+        req.setAmount(amount);
+        req.setCurrency("GBP");
+        req.setType(type);
+        return req;
+    }
+
+    private String createAccount(String userId) {
+        CreateBankAccountRequest req = new CreateBankAccountRequest();
+        req.setName("Test Account");
+        req.setAccountType("personal");
+        return accountService.createAccount(userId, req).getAccountNumber();
+    }
+
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountServiceImpl();
+        transactionService = new TransactionServiceImpl();
+        ledger = new PartitionedLedger(accountService, transactionService, 4);
+        batchService = new TransactionBatchServiceImpl(accountService, ledger);
+        own = createAccount("usr-abc123");
+        other = createAccount("usr-other");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.close();
+    }
+
+    @Test
+    void testSubmit_resultsInSubmissionOrder() {
+        List<BatchTransactionRequest> batch = Arrays.asList(
+                item(own, 10.0, "deposit"),
+                item(own, 25.0, "withdrawal"),
+                item("bad", 1.0, "deposit"),
+                item(other, 1.0, "deposit"),
+                item("01999999", 1.0, "deposit"),
+                item(own, -1.0, "deposit"),
+                null,
+                item(own, 4.0, "withdrawal"));
+
+        List<BatchTransactionResponse.Result> results = batchService.submit("usr-abc123", batch).getResults();
+
+        int[] statuses = results.stream().mapToInt(BatchTransactionResponse.Result::getStatus).toArray();
+        assertArrayEquals(new int[] {201, 422, 400, 403, 404, 400, 400, 201}, statuses);
+        assertEquals(10.0, results.get(0).getTransaction().getAmount());
+        assertEquals("Insufficient funds to process transaction", ((ErrorResponse) results.get(1).getError()).getMessage());
+        assertEquals("accountNumber", ((BadRequestErrorResponse) results.get(2).getError()).getDetails().get(0).getField());
+        assertNull(results.get(3).getTransaction());
+        assertEquals(6.0, accountService.fetchAccount(own).getBalance());
+        assertEquals(0.0, accountService.fetchAccount(other).getBalance());
+
+        List<TransactionResponse> history = transactionService.transactionHistory(own);
+        assertEquals(List.of(results.get(0).getTransaction(), results.get(7).getTransaction()), history);
+        assertTrue(transactionService.transactionHistory(other).isEmpty());
+    }
+
+    @Test
+    void testSubmit_sameAsSequentialSingleSubmissions() {
+        String second = createAccount("usr-abc123");
+        List<BatchTransactionRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String accountNumber = i % 2 == 0 ? own : second;
+            batch.add(item(accountNumber, i % 3 == 0 ? 7.0 : 5.0, i % 3 == 0 ? "withdrawal" : "deposit"));
+        }
+
+        List<BatchTransactionResponse.Result> results = batchService.submit("usr-abc123", batch).getResults();
+
+        long[] expected = new long[2];
+        for (int i = 0; i < batch.size(); i++) {
+            int account = i % 2;
+            boolean withdrawal = i % 3 == 0;
+            if (withdrawal && expected[account] < 700) {
+                assertEquals(422, results.get(i).getStatus());
+                continue;
+            }
+            expected[account] += withdrawal ? -700 : 500;
+            assertEquals(201, results.get(i).getStatus());
+        }
+        assertEquals(expected[0] / 100.0, accountService.fetchAccount(own).getBalance());
+        assertEquals(expected[1] / 100.0, accountService.fetchAccount(second).getBalance());
+        long created = results.stream().filter(r -> r.getStatus() == 201).count();
+        assertEquals(created, transactionService.transactionHistory(own).size() + transactionService.transactionHistory(second).size());
+    }
+}
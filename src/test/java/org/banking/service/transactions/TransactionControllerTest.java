@@ -1,21 +1,29 @@
 package org.banking.service.transactions;
 
 import org.banking.service.controller.TransactionController;
+import org.banking.service.ledger.PartitionedLedger;
 import org.banking.service.model.*;
 import org.banking.service.service.TransactionService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import org.banking.service.service.AccountService;
 
 @WebMvcTest(TransactionController.class)
+@Import({IdempotencyConfiguration.class, PartitionedLedger.class})
 public class TransactionControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -25,6 +33,16 @@ public class TransactionControllerTest {
     @MockBean
     private AccountService accountService;
 
+    private void whenApplied(long amountPence, long balance, TransactionResponse created) {
+        when(accountService.applyDebits(eq("01000001"), aryEq(new long[] {amountPence}), anyLong())).thenReturn(new long[] {balance});
+        when(transactionService.createTransactions(eq(List.of("01000001")), any())).thenReturn(CompletableFuture.completedFuture(List.of(created)));
+    }
+
+    private void whenRefused(long amountPence) {
+        when(accountService.applyDebits(eq("01000001"), aryEq(new long[] {amountPence}), anyLong()))
+                .thenReturn(new long[] {AccountService.INSUFFICIENT_FUNDS});
+    }
+
     private String getAuthHeader() {
         return "Bearer " + org.banking.service.util.JwtUtil.generateToken("usr-abc123");
     }
@@ -44,7 +62,7 @@ public class TransactionControllerTest {
         account.setAccountNumber("01000001");
         account.setUserId("usr-abc123");
         when(accountService.fetchAccount("01000001")).thenReturn(account);
-        when(transactionService.createTransaction(eq("01000001"), any())).thenReturn(resp);
+        whenApplied(10_000, 10_000, resp);
 
         mockMvc.perform(post("/v1/accounts/01000001/transactions")
                 .header("Authorization", getAuthHeader())
@@ -54,6 +72,68 @@ public class TransactionControllerTest {
                 .andExpect(jsonPath("$.id").value("tan-1234567"));
     }
 
+    @Test
+    void testCreateTransaction_idempotencyKeyReplaysOriginal() throws Exception {
+        TransactionResponse resp = new TransactionResponse();
+        resp.setId("tan-1234567");
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber("01000001");
+        account.setUserId("usr-abc123");
+        when(accountService.fetchAccount("01000001")).thenReturn(account);
+        whenApplied(10_000, 10_000, resp);
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/v1/accounts/01000001/transactions")
+                    .header("Authorization", getAuthHeader())
+                    .header("Idempotency-Key", "replay-key")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"amount\":100.0,\"currency\":\"GBP\",\"type\":\"deposit\"}"))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value("tan-1234567"));
+        }
+        mockMvc.perform(post("/v1/accounts/01000001/transactions")
+                .header("Authorization", getAuthHeader())
+                .header("Idempotency-Key", "replay-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":200.0,\"currency\":\"GBP\",\"type\":\"deposit\"}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Idempotency-Key has already been used for a different request"));
+        verify(accountService, times(1)).applyDebits(eq("01000001"), aryEq(new long[] {10_000}), anyLong());
+        verify(transactionService, times(1)).createTransactions(any(), any());
+    }
+
+    @Test
+    void testCreateTransaction_idempotencyKeyReleasedOnFailure() throws Exception {
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber("01000001");
+        account.setUserId("usr-abc123");
+        when(accountService.fetchAccount("01000001")).thenReturn(account);
+        whenRefused(-10_000);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/v1/accounts/01000001/transactions")
+                    .header("Authorization", getAuthHeader())
+                    .header("Idempotency-Key", "failed-key")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"amount\":100.0,\"currency\":\"GBP\",\"type\":\"withdrawal\"}"))
+                    .andExpect(status().isUnprocessableEntity());
+        }
+        verify(accountService, times(2)).applyDebits(eq("01000001"), aryEq(new long[] {-10_000}), anyLong());
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void testCreateTransaction_invalidIdempotencyKey() throws Exception {
+        mockMvc.perform(post("/v1/accounts/01000001/transactions")
+                .header("Authorization", getAuthHeader())
+                .header("Idempotency-Key", "has space")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":100.0,\"currency\":\"GBP\",\"type\":\"deposit\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0].field").value("Idempotency-Key"));
+        verifyNoInteractions(accountService, transactionService);
+    }
+
     @Test
     void testCreateTransaction_invalidAccountNumber() throws Exception {
         mockMvc.perform(post("/v1/accounts/invalid/transactions")
@@ -80,6 +160,47 @@ public class TransactionControllerTest {
                 .andExpect(jsonPath("$.transactions").isArray());
     }
 
+    @Test
+    void testListTransactions_paginated() throws Exception {
+        ListTransactionsResponse resp = new ListTransactionsResponse();
+        resp.setTransactions(java.util.Collections.emptyList());
+        resp.setNextCursor("AAAAZA");
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber("01000001");
+        account.setUserId("usr-abc123");
+        when(accountService.fetchAccount("01000001")).thenReturn(account);
+        when(transactionService.listTransactions(eq("01000001"), isNull(), eq(50), any(), isNull())).thenReturn(resp);
+        mockMvc.perform(get("/v1/accounts/01000001/transactions")
+                .param("limit", "50")
+                .param("from", "2025-01-01T00:00:00Z")
+                .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("AAAAZA"));
+    }
+
+    @Test
+    void testListTransactions_invalidLimit() throws Exception {
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber("01000001");
+        account.setUserId("usr-abc123");
+        when(accountService.fetchAccount("01000001")).thenReturn(account);
+        mockMvc.perform(get("/v1/accounts/01000001/transactions")
+                .param("limit", "0")
+                .header("Authorization", getAuthHeader()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0].field").value("limit"));
+    }
+
+    @Test
+    void testListTransactions_invalidFrom() throws Exception {
+        mockMvc.perform(get("/v1/accounts/01000001/transactions")
+                .param("from", "yesterday")
+                .header("Authorization", getAuthHeader()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid from timestamp"))
+                .andExpect(jsonPath("$.details[0].field").value("from"));
+    }
+
     @Test
     void testListTransactions_invalidAccountNumber() throws Exception {
         mockMvc.perform(get("/v1/accounts/invalid/transactions")
@@ -116,6 +237,14 @@ public class TransactionControllerTest {
                 .andExpect(jsonPath("$.details[0].field").value("accountNumber"));
     }
 
+    @Test
+    void testFetchTransaction_invalidToken() throws Exception {
+        mockMvc.perform(get("/v1/accounts/01000001/transactions/tan-1234567")
+                .header("Authorization", "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Access token is missing or invalid"));
+    }
+
     @Test
     void testFetchTransaction_invalidTransactionId() throws Exception {
         mockMvc.perform(get("/v1/accounts/01000001/transactions/invalid")
@@ -132,6 +261,7 @@ public class TransactionControllerTest {
         account.setUserId("usr-abc123");
         account.setBalance(10.0); // Only 10 in account
         when(accountService.fetchAccount("01000001")).thenReturn(account);
+        whenRefused(-10_000);
 
         mockMvc.perform(post("/v1/accounts/01000001/transactions")
                 .header("Authorization", getAuthHeader())
@@ -141,6 +271,23 @@ public class TransactionControllerTest {
                 .andExpect(jsonPath("$.message").value("Insufficient funds to process transaction"));
     }
 
+    @Test
+    void testCreateTransaction_accountDeletedBeforeApplied() throws Exception {
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber("01000001");
+        account.setUserId("usr-abc123");
+        when(accountService.fetchAccount("01000001")).thenReturn(account);
+        when(accountService.applyDebits(eq("01000001"), any(), anyLong())).thenReturn(null);
+
+        mockMvc.perform(post("/v1/accounts/01000001/transactions")
+                .header("Authorization", getAuthHeader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":20.0,\"currency\":\"GBP\",\"type\":\"deposit\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Bank account was not found"));
+        verifyNoInteractions(transactionService);
+    }
+
     @Test
     void testCreateTransaction_depositUpdatesBalance() throws Exception {
         BankAccountResponse account = new BankAccountResponse();
@@ -153,7 +300,7 @@ public class TransactionControllerTest {
         resp.setAmount(20.0);
         resp.setCurrency("GBP");
         resp.setType("deposit");
-        when(transactionService.createTransaction(eq("01000001"), any())).thenReturn(resp);
+        whenApplied(2_000, 3_000, resp);
 
         mockMvc.perform(post("/v1/accounts/01000001/transactions")
                 .header("Authorization", getAuthHeader())
@@ -161,7 +308,7 @@ public class TransactionControllerTest {
                 .content("{\"amount\":20.0,\"currency\":\"GBP\",\"type\":\"deposit\"}"))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value("tan-1234567"));
-        // After this, account.getBalance() should be 30.0 if checked in a real integration test
+        verify(accountService).applyDebits(eq("01000001"), aryEq(new long[] {2_000}), anyLong());
     }
 
     @Test
@@ -176,7 +323,7 @@ public class TransactionControllerTest {
         resp.setAmount(20.0);
         resp.setCurrency("GBP");
         resp.setType("withdrawal");
-        when(transactionService.createTransaction(eq("01000001"), any())).thenReturn(resp);
+        whenApplied(-2_000, 3_000, resp);
 
         mockMvc.perform(post("/v1/accounts/01000001/transactions")
                 .header("Authorization", getAuthHeader())
@@ -184,7 +331,25 @@ public class TransactionControllerTest {
                 .content("{\"amount\":20.0,\"currency\":\"GBP\",\"type\":\"withdrawal\"}"))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value("tan-7654321"));
-        // After this, account.getBalance() should be 30.0 if checked in a real integration test
+        verify(accountService).applyDebits(eq("01000001"), aryEq(new long[] {-2_000}), anyLong());
+    }
+
+    @Test
+    void testCreateTransaction_depositAboveTheBalanceLimit() throws Exception {
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber("01000001");
+        account.setUserId("usr-abc123");
+        when(accountService.fetchAccount("01000001")).thenReturn(account);
+        when(accountService.applyDebits(eq("01000001"), aryEq(new long[] {2_500_000}), anyLong()))
+                .thenReturn(new long[] {AccountService.BALANCE_LIMIT});
+
+        mockMvc.perform(post("/v1/accounts/01000001/transactions")
+                .header("Authorization", getAuthHeader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":25000.00,\"currency\":\"GBP\",\"type\":\"deposit\"}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Deposit would take the balance above the maximum"));
+        verifyNoInteractions(transactionService);
     }
 
     @Test
@@ -204,6 +369,25 @@ public class TransactionControllerTest {
                 .andExpect(jsonPath("$.details[0].field").value("amount"));
     }
 
+    @Test
+    void testCreateTransaction_rejectsSubPennyAndOversizedAmounts() throws Exception {
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber("01000001");
+        account.setUserId("usr-abc123");
+        when(accountService.fetchAccount("01000001")).thenReturn(account);
+
+        for (String amount : new String[] {"0.004", "10.125", "10000000000000.01", "1e300"}) {
+            mockMvc.perform(post("/v1/accounts/01000001/transactions")
+                    .header("Authorization", getAuthHeader())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"amount\":" + amount + ",\"currency\":\"GBP\",\"type\":\"deposit\"}"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.details[0].field").value("amount"))
+                    .andExpect(jsonPath("$.details[0].type").value("pattern"));
+        }
+        verifyNoInteractions(transactionService);
+    }
+
     @Test
     void testCreateTransaction_missingCurrency() throws Exception {
         BankAccountResponse account = new BankAccountResponse();
@@ -256,4 +440,84 @@ public class TransactionControllerTest {
                 .andExpect(jsonPath("$.details[?(@.field=='currency')]").exists())
                 .andExpect(jsonPath("$.details[?(@.field=='type')]").exists());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testExportTransactions_ndjson() throws Exception {
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber("01000001");
+        account.setUserId("usr-abc123");
+        TransactionResponse first = new TransactionResponse();
+        first.setId("tan-1");
+        first.setAmount(10.0);
+        TransactionResponse second = new TransactionResponse();
+        second.setId("tan-2");
+        second.setAmount(2.5);
+        when(accountService.fetchAccount("01000001")).thenReturn(account);
+        when(transactionService.transactionHistory("01000001")).thenReturn(java.util.List.of(first, second));
+
+        MvcResult result = mockMvc.perform(get("/v1/accounts/01000001/transactions/export")
+                .header("Authorization", getAuthHeader()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions-01000001.ndjson\""))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        org.junit.jupiter.api.Assertions.assertEquals(2, lines.length);
+        org.junit.jupiter.api.Assertions.assertTrue(lines[0].startsWith("{\"id\":\"tan-1\",\"amount\":10.0,"));
+        org.junit.jupiter.api.Assertions.assertTrue(lines[1].startsWith("{\"id\":\"tan-2\",\"amount\":2.5,"));
+    }
+
+    @Test
+    void testExportTransactions_csv() throws Exception {
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber("01000001");
+        account.setUserId("usr-abc123");
+        TransactionResponse transaction = new TransactionResponse();
+        transaction.setId("tan-1");
+        transaction.setAmount(10.0);
+        transaction.setCurrency("GBP");
+        transaction.setType("deposit");
+        when(accountService.fetchAccount("01000001")).thenReturn(account);
+        when(transactionService.transactionHistory("01000001")).thenReturn(java.util.List.of(transaction));
+
+        MvcResult result = mockMvc.perform(get("/v1/accounts/01000001/transactions/export")
+                .param("format", "csv")
+                .header("Authorization", getAuthHeader()))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string("id,amount,currency,type,reference,userId,createdTimestamp\r\n"
+                        + "tan-1,10.0,GBP,deposit,,,\r\n"));
+    }
+
+    @Test
+    void testExportTransactions_otherUsersAccount() throws Exception {
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber("01000001");
+        account.setUserId("usr-other");
+        when(accountService.fetchAccount("01000001")).thenReturn(account);
+
+        MvcResult result = mockMvc.perform(get("/v1/accounts/01000001/transactions/export")
+                .header("Authorization", getAuthHeader()))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("Forbidden: You can only view transactions for your own bank account"));
+        verify(transactionService, never()).transactionHistory(any());
+    }
+
+    @Test
+    void testExportTransactions_invalidFormat() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v1/accounts/01000001/transactions/export")
+                .param("format", "xml")
+                .header("Authorization", getAuthHeader()))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0].field").value("format"));
+    }
+}
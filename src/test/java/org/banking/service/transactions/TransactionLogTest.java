@@ -0,0 +1,309 @@
+package org.banking.service.transactions;
+
+import org.banking.service.model.TransactionResponse;
+import org.banking.service.util.IdGenerator;
+import org.banking.service.util.MoneyUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionLogTest {
+    @TempDir
+    Path tempDir;
+
+    private TransactionResponse transaction(String id) {
+        TransactionResponse tx = new TransactionResponse();
+        tx.setId(id);
+        tx.setCreatedTimestamp(OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        return tx;
+    }
+
+    @Test
+    void testAppend_keepsTimestampsNonDecreasing() {
+        TransactionLog log = new TransactionLog();
+        TransactionResponse later = transaction("tan-1");
+        TransactionResponse earlier = transaction("tan-2");
+        earlier.setCreatedTimestamp(later.getCreatedTimestamp().minusSeconds(1));
+        log.append(later);
+        log.append(earlier);
+        assertEquals(later.getCreatedTimestamp(), earlier.getCreatedTimestamp());
+        assertEquals(0, TransactionLog.seek(log.snapshot(), later.getCreatedTimestamp()));
+        assertEquals(2, TransactionLog.seek(log.snapshot(), later.getCreatedTimestamp().plusNanos(1)));
+    }
+
+    @Test
+    void testSnapshot_isStableAfterLaterAppends() {
+        TransactionLog log = new TransactionLog();
+        log.append(transaction("tan-1"));
+        List<TransactionResponse> snapshot = log.snapshot();
+        log.append(transaction("tan-2"));
+
+        assertEquals(1, snapshot.size());
+        assertEquals("tan-1", snapshot.get(0).getId());
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(1));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(transaction("tan-3")));
+        assertEquals(2, log.snapshot().size());
+    }
+
+    @Test
+    void testAppend_spansSegmentsInOrder() {
+        TransactionLog log = new TransactionLog();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, log.append(transaction("tan-" + i)));
+        }
+        List<TransactionResponse> snapshot = log.snapshot();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("tan-" + i, snapshot.get(i).getId());
+        }
+    }
+
+    @Test
+    void testFind_locatesEveryTransactionById() {
+        TransactionLog log = new TransactionLog();
+        for (int i = 0; i < 5_000; i++) {
+            log.append(transaction("tan-" + i));
+        }
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals("tan-" + i, log.find("tan-" + i).getId());
+        }
+        assertNull(log.find("tan-missing"));
+        assertNull(new TransactionLog().find("tan-0"));
+    }
+
+    @Test
+    void testConcurrentAppends_readersSeeCompleteSnapshots() throws Exception {
+        TransactionLog log = new TransactionLog();
+        int writers = 8;
+        int perWriter = 20_000;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        List<Future<?>> appenders = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            appenders.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perWriter; i++) {
+                    log.append(transaction("tan-" + writer + "x" + i));
+                }
+                return null;
+            }));
+        }
+        Future<?> reader = executor.submit(() -> {
+            start.await();
+            while (writing.get()) {
+                List<TransactionResponse> snapshot = log.snapshot();
+                for (TransactionResponse tx : snapshot) {
+                    assertNotNull(tx);
+                }
+            }
+            return null;
+        });
+        start.countDown();
+        executor.shutdown();
+        try {
+            for (Future<?> appender : appenders) {
+                appender.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+        }
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        reader.get();
+
+        Set<String> ids = new HashSet<>();
+        for (TransactionResponse tx : log.snapshot()) {
+            ids.add(tx.getId());
+        }
+        assertEquals(writers * perWriter, ids.size());
+    }
+
+    @Test
+    void testAppendAll_matchesSingleAppends() {
+        TransactionLog log = new TransactionLog();
+        List<TransactionResponse> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(transaction("tan-" + i));
+        }
+        log.append(transaction("tan-first"));
+        log.appendAll(batch);
+        List<TransactionResponse> snapshot = log.snapshot();
+        assertEquals(101, snapshot.size());
+        assertEquals("tan-first", snapshot.get(0).getId());
+        assertEquals(batch, snapshot.subList(1, 101));
+        for (TransactionResponse tx : batch) {
+            assertEquals(tx, log.find(tx.getId()));
+        }
+    }
+
+    @Test
+    void testSnapshot_rebuildsEveryFieldFromColumns() {
+        TransactionLog log = new TransactionLog();
+        IdGenerator ids = new IdGenerator(3);
+        List<TransactionResponse> appended = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            TransactionResponse tx = transaction(i % 100 == 0 ? "tan-legacy-" + i : ids.next(TransactionLog.ID_PREFIX));
+            tx.setAmount(MoneyUtil.toPounds(100 + i));
+            tx.setCurrency("GBP");
+            tx.setType(i % 3 == 0 ? "withdrawal" : "deposit");
+            tx.setReference(i % 7 == 0 ? null : i % 5 == 0 ? "" : "Café rent " + i);
+            tx.setUserId(i % 2 == 0 ? null : "usr-abc123");
+            log.append(tx);
+            appended.add(tx);
+        }
+        assertEquals(appended, log.snapshot());
+        for (TransactionResponse tx : appended) {
+            assertEquals(tx, log.find(tx.getId()));
+        }
+        assertNull(log.find(ids.next(TransactionLog.ID_PREFIX)));
+    }
+
+    @Test
+    void testSeek_roundsUpToTheStoredMicrosecond() {
+        TransactionLog log = new TransactionLog();
+        TransactionResponse tx = transaction("tan-1");
+        log.append(tx);
+        OffsetDateTime created = tx.getCreatedTimestamp();
+        assertEquals(0, TransactionLog.seek(log.snapshot(), created.minusNanos(1)));
+        assertEquals(0, TransactionLog.seek(log.snapshot(), created));
+        assertEquals(1, TransactionLog.seek(log.snapshot(), created.plusNanos(1)));
+        assertEquals(0, TransactionLog.seek(List.of(), created));
+    }
+
+    private long fileCount() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testSeal_readsOldHistoryBackFromTheArchive() throws Exception {
+        TransactionArchive archive = new TransactionArchive(tempDir, Duration.ofDays(1), Duration.ZERO, 32 << 10);
+        TransactionLog log = new TransactionLog(archive);
+        IdGenerator ids = new IdGenerator(3);
+        OffsetDateTime old = OffsetDateTime.now().minusDays(2).truncatedTo(ChronoUnit.MICROS);
+        List<TransactionResponse> appended = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            TransactionResponse tx = transaction(i % 100 == 7 ? "tan-legacy-" + i : ids.next(TransactionLog.ID_PREFIX));
+            if (i < 3_000) tx.setCreatedTimestamp(old.plus(i * 1_237L, ChronoUnit.MICROS));
+            tx.setAmount(MoneyUtil.toPounds(i % 11 == 0 ? 123_456_789 : 100 + i));
+            tx.setCurrency("GBP");
+            tx.setType(i % 3 == 0 ? "withdrawal" : "deposit");
+            tx.setReference(i % 7 == 0 ? null : i % 5 == 0 ? "" : "Café rent " + i);
+            tx.setUserId(i % 2 == 0 ? null : "usr-abc123");
+            log.append(tx);
+            appended.add(tx);
+        }
+
+        // The two segments entirely outside the hot window are sealed by the sealer thread as they
+        // fill, across several files.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (fileCount() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, log.seal());
+        assertTrue(fileCount() > 1);
+        assertEquals(appended, log.snapshot());
+        for (TransactionResponse tx : appended) {
+            assertEquals(tx, log.find(tx.getId()));
+        }
+        assertNull(log.find(ids.next(TransactionLog.ID_PREFIX)));
+        assertNull(log.find("tan-legacy-missing"));
+        for (int i : new int[] {0, 1, 63, 64, 1_023, 1_024, 2_047, 2_048, 2_999}) {
+            OffsetDateTime created = appended.get(i).getCreatedTimestamp();
+            assertEquals(i, TransactionLog.seek(log.snapshot(), created));
+            assertEquals(i + 1, TransactionLog.seek(log.snapshot(), created.plusNanos(1)));
+        }
+        archive.close();
+    }
+
+    @Test
+    void testArchive_readsEarlierSegmentsAfterLaterAppends() throws IOException {
+        TransactionArchive archive = new TransactionArchive(tempDir, Duration.ZERO, Duration.ZERO, 1 << 16);
+        byte[] first = "first segment".getBytes(StandardCharsets.UTF_8);
+        byte[] second = new byte[40_000];
+        Arrays.fill(second, (byte) 7);
+        TransactionArchive.Extent firstExtent = archive.append(first);
+        assertEquals(ByteBuffer.wrap(first), firstExtent.buffer());
+
+        TransactionArchive.Extent secondExtent = archive.append(second);
+        TransactionArchive.Extent third = archive.append(first);
+        assertEquals(ByteBuffer.wrap(second), secondExtent.buffer());
+        assertEquals(ByteBuffer.wrap(first), firstExtent.buffer());
+        assertEquals(ByteBuffer.wrap(first), third.buffer());
+        assertEquals(1 << 16, Files.size(tempDir.resolve("segments-000001.seg")));
+        archive.close();
+        assertEquals(2 * first.length + second.length, Files.size(tempDir.resolve("segments-000001.seg")));
+        assertEquals(ByteBuffer.wrap(second), secondExtent.buffer());
+    }
+
+    @Test
+    void testAppend_keepsEveryDistinctUserAcrossSealing() throws Exception {
+        TransactionArchive archive = new TransactionArchive(tempDir, Duration.ofDays(1), Duration.ZERO, 1 << 20);
+        TransactionLog log = new TransactionLog(archive);
+        OffsetDateTime old = OffsetDateTime.now().minusDays(2).truncatedTo(ChronoUnit.MICROS);
+        List<TransactionResponse> appended = new ArrayList<>();
+        for (int i = 0; i < 1_500; i++) {
+            TransactionResponse tx = transaction("tan-" + i);
+            tx.setCreatedTimestamp(old.plus(i, ChronoUnit.MICROS));
+            tx.setAmount(1.0);
+            tx.setCurrency("GBP");
+            tx.setType("deposit");
+            tx.setUserId("usr-" + i);
+            log.append(tx);
+            appended.add(tx);
+        }
+
+        log.seal();
+        assertEquals(appended, log.snapshot());
+        assertEquals("usr-1023", log.find("tan-1023").getUserId());
+        assertEquals("usr-1499", log.find("tan-1499").getUserId());
+        archive.close();
+    }
+
+    @Test
+    void testSeal_leavesEarlierSnapshotsReadable() throws Exception {
+        TransactionArchive archive = new TransactionArchive(tempDir, Duration.ofSeconds(2), Duration.ZERO, 1 << 20);
+        TransactionLog log = new TransactionLog(archive);
+        List<TransactionResponse> appended = new ArrayList<>();
+        for (int i = 0; i < 2_100; i++) {
+            TransactionResponse tx = transaction("tan-" + i);
+            tx.setAmount(1.0);
+            tx.setReference("rent " + i);
+            log.append(tx);
+            appended.add(tx);
+        }
+        List<TransactionResponse> before = log.snapshot();
+        assertEquals(0, log.seal());
+
+        Thread.sleep(2_100);
+        assertEquals(2_048, log.seal());
+        assertEquals(appended, before);
+        assertEquals(appended, log.snapshot());
+        assertEquals("tan-5", log.find("tan-5").getId());
+        assertEquals("tan-2099", log.find("tan-2099").getId());
+        archive.close();
+    }
+}
@@ -0,0 +1,83 @@
+package org.banking.service.transactions;
+
+import org.banking.service.model.CreateTransactionRequest;
+import org.banking.service.model.ListTransactionsResponse;
+import org.banking.service.model.TransactionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionServiceImplTest {
+    private static final String ACCOUNT_NUMBER = "01000001";
+
+    private TransactionServiceImpl transactionService;
+    private List<TransactionResponse> created;
+
+    private CreateTransactionRequest deposit() {
+        CreateTransactionRequest req = new CreateTransactionRequest();
+        req.setAmount(10.0);
+        req.setCurrency("GBP");
+        req.setType("deposit");
+        return req;
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        transactionService = new TransactionServiceImpl();
+        created = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            created.add(transactionService.createTransaction(ACCOUNT_NUMBER, deposit()));
+            // Keep timestamps distinct so time-range bounds fall between known transactions.
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void testFetchTransaction() {
+        TransactionResponse tx = created.get(7);
+        assertEquals(tx, transactionService.fetchTransaction(ACCOUNT_NUMBER, tx.getId()));
+        assertNull(transactionService.fetchTransaction(ACCOUNT_NUMBER, "tan-missing"));
+        assertNull(transactionService.fetchTransaction("01000002", tx.getId()));
+    }
+
+    @Test
+    void testListTransactions_followsCursorsToTheEnd() {
+        List<TransactionResponse> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ListTransactionsResponse page = transactionService.listTransactions(ACCOUNT_NUMBER, cursor, 10, null, null);
+            assertTrue(page.getTransactions().size() <= 10);
+            seen.addAll(page.getTransactions());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(created, seen);
+    }
+
+    @Test
+    void testListTransactions_timeRange() {
+        OffsetDateTime from = created.get(5).getCreatedTimestamp();
+        OffsetDateTime to = created.get(20).getCreatedTimestamp();
+        List<TransactionResponse> page = transactionService.listTransactions(ACCOUNT_NUMBER, null, 1000, from, to).getTransactions();
+        assertFalse(page.isEmpty());
+        for (TransactionResponse tx : page) {
+            assertFalse(tx.getCreatedTimestamp().isBefore(from));
+            assertTrue(tx.getCreatedTimestamp().isBefore(to));
+        }
+        assertTrue(page.contains(created.get(5)));
+        assertFalse(page.contains(created.get(20)));
+    }
+
+    @Test
+    void testListTransactions_emptyAccountAndInvalidCursor() {
+        ListTransactionsResponse page = transactionService.listTransactions("01000002", null, 10, null, null);
+        assertTrue(page.getTransactions().isEmpty());
+        assertNull(page.getNextCursor());
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.listTransactions(ACCOUNT_NUMBER, "not a cursor", 10, null, null));
+    }
+}
@@ -0,0 +1,155 @@
+package org.banking.service.transactions;
+
+import org.banking.service.controller.TransferController;
+import org.banking.service.model.BankAccountResponse;
+import org.banking.service.model.TransactionResponse;
+import org.banking.service.model.TransferResponse;
+import org.banking.service.service.AccountService;
+import org.banking.service.service.LedgerService;
+import org.banking.service.util.CannedError;
+import org.banking.service.util.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TransferController.class)
+@Import(IdempotencyConfiguration.class)
+public class TransferControllerTest {
+    private static final String TRANSFER = "{\"fromAccountNumber\":\"01000001\",\"toAccountNumber\":\"01000002\",\"amount\":25.0,\"currency\":\"GBP\",\"reference\":\"rent\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AccountService accountService;
+    @MockBean
+    private LedgerService ledgerService;
+
+    private String getAuthHeader() {
+        return "Bearer " + org.banking.service.util.JwtUtil.generateToken("usr-abc123");
+    }
+
+    private void whenOwned(String accountNumber, String userId) {
+        BankAccountResponse account = new BankAccountResponse();
+        account.setAccountNumber(accountNumber);
+        account.setUserId(userId);
+        when(accountService.fetchAccount(accountNumber)).thenReturn(account);
+    }
+
+    private TransactionResponse leg(String id, String type) {
+        TransactionResponse tx = new TransactionResponse();
+        tx.setId(id);
+        tx.setAmount(25.0);
+        tx.setCurrency("GBP");
+        tx.setType(type);
+        tx.setReference("rent");
+        return tx;
+    }
+
+    @Test
+    void testCreateTransfer() throws Exception {
+        whenOwned("01000001", "usr-abc123");
+        whenOwned("01000002", "usr-abc123");
+        when(ledgerService.transfer(argThat(req -> "01000001".equals(req.getFromAccountNumber())
+                && "01000002".equals(req.getToAccountNumber()) && req.getAmount() == 25.0)))
+                .thenReturn(new TransferResponse(leg("tan-1111111", "withdrawal"), leg("tan-2222222", "deposit")));
+
+        mockMvc.perform(post("/v1/transfers")
+                .header("Authorization", getAuthHeader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TRANSFER))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.withdrawal.id").value("tan-1111111"))
+                .andExpect(jsonPath("$.withdrawal.type").value("withdrawal"))
+                .andExpect(jsonPath("$.deposit.id").value("tan-2222222"))
+                .andExpect(jsonPath("$.deposit.reference").value("rent"));
+    }
+
+    @Test
+    void testCreateTransfer_missingToken() throws Exception {
+        mockMvc.perform(post("/v1/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TRANSFER))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(accountService, ledgerService);
+    }
+
+    @Test
+    void testCreateTransfer_sameAccountAndMissingAmount() throws Exception {
+        mockMvc.perform(post("/v1/transfers")
+                .header("Authorization", getAuthHeader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountNumber\":\"01000001\",\"toAccountNumber\":\"01000001\",\"currency\":\"GBP\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0].field").value("toAccountNumber"))
+                .andExpect(jsonPath("$.details[1].field").value("amount"));
+        verifyNoInteractions(accountService, ledgerService);
+    }
+
+    @Test
+    void testCreateTransfer_rejectsSubPennyAndOversizedAmounts() throws Exception {
+        for (String amount : new String[] {"0.001", "10000000000000.01", "1e16"}) {
+            mockMvc.perform(post("/v1/transfers")
+                    .header("Authorization", getAuthHeader())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TRANSFER.replace("25.0", amount)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.details[0].field").value("amount"));
+        }
+        verifyNoInteractions(accountService, ledgerService);
+    }
+
+    @Test
+    void testCreateTransfer_destinationOwnedByAnotherUser() throws Exception {
+        whenOwned("01000001", "usr-abc123");
+        whenOwned("01000002", "usr-other");
+
+        mockMvc.perform(post("/v1/transfers")
+                .header("Authorization", getAuthHeader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TRANSFER))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void testCreateTransfer_insufficientFunds() throws Exception {
+        whenOwned("01000001", "usr-abc123");
+        whenOwned("01000002", "usr-abc123");
+        when(ledgerService.transfer(any())).thenThrow(ValidationException.unprocessable(CannedError.INSUFFICIENT_FUNDS.message()));
+
+        mockMvc.perform(post("/v1/transfers")
+                .header("Authorization", getAuthHeader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TRANSFER))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Insufficient funds to process transaction"));
+    }
+
+    @Test
+    void testCreateTransfer_idempotencyKeyReplaysTransfer() throws Exception {
+        whenOwned("01000001", "usr-abc123");
+        whenOwned("01000002", "usr-abc123");
+        when(ledgerService.transfer(any()))
+                .thenReturn(new TransferResponse(leg("tan-1111111", "withdrawal"), leg("tan-2222222", "deposit")));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/v1/transfers")
+                    .header("Authorization", getAuthHeader())
+                    .header("Idempotency-Key", "transfer-key")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TRANSFER))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.deposit.id").value("tan-2222222"));
+        }
+        verify(ledgerService, times(1)).transfer(any());
+    }
+}
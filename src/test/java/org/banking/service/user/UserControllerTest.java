@@ -59,6 +59,14 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.id").value("usr-abc123"));
     }
 
+    @Test
+    void testFetchUser_otherUser() throws Exception {
+        mockMvc.perform(get("/v1/users/usr-other")
+                .header("Authorization", getAuthHeader()))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("Forbidden: You can only access your own user details"));
+    }
+
     @Test
     void testFetchUser_invalidUserId() throws Exception {
         mockMvc.perform(get("/v1/users/invalid")
@@ -0,0 +1,50 @@
+package org.banking.service.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CannedErrorTest {
+
+    @Test
+    void testResponse_bodyMatchesJacksonSerialization() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        for (CannedError error : CannedError.values()) {
+            ResponseEntity<Object> response = error.response();
+            assertEquals(error.status(), response.getStatusCode());
+            assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+            assertArrayEquals(mapper.writeValueAsBytes(ErrorUtil.error(error.message())), (byte[]) response.getBody());
+        }
+    }
+
+    @Test
+    void testResponse_isSharedAndReadOnly() {
+        ResponseEntity<Object> response = CannedError.ACCOUNT_NOT_FOUND.response();
+        assertSame(response, CannedError.ACCOUNT_NOT_FOUND.response());
+        assertThrows(UnsupportedOperationException.class, () -> response.getHeaders().add("X-Test", "1"));
+    }
+
+    @Test
+    void testFind_requiresMatchingStatus() {
+        assertSame(CannedError.ACCOUNT_NOT_FOUND, CannedError.find(HttpStatus.NOT_FOUND, "Account not found"));
+        assertNull(CannedError.find(HttpStatus.FORBIDDEN, "Account not found"));
+        assertNull(CannedError.find(HttpStatus.NOT_FOUND, "Something else"));
+        assertNull(CannedError.find(HttpStatus.NOT_FOUND, null));
+    }
+
+    @Test
+    void testToResponse_usesCannedResponseForFixedMessages() {
+        assertSame(CannedError.UNAUTHORIZED.response(),
+                ErrorUtil.toResponse(ValidationException.unauthorized("Invalid or expired JWT token")));
+        assertSame(CannedError.FORBIDDEN_ACCOUNT.response(),
+                ErrorUtil.toResponse(ValidationException.forbidden("Forbidden: You can only access your own bank account")));
+
+        ResponseEntity<Object> other = ErrorUtil.toResponse(ValidationException.notFound("Card not found"));
+        assertEquals(HttpStatus.NOT_FOUND, other.getStatusCode());
+        assertEquals("Card not found", ((org.banking.service.model.ErrorResponse) other.getBody()).getMessage());
+    }
+}
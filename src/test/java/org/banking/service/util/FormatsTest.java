@@ -0,0 +1,120 @@
+package org.banking.service.util;
+
+import org.banking.service.model.CreateBankAccountRequest;
+import org.banking.service.model.CreateTransactionRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks each scanner against the regular expression it replaced, on random strings drawn from
+ * an alphabet weighted towards the characters each format cares about, and on random edits of
+ * valid examples.
+ */
+public class FormatsTest {
+    private static final int SAMPLES = 200_000;
+    private static final String ALPHABET = "0123456789012345usrtanUSRTAN-+@._ azAZ\n٣é１";
+
+    private static void assertMatchesPattern(String regex, Predicate<String> scanner, String... valid) {
+        Pattern pattern = Pattern.compile(regex);
+        Random random = new Random(regex.hashCode());
+        for (int i = 0; i < SAMPLES; i++) {
+            String candidate = i % 2 == 0
+                    ? randomString(random, random.nextInt(20))
+                    : mutate(random, valid[random.nextInt(valid.length)]);
+            assertEquals(pattern.matcher(candidate).matches(), scanner.test(candidate), () -> regex + " on \"" + candidate + "\"");
+        }
+        for (String example : valid) {
+            assertTrue(scanner.test(example), example);
+        }
+        assertFalse(scanner.test(null));
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+
+    private static String mutate(Random random, String valid) {
+        StringBuilder sb = new StringBuilder(valid);
+        int edits = 1 + random.nextInt(2);
+        for (int i = 0; i < edits; i++) {
+            int at = random.nextInt(sb.length() + 1);
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (random.nextInt(4)) {
+                case 0 -> sb.insert(at, c);
+                case 1 -> { if (at < sb.length()) sb.deleteCharAt(at); }
+                case 2 -> { if (at < sb.length()) sb.setCharAt(at, c); }
+                default -> { }
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void testAccountNumber_matchesPattern() {
+        assertMatchesPattern("^01\\d{6}$", Formats::isAccountNumber, "01000001", "01999999");
+    }
+
+    @Test
+    void testUserId_matchesPattern() {
+        assertMatchesPattern("^usr-[A-Za-z0-9]+$", Formats::isUserId, "usr-abc123", "usr-Z");
+    }
+
+    @Test
+    void testTransactionId_matchesPattern() {
+        assertMatchesPattern("^tan-[A-Za-z0-9]+$", Formats::isTransactionId, "tan-abc123", "tan-0");
+    }
+
+    @Test
+    void testPhoneNumber_matchesPattern() {
+        assertMatchesPattern("^\\+[1-9]\\d{1,14}$", Formats::isPhoneNumber, "+441234567890", "+12", "+123456789012345");
+    }
+
+    @Test
+    void testEmail_matchesPattern() {
+        assertMatchesPattern("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$", Formats::isEmail, "alice@example.com", "a+b_c.d-e@x-y.z", "a@b");
+    }
+
+    @Test
+    void testIsBlank_matchesTrim() {
+        Random random = new Random(42);
+        String alphabet = " \t\n\r\u000b\u0000  a";
+        for (int i = 0; i < SAMPLES; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = random.nextInt(6); j > 0; j--) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String candidate = sb.toString();
+            assertEquals(candidate.trim().isEmpty(), Formats.isBlank(candidate), () -> "\"" + candidate + "\"");
+        }
+    }
+
+    @Test
+    void testValidRequests_returnSharedEmptyList() {
+        CreateTransactionRequest transaction = new CreateTransactionRequest();
+        transaction.setAmount(10.0);
+        transaction.setCurrency("GBP");
+        transaction.setType("deposit");
+        assertSame(Collections.emptyList(), ValidationUtil.validateCreateTransactionRequestAll(transaction));
+
+        CreateBankAccountRequest account = new CreateBankAccountRequest();
+        account.setName("Main");
+        account.setAccountType("personal");
+        assertSame(Collections.emptyList(), ValidationUtil.validateCreateBankAccountRequestAll(account));
+    }
+
+    @Test
+    void testInvalidRequest_reportsEveryField() {
+        assertEquals(3, ValidationUtil.validateCreateTransactionRequestAll(new CreateTransactionRequest()).size());
+        assertEquals(2, ValidationUtil.validateCreateBankAccountRequestAll(new CreateBankAccountRequest()).size());
+    }
+}
@@ -0,0 +1,132 @@
+package org.banking.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyStoreTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    private IdempotencyStore<String> store(int maxKeys) {
+        return new IdempotencyStore<>(maxKeys, Duration.ofSeconds(10), result -> !result.startsWith("error"), clock::get);
+    }
+
+    @Test
+    void testExecute_replaysRememberedResult() {
+        IdempotencyStore<String> store = store(10);
+        AtomicInteger runs = new AtomicInteger();
+        assertEquals("tx-1", store.execute("k", "fp", () -> "tx-" + runs.incrementAndGet(), "mismatch"));
+        assertEquals("tx-1", store.execute("k", "fp", () -> "tx-" + runs.incrementAndGet(), "mismatch"));
+        assertEquals("mismatch", store.execute("k", "other", () -> "tx-" + runs.incrementAndGet(), "mismatch"));
+        assertEquals(1, runs.get());
+        assertEquals(1, store.replays());
+    }
+
+    @Test
+    void testExecute_releasesKeyOnErrorResultOrException() {
+        IdempotencyStore<String> store = store(10);
+        assertEquals("error-1", store.execute("k", "fp", () -> "error-1", "mismatch"));
+        assertThrows(IllegalStateException.class, () -> store.execute("k", "fp", () -> {
+            throw new IllegalStateException("boom");
+        }, "mismatch"));
+        assertEquals(0, store.size());
+        assertEquals("tx-1", store.execute("k", "other", () -> "tx-1", "mismatch"));
+    }
+
+    @Test
+    void testExecute_forgetsKeyAfterTtl() {
+        IdempotencyStore<String> store = store(10);
+        store.execute("k", "fp", () -> "tx-1", "mismatch");
+        clock.addAndGet(Duration.ofSeconds(10).toNanos() - 1);
+        assertEquals("tx-1", store.execute("k", "fp", () -> "tx-2", "mismatch"));
+        clock.incrementAndGet();
+        assertEquals("tx-3", store.execute("k", "fp", () -> "tx-3", "mismatch"));
+    }
+
+    @Test
+    void testExecute_evictsExpiredThenOldestKeys() {
+        IdempotencyStore<String> store = store(100);
+        for (int i = 0; i < 50; i++) {
+            store.execute("old-" + i, "fp", () -> "tx", "mismatch");
+        }
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        store.execute("new-0", "fp", () -> "tx", "mismatch");
+        assertEquals(1, store.size());
+
+        for (int i = 1; i < 1_000; i++) {
+            store.execute("new-" + i, "fp", () -> "tx", "mismatch");
+            assertTrue(store.size() <= 100);
+        }
+        assertEquals("tx", store.execute("new-999", "fp", () -> "rerun", "mismatch"));
+        assertEquals("rerun", store.execute("new-0", "fp", () -> "rerun", "mismatch"));
+    }
+
+    @Test
+    void testExecute_concurrentDuplicatesRunOnce() throws Exception {
+        IdempotencyStore<String> store = new IdempotencyStore<>(1_000, Duration.ofMinutes(1), result -> true);
+        int threads = 16;
+        for (int round = 0; round < 50; round++) {
+            String key = "key-" + round;
+            AtomicInteger runs = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<String>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return store.execute(key, "fp", () -> {
+                        int run = runs.incrementAndGet();
+                        try {
+                            Thread.sleep(2);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "tx-" + run;
+                    }, "mismatch");
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("tx-1", result.get(10, TimeUnit.SECONDS));
+            }
+            executor.shutdown();
+            assertEquals(1, runs.get());
+        }
+    }
+
+    @Test
+    void testExecute_waitersRetryAfterFailedRun() throws Exception {
+        IdempotencyStore<String> store = store(10);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<String> first = executor.submit(() -> store.execute("k", "fp", () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "error-1";
+        }, "mismatch"));
+        running.await();
+        Future<String> second = executor.submit(() -> store.execute("k", "fp", () -> "tx-2", "mismatch"));
+        Thread.sleep(20);
+        assertFalse(second.isDone());
+        release.countDown();
+        assertEquals("error-1", first.get(10, TimeUnit.SECONDS));
+        assertEquals("tx-2", second.get(10, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+}
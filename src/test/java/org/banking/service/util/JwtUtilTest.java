@@ -0,0 +1,34 @@
+package org.banking.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+
+    @Test
+    void testValidateToken_repeatValidationIsServedFromCache() {
+        String token = JwtUtil.generateToken("usr-cache1");
+        long hits = JwtUtil.tokenCache().hits();
+
+        assertEquals("usr-cache1", JwtUtil.validateTokenAndGetSubject(token));
+        assertEquals("usr-cache1", JwtUtil.validateTokenAndGetSubject(token));
+
+        assertTrue(JwtUtil.tokenCache().hits() > hits);
+    }
+
+    @Test
+    void testValidateToken_tamperedTokenIsRejectedAfterCaching() {
+        String token = JwtUtil.generateToken("usr-cache2");
+        JwtUtil.validateTokenAndGetSubject(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(IllegalArgumentException.class, () -> JwtUtil.validateTokenAndGetSubject(tampered));
+    }
+
+    @Test
+    void testValidateToken_nullAndGarbageAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> JwtUtil.validateTokenAndGetSubject(null));
+        assertThrows(IllegalArgumentException.class, () -> JwtUtil.validateTokenAndGetSubject("not-a-token"));
+    }
+}
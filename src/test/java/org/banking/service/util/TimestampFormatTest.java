@@ -0,0 +1,35 @@
+package org.banking.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimestampFormatTest {
+
+    @Test
+    void testFormat_matchesIsoOffsetDateTime() {
+        Random random = new Random(42);
+        int[] nanos = {0, 1, 10, 100_000, 120_000_000, 999_999_999, 376_774_381, 500_000_000};
+        for (int i = 0; i < 200_000; i++) {
+            long epochSecond = random.nextInt(4) == 0 ? 1_700_000_000L + random.nextInt(3) : random.nextLong() % 250_000_000_000L;
+            int nano = random.nextBoolean() ? nanos[random.nextInt(nanos.length)] : random.nextInt(1_000_000_000);
+            ZoneOffset offset = random.nextInt(3) == 0 ? ZoneOffset.UTC : ZoneOffset.ofTotalSeconds(random.nextInt(36_001) - 18_000);
+            OffsetDateTime value = OffsetDateTime.ofInstant(java.time.Instant.ofEpochSecond(epochSecond, nano), offset);
+            assertEquals(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(value), TimestampFormat.format(value), value::toString);
+        }
+    }
+
+    @Test
+    void testFormat_sameSecondDifferentOffset() {
+        OffsetDateTime utc = OffsetDateTime.of(2024, 5, 1, 9, 30, 15, 250_000_000, ZoneOffset.UTC);
+        OffsetDateTime bst = utc.withOffsetSameInstant(ZoneOffset.ofHours(1));
+        assertEquals("2024-05-01T09:30:15.25Z", TimestampFormat.format(utc));
+        assertEquals("2024-05-01T10:30:15.25+01:00", TimestampFormat.format(bst));
+        assertEquals("2024-05-01T09:30:15Z", TimestampFormat.format(utc.withNano(0)));
+    }
+}
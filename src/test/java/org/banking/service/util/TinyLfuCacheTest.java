@@ -0,0 +1,81 @@
+package org.banking.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TinyLfuCacheTest {
+
+    private static void load(TinyLfuCache<String, String> cache, String key) {
+        if (cache.get(key) == null) {
+            cache.put(key, "value-" + key, cache.stamp(key));
+        }
+    }
+
+    @Test
+    void testGet_countsHitsAndMisses() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+        assertEquals(0.0, cache.hitRate());
+        load(cache, "usr-1");
+        assertEquals("value-usr-1", cache.get("usr-1"));
+        assertEquals("value-usr-1", cache.get("usr-1"));
+        assertNull(cache.get("usr-2"));
+
+        assertEquals(2, cache.hits());
+        assertEquals(2, cache.misses());
+        assertEquals(0.5, cache.hitRate());
+    }
+
+    @Test
+    void testInvalidate_dropsEntryAndValuesComputedBeforeIt() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+        load(cache, "usr-1");
+        cache.invalidate("usr-1");
+        assertNull(cache.get("usr-1"));
+
+        long stamp = cache.stamp("usr-1");
+        cache.invalidate("usr-1");
+        cache.put("usr-1", "stale", stamp);
+        assertNull(cache.get("usr-1"));
+        assertEquals(0, cache.size());
+
+        cache.put("usr-1", "fresh", cache.stamp("usr-1"));
+        assertEquals("fresh", cache.get("usr-1"));
+    }
+
+    @Test
+    void testPut_staysWithinSizeCap() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100);
+        for (int i = 0; i < 10_000; i++) {
+            load(cache, "usr-" + i);
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(100, cache.size());
+        assertEquals(9_900, cache.evictions());
+    }
+
+    @Test
+    void testAdmission_keepsFrequentKeysThroughAScan() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                load(cache, "hot-" + i);
+            }
+        }
+        // One-off keys stream through while the hot keys are still requested now and then; an LRU of
+        // the same size would have evicted every hot key by the end.
+        for (int i = 0; i < 5_000; i++) {
+            load(cache, "scan-" + i);
+            if (i % 100 == 99) {
+                for (int h = 0; h < 50; h++) {
+                    load(cache, "hot-" + h);
+                }
+            }
+        }
+        int kept = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot-" + i) != null) kept++;
+        }
+        assertEquals(50, kept);
+    }
+}
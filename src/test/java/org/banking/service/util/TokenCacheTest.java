@@ -0,0 +1,55 @@
+package org.banking.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenCacheTest {
+
+    @Test
+    void testGet_servesEntryUntilExpiryInclusive() {
+        TokenCache cache = new TokenCache(10);
+        cache.put("token", "usr-abc123", 1_000, 0);
+
+        assertEquals("usr-abc123", cache.get("token", 999));
+        assertEquals("usr-abc123", cache.get("token", 1_000));
+        assertNull(cache.get("token", 1_001));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testGet_countsHitsAndMisses() {
+        TokenCache cache = new TokenCache(10);
+        assertNull(cache.get("token", 0));
+        cache.put("token", "usr-abc123", 1_000, 0);
+        cache.get("token", 1);
+        cache.get("token", 2);
+
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void testPut_staysWithinSizeCap() {
+        TokenCache cache = new TokenCache(64);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("token-" + i, "usr-" + i, Long.MAX_VALUE, 0);
+            assertTrue(cache.size() <= 64);
+        }
+        assertEquals("usr-999", cache.get("token-999", 0));
+    }
+
+    @Test
+    void testPut_evictsExpiredEntriesFirst() {
+        TokenCache cache = new TokenCache(4);
+        cache.put("live", "usr-live", Long.MAX_VALUE, 0);
+        cache.put("old-1", "usr-1", 10, 0);
+        cache.put("old-2", "usr-2", 10, 0);
+        cache.put("old-3", "usr-3", 10, 0);
+        cache.put("new", "usr-new", Long.MAX_VALUE, 100);
+
+        assertEquals(2, cache.size());
+        assertEquals("usr-live", cache.get("live", 100));
+        assertEquals("usr-new", cache.get("new", 100));
+    }
+}
@@ -0,0 +1,103 @@
+package org.banking.service.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.banking.service.model.ResponseSerializers;
+import org.banking.service.model.TransactionResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionExportTest {
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(ResponseSerializers.module()).build();
+
+    private TransactionResponse transaction(String id, double amount, String reference) {
+        TransactionResponse transaction = new TransactionResponse();
+        transaction.setId(id);
+        transaction.setAmount(amount);
+        transaction.setCurrency("GBP");
+        transaction.setType("deposit");
+        transaction.setReference(reference);
+        transaction.setCreatedTimestamp(OffsetDateTime.of(2024, 5, 1, 9, 30, 15, 250_000_000, ZoneOffset.UTC));
+        return transaction;
+    }
+
+    @Test
+    void testWriteNdjson_oneSerializedTransactionPerLine() throws IOException {
+        List<TransactionResponse> transactions = List.of(transaction("tan-1", 10.5, "Rent"), transaction("tan-2", 3, null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransactionExport.writeNdjson(transactions, mapper, out);
+
+        String expected = mapper.writeValueAsString(transactions.get(0)) + "\n" + mapper.writeValueAsString(transactions.get(1)) + "\n";
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWriteCsv_quotesSpecialCharacters() throws IOException {
+        List<TransactionResponse> transactions = List.of(
+                transaction("tan-1", 10.5, "Rent, May"),
+                transaction("tan-2", 3, "Say \"hi\"\nthere"),
+                transaction("tan-3", 0.1, null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransactionExport.writeCsv(transactions, out);
+
+        assertEquals("id,amount,currency,type,reference,userId,createdTimestamp\r\n"
+                + "tan-1,10.5,GBP,deposit,\"Rent, May\",,2024-05-01T09:30:15.25Z\r\n"
+                + "tan-2,3.0,GBP,deposit,\"Say \"\"hi\"\"\nthere\",,2024-05-01T09:30:15.25Z\r\n"
+                + "tan-3,0.1,GBP,deposit,,,2024-05-01T09:30:15.25Z\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWrite_flushesInChunks() throws IOException {
+        List<TransactionResponse> transactions = new ArrayList<>();
+        for (int i = 0; i < 5 * TransactionExport.FLUSH_EVERY; i++) {
+            transactions.add(transaction("tan-" + i, i, "Ref " + i));
+        }
+        for (TransactionExport.Format format : TransactionExport.Format.values()) {
+            FlushCountingStream out = new FlushCountingStream();
+            TransactionExport.write(format, transactions, mapper, out);
+            assertTrue(out.flushes >= 5, format + " flushed " + out.flushes + " times");
+            assertTrue(out.bytes > 5 * TransactionExport.FLUSH_EVERY * 50);
+        }
+    }
+
+    @Test
+    void testFormat_parsesParameter() {
+        assertEquals(TransactionExport.Format.NDJSON, TransactionExport.format(null));
+        assertEquals(TransactionExport.Format.CSV, TransactionExport.format("CSV"));
+        ValidationException ex = assertThrows(ValidationException.class, () -> TransactionExport.format("xml"));
+        assertEquals("format", ex.getField());
+    }
+
+    private static final class FlushCountingStream extends OutputStream {
+        int flushes;
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}